@@ -0,0 +1,99 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    BenchmarkData.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.benchmarks.clusterers;
+
+import weka.clusterers.CLARANS;
+import weka.clusterers.Clusterer;
+import weka.clusterers.EM;
+import weka.clusterers.FarthestFirst;
+import weka.clusterers.HierarchicalClusterer;
+import weka.clusterers.SimpleKMeans;
+import weka.core.Instances;
+import weka.core.TestInstances;
+
+/**
+ * Data sets and clusterers shared by the clusterer benchmarks.
+ *
+ * @version $Revision$
+ */
+public class BenchmarkData {
+
+  /**
+   * Generates a data set of random numeric attributes without a class.
+   *
+   * @param numInstances the number of instances
+   * @param numAttributes the number of numeric attributes
+   * @param seed the seed for the random values
+   * @return the data set
+   * @throws Exception if the data cannot be generated
+   */
+  public static Instances generate(int numInstances, int numAttributes,
+    int seed) throws Exception {
+
+    TestInstances test = new TestInstances();
+    test.setSeed(seed);
+    test.setNumInstances(numInstances);
+    test.setNumNominal(0);
+    test.setNumNumeric(numAttributes);
+    test.setNoClass(true);
+
+    return test.generate();
+  }
+
+  /**
+   * Creates a clusterer with its default settings apart from the number of
+   * clusters.
+   *
+   * @param name the simple class name of the clusterer
+   * @param numClusters the number of clusters
+   * @return the clusterer
+   * @throws Exception if the name is unknown or the number of clusters is
+   *           invalid
+   */
+  public static Clusterer newClusterer(String name, int numClusters)
+    throws Exception {
+
+    if (name.equals("CLARANS")) {
+      CLARANS result = new CLARANS();
+      result.setNumClusters(numClusters);
+      return result;
+    } else if (name.equals("SimpleKMeans")) {
+      SimpleKMeans result = new SimpleKMeans();
+      result.setNumClusters(numClusters);
+      return result;
+    } else if (name.equals("FarthestFirst")) {
+      FarthestFirst result = new FarthestFirst();
+      result.setNumClusters(numClusters);
+      return result;
+    } else if (name.equals("EM")) {
+      EM result = new EM();
+      result.setNumClusters(numClusters);
+      return result;
+    } else if (name.equals("HierarchicalClusterer")) {
+      HierarchicalClusterer result = new HierarchicalClusterer();
+      result.setNumClusters(numClusters);
+      return result;
+    }
+
+    throw new IllegalArgumentException("Unknown clusterer: " + name);
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    ClustererBenchmark.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.benchmarks.clusterers;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import weka.clusterers.Clusterer;
+import weka.core.Instances;
+
+/**
+ * Throughput of building the partitioning clusterers and of assigning
+ * instances with them, on random numeric data of growing size, dimension and
+ * number of clusters.
+ *
+ * @version $Revision$
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClustererBenchmark {
+
+  /** the clusterer, see BenchmarkData.newClusterer */
+  @Param({ "CLARANS", "SimpleKMeans", "FarthestFirst", "EM" })
+  public String clusterer;
+
+  /** the number of instances */
+  @Param({ "1000", "10000" })
+  public int n;
+
+  /** the number of attributes */
+  @Param({ "2", "16" })
+  public int d;
+
+  /** the number of clusters */
+  @Param({ "4", "32" })
+  public int k;
+
+  /** the training data */
+  protected Instances m_Data;
+
+  /** the clusterer built on the training data */
+  protected Clusterer m_Trained;
+
+  /** the next instance to assign */
+  protected int m_Next;
+
+  /**
+   * Generates the data and builds the clusterer to assign instances with.
+   *
+   * @throws Exception if the clusterer cannot be built
+   */
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    m_Data = BenchmarkData.generate(n, d, 1);
+    m_Trained = BenchmarkData.newClusterer(clusterer, k);
+    m_Trained.buildClusterer(m_Data);
+  }
+
+  /**
+   * Builds the clusterer on the training data.
+   *
+   * @return the clusterer
+   * @throws Exception if the clusterer cannot be built
+   */
+  @Benchmark
+  public Clusterer buildClusterer() throws Exception {
+    Clusterer result = BenchmarkData.newClusterer(clusterer, k);
+    result.buildClusterer(m_Data);
+
+    return result;
+  }
+
+  /**
+   * Assigns the next training instance to a cluster.
+   *
+   * @return the cluster
+   * @throws Exception if the instance cannot be clustered
+   */
+  @Benchmark
+  public int clusterInstance() throws Exception {
+    int result = m_Trained.clusterInstance(m_Data.instance(m_Next));
+    m_Next = (m_Next + 1) % m_Data.numInstances();
+
+    return result;
+  }
+}
@@ -1,341 +1,3888 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    CLARANS.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
 package weka.clusterers;
 
-import weka.core.*;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleBiFunction;
+
+import weka.clusterers.medoids.CanopyIndex;
+import weka.clusterers.medoids.CanopyMedoidSearch;
+import weka.clusterers.medoids.DistanceColumnCache;
+import weka.clusterers.medoids.DistanceMatrixCache;
+import weka.clusterers.medoids.FastMedoidSearch;
+import weka.clusterers.medoids.FixedRangesEuclideanDistance;
+import weka.clusterers.medoids.FocusedMedoidSearch;
+import weka.clusterers.medoids.KMedoidsPlusPlus;
+import weka.clusterers.medoids.MedoidSearch;
+import weka.clusterers.medoids.MedoidSearchEvent;
+import weka.clusterers.medoids.MedoidSearchListener;
+import weka.clusterers.medoids.MedoidSolution;
+import weka.clusterers.medoids.NumericPointDistance;
+import weka.clusterers.medoids.PointDistance;
+import weka.clusterers.medoids.SearchBudget;
+import weka.core.Capabilities;
+import weka.core.Capabilities.Capability;
+import weka.core.DenseInstance;
+import weka.core.DistanceFunction;
+import weka.core.EuclideanDistance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.NormalizableDistance;
+import weka.core.Option;
+import weka.core.RevisionUtils;
+import weka.core.SelectedTag;
+import weka.core.SerializedObject;
+import weka.core.Tag;
+import weka.core.TechnicalInformation;
+import weka.core.TechnicalInformation.Field;
+import weka.core.TechnicalInformation.Type;
+import weka.core.TechnicalInformationHandler;
+import weka.core.Utils;
+import weka.core.converters.ConverterUtils.DataSource;
+import weka.core.neighboursearch.KDTree;
+import weka.core.neighboursearch.NearestNeighbourSearch;
 import weka.filters.Filter;
 import weka.filters.unsupervised.attribute.ReplaceMissingValues;
 
-import java.io.Serializable;
-import java.util.*;
-import java.util.function.ToDoubleBiFunction;
-import java.util.stream.IntStream;
+/**
+ <!-- globalinfo-start -->
+ * Cluster data using the CLARANS (Clustering Large Applications based on
+ * RANdomized Search) k-medoids algorithm. The search moves through the graph
+ * of all sets of k medoids, where two nodes are neighbours if they differ in
+ * a single medoid. Starting from a random node, random neighbours are examined
+ * and the first one with a lower cost is moved to. A node is taken as a local
+ * minimum once maximumNeighbor neighbours in a row failed to improve the cost.
+ * The best of numLocal local minima is returned. The start nodes are chosen
+ * either at random or with k-medoids++ seeding. For large data sets the
+ * search can be run on several random samples instead, as in CLARA, keeping
+ * the medoids of the sample that fit all instances best. Given a range of
+ * numbers of clusters, the number of clusters is selected by the medoid
+ * silhouette or the elbow of the cost curve; the searches for neighbouring
+ * numbers of clusters start from each other's medoids. For more information see:<br/>
+ * <br/>
+ * R. T. Ng, J. Han (2002). CLARANS: A Method for Clustering Objects for
+ * Spatial Data Mining. IEEE Transactions on Knowledge and Data Engineering.
+ * 14(5):1003-1016.
+ * <p/>
+ <!-- globalinfo-end -->
+ *
+ <!-- technical-bibtex-start -->
+ * BibTeX:
+ * <pre>
+ * &#64;article{Ng2002,
+ *    author = {R. T. Ng and J. Han},
+ *    journal = {IEEE Transactions on Knowledge and Data Engineering},
+ *    number = {5},
+ *    pages = {1003-1016},
+ *    title = {CLARANS: A Method for Clustering Objects for Spatial Data Mining},
+ *    volume = {14},
+ *    year = {2002}
+ * }
+ * </pre>
+ * <p/>
+ <!-- technical-bibtex-end -->
+ *
+ <!-- options-start -->
+ * Valid options are: <p/>
+ *
+ * <pre> -clusters &lt;integer or range&gt;
+ *  Number of clusters, or a range of numbers of clusters
+ *  to select from (e.g. 2-30).
+ *  (default 3).</pre>
+ *
+ * <pre> -k-selection &lt;num&gt;
+ *  Criterion to select the number of clusters with.
+ *  0 = medoid silhouette, 1 = elbow.
+ *  (default = 0)</pre>
+ *
+ * <pre> -numlocal &lt;integer&gt;
+ *  The number of local minima obtained (number of local searches).
+ *  (default 6).</pre>
+ *
+ * <pre> -maximumneighbor &lt;integer&gt;
+ *  The maximum number of neighbors examined in a row
+ *  before a node is taken as a local minimum.
+ *  At least min(100, k*(n-k)) neighbors are examined.
+ *  (default 4).</pre>
+ *
+ * <pre> -init
+ *  Initialization method to use.
+ *  0 = random, 1 = k-medoids++.
+ *  (default = 1)</pre>
+ *
+ * <pre> -search &lt;num&gt;
+ *  Search strategy to use.
+ *  0 = CLARANS, 1 = FastCLARANS.
+ *  (default = 0)</pre>
+ *
+ * <pre> -focus
+ *  Evaluate swaps only on the instances whose nearest medoid
+ *  can change. Requires a metric distance function.
+ *  Only applies to the CLARANS search strategy.</pre>
+ *
+ * <pre> -C
+ *  Use canopies to reduce the number of distance calculations
+ *  when evaluating swaps. Only applies to the CLARANS search strategy.</pre>
+ *
+ * <pre> -max-candidates &lt;num&gt;
+ *  Maximum number of candidate canopies to retain in memory
+ *  at any one time when using canopy clustering.
+ *  T2 distance plus, data characteristics,
+ *  will determine how many candidate canopies are formed before
+ *  periodic and final pruning are performed, which might result
+ *  in exceess memory consumption. This setting avoids large numbers
+ *  of candidate canopies consuming memory. (default = 100)</pre>
+ *
+ * <pre> -periodic-pruning &lt;num&gt;
+ *  How often to prune low density canopies when using canopy clustering.
+ *  (default = every 10,000 training instances)</pre>
+ *
+ * <pre> -min-density
+ *  Minimum canopy density, when using canopy clustering, below which
+ *   a canopy will be pruned during periodic pruning. (default = 2 instances)</pre>
+ *
+ * <pre> -t2
+ *  The T2 distance to use when using canopy clustering. Values &lt; 0 indicate that
+ *  a heuristic based on attribute std. deviation should be used to set this.
+ *  (default = -1.0)</pre>
+ *
+ * <pre> -t1
+ *  The T1 distance to use when using canopy clustering. A value &lt; 0 is taken as a
+ *  positive multiplier for T2. (default = -1.25)</pre>
+ *
+ * <pre> -A &lt;classname and options&gt;
+ *  Distance function to use.
+ *  (default: weka.core.EuclideanDistance)</pre>
+ *
+ * <pre> -num-slots &lt;num&gt;
+ *  Number of execution slots.
+ *  (default 1 - i.e. no parallelism)</pre>
+ *
+ * <pre> -distance-cache
+ *  Cache the distances between instances, within the
+ *  memory budget given by -distance-cache-size.</pre>
+ *
+ * <pre> -distance-cache-size &lt;MB&gt;
+ *  Memory budget for the distance cache in megabytes.
+ *  (default 256)</pre>
+ *
+ * <pre> -nn-search &lt;classname and options&gt;
+ *  Nearest neighbour search to find the closest medoid with.
+ *  (default: weka.core.neighboursearch.KDTree)</pre>
+ *
+ * <pre> -nn-search-min-clusters &lt;num&gt;
+ *  Minimum number of clusters for which the nearest neighbour
+ *  search is used instead of scanning all medoids.
+ *  (default 256)</pre>
+ *
+ * <pre> -sample-size &lt;num&gt;
+ *  Size of the samples to cluster instead of all instances,
+ *  0 to cluster all instances.
+ *  (default 0)</pre>
+ *
+ * <pre> -num-samples &lt;num&gt;
+ *  Number of samples to cluster when sampling.
+ *  (default 5)</pre>
+ *
+ * <pre> -time-limit &lt;seconds&gt;
+ *  Time limit for the search in seconds, 0 for none.
+ *  (default 0)</pre>
+ *
+ * <pre> -max-evaluations &lt;num&gt;
+ *  Maximum number of neighbors evaluated over all
+ *  local searches, 0 for no limit.
+ *  (default 0)</pre>
+ *
+ * <pre> -update-window &lt;num&gt;
+ *  Number of instances retained to refine the medoids
+ *  with after updates, 0 to retain none.
+ *  (default 2000)</pre>
+ *
+ * <pre> -S &lt;num&gt;
+ *  Random number seed.
+ *  (default 1)</pre>
+ *
+ * <pre> -output-debug-info
+ *  If set, clusterer is run in debug mode and
+ *  may output additional info to the console</pre>
+ *
+ * <pre> -do-not-check-capabilities
+ *  If set, clusterer capabilities are not checked before clusterer is built
+ *  (use with caution).</pre>
+ *
+ <!-- options-end -->
+ *
+ * @version $Revision$
+ * @see RandomizableClusterer
+ */
+public class CLARANS extends RandomizableClusterer implements
+  NumberOfClustersRequestable, UpdateableClusterer,
+  ProgressReportingClusterer, TechnicalInformationHandler {
+
+  /** for serialization */
+  private static final long serialVersionUID = -5428561073402968152L;
 
-public class CLARANS<T> extends RandomizableClusterer implements OptionHandler, Randomizable {
+  /**
+   * The minimum number of neighbours examined before a node is taken as a
+   * local minimum (unless there are fewer neighbours than this).
+   */
+  public static final int MIN_MAX_NEIGHBOR = 100;
 
-    protected List<int[]> clusters;
-    protected List<int[]> current;
-    protected List<int[]> belong;
-    protected List<int[]> optimal_medoids;
-    protected double[] optimal_estimation;
-    protected int number_clusters;
-    protected int num_local;
-    protected int maximumNeighbor;
+  /**
+   * Calculates a distance measure between two objects.
+   *
+   * @param <T> the type of the objects
+   */
+  public interface Distance<T> extends ToDoubleBiFunction<T, T>, Serializable {
 
     /**
-     * replace missing values in training instances
+     * Returns the distance between two objects.
+     *
+     * @param x the first object
+     * @param y the second object
+     * @return the distance
      */
-    protected ReplaceMissingValues ReplaceMissingVal;
+    double d(T x, T y);
+
+    @Override
+    default double applyAsDouble(T x, T y) {
+      return d(x, y);
+    }
+  }
 
-    public CLARANS() {
-        number_clusters = 3;
-        num_local = 6;
-        maximumNeighbor = 4;
+  /**
+   * Point distances over an array of objects and a distance measure for them.
+   *
+   * @param <T> the type of the objects
+   */
+  protected static class ObjectPointDistance<T> implements PointDistance {
 
+    /** for serialization */
+    private static final long serialVersionUID = 2309583446721539018L;
+
+    /** the objects */
+    protected T[] m_Data;
+
+    /** the distance measure */
+    protected Distance<T> m_Distance;
+
+    /**
+     * Constructor.
+     *
+     * @param data the objects
+     * @param distance the distance measure
+     */
+    public ObjectPointDistance(T[] data, Distance<T> distance) {
+      m_Data = data;
+      m_Distance = distance;
     }
-    // constuctor
-    public <T> CLARANS(double distortion, T[] medoids, int[] y, Distance<T> distance) {
-        super();
 
+    @Override
+    public int numPoints() {
+      return m_Data.length;
     }
 
-    /*   calculate a distance measure between two objects */
-    public interface Distance<T> extends ToDoubleBiFunction<T,T>, Serializable {
-        double d(T x, T y);
+    @Override
+    public double distance(int i, int j) {
+      return m_Distance.d(m_Data[i], m_Data[j]);
     }
+  }
 
-    /* Clustering data into k clusters.
-    * n = number of data
-    * k = number clusters.
-     * */
-    public static <T> CLARANS<Object> fit(T[] data, Distance<T> distance, int k, int maximumNeighbor) {
-        if (maximumNeighbor <= 0) {
-            throw new IllegalArgumentException("Choose valid maximum neighbor > 0");
-        }
-        int n = data.length;
+  /**
+   * replace missing values in training instances
+   */
+  protected ReplaceMissingValues m_ReplaceMissingFilter;
 
-        if (k >= n) {
-            throw new IllegalArgumentException("Number of clusters is too large:" + k + ". it should be >=" + n) ;
-        }
+  /**
+   * number of clusters to generate
+   */
+  protected int m_NumClusters = 3;
 
-        if (maximumNeighbor > n) {
-            throw new IllegalArgumentException("Maximum Neighbor should be > " + n);
-        }
+  /**
+   * the largest number of clusters to try; if larger than m_NumClusters, the
+   * number of clusters is selected from m_NumClusters to m_MaxNumClusters
+   */
+  protected int m_MaxNumClusters = 0;
 
-        int minmax = 100;
-        if (k * (n - k) < minmax) {
-            minmax = k * (n - k);
-        }
-        if (maximumNeighbor < minmax) {
-            maximumNeighbor = minmax;
-        }
+  /**
+   * number of local minima (local searches) to obtain
+   */
+  protected int m_NumLocal = 6;
 
-        @SuppressWarnings("unchecked")
-        T[] medoids = (T[]) java.lang.reflect.Array.newInstance(data.getClass().getComponentType(), k);
-        T[] __Medoids = medoids.clone();
-        int[] y = new int[n];
-        int[] __Y = new int[n];
-        double[] __D = new double[n];
-
-        // clarans need a initial clustering configuration as a seed.
-        double[] d = seed(data, medoids, y, distance);
-        double distortion = Calculate.sum(d);
-
-        System.arraycopy(medoids, 0, __Medoids, 0, k);
-        System.arraycopy(y, 0, __Y, 0, n);
-        System.arraycopy(d, 0, __D, 0, n);
-
-        for (int neighborCount = 1; neighborCount <= maximumNeighbor; neighborCount++) {
-            double randomNeighborDistortion = getRandomNeighbor(data, __Medoids, __Y, __D, distance);
-            if (randomNeighborDistortion < distortion) {
-                neighborCount = 0;
-                distortion = randomNeighborDistortion;
-                System.arraycopy(__Medoids, 0, medoids, 0, k);
-                System.arraycopy(__Y, 0, y, 0, n);
-                System.arraycopy(__D, 0, d, 0, n);
-            } else {
-                System.arraycopy(medoids, 0, __Medoids, 0, k);
-                System.arraycopy(y, 0, __Y, 0, n);
-                System.arraycopy(d, 0, __D, 0, n);
-            }
-        }
-        return new CLARANS(distortion, medoids, y, distance);
-    }
-    private static <T> double getRandomNeighbor(T[] data, T[] medoids, int[] y, double[] d, Distance<T> distance) {
-        return 0;
-    }
-
-    //seed
-    private static <T> double[] seed(T[] data, T[] medoids, int[] y, Distance<T> distance) {
-        int n = data.length;
-        int k = medoids.length;
-        double[] d = new double[n];
-        medoids[0] = data[Calculate.randomInt(n)];
-        Arrays.fill(d, Double.MAX_VALUE);
-
-        for (int j = 1; j <= k; j++) {
-            final int prev = j - 1;
-            final T medoid = medoids[prev];
-            IntStream.range(0, n).parallel().forEach(i -> {
-                // compute the distance
-                double dist = distance.applyAsDouble(data[i], medoid);
-                if (dist < d[i]) {
-                    d[i] = dist;
-                    y[i] = prev;
-                }
-            });
-
-            if (j < k) {
-                double cost = 0.0;
-                double cutoff = Calculate.randomInt(n) * Calculate.sum(d);
-                for (int index = 0; index < n; index++) {
-                    cost += d[index];
-                    if (cost >= cutoff) {
-                        medoids[j] = data[index];
-                        break;
-                    }
-                }
-            }
-        }
-        return d;
-    }
+  /**
+   * the maximum number of neighbours examined in a row
+   */
+  protected int m_MaxNeighbor = 4;
+
+  public static final int RANDOM = 0;
+  public static final int KMEDOIDS_PLUS_PLUS = 1;
+
+  /** Initialization methods */
+  public static final Tag[] TAGS_SELECTION = { new Tag(RANDOM, "Random"),
+    new Tag(KMEDOIDS_PLUS_PLUS, "k-medoids++") };
+
+  /** The initialization method to use */
+  protected int m_initializationMethod = KMEDOIDS_PLUS_PLUS;
+
+  /** the distance function used. */
+  protected DistanceFunction m_DistanceFunction = new EuclideanDistance();
+
+  public static final int SEARCH_CLARANS = 0;
+  public static final int SEARCH_FASTCLARANS = 1;
+
+  /** Search strategies */
+  public static final Tag[] TAGS_SEARCH = {
+    new Tag(SEARCH_CLARANS, "CLARANS"),
+    new Tag(SEARCH_FASTCLARANS, "FastCLARANS") };
+
+  /** The search strategy to use */
+  protected int m_SearchStrategy = SEARCH_CLARANS;
+
+  public static final int SELECT_SILHOUETTE = 0;
+  public static final int SELECT_ELBOW = 1;
+
+  /** Criteria to select the number of clusters with */
+  public static final Tag[] TAGS_SELECT_K = {
+    new Tag(SELECT_SILHOUETTE, "Medoid silhouette"),
+    new Tag(SELECT_ELBOW, "Elbow") };
+
+  /** The criterion to select the number of clusters with */
+  protected int m_NumClustersSelection = SELECT_SILHOUETTE;
+
+  /**
+   * the number of consecutive numbers of clusters searched one after the
+   * other when selecting the number of clusters, each starting from the
+   * medoids of the previous one plus one
+   */
+  public static final int SWEEP_RUN_LENGTH = 4;
+
+  /** the numbers of clusters tried by the last build, null if none */
+  protected int[] m_SweepNumClusters;
+
+  /** the cost for each number of clusters tried */
+  protected double[] m_SweepCost;
+
+  /** the medoid silhouette for each number of clusters tried */
+  protected double[] m_SweepSilhouette;
+
+  /** whether to focus swap evaluation on the instances that may be affected */
+  protected boolean m_Focus = false;
+
+  /**
+   * Whether to use canopies to skip distance calculations when evaluating
+   * swaps
+   */
+  protected boolean m_speedUpDistanceCompWithCanopies = false;
+
+  /**
+   * The maximum number of candidate canopies to hold in memory at any one time
+   * (if using canopy clustering)
+   */
+  protected int m_maxCanopyCandidates = 100;
+
+  /**
+   * Prune low-density candidate canopies after every x instances have been seen
+   * (if using canopy clustering)
+   */
+  protected int m_periodicPruningRate = 10000;
+
+  /**
+   * The minimum cluster density (according to T2 distance) allowed. Used when
+   * periodically pruning candidate canopies (if using canopy clustering)
+   */
+  protected double m_minClusterDensity = 2;
+
+  /** The t2 radius to pass through to Canopy */
+  protected double m_t2 = Canopy.DEFAULT_T2;
+
+  /** The t1 radius to pass through to Canopy */
+  protected double m_t1 = Canopy.DEFAULT_T1;
+
+  /** The canopy clusterer of the last build (if being used) */
+  protected Canopy m_canopyClusters;
+
+  /** the canopies of the instances being clustered, null if not used */
+  protected transient CanopyIndex m_CanopyIndex;
+
+  /**
+   * the number of distance calculations that focus or canopies avoided when
+   * evaluating swaps in the last search for medoids
+   */
+  protected long m_NumDistanceCalcsAvoided;
+
+  /** collects the distance calculations avoided by the running searches */
+  protected transient AtomicLong m_DistanceCalcsAvoided;
+
+  /** Number of threads to run */
+  protected int m_executionSlots = 1;
+
+  /** For parallel execution mode */
+  protected transient ExecutorService m_executorPool;
+
+  /** whether to cache distances between instances */
+  protected boolean m_CacheDistances = false;
+
+  /** the memory budget for the distance cache in megabytes */
+  protected int m_DistanceCacheSize = 256;
+
+  /** the nearest neighbour search to find the closest medoid with */
+  protected NearestNeighbourSearch m_NNSearch = new KDTree();
+
+  /** the minimum number of clusters for which m_NNSearch is used */
+  protected int m_MinClustersForNNSearch = 256;
+
+  /**
+   * the nearest neighbour search built over the medoids, null if all medoids
+   * are scanned instead
+   */
+  protected NearestNeighbourSearch m_MedoidNNSearch;
+
+  /**
+   * the medoids as a flat array, for assigning instances in bulk; null if
+   * the data is not purely numeric or the distance function is not plain
+   * Euclidean or Manhattan
+   */
+  protected NumericPointDistance m_FlatMedoids;
+
+  /** the size of the samples to cluster, 0 to cluster all instances */
+  protected int m_SampleSize = 0;
 
-    public String globalInfo() {
-        return "Clarans melakukan pencarian cluster terbaik berdasarkan nilai cost minimal atau cost yang paling rendah (mincost)." +
-                "Pencarian nilai mincost dilakukan dengan membandingkan node acak current dan neighbor. " +
-                "Mincost terbaik dianggap sebagai solusi paling optimal (best node). " +
-                "Current akan pindah ke node neighbor jika neighbor adalah pilihan yang lebih baik untuk medoid. " +
-                "Jika tidak, berarti local minima (node dengan minimal cost yang terbaik) ditemukan. " +
-                "Seluruh proses diulang beberapa kali untuk menemukan yang lebih baik.";
+  /** the number of samples to cluster */
+  protected int m_NumSamples = 5;
+
+  /** the time limit for the search in seconds, 0 for none */
+  protected double m_TimeLimit = 0;
+
+  /** the maximum number of neighbours evaluated over all searches, 0 for none */
+  protected long m_MaxEvaluations = 0;
+
+  /** the budget of the current build */
+  protected transient SearchBudget m_Budget;
+
+  /** the listeners following the progress of the searches */
+  protected transient List<MedoidSearchListener> m_SearchListeners;
+
+  /** the listeners following the progress of building */
+  protected transient List<ClustererProgressListener> m_ProgressListeners;
+
+  /** whether the search was cut short by the time or evaluation budget */
+  protected boolean m_BudgetExhausted;
+
+  /** the maximum number of instances retained for updating, 0 for none */
+  protected int m_UpdateWindow = 2000;
+
+  /**
+   * the instances the medoids are refined with after updates, a uniform
+   * sample of all instances seen (after replacing missing values)
+   */
+  protected Instances m_Window;
+
+  /** the random number generator for sampling the window */
+  protected Random m_WindowRandom;
+
+  /** the number of instances seen, in training and updates */
+  protected long m_NumSeen;
+
+  /** the number of instances added since the medoids were last fitted */
+  protected long m_NumUpdates;
+
+  /** the sum of the distances of those instances to their medoid */
+  protected double m_UpdateCost;
+
+  /** whether the medoids were refined after updates */
+  protected boolean m_Refined;
+
+  /**
+   * whether cluster sizes and cost were extrapolated from the retained
+   * instances rather than computed over all instances seen
+   */
+  protected boolean m_Estimated;
+
+  /** whether the clusterer was built from samples */
+  protected boolean m_Sampled;
+
+  /**
+   * holds the cluster medoids
+   */
+  protected Instances m_ClusterMedoids;
+
+  /**
+   * the training instances chosen as medoids
+   */
+  protected int[] m_MedoidIndices;
+
+  /**
+   * the cluster each training instance has been assigned to
+   */
+  protected int[] m_Assignments;
+
+  /**
+   * the number of instances in each cluster
+   */
+  protected double[] m_ClusterSizes;
+
+  /**
+   * the sum of the distances of the training instances to their medoid
+   */
+  protected double m_Cost;
+
+  /**
+   * Start the pool of execution threads
+   */
+  protected void startExecutorPool() {
+    if (m_executorPool != null) {
+      m_executorPool.shutdownNow();
     }
 
+    m_executorPool = Executors.newFixedThreadPool(m_executionSlots);
+  }
+
+  /**
+   * Returns a string describing this clusterer
+   *
+   * @return a description of the evaluator suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String globalInfo() {
+    return "Cluster data using the CLARANS (Clustering Large Applications "
+      + "based on RANdomized Search) k-medoids algorithm. The search moves "
+      + "through the graph of all sets of k medoids, where two nodes are "
+      + "neighbours if they differ in a single medoid. Starting from a random "
+      + "node, random neighbours are examined and the first one with a lower "
+      + "cost is moved to. A node is taken as a local minimum once "
+      + "maximumNeighbor neighbours in a row failed to improve the cost. The "
+      + "best of numLocal local minima is returned. Given a range of numbers "
+      + "of clusters, the number of clusters is selected by the medoid "
+      + "silhouette or the elbow of the cost curve; the searches for "
+      + "neighbouring numbers of clusters start from each other's medoids. "
+      + "For more information see:"
+      + "\n\n" + getTechnicalInformation().toString();
+  }
+
+  /**
+   * Returns an instance of a TechnicalInformation object, containing detailed
+   * information about the technical background of this class, e.g., paper
+   * reference or book this class is based on.
+   *
+   * @return the technical information about this class
+   */
+  @Override
+  public TechnicalInformation getTechnicalInformation() {
+    TechnicalInformation result;
+
+    result = new TechnicalInformation(Type.ARTICLE);
+    result.setValue(Field.AUTHOR, "R. T. Ng and J. Han");
+    result.setValue(Field.YEAR, "2002");
+    result.setValue(Field.TITLE,
+      "CLARANS: A Method for Clustering Objects for Spatial Data Mining");
+    result.setValue(Field.JOURNAL,
+      "IEEE Transactions on Knowledge and Data Engineering");
+    result.setValue(Field.VOLUME, "14");
+    result.setValue(Field.NUMBER, "5");
+    result.setValue(Field.PAGES, "1003-1016");
+
+    return result;
+  }
+
+  /**
+   * Returns default capabilities of the clusterer.
+   *
+   * @return the capabilities of this clusterer
+   */
+  @Override
+  public Capabilities getCapabilities() {
+    Capabilities result = super.getCapabilities();
+    result.disableAll();
+    result.enable(Capability.NO_CLASS);
+
+    // attributes
+    result.enable(Capability.NOMINAL_ATTRIBUTES);
+    result.enable(Capability.NUMERIC_ATTRIBUTES);
+    result.enable(Capability.MISSING_VALUES);
+
+    return result;
+  }
+
+  /**
+   * A single CLARANS local search. Each search has its own random number
+   * generator, seeded up front, so the result does not depend on the order in
+   * which the searches are run or on how many of them run concurrently. The
+   * start node can be chosen before the search is submitted, so that
+   * k-medoids++ seeding can itself make use of the executor.
+   */
+  protected static class LocalSearchTask implements Callable<MedoidSolution> {
+
+    /** the distances between the points */
+    protected PointDistance m_Distance;
+
+    /** the number of medoids */
+    protected int m_NumMedoids;
+
+    /** the maximum number of neighbours examined in a row */
+    protected int m_MaxNeighbor;
+
+    /** the initialization method, RANDOM or KMEDOIDS_PLUS_PLUS */
+    protected int m_Initialization;
+
+    /** the random number generator of this search */
+    protected Random m_Random;
+
+    /** the search strategy, SEARCH_CLARANS or SEARCH_FASTCLARANS */
+    protected int m_Strategy = SEARCH_CLARANS;
+
+    /** whether to focus swap evaluation on the points that may be affected */
+    protected boolean m_Focus;
+
+    /** the canopies of the points to skip distances with, null for none */
+    protected CanopyIndex m_Canopies;
+
+    /** the counter to add the distances avoided by the search to */
+    protected AtomicLong m_DistancesAvoided;
+
+    /** the budget shared with the other searches, null for none */
+    protected SearchBudget m_Budget;
+
+    /** the listener to notify of accepted swaps, null for none */
+    protected MedoidSearchListener m_Listener;
+
+    /** the number of this search reported to the listener */
+    protected int m_SearchNumber;
+
+    /** the medoids to start from, null to choose them */
+    protected int[] m_StartMedoids;
+
+    /** the search, null until the start node has been chosen */
+    protected MedoidSearch m_Search;
+
     /**
-     * Returns default capabilities of the clusterer.
+     * Constructor.
      *
-     * @return the capabilities of this clusterer
+     * @param distance the distances between the points
+     * @param numMedoids the number of medoids
+     * @param maxNeighbor the maximum number of neighbours examined in a row
+     * @param initialization the initialization method
+     * @param seed the seed for this search
      */
-    @Override
-    public Capabilities getCapabilities() {
-        Capabilities result = super.getCapabilities();
-        result.disableAll();
-        result.enable(Capabilities.Capability.NO_CLASS);
-
-        // attributes
-        result.enable(Capabilities.Capability.NOMINAL_ATTRIBUTES);
-        result.enable(Capabilities.Capability.NUMERIC_ATTRIBUTES);
-        result.enable(Capabilities.Capability.MISSING_VALUES);
-
-        return result;
+    public LocalSearchTask(PointDistance distance, int numMedoids,
+      int maxNeighbor, int initialization, long seed) {
+      m_Distance = distance;
+      m_NumMedoids = numMedoids;
+      m_MaxNeighbor = maxNeighbor;
+      m_Initialization = initialization;
+      m_Random = new Random(seed);
     }
 
     /**
-     * Generates a clusterer. Has to initialize all fields of the clusterer that
-     * are not being set via options.
+     * Sets the search strategy.
      *
-     * @param data set of instances serving as training data
-     * @throws Exception if the clusterer has not been generated successfully
+     * @param strategy SEARCH_CLARANS or SEARCH_FASTCLARANS
+     * @see FastMedoidSearch
      */
-    @Override
-    public void buildClusterer(Instances data) throws Exception {
-
-        Random r = new Random(getSeed());
-
-        getCapabilities().testWithFail(data);
-        ReplaceMissingVal = new ReplaceMissingValues();
-        Instances instances = new Instances(data);
-        instances.setClassIndex(-1);
-
-        ReplaceMissingVal.setInputFormat(instances);
-        instances = Filter.useFilter(instances, ReplaceMissingVal);
-    }
-    // Returns the number of clusters.
-    @Override
-    public int numberOfClusters() throws Exception {
-        return number_clusters;
+    public void setSearchStrategy(int strategy) {
+      m_Strategy = strategy;
     }
 
     /**
-     * Classifies a given instance.
+     * Sets whether to focus the evaluation of swaps on the points whose
+     * nearest medoid may change. Only applies to the CLARANS strategy. The distance has to be a metric.
      *
-     * @param instance the instance to be assigned to a cluster
-     * @return the number of the assigned cluster as an interger if the class is
-     *         enumerated, otherwise the predicted value
-     * @throws Exception if instance could not be classified successfully
+     * @param focus true to focus the evaluation
+     * @see FocusedMedoidSearch
      */
-    @Override
-    public int clusterInstance(Instance instance) throws Exception {
-        return 0;
+    public void setFocus(boolean focus) {
+      m_Focus = focus;
     }
 
-
     /**
-     * Sets the OptionHandler's options using the given list.
-     * All options will be set (or reset) during this call (i.e. incremental setting of options is not possible).
-     *
-     * Parameters:
-     * options - the list of options as an array of strings
+     * Sets the canopies to skip distance computations with when evaluating
+     * swaps. Only applies to the CLARANS strategy, and takes precedence over
+     * focusing.
      *
-     * Throws:
-     * Exception - if an option is not supported
+     * @param canopies the canopies of the points, null for none
+     * @see CanopyMedoidSearch
+     */
+    public void setCanopies(CanopyIndex canopies) {
+      m_Canopies = canopies;
+    }
+
+    /**
+     * Sets the counter to add the number of distance computations that the
+     * search avoided to once it has finished.
      *
-     * Parses a given list of options.
-     * <p/>
+     * @param counter the counter, null for none
+     */
+    public void setDistancesAvoidedCounter(AtomicLong counter) {
+      m_DistancesAvoided = counter;
+    }
+
+    /**
+     * Sets the medoids to start from instead of choosing them with the
+     * initialization method.
      *
-     <!-- options-start -->
-     * Valid options are: <p/>
+     * @param medoids the point indices of the medoids, null to choose them
+     */
+    public void setStartMedoids(int[] medoids) {
+      m_StartMedoids = medoids;
+    }
+
+    /**
+     * Sets the budget limiting the search.
      *
-     * <pre> -NL &lt;integer&gt;
-     *  The number of local minima obtained (amount of iterations for solving the problems)
-     * </pre>
+     * @param budget the budget, null for none
+     */
+    public void setBudget(SearchBudget budget) {
+      m_Budget = budget;
+    }
+
+    /**
+     * Returns whether the budget of the search is exhausted.
      *
-     * <pre> -MN &lt;integer&gt;
-     *  The maximum number of neighbors examined.</pre>
+     * @return true if there is a budget and it is exhausted
+     */
+    public boolean isBudgetExhausted() {
+      return m_Budget != null && m_Budget.isExhausted();
+    }
+
+    /**
+     * Sets the listener to notify whenever the search accepts a swap.
      *
-     * <pre> -K &lt;integer&gt;
-     *  amount of clusters that should be allocated</pre>
-     <!-- options-end -->
+     * @param listener the listener, null for none
+     * @param searchNumber the number of this search reported to the listener
+     */
+    public void setListener(MedoidSearchListener listener, int searchNumber) {
+      m_Listener = listener;
+      m_SearchNumber = searchNumber;
+    }
+
+    /**
+     * Chooses the start node of the search.
      *
-     * @param options the list of options as an array of strings
-     * @throws Exception if an option is not supported
+     * @param executor the executor for k-medoids++ seeding, null to seed in
+     *          the calling thread
+     * @throws Exception if seeding fails
      */
+    public void initialize(ExecutorService executor) throws Exception {
+      if (m_Strategy == SEARCH_FASTCLARANS) {
+        m_Search = new FastMedoidSearch(m_Distance, m_NumMedoids);
+      } else if (m_Canopies != null) {
+        m_Search = new CanopyMedoidSearch(m_Distance, m_NumMedoids, m_Canopies);
+      } else if (m_Focus) {
+        m_Search = new FocusedMedoidSearch(m_Distance, m_NumMedoids);
+      } else {
+        m_Search = new MedoidSearch(m_Distance, m_NumMedoids);
+      }
+      m_Search.setBudget(m_Budget);
+      m_Search.setListener(m_Listener, m_SearchNumber);
+      if (m_StartMedoids != null) {
+        m_Search.setMedoids(m_StartMedoids);
+      } else if (m_Initialization == KMEDOIDS_PLUS_PLUS) {
+        m_Search.setMedoids(KMedoidsPlusPlus.select(m_Distance, m_NumMedoids,
+          m_Random, executor));
+      } else {
+        m_Search.randomMedoids(m_Random);
+      }
+    }
 
     @Override
-    public void setOptions(String[] options) throws Exception {
+    public MedoidSolution call() throws Exception {
+      if (m_Search == null) {
+        initialize(null);
+      }
+      m_Search.localSearch(m_Random, m_MaxNeighbor);
+      if (m_DistancesAvoided != null) {
+        m_DistancesAvoided.addAndGet(m_Search.getNumDistancesAvoided());
+      }
 
-        String numClusterString = Utils.getOption("clusters", options);
-        if (numClusterString.length() > 0) {
-            setNumberClusters(Integer.parseInt(numClusterString));
-        }
+      return m_Search.getSolution();
+    }
+  }
 
-        String numLoc = Utils.getOption("numlocal", options);
-        if (numLoc.length() > 0) {
-            setNumLocal(Integer.parseInt(numLoc));
-        }
-        String maxiNeighbor = Utils.getOption("maximumneighbor", options);
-        if (maxiNeighbor.length() > 0) {
-            setmaximumNeighbor(Integer.parseInt(maxiNeighbor));
+  /**
+   * Clusters data into k clusters with CLARANS. numLocal local searches are
+   * run, each starting from k medoids chosen with k-medoids++ seeding, and the
+   * solution with the lowest cost is returned.
+   *
+   * @param data the objects to cluster
+   * @param distance the distance measure
+   * @param k the number of clusters
+   * @param maximumNeighbor the maximum number of neighbours examined in a row
+   *          before a node is taken as a local minimum. At least
+   *          min(MIN_MAX_NEIGHBOR, k*(n-k)) neighbours are examined.
+   * @param numLocal the number of local searches
+   * @param random the random number generator to use
+   * @return the best solution found
+   * @throws IllegalArgumentException if the parameters are invalid
+   */
+  public static <T> MedoidSolution fit(T[] data, Distance<T> distance, int k,
+    int maximumNeighbor, int numLocal, Random random) {
+
+    return fit(new ObjectPointDistance<T>(data, distance), k, maximumNeighbor,
+      numLocal, KMEDOIDS_PLUS_PLUS, random);
+  }
+
+  /**
+   * Clusters points into k clusters with CLARANS. numLocal local searches are
+   * run one after the other, and the solution with the lowest cost is
+   * returned.
+   *
+   * @param distance the distances between the points to cluster
+   * @param k the number of clusters
+   * @param maximumNeighbor the maximum number of neighbours examined in a row
+   *          before a node is taken as a local minimum
+   * @param numLocal the number of local searches
+   * @param initialization how the start nodes are chosen, RANDOM or
+   *          KMEDOIDS_PLUS_PLUS
+   * @param random the random number generator to use
+   * @return the best solution found
+   * @throws IllegalArgumentException if the parameters are invalid
+   */
+  public static MedoidSolution fit(PointDistance distance, int k,
+    int maximumNeighbor, int numLocal, int initialization, Random random) {
+
+    try {
+      return fit(distance, k, maximumNeighbor, numLocal, initialization,
+        random, null);
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      // cannot happen without an executor
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Clusters points into k clusters with CLARANS, running the numLocal local
+   * searches concurrently on the given executor. The result is the same as
+   * that of the sequential version for the same random number generator.
+   *
+   * @param distance the distances between the points to cluster; must be safe
+   *          to use from several threads
+   * @param k the number of clusters
+   * @param maximumNeighbor the maximum number of neighbours examined in a row
+   *          before a node is taken as a local minimum
+   * @param numLocal the number of local searches
+   * @param initialization how the start nodes are chosen, RANDOM or
+   *          KMEDOIDS_PLUS_PLUS
+   * @param random the random number generator to use
+   * @param executor the executor to run the searches on, null to run them
+   *          sequentially
+   * @return the best solution found
+   * @throws Exception if the parameters are invalid or a search fails
+   */
+  public static MedoidSolution fit(PointDistance distance, int k,
+    int maximumNeighbor, int numLocal, int initialization, Random random,
+    ExecutorService executor) throws Exception {
+
+    return runLocalSearches(createLocalSearches(distance, k, maximumNeighbor,
+      numLocal, initialization, random), executor);
+  }
+
+  /**
+   * Runs local searches and returns the best solution found. Once the budget
+   * of the searches is exhausted no further searches are started, but at
+   * least one always is, so that there is a solution.
+   *
+   * @param tasks the local searches
+   * @param executor the executor to run the searches on, null to run them
+   *          sequentially
+   * @return the best solution found
+   * @throws Exception if a search fails
+   */
+  protected static MedoidSolution runLocalSearches(List<LocalSearchTask> tasks,
+    ExecutorService executor) throws Exception {
+
+    if (executor == null) {
+      MedoidSolution best = null;
+      for (LocalSearchTask task : tasks) {
+        if (best != null && task.isBudgetExhausted()) {
+          break;
         }
+        best = better(best, task.call());
+      }
+      return best;
+    }
 
-        super.setOptions(options);
+    // seeding is done here rather than in the pool's threads, which would
+    // otherwise block waiting for the chunks they submitted themselves
+    List<Future<MedoidSolution>> results =
+      new ArrayList<Future<MedoidSolution>>();
+    for (LocalSearchTask task : tasks) {
+      if (!results.isEmpty() && task.isBudgetExhausted()) {
+        break;
+      }
+      task.initialize(executor);
+      results.add(executor.submit(task));
+    }
 
+    MedoidSolution best = null;
+    for (Future<MedoidSolution> f : results) {
+      best = better(best, f.get());
     }
 
+    return best;
+  }
 
-    @Override
-    public String[] getOptions(){
-        ArrayList<String> OptionsResult = new ArrayList<String>();
+  /**
+   * Checks the parameters and sets up the local searches, drawing the seed of
+   * each search from the given random number generator.
+   *
+   * @param distance the distances between the points to cluster
+   * @param k the number of clusters
+   * @param maximumNeighbor the maximum number of neighbours examined in a row
+   * @param numLocal the number of local searches
+   * @param initialization the initialization method
+   * @param random the random number generator to use
+   * @return the local searches
+   * @throws IllegalArgumentException if the parameters are invalid
+   */
+  protected static List<LocalSearchTask> createLocalSearches(
+    PointDistance distance, int k, int maximumNeighbor, int numLocal,
+    int initialization, Random random) {
+
+    int n = distance.numPoints();
+    if (k < 1 || k > n) {
+      throw new IllegalArgumentException("Number of clusters must be between "
+        + "1 and the number of instances (" + n + "): " + k);
+    }
+    if (maximumNeighbor <= 0) {
+      throw new IllegalArgumentException(
+        "Maximum number of neighbors must be > 0: " + maximumNeighbor);
+    }
+    if (numLocal <= 0) {
+      throw new IllegalArgumentException(
+        "Number of local searches must be > 0: " + numLocal);
+    }
+
+    maximumNeighbor = effectiveMaxNeighbor(maximumNeighbor, k, n);
+
+    List<LocalSearchTask> result = new ArrayList<LocalSearchTask>(numLocal);
+    for (int i = 0; i < numLocal; i++) {
+      result.add(new LocalSearchTask(distance, k, maximumNeighbor,
+        initialization, random.nextLong()));
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the better of two solutions. Ties go to the first one, so that
+   * the outcome only depends on the order of the local searches.
+   *
+   * @param best the best solution so far, may be null
+   * @param solution the solution to compare against
+   * @return the solution with the lower cost
+   */
+  protected static MedoidSolution better(MedoidSolution best,
+    MedoidSolution solution) {
+    if (best == null || solution.getCost() < best.getCost()) {
+      return solution;
+    }
+    return best;
+  }
 
-        OptionsResult.add("-clusters");
-        OptionsResult.add("" + getNumberClusters());
+  /**
+   * Returns the number of neighbours that are actually examined in a row: the
+   * given maximum, but at least min(MIN_MAX_NEIGHBOR, k*(n-k)).
+   *
+   * @param maximumNeighbor the user-supplied maximum
+   * @param k the number of clusters
+   * @param n the number of points
+   * @return the number of neighbours to examine
+   */
+  protected static int effectiveMaxNeighbor(int maximumNeighbor, int k, int n) {
+    long numNeighbors = (long) k * (n - k);
+    return (int) Math.max(maximumNeighbor,
+      Math.min(MIN_MAX_NEIGHBOR, numNeighbors));
+  }
 
-        OptionsResult.add("-numlocal");
-        OptionsResult.add("" + getNumLocal());
+  /**
+   * Generates a clusterer. Has to initialize all fields of the clusterer that
+   * are not being set via options.
+   *
+   * @param data set of instances serving as training data
+   * @throws Exception if the clusterer has not been generated successfully
+   */
+  @Override
+  public void buildClusterer(Instances data) throws Exception {
 
-        OptionsResult.add("-maximumneighbor");
-        OptionsResult.add("" + getmaximumNeighbor());
+    // can clusterer handle the data?
+    getCapabilities().testWithFail(data);
 
-        Collections.addAll( OptionsResult, super.getOptions());
-        return OptionsResult.toArray(new String[1]);
+    if (data.numInstances() == 0) {
+      buildEmpty(data);
+      return;
+    }
 
+    m_Budget = createBudget();
+    if (m_SampleSize > 0 && data.numInstances() > m_SampleSize) {
+      buildClusterer(new DataSource(data), data);
+    } else {
+      buildClusterer(data, getSeed());
     }
+    m_BudgetExhausted = m_Budget.isExhausted();
+  }
 
+  /**
+   * Prepares the clusterer for incremental training from the structure of the
+   * data only: updateClusterer collects the instances it is given until
+   * the update window is full and then builds the clusterer from them, so
+   * that it can be queried from then on and later instances go through the
+   * usual updates. If fewer instances than the window holds are given,
+   * updateFinished builds the clusterer from them, and the result is the
+   * same as building it from all instances at once. With an update window of
+   * 0 all instances are collected until updateFinished.
+   *
+   * @param structure the structure of the training data
+   */
+  protected void buildEmpty(Instances structure) {
+    m_ReplaceMissingFilter = null;
+    m_ClusterMedoids = null;
+    m_MedoidIndices = null;
+    m_Assignments = null;
+    m_ClusterSizes = null;
+    m_Cost = 0;
+    m_MedoidNNSearch = null;
+    m_FlatMedoids = null;
+    m_Sampled = false;
+    m_Estimated = false;
+    m_BudgetExhausted = false;
 
-    @Override
-    public Enumeration<Option> listOptions(){
-        Vector<Option> result = new Vector<Option>();
+    m_Window = new Instances(structure, 0);
+    m_Window.setClassIndex(-1);
+    m_WindowRandom = new Random(getSeed());
+    m_NumSeen = 0;
+    m_NumUpdates = 0;
+    m_UpdateCost = 0;
+    m_Refined = false;
+  }
+
+  /**
+   * Generates a clusterer from all instances, within the current budget.
+   *
+   * @param data set of instances serving as training data
+   * @param seed the seed for the local searches
+   * @throws Exception if the clusterer has not been generated successfully
+   */
+  protected void buildClusterer(Instances data, long seed) throws Exception {
+    m_ReplaceMissingFilter = new ReplaceMissingValues();
+    Instances instances = new Instances(data);
+    instances.setClassIndex(-1);
+    m_ReplaceMissingFilter.setInputFormat(instances);
+    instances = Filter.useFilter(instances, m_ReplaceMissingFilter);
+
+    if (instances.numInstances() == 0) {
+      throw new Exception("No training instances!");
+    }
+
+    m_DistanceFunction.setInstances(instances);
+
+    // compute the attribute ranges before distances are computed concurrently
+    m_DistanceFunction.distance(instances.instance(0), instances.instance(0));
 
-        result.add(new Option("\tAmount of clusters that should be allocated",
-                "clusters", 1, "-clusters <integer>"));
+    m_WindowRandom = new Random(seed);
+    m_Window = sampleWindow(instances);
+    m_NumSeen = instances.numInstances();
 
-        result.add(new Option("\tThe number of local minima obtained (amount of iterations for solving the problems)",
-                "numlocal", 1, "-numlocal <integer>"));
+    buildMedoids(instances, seed);
+    m_Sampled = false;
+    m_Estimated = false;
+    m_NumUpdates = 0;
+    m_UpdateCost = 0;
+    m_Refined = false;
 
-        result.add(new Option("\tThe maximum number of neighbors examined. " +
-                "The higher the value of maximumNeighbor, the closer is CLARANS to PAM, and the\n" +
-                " * longer is each search of a local minima. But the quality of such a local\n" +
-                " * minima is higher and fewer local minima needs to be obtained.",
-                "maximumneighbor", 1, "-maximumneighbor <integer>"));
+    buildMedoidNNSearch();
 
-        result.addAll(Collections.list(super.listOptions()));
+    // save memory!
+    m_DistanceFunction.clean();
+  }
 
-        return result.elements();
+  /**
+   * Generates a clusterer from a data source. If the source is read
+   * incrementally (e.g. an ArffLoader) and a sample size is set, the data is
+   * never held in memory as a whole: the samples are drawn in a single pass
+   * with reservoir sampling, and the medoids of each sample are compared in a
+   * second pass over all instances. Without a sample size the whole data set
+   * is loaded.
+   *
+   * @param source the source of the training data
+   * @throws Exception if the clusterer has not been generated successfully
+   */
+  public void buildClusterer(DataSource source) throws Exception {
+    if (m_SampleSize <= 0) {
+      buildClusterer(source.getDataSet());
+      return;
     }
 
-    public static void main(String[] args) {
-        runClusterer(new CLARANS(), args);
+    Instances structure = source.getStructure();
+
+    // can clusterer handle the data?
+    Capabilities cap = getCapabilities();
+    cap.setMinimumNumberInstances(0);
+    cap.testWithFail(structure);
+
+    m_Budget = createBudget();
+    buildClusterer(source, structure);
+    m_BudgetExhausted = m_Budget.isExhausted();
+  }
+
+  /**
+   * Creates the budget for a build from the time limit and the maximum
+   * number of evaluations.
+   *
+   * @return the budget
+   */
+  protected SearchBudget createBudget() {
+    return new SearchBudget((long) (m_TimeLimit * 1000), m_MaxEvaluations);
+  }
+
+  /**
+   * Stops the search of the current build as soon as possible. The build
+   * finishes with the best medoids found so far. Can be called from another
+   * thread or from a search or progress listener.
+   */
+  @Override
+  public void stop() {
+    SearchBudget budget = m_Budget;
+    if (budget != null) {
+      budget.stop();
     }
+  }
 
-    private static class Calculate {
-        public static double sum(double[] x) {
-            double sum = 0.0;
-            for (double n : x) {
-                sum += n;
-            }
-            return sum;
+  /**
+   * Adds a listener that is notified whenever a local search accepts a swap,
+   * i.e. moves to medoids with a lower cost.
+   *
+   * @param listener the listener to add
+   */
+  public synchronized void addSearchListener(MedoidSearchListener listener) {
+    if (m_SearchListeners == null) {
+      m_SearchListeners = new ArrayList<MedoidSearchListener>();
+    }
+    m_SearchListeners.add(listener);
+  }
+
+  /**
+   * Removes a listener.
+   *
+   * @param listener the listener to remove
+   */
+  public synchronized void removeSearchListener(MedoidSearchListener listener) {
+    if (m_SearchListeners != null) {
+      m_SearchListeners.remove(listener);
+    }
+  }
+
+  /**
+   * Adds a listener that is told the cost whenever a local search accepts a
+   * swap.
+   *
+   * @param listener the listener to add
+   */
+  @Override
+  public synchronized void addProgressListener(
+    ClustererProgressListener listener) {
+    if (m_ProgressListeners == null) {
+      m_ProgressListeners = new ArrayList<ClustererProgressListener>();
+    }
+    m_ProgressListeners.add(listener);
+  }
+
+  /**
+   * Removes a listener.
+   *
+   * @param listener the listener to remove
+   */
+  @Override
+  public synchronized void removeProgressListener(
+    ClustererProgressListener listener) {
+    if (m_ProgressListeners != null) {
+      m_ProgressListeners.remove(listener);
+    }
+  }
+
+  /**
+   * Notifies the listeners of a swap accepted by one of the local searches.
+   * The searches may run concurrently, so the listeners are called one at a
+   * time.
+   *
+   * @param e the event to pass on
+   */
+  protected synchronized void notifySearchListeners(MedoidSearchEvent e) {
+    if (m_SearchListeners != null) {
+      for (MedoidSearchListener l : m_SearchListeners) {
+        l.swapAccepted(e);
+      }
+    }
+    if (m_ProgressListeners != null && !m_ProgressListeners.isEmpty()) {
+      String status =
+        "local search " + (e.getSearchNumber() + 1) + ", cost "
+          + Utils.doubleToString(e.getCost(), 4);
+      for (ClustererProgressListener l : m_ProgressListeners) {
+        l.progress(this, status);
+      }
+    }
+  }
+
+  /**
+   * Generates a clusterer from samples of a data source, CLARA-style: each
+   * sample is clustered with CLARANS, and the medoids of the sample with the
+   * lowest cost on all instances are kept. Missing values are replaced with
+   * the means and modes of the samples, distances are normalized with the
+   * attribute ranges of all instances.
+   *
+   * @param source the source of the training data
+   * @param structure the structure to read the instances with
+   * @throws Exception if the clusterer has not been generated successfully
+   */
+  protected void buildClusterer(DataSource source, Instances structure)
+    throws Exception {
+
+    Instances header = new Instances(structure, 0);
+    header.setClassIndex(-1);
+    int numAttributes = header.numAttributes();
+    int numSamples = m_NumSamples;
+    int sampleSize = m_SampleSize;
+
+    // each sample gets its own generator for drawing it and a seed for
+    // searching it
+    Random random = new Random(getSeed());
+    Random[] sampleRandom = new Random[numSamples];
+    long[] searchSeeds = new long[numSamples];
+    for (int j = 0; j < numSamples; j++) {
+      sampleRandom[j] = new Random(random.nextLong());
+      searchSeeds[j] = random.nextLong();
+    }
+
+    // first pass: reservoir sampling and attribute ranges
+    Instance[][] reservoirs = new Instance[numSamples][sampleSize];
+    int[][] rows = new int[numSamples][sampleSize];
+    double[] min = new double[numAttributes];
+    double[] max = new double[numAttributes];
+    Arrays.fill(min, Double.POSITIVE_INFINITY);
+    Arrays.fill(max, Double.NEGATIVE_INFINITY);
+    int count = 0;
+    source.reset();
+    // incremental loaders only start reading after the structure was read
+    source.getStructure();
+    while (source.hasMoreElements(structure)) {
+      if (count == Integer.MAX_VALUE) {
+        throw new Exception("Too many instances to sample from!");
+      }
+      Instance inst = source.nextElement(structure);
+      for (int a = 0; a < numAttributes; a++) {
+        if (header.attribute(a).isNumeric() && !inst.isMissing(a)) {
+          min[a] = Math.min(min[a], inst.value(a));
+          max[a] = Math.max(max[a], inst.value(a));
         }
-        public static int randomInt(int n) {
-            for (int i = 0; i < 10; i++) {
-                new Random().nextInt();
-            }
-            return n;
+      }
+      for (int j = 0; j < numSamples; j++) {
+        int pos = count;
+        if (count >= sampleSize) {
+          pos = (int) (sampleRandom[j].nextDouble() * (count + 1.0));
+        }
+        if (pos < sampleSize) {
+          reservoirs[j][pos] = inst;
+          rows[j][pos] = count;
+        }
+      }
+      count++;
+    }
+
+    if (count == 0) {
+      throw new Exception("No training instances!");
+    }
+
+    if (count <= sampleSize) {
+      // the whole data set fits into a sample
+      Instances data = new Instances(header, count);
+      for (int i = 0; i < count; i++) {
+        data.add(reservoirs[0][i]);
+      }
+      buildClusterer(data, getSeed());
+      return;
+    }
+
+    m_ReplaceMissingFilter = new ReplaceMissingValues();
+    m_ReplaceMissingFilter.setInputFormat(header);
+    Instances samples = new Instances(header, numSamples * sampleSize);
+    for (int j = 0; j < numSamples; j++) {
+      for (int i = 0; i < sampleSize; i++) {
+        samples.add(reservoirs[j][i]);
+      }
+    }
+    reservoirs = null;
+    samples = Filter.useFilter(samples, m_ReplaceMissingFilter);
+
+    // the extremes of all instances, to widen the ranges of each sample with
+    double[] minValues = new double[numAttributes];
+    double[] maxValues = new double[numAttributes];
+    for (int a = 0; a < numAttributes; a++) {
+      boolean seen = min[a] <= max[a];
+      minValues[a] = seen ? min[a] : Utils.missingValue();
+      maxValues[a] = seen ? max[a] : Utils.missingValue();
+    }
+    Instance minInstance = new DenseInstance(1.0, minValues);
+    Instance maxInstance = new DenseInstance(1.0, maxValues);
+    minInstance.setDataset(samples);
+    maxInstance.setDataset(samples);
+
+    Instances[] sampleSets = new Instances[numSamples];
+    int numClusters = 0;
+    Instances[] candidates = new Instances[numSamples];
+    int[][] candidateRows = new int[numSamples][];
+    for (int j = 0; j < numSamples; j++) {
+      Instances sample = new Instances(samples, j * sampleSize, sampleSize);
+      sampleSets[j] = sample;
+      m_DistanceFunction.setInstances(sample);
+      if (m_DistanceFunction instanceof NormalizableDistance) {
+        ((NormalizableDistance) m_DistanceFunction).updateRanges(minInstance);
+        ((NormalizableDistance) m_DistanceFunction).updateRanges(maxInstance);
+      }
+      m_DistanceFunction.distance(sample.instance(0), sample.instance(0));
+
+      // the number of clusters is selected on the first sample
+      // the sample is kept for the update window, so the search gets a copy
+      // of the list to release
+      buildMedoids(new Instances(sample), searchSeeds[j], null, numClusters);
+      numClusters = m_MedoidIndices.length;
+      candidates[j] = m_ClusterMedoids;
+      candidateRows[j] = new int[m_MedoidIndices.length];
+      for (int c = 0; c < m_MedoidIndices.length; c++) {
+        candidateRows[j][c] = rows[j][m_MedoidIndices[c]];
+      }
+      if (m_Debug) {
+        System.err.println("Sample " + (j + 1) + ": cost on sample "
+          + Utils.doubleToString(m_Cost, 4));
+      }
+    }
+    samples = null;
+
+    // second pass: cost of each sample's medoids on all instances
+    double[] costs = new double[numSamples];
+    double[][] sizes = new double[numSamples][];
+    for (int j = 0; j < numSamples; j++) {
+      sizes[j] = new double[candidates[j].numInstances()];
+    }
+    source.reset();
+    // incremental loaders only start reading after the structure was read
+    source.getStructure();
+    while (source.hasMoreElements(structure)) {
+      Instance inst = source.nextElement(structure);
+      if (inst.hasMissingValue()) {
+        m_ReplaceMissingFilter.input(inst);
+        m_ReplaceMissingFilter.batchFinished();
+        inst = m_ReplaceMissingFilter.output();
+      }
+      evaluateCandidates(inst, candidates, costs, sizes);
+    }
+
+    int best = 0;
+    for (int j = 1; j < numSamples; j++) {
+      if (costs[j] < costs[best]) {
+        best = j;
+      }
+    }
+    if (m_Debug) {
+      System.err.println("Best sample: " + (best + 1));
+    }
+
+    m_ClusterMedoids = candidates[best];
+    m_MedoidIndices = candidateRows[best];
+    m_ClusterSizes = sizes[best];
+    m_Cost = costs[best];
+    m_Assignments = null;
+    m_Sampled = true;
+    m_Estimated = false;
+
+    // the best sample is a uniform sample of all instances already
+    m_WindowRandom = new Random(searchSeeds[best]);
+    m_Window = sampleWindow(sampleSets[best]);
+    m_NumSeen = count;
+    m_NumUpdates = 0;
+    m_UpdateCost = 0;
+    m_Refined = false;
+
+    buildMedoidNNSearch();
+
+    // save memory!
+    m_DistanceFunction.clean();
+  }
+
+  /**
+   * Assigns an instance to its nearest medoid in each of several candidate
+   * medoid sets, adding its distance to the cost and its weight to the size
+   * of the cluster.
+   *
+   * @param inst the instance, after replacing missing values
+   * @param candidates the candidate medoid sets
+   * @param costs the cost of each candidate set, updated
+   * @param sizes the cluster sizes of each candidate set, updated
+   * @throws Exception if the distances cannot be computed
+   */
+  protected void evaluateCandidates(Instance inst, Instances[] candidates,
+    double[] costs, double[][] sizes) throws Exception {
+
+    double[] minDist = new double[1];
+    for (int j = 0; j < candidates.length; j++) {
+      minDist[0] = Double.MAX_VALUE;
+      int bestCluster = 0;
+      for (int c = 0; c < candidates[j].numInstances(); c++) {
+        double dist =
+          m_DistanceFunction.distance(inst, candidates[j].instance(c),
+            minDist[0]);
+        if (dist < minDist[0]) {
+          minDist[0] = dist;
+          bestCluster = c;
+        }
+      }
+      // distances computed with a cutoff may not be on the final scale yet
+      m_DistanceFunction.postProcessDistances(minDist);
+      costs[j] += minDist[0];
+      sizes[j][bestCluster] += inst.weight();
+    }
+  }
+
+  /**
+   * Runs the local searches on instances that have been through the filters
+   * and sets the medoids, assignments, cluster sizes and cost. The distance
+   * function has to be initialized with the instances already.
+   *
+   * @param instances the instances to cluster, removed from the set if
+   *          they are clustered from a flat copy
+   * @param seed the seed for the local searches
+   * @throws Exception if the search fails
+   */
+  protected void buildMedoids(Instances instances, long seed) throws Exception {
+    buildMedoids(instances, seed, null);
+  }
+
+  /**
+   * Runs the local searches on instances that have been through the filters
+   * and sets the medoids, assignments, cluster sizes and cost. If start
+   * medoids are given, a single local search is run from them instead. The
+   * distance function has to be initialized with the instances already.
+   *
+   * @param instances the instances to cluster, removed from the set if
+   *          they are clustered from a flat copy
+   * @param seed the seed for the local searches
+   * @param startMedoids the indices of the instances to start from, null to
+   *          choose them with the initialization method
+   * @throws Exception if the search fails
+   */
+  protected void buildMedoids(Instances instances, long seed,
+    int[] startMedoids) throws Exception {
+    buildMedoids(instances, seed, startMedoids, 0);
+  }
+
+  /**
+   * Runs the local searches on instances that have been through the filters
+   * and sets the medoids, assignments, cluster sizes and cost. If start
+   * medoids are given, a single local search is run from them instead. If
+   * neither start medoids nor a number of clusters are given and a range of
+   * numbers of clusters is set, the number of clusters is selected. The
+   * distance function has to be initialized with the instances already.
+   *
+   * @param instances the instances to cluster, removed from the set if
+   *          they are clustered from a flat copy
+   * @param seed the seed for the local searches
+   * @param startMedoids the indices of the instances to start from, null to
+   *          choose them with the initialization method
+   * @param numClusters the number of clusters, 0 to use the options
+   * @throws Exception if the search fails
+   */
+  protected void buildMedoids(Instances instances, long seed,
+    int[] startMedoids, int numClusters) throws Exception {
+    int n = instances.numInstances();
+    int k;
+    int maxK;
+    if (startMedoids != null) {
+      k = startMedoids.length;
+      maxK = k;
+    } else if (numClusters > 0) {
+      k = Math.min(numClusters, n);
+      maxK = k;
+    } else {
+      k = Math.min(m_NumClusters, n);
+      maxK = Math.max(k, Math.min(m_MaxNumClusters, n));
+      m_SweepNumClusters = null;
+      m_SweepCost = null;
+      m_SweepSilhouette = null;
+    }
+    Instances header = new Instances(instances, 0);
+    double[] weights = new double[n];
+    for (int i = 0; i < n; i++) {
+      weights[i] = instances.instance(i).weight();
+    }
+
+    m_CanopyIndex = null;
+    m_canopyClusters = null;
+    m_DistanceCalcsAvoided = new AtomicLong();
+    if (m_speedUpDistanceCompWithCanopies
+      && m_SearchStrategy == SEARCH_CLARANS) {
+      m_CanopyIndex = buildCanopyIndex(instances, maxK);
+    }
+
+    // purely numeric data with the Euclidean or Manhattan distance is
+    // clustered from a flat copy of the values, which replaces the instances
+    NumericPointDistance numeric =
+      NumericPointDistance.create(instances, m_DistanceFunction, true);
+    PointDistance distance;
+    Instance[] points = null;
+    if (numeric != null) {
+      // the flat copy is all the search needs
+      distance = numeric;
+      instances = null;
+      m_DistanceFunction.clean();
+    } else {
+      points = instances.toArray(new Instance[n]);
+      final DistanceFunction distanceFunction = m_DistanceFunction;
+      distance =
+        new ObjectPointDistance<Instance>(points, new Distance<Instance>() {
+          /** for serialization */
+          private static final long serialVersionUID = -1287470513468310244L;
+
+          @Override
+          public double d(Instance x, Instance y) {
+            return distanceFunction.distance(x, y);
+          }
+        });
+    }
+
+    PointDistance uncached = distance;
+    distance = cacheDistances(distance, maxK);
+
+    MedoidSearchListener listener = null;
+    synchronized (this) {
+      if ((m_SearchListeners != null && !m_SearchListeners.isEmpty())
+        || (m_ProgressListeners != null && !m_ProgressListeners.isEmpty())) {
+        listener = new MedoidSearchListener() {
+          @Override
+          public void swapAccepted(MedoidSearchEvent e) {
+            notifySearchListeners(e);
+          }
+        };
+      }
+    }
+
+    MedoidSolution solution;
+    if (maxK > k) {
+      solution = selectNumClusters(distance, k, maxK, new Random(seed),
+        listener);
+      k = solution.getMedoids().length;
+    } else {
+      List<LocalSearchTask> tasks =
+        createLocalSearches(distance, k, m_MaxNeighbor,
+          (startMedoids != null) ? 1 : m_NumLocal, m_initializationMethod,
+          new Random(seed));
+      configureSearches(tasks, listener, startMedoids);
+
+      if (m_executionSlots > 1) {
+        startExecutorPool();
+        try {
+          solution = runLocalSearches(tasks, m_executorPool);
+        } finally {
+          m_executorPool.shutdown();
         }
+      } else {
+        solution = runLocalSearches(tasks, null);
+      }
     }
+    m_CanopyIndex = null;
+    m_NumDistanceCalcsAvoided = m_DistanceCalcsAvoided.get();
+    m_DistanceCalcsAvoided = null;
 
+    m_MedoidIndices = solution.getMedoids();
+    m_Assignments = solution.getAssignments();
+    m_Cost = solution.getCost();
+    if (distance != uncached) {
+      // cached distances are stored as floats, the cost is reported in full
+      // precision
+      m_Cost = 0;
+      for (int i = 0; i < n; i++) {
+        m_Cost += uncached.distance(i, m_MedoidIndices[m_Assignments[i]]);
+      }
+    }
+
+    m_ClusterMedoids = new Instances(header, k);
+    for (int index : m_MedoidIndices) {
+      if (numeric != null) {
+        m_ClusterMedoids.add(new DenseInstance(weights[index], numeric
+          .point(index)));
+      } else {
+        m_ClusterMedoids.add(points[index]);
+      }
+    }
+    m_ClusterSizes = new double[k];
+    for (int i = 0; i < n; i++) {
+      m_ClusterSizes[m_Assignments[i]] += weights[i];
+    }
+  }
+
+  /**
+   * Clusters the instances with Canopy and returns the canopies that each
+   * instance falls into.
+   *
+   * @param instances the instances to cluster
+   * @param numClusters the number of canopies to request
+   * @return the canopies of the instances
+   * @throws Exception if canopy clustering fails
+   */
+  protected CanopyIndex buildCanopyIndex(Instances instances, int numClusters)
+    throws Exception {
+    m_canopyClusters = new Canopy();
+    m_canopyClusters.setNumClusters(numClusters);
+    m_canopyClusters.setSeed(getSeed());
+    m_canopyClusters.setT2(getCanopyT2());
+    m_canopyClusters.setT1(getCanopyT1());
+    m_canopyClusters
+      .setMaxNumCandidateCanopiesToHoldInMemory(getCanopyMaxNumCanopiesToHoldInMemory());
+    m_canopyClusters.setPeriodicPruningRate(getCanopyPeriodicPruningRate());
+    m_canopyClusters.setMinimumCanopyDensity(getCanopyMinimumCanopyDensity());
+    m_canopyClusters.setDebug(getDebug());
+    // Canopy randomizes the order of the instances it is given
+    m_canopyClusters.buildClusterer(new Instances(instances));
+
+    // the canopies are formed sequentially, so that they do not depend on the
+    // number of slots; assigning them is split among the slots
+    m_canopyClusters.setNumExecutionSlots(m_executionSlots);
+
+    CanopyIndex result =
+      new CanopyIndex(m_canopyClusters.assignCanopies(instances));
+    m_canopyClusters.cleanUp();
+    if (m_Debug) {
+      System.err.println("Canopies: " + result.numCanopies());
+    }
 
-    public List<int[]> getClusters() {return clusters;}
-    public List<int[]> getMedoids() {return optimal_medoids;}
+    return result;
+  }
 
-    public int getNumberClusters(){ return number_clusters; }
-    public void setNumberClusters(int number_clusters){
-        this.number_clusters = number_clusters;
+  /**
+   * Applies the settings of this clusterer to local searches.
+   *
+   * @param tasks the local searches
+   * @param listener the listener to notify of accepted swaps, null for none
+   * @param startMedoids the medoids to start from, null to choose them
+   */
+  protected void configureSearches(List<LocalSearchTask> tasks,
+    MedoidSearchListener listener, int[] startMedoids) {
+    for (int i = 0; i < tasks.size(); i++) {
+      tasks.get(i).setSearchStrategy(m_SearchStrategy);
+      // focusing relies on the triangle inequality
+      tasks.get(i).setFocus(m_Focus
+        && TriangleInequalityBounds.isMetric(m_DistanceFunction));
+      tasks.get(i).setCanopies(m_CanopyIndex);
+      tasks.get(i).setDistancesAvoidedCounter(m_DistanceCalcsAvoided);
+      tasks.get(i).setBudget(m_Budget);
+      tasks.get(i).setListener(listener, i);
+      tasks.get(i).setStartMedoids(startMedoids);
     }
+  }
 
-    public int getNumLocal(){ return num_local; }
-    public void setNumLocal(int num_local){
-        this.num_local = num_local;
+  /**
+   * Clusters the points with each number of clusters in a range and returns
+   * the solution for the number selected with the selection criterion. The
+   * range is split into runs of SWEEP_RUN_LENGTH consecutive numbers, which
+   * are searched concurrently if there are several execution slots. Within a
+   * run, the first of the local searches for k + 1 clusters starts from the
+   * best medoids for k plus one chosen by k-medoids++ seeding, the others
+   * are initialized as usual. The distances (and their cache) are shared by
+   * all searches.
+   *
+   * @param distance the distances between the points
+   * @param minK the smallest number of clusters
+   * @param maxK the largest number of clusters
+   * @param random the random number generator to use
+   * @param listener the listener to notify of accepted swaps, null for none
+   * @return the solution for the selected number of clusters
+   * @throws Exception if a search fails
+   */
+  protected MedoidSolution selectNumClusters(final PointDistance distance,
+    final int minK, int maxK, Random random,
+    final MedoidSearchListener listener) throws Exception {
+
+    int numK = maxK - minK + 1;
+    final MedoidSolution[] solutions = new MedoidSolution[numK];
+    final long[] seeds = new long[numK];
+    for (int i = 0; i < numK; i++) {
+      seeds[i] = random.nextLong();
+    }
+
+    List<Callable<Void>> runs = new ArrayList<Callable<Void>>();
+    for (int from = 0; from < numK; from += SWEEP_RUN_LENGTH) {
+      final int start = from;
+      final int end = Math.min(numK, from + SWEEP_RUN_LENGTH);
+      runs.add(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          int[] warmStart = null;
+          for (int i = start; i < end; i++) {
+            Random searchRandom = new Random(seeds[i]);
+            List<LocalSearchTask> tasks =
+              createLocalSearches(distance, minK + i, m_MaxNeighbor,
+                m_NumLocal, m_initializationMethod, searchRandom);
+            configureSearches(tasks, listener, null);
+            tasks.get(0).setStartMedoids(warmStart);
+            solutions[i] = runLocalSearches(tasks, null);
+            if (i + 1 < end) {
+              warmStart =
+                addMedoid(distance, solutions[i].getMedoids(), searchRandom);
+            }
+          }
+          return null;
+        }
+      });
+    }
+
+    if (m_executionSlots > 1 && runs.size() > 1) {
+      startExecutorPool();
+      try {
+        for (Future<Void> f : m_executorPool.invokeAll(runs)) {
+          f.get();
+        }
+      } finally {
+        m_executorPool.shutdown();
+      }
+    } else {
+      for (Callable<Void> run : runs) {
+        run.call();
+      }
     }
 
-    public int getmaximumNeighbor(){ return maximumNeighbor; }
-    public void setmaximumNeighbor (int maximumNeighbor){
-        this.maximumNeighbor = maximumNeighbor;
+    m_SweepNumClusters = new int[numK];
+    m_SweepCost = new double[numK];
+    m_SweepSilhouette = new double[numK];
+    for (int i = 0; i < numK; i++) {
+      m_SweepNumClusters[i] = minK + i;
+      m_SweepCost[i] = solutions[i].getCost();
+      m_SweepSilhouette[i] = solutions[i].getSilhouette();
     }
 
+    int best;
+    if (m_NumClustersSelection == SELECT_ELBOW) {
+      best = elbow(m_SweepCost);
+    } else {
+      // ties go to the smaller number of clusters
+      best = 0;
+      for (int i = 1; i < numK; i++) {
+        if (!Double.isNaN(m_SweepSilhouette[i])
+          && (Double.isNaN(m_SweepSilhouette[best])
+          || m_SweepSilhouette[i] > m_SweepSilhouette[best])) {
+          best = i;
+        }
+      }
+    }
+    if (m_Debug) {
+      for (int i = 0; i < numK; i++) {
+        System.err.println("k = " + m_SweepNumClusters[i] + ": cost "
+          + Utils.doubleToString(m_SweepCost[i], 4) + ", medoid silhouette "
+          + Utils.doubleToString(m_SweepSilhouette[i], 4));
+      }
+    }
+
+    return solutions[best];
+  }
+
+  /**
+   * Returns the elbow of a cost curve: the point furthest below the line
+   * from its first to its last point, with both axes scaled to [0, 1].
+   *
+   * @param costs the costs for consecutive numbers of clusters
+   * @return the index of the elbow, 0 if there is none
+   */
+  protected static int elbow(double[] costs) {
+    int num = costs.length;
+    double first = costs[0];
+    double last = costs[num - 1];
+    double range = Math.max(Math.abs(first - last), Utils.SMALL);
+    if (num < 3 || first <= last) {
+      return 0;
+    }
+
+    int best = 0;
+    double bestGap = 0;
+    for (int i = 1; i < num - 1; i++) {
+      double line = first + (last - first) * i / (num - 1);
+      double gap = (line - costs[i]) / range;
+      if (gap > bestGap) {
+        bestGap = gap;
+        best = i;
+      }
+    }
+
+    return best;
+  }
+
+  /**
+   * Adds a medoid to a set of medoids, chosen like k-medoids++ does: with a
+   * probability proportional to the squared distance to the nearest medoid.
+   *
+   * @param distance the distances between the points
+   * @param medoids the point indices of the medoids
+   * @param random the random number generator to use
+   * @return the point indices of the medoids plus the new one
+   */
+  protected static int[] addMedoid(PointDistance distance, int[] medoids,
+    Random random) {
+    int n = distance.numPoints();
+    boolean[] isMedoid = new boolean[n];
+    for (int medoid : medoids) {
+      isMedoid[medoid] = true;
+    }
+
+    double[] weights = new double[n];
+    double total = 0;
+    for (int i = 0; i < n; i++) {
+      if (isMedoid[i]) {
+        continue;
+      }
+      double nearest = Double.POSITIVE_INFINITY;
+      for (int medoid : medoids) {
+        nearest = Math.min(nearest, distance.distance(i, medoid));
+      }
+      weights[i] = nearest * nearest;
+      total += weights[i];
+    }
+
+    int added = -1;
+    if (total > 0) {
+      double cutoff = random.nextDouble() * total;
+      for (int i = 0; i < n && cutoff >= 0; i++) {
+        if (weights[i] > 0) {
+          added = i;
+          cutoff -= weights[i];
+        }
+      }
+    }
+    if (added < 0) {
+      // all points coincide with a medoid, take any other one
+      for (int i = 0; i < n && added < 0; i++) {
+        if (!isMedoid[i]) {
+          added = i;
+        }
+      }
+    }
+
+    int[] result = Arrays.copyOf(medoids, medoids.length + 1);
+    result[medoids.length] = added;
+
+    return result;
+  }
+
+  /**
+   * Draws the instances to retain for updating from the given ones, using
+   * the window's random number generator.
+   *
+   * @param instances the instances to draw from
+   * @return the instances to retain, null if none are to be retained
+   */
+  protected Instances sampleWindow(Instances instances) {
+    if (m_UpdateWindow <= 0) {
+      return null;
+    }
+
+    Instances result =
+      new Instances(instances, Math.min(m_UpdateWindow,
+        instances.numInstances()));
+    for (int i = 0; i < instances.numInstances(); i++) {
+      if (i < m_UpdateWindow) {
+        result.add(instances.instance(i));
+      } else {
+        int pos = m_WindowRandom.nextInt(i + 1);
+        if (pos < m_UpdateWindow) {
+          result.set(pos, instances.instance(i));
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Adds an instance to the clusterer: it is assigned to its nearest medoid,
+   * which is counted towards the cluster's size and the cost, and may be
+   * retained for refining the medoids in {@link #updateFinished()}. The
+   * medoids themselves do not change, so the clusterer can be used as
+   * before.
+   *
+   * @param newInstance the instance to be added
+   * @throws Exception if the clusterer has not been built yet or the instance
+   *           could not be assigned
+   */
+  @Override
+  public void updateClusterer(Instance newInstance) throws Exception {
+    if (m_ClusterMedoids == null) {
+      if (m_Window == null) {
+        throw new Exception("No clusterer built yet!");
+      }
+      // built from the structure only: the instance is collected, and the
+      // clusterer is built once the window is full
+      m_NumUpdates++;
+      m_NumSeen++;
+      m_Window.add(newInstance);
+      if (m_UpdateWindow > 0 && m_Window.numInstances() >= m_UpdateWindow) {
+        clusterRetained();
+      }
+      return;
+    }
+
+    Instance inst = newInstance;
+    if (inst.hasMissingValue()) {
+      m_ReplaceMissingFilter.input(inst);
+      m_ReplaceMissingFilter.batchFinished();
+      inst = m_ReplaceMissingFilter.output();
+    }
+
+    int cluster = clusterProcessedInstance(inst);
+    double dist =
+      m_DistanceFunction.distance(inst, m_ClusterMedoids.instance(cluster));
+    m_ClusterSizes[cluster] += inst.weight();
+    m_Cost += dist;
+    m_UpdateCost += dist;
+    m_NumUpdates++;
+    m_NumSeen++;
+
+    if (m_Window != null) {
+      retain(inst);
+    }
+  }
+
+  /**
+   * Adds an instance to the retained ones, with reservoir sampling over all
+   * instances seen.
+   *
+   * @param inst the instance, counted in the instances seen already
+   */
+  protected void retain(Instance inst) {
+    if (m_Window.numInstances() < m_UpdateWindow) {
+      m_Window.add(inst);
+    } else {
+      long pos = (long) (m_WindowRandom.nextDouble() * m_NumSeen);
+      if (pos < m_Window.numInstances()) {
+        m_Window.set((int) pos, inst);
+      }
+    }
+  }
+
+  /**
+   * Builds the clusterer from the instances collected since it was built from
+   * the structure only, exactly as buildClusterer would from all of them
+   * (including sampling, if a sample size is set).
+   *
+   * @throws IllegalStateException if clustering fails
+   */
+  protected void clusterRetained() {
+    Instances collected = m_Window;
+    long numSeen = m_NumSeen;
+    try {
+      buildClusterer(collected);
+    } catch (Exception e) {
+      m_ClusterMedoids = null;
+      m_Window = collected;
+      m_NumSeen = numSeen;
+      throw new IllegalStateException("Failed to cluster the collected "
+        + "instances: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Refines the medoids after instances have been added, with a single local
+   * search on the retained instances that starts from the current medoids
+   * and is bounded like any other search (maximumNeighbor, timeLimit,
+   * maxEvaluations). If the update window holds all instances seen, cluster
+   * sizes and cost are then computed over all of them; otherwise they are
+   * estimated from the retained instances, which toString() reports. The
+   * current medoids are kept if the search fails.
+   */
+  @Override
+  public void updateFinished() {
+    if (m_ClusterMedoids == null && m_Window != null
+      && m_Window.numInstances() > 0) {
+      clusterRetained();
+      return;
+    }
+    if (m_NumUpdates == 0 || m_Window == null
+      || m_Window.numInstances() == 0) {
+      return;
+    }
+
+    DistanceFunction distanceFunction = m_DistanceFunction;
+    Instances medoids = m_ClusterMedoids;
+    int[] medoidIndices = m_MedoidIndices;
+    int[] assignments = m_Assignments;
+    double[] sizes = m_ClusterSizes;
+    double cost = m_Cost;
+    NearestNeighbourSearch medoidNNSearch = m_MedoidNNSearch;
+    NumericPointDistance flatMedoids = m_FlatMedoids;
+    try {
+      // the ranges are recomputed on a copy, so that the model is unchanged
+      // if the search fails
+      m_DistanceFunction =
+        (DistanceFunction) new SerializedObject(distanceFunction).getObject();
+
+      // the current medoids are added to the retained instances to start
+      // from them
+      Instances points = new Instances(m_Window);
+      int[] start = new int[medoids.numInstances()];
+      for (int j = 0; j < start.length; j++) {
+        start[j] = points.numInstances();
+        points.add(medoids.instance(j));
+      }
+      m_DistanceFunction.setInstances(points);
+      m_DistanceFunction.distance(points.instance(0), points.instance(0));
+
+      m_Budget = createBudget();
+      buildMedoids(points, m_WindowRandom.nextLong(), start);
+      m_BudgetExhausted = m_Budget.isExhausted();
+
+      int numRetained = m_Window.numInstances();
+      if (numRetained == m_NumSeen) {
+        // all instances seen are retained: sizes and cost are computed over
+        // them, leaving out the medoids added to start from
+        Arrays.fill(m_ClusterSizes, 0);
+        m_Cost = 0;
+        for (int i = 0; i < numRetained; i++) {
+          Instance inst = m_Window.instance(i);
+          int cluster = m_Assignments[i];
+          m_ClusterSizes[cluster] += inst.weight();
+          m_Cost +=
+            m_DistanceFunction.distance(inst,
+              m_ClusterMedoids.instance(cluster));
+        }
+      } else {
+        // scale the estimates from the retained instances up to all
+        // instances
+        double scale = Utils.sum(sizes) / Utils.sum(m_ClusterSizes);
+        for (int j = 0; j < m_ClusterSizes.length; j++) {
+          m_ClusterSizes[j] *= scale;
+        }
+        m_Cost *= (double) m_NumSeen / points.numInstances();
+        m_Estimated = true;
+      }
+      m_MedoidIndices = null;
+      m_Assignments = null;
+      m_NumUpdates = 0;
+      m_UpdateCost = 0;
+      m_Refined = true;
+
+      buildMedoidNNSearch();
+
+      // save memory!
+      m_DistanceFunction.clean();
+    } catch (Exception e) {
+      m_DistanceFunction = distanceFunction;
+      m_ClusterMedoids = medoids;
+      m_MedoidIndices = medoidIndices;
+      m_Assignments = assignments;
+      m_ClusterSizes = sizes;
+      m_Cost = cost;
+      m_MedoidNNSearch = medoidNNSearch;
+      m_FlatMedoids = flatMedoids;
+      throw new IllegalStateException("Failed to refine the medoids: "
+        + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Returns how much the instances added since the medoids were last fitted
+   * are further from their medoid on average than the instances the medoids
+   * were fitted on. A growing drift suggests that the medoids no longer fit
+   * the data.
+   *
+   * @return the difference of the average distances, 0 if no instances were
+   *         added
+   */
+  public double getCostDrift() {
+    if (m_NumUpdates == 0 || m_NumSeen == m_NumUpdates) {
+      return 0;
+    }
+
+    return m_UpdateCost / m_NumUpdates - (m_Cost - m_UpdateCost)
+      / (m_NumSeen - m_NumUpdates);
+  }
+
+  /**
+   * Builds the nearest neighbour search over the medoids if there are at
+   * least minClustersForNNSearch of them. The trees in
+   * weka.core.neighboursearch only support the Euclidean distance, so for any
+   * other distance function, or if the search cannot be built for the data,
+   * the medoids are scanned. The
+   * search normalizes with the ranges of the training data, and the weight of
+   * each medoid in it is set to the medoid's cluster number, which is how the
+   * cluster is recovered from the neighbour found. Purely numeric medoids are
+   * also copied into a flat array for clusterInstances.
+   */
+  protected void buildMedoidNNSearch() {
+    m_MedoidNNSearch = null;
+    try {
+      m_FlatMedoids =
+        NumericPointDistance.create(m_ClusterMedoids, m_DistanceFunction);
+    } catch (Exception e) {
+      m_FlatMedoids = null;
+    }
+    if (m_NNSearch == null
+      || m_ClusterMedoids.numInstances() < m_MinClustersForNNSearch
+      || m_DistanceFunction.getClass() != EuclideanDistance.class) {
+      return;
+    }
+
+    try {
+      Instances medoids =
+        new Instances(m_ClusterMedoids, m_ClusterMedoids.numInstances());
+      for (int i = 0; i < m_ClusterMedoids.numInstances(); i++) {
+        Instance medoid = (Instance) m_ClusterMedoids.instance(i).copy();
+        medoid.setWeight(i);
+        medoids.add(medoid);
+      }
+
+      NearestNeighbourSearch search =
+        (NearestNeighbourSearch) new SerializedObject(m_NNSearch).getObject();
+      search.setDistanceFunction(new FixedRangesEuclideanDistance(
+        (EuclideanDistance) m_DistanceFunction));
+      search.setInstances(medoids);
+      m_MedoidNNSearch = search;
+    } catch (Exception e) {
+      if (m_Debug) {
+        System.err.println("Cannot use " + m_NNSearch.getClass().getName()
+          + ", scanning medoids instead: " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Wraps the distances in a cache if requested and if the memory budget
+   * allows it: the full pairwise distance matrix if it fits, otherwise as
+   * many distance columns as fit, and no cache at all if there is not even
+   * room for a column per medoid plus one for a candidate. The cache is shared
+   * by all local searches.
+   *
+   * @param distance the distances to cache
+   * @param k the number of clusters
+   * @return the cached distances, or the given distances if not caching
+   */
+  protected PointDistance cacheDistances(PointDistance distance, int k) {
+    if (!m_CacheDistances) {
+      return distance;
+    }
+
+    int n = distance.numPoints();
+    long maxBytes = (long) m_DistanceCacheSize * 1024 * 1024;
+    if (DistanceMatrixCache.fits(n, maxBytes)) {
+      if (m_Debug) {
+        System.err.println("Caching all " + DistanceMatrixCache.numEntries(n)
+          + " pairwise distances");
+      }
+      return new DistanceMatrixCache(distance);
+    }
+
+    int columns = DistanceColumnCache.maxColumns(n, maxBytes);
+    if (columns > k) {
+      if (m_Debug) {
+        System.err.println("Caching up to " + columns + " distance columns");
+      }
+      return new DistanceColumnCache(distance, columns);
+    }
+
+    if (m_Debug) {
+      System.err.println("Distance cache budget too small, computing "
+        + "distances on the fly");
+    }
+    return distance;
+  }
+
+  /**
+   * clusters an instance that has been through the filters
+   *
+   * @param instance the instance to assign a cluster to
+   * @return a cluster number
+   * @throws Exception if the nearest neighbour search fails
+   */
+  protected int clusterProcessedInstance(Instance instance) throws Exception {
+    if (m_MedoidNNSearch != null) {
+      return (int) m_MedoidNNSearch.nearestNeighbour(instance).weight();
+    }
+
+    double minDist = Double.MAX_VALUE;
+    int bestCluster = 0;
+    for (int i = 0; i < m_ClusterMedoids.numInstances(); i++) {
+      double dist =
+        m_DistanceFunction.distance(instance, m_ClusterMedoids.instance(i),
+          minDist);
+      if (dist < minDist) {
+        minDist = dist;
+        bestCluster = i;
+      }
+    }
+    return bestCluster;
+  }
+
+  /**
+   * Classifies a given instance.
+   *
+   * @param instance the instance to be assigned to a cluster
+   * @return the number of the assigned cluster as an integer if the class is
+   *         enumerated, otherwise the predicted value
+   * @throws Exception if instance could not be classified successfully
+   */
+  @Override
+  public int clusterInstance(Instance instance) throws Exception {
+    if (m_ClusterMedoids == null) {
+      throw new Exception("No model built yet! Add as many instances as the "
+        + "update window holds, or call updateFinished() after the last "
+        + "update, before clustering instances.");
+    }
+    if (!instance.hasMissingValue()) {
+      return clusterProcessedInstance(instance);
+    }
+
+    m_ReplaceMissingFilter.input(instance);
+    m_ReplaceMissingFilter.batchFinished();
+    Instance inst = m_ReplaceMissingFilter.output();
+
+    return clusterProcessedInstance(inst);
+  }
+
+  /**
+   * Assigns a range of instances to clusters, storing the cluster numbers in
+   * the given array. Unless the nearest neighbour search is in use, purely
+   * numeric instances without missing values are assigned against a flat
+   * copy of the medoids, without allocating anything per instance; all
+   * other instances go through clusterInstance.
+   *
+   * @param data the instances to assign
+   * @param from the index of the first instance to assign
+   * @param to the index after the last instance to assign
+   * @param assignments the array to store the cluster number of instance i at
+   *          position i - from in
+   * @throws Exception if an instance could not be assigned
+   */
+  public void clusterInstances(Instances data, int from, int to,
+    int[] assignments) throws Exception {
+    NumericPointDistance medoids = m_FlatMedoids;
+    if (medoids == null || m_MedoidNNSearch != null
+      || data.numAttributes() != medoids.numAttributes()) {
+      for (int i = from; i < to; i++) {
+        assignments[i - from] = clusterInstance(data.instance(i));
+      }
+      return;
+    }
+
+    double[] values = new double[medoids.numAttributes()];
+    for (int i = from; i < to; i++) {
+      Instance inst = data.instance(i);
+      if (inst.hasMissingValue()) {
+        assignments[i - from] = clusterInstance(inst);
+        continue;
+      }
+      for (int j = 0; j < values.length; j++) {
+        values[j] = inst.value(j);
+      }
+      assignments[i - from] = medoids.nearest(values);
+    }
+  }
+
+  /**
+   * Assigns all instances to clusters, storing the cluster numbers in the
+   * given array.
+   *
+   * @param data the instances to assign
+   * @param assignments the array to store the cluster number of each instance
+   *          in, at least as long as the number of instances
+   * @throws Exception if an instance could not be assigned
+   */
+  public void clusterInstances(Instances data, int[] assignments)
+    throws Exception {
+    clusterInstances(data, 0, data.numInstances(), assignments);
+  }
+
+  /**
+   * Returns the number of clusters.
+   *
+   * @return the number of clusters generated for a training dataset.
+   * @throws Exception if number of clusters could not be returned successfully
+   */
+  @Override
+  public int numberOfClusters() throws Exception {
+    if (m_ClusterMedoids == null) {
+      return m_NumClusters;
+    }
+    return m_ClusterMedoids.numInstances();
+  }
+
+  /**
+   * Get the medoids found by CLARANS
+   *
+   * @return the medoids found by CLARANS
+   */
+  public Instances getClusterMedoids() {
+    return m_ClusterMedoids;
+  }
+
+  /**
+   * Gets the cluster each training instance has been assigned to.
+   *
+   * @return the cluster assignments of the training instances
+   * @throws Exception if the clusterer has not been built yet, or was built
+   *           from samples
+   */
+  public int[] getAssignments() throws Exception {
+    if (m_Assignments == null) {
+      if (m_Sampled) {
+        throw new Exception("Assignments are not kept when clustering "
+          + "samples!");
+      }
+      if (m_Refined) {
+        throw new Exception("Assignments are not kept after refining the "
+          + "medoids!");
+      }
+      if (m_ClusterMedoids != null) {
+        throw new Exception("Assignments are not kept for instances added "
+          + "incrementally!");
+      }
+      throw new Exception("No clusterer built yet!");
+    }
+    return m_Assignments;
+  }
+
+  /**
+   * Gets the sum of the distances of the training instances to their medoid.
+   *
+   * @return the cost of the clustering
+   */
+  public double getCost() {
+    return m_Cost;
+  }
+
+  /**
+   * Gets the sum of weights for all the instances in each cluster.
+   *
+   * @return the size of each cluster
+   */
+  public double[] getClusterSizes() {
+    return m_ClusterSizes;
+  }
+
+  /**
+   * Gets whether cluster sizes and cost were estimated from the instances
+   * retained for updating, rather than computed over all instances seen.
+   *
+   * @return true if sizes and cost are estimates
+   */
+  public boolean isEstimated() {
+    return m_Estimated;
+  }
+
+  /**
+   * Gets the number of distance calculations that focus or canopies avoided
+   * when evaluating swaps in the last search for medoids, compared to
+   * computing the distance of every instance to each candidate medoid.
+   *
+   * @return the number of distance calculations avoided
+   */
+  public long getNumDistanceCalcsAvoided() {
+    return m_NumDistanceCalcsAvoided;
+  }
+
+  /**
+   * Returns an enumeration describing the available options.
+   *
+   * @return an enumeration of all the available options.
+   */
+  @Override
+  public Enumeration<Option> listOptions() {
+    Vector<Option> result = new Vector<Option>();
+
+    result.addElement(new Option(
+      "\tNumber of clusters, or a range of numbers of clusters\n"
+        + "\tto select from (e.g. 2-30).\n" + "\t(default 3).", "clusters", 1,
+      "-clusters <integer or range>"));
+
+    result.add(new Option("\tCriterion to select the number of clusters "
+      + "with.\n" + "\t0 = medoid silhouette, 1 = elbow.\n\t(default = 0)",
+      "k-selection", 1, "-k-selection <num>"));
+
+    result.addElement(new Option(
+      "\tThe number of local minima obtained (number of local searches).\n"
+        + "\t(default 6).", "numlocal", 1, "-numlocal <integer>"));
+
+    result.addElement(new Option(
+      "\tThe maximum number of neighbors examined in a row\n"
+        + "\tbefore a node is taken as a local minimum.\n"
+        + "\tAt least min(" + MIN_MAX_NEIGHBOR
+        + ", k*(n-k)) neighbors are examined.\n" + "\t(default 4).",
+      "maximumneighbor", 1, "-maximumneighbor <integer>"));
+
+    result.add(new Option("\tInitialization method to use.\n"
+      + "\t0 = random, 1 = k-medoids++.\n\t(default = 1)", "init", 1,
+      "-init"));
+
+    result.add(new Option("\tSearch strategy to use.\n"
+      + "\t0 = CLARANS, 1 = FastCLARANS.\n\t(default = 0)", "search", 1,
+      "-search <num>"));
+
+    result.add(new Option(
+      "\tEvaluate swaps only on the instances whose nearest medoid\n"
+        + "\tcan change. Requires a metric distance function.\n"
+        + "\tOnly applies to the CLARANS search strategy.", "focus", 0,
+      "-focus"));
+
+    result.addElement(new Option(
+      "\tUse canopies to reduce the number of distance calculations\n"
+        + "\twhen evaluating swaps. Only applies to the CLARANS search strategy.",
+      "C", 0, "-C"));
+
+    result
+      .addElement(new Option(
+        "\tMaximum number of candidate canopies to retain in memory\n\t"
+          + "at any one time when using canopy clustering.\n\t"
+          + "T2 distance plus, data characteristics,\n\t"
+          + "will determine how many candidate canopies are formed before\n\t"
+          + "periodic and final pruning are performed, which might result\n\t"
+          + "in exceess memory consumption. This setting avoids large numbers\n\t"
+          + "of candidate canopies consuming memory. (default = 100)",
+        "max-candidates", 1, "-max-candidates <num>"));
+
+    result.addElement(new Option(
+      "\tHow often to prune low density canopies when using canopy clustering.\n\t"
+        + "(default = every 10,000 training instances)", "periodic-pruning", 1,
+      "-periodic-pruning <num>"));
+
+    result.addElement(new Option(
+      "\tMinimum canopy density, when using canopy clustering, below which\n\t"
+        + " a canopy will be pruned during periodic pruning. (default = 2 instances)",
+      "min-density", 1, "-min-density"));
+
+    result.addElement(new Option(
+      "\tThe T2 distance to use when using canopy clustering. Values < 0 indicate that\n\t"
+        + "a heuristic based on attribute std. deviation should be used to set this.\n\t"
+        + "(default = -1.0)", "t2", 1, "-t2"));
+
+    result.addElement(new Option(
+      "\tThe T1 distance to use when using canopy clustering. A value < 0 is taken as a\n\t"
+        + "positive multiplier for T2. (default = -1.25)", "t1", 1, "-t1"));
+
+    result.add(new Option("\tDistance function to use.\n"
+      + "\t(default: weka.core.EuclideanDistance)", "A", 1,
+      "-A <classname and options>"));
+
+    result.addElement(new Option("\tNumber of execution slots.\n"
+      + "\t(default 1 - i.e. no parallelism)", "num-slots", 1,
+      "-num-slots <num>"));
+
+    result.addElement(new Option(
+      "\tCache the distances between instances, within the\n"
+        + "\tmemory budget given by -distance-cache-size.", "distance-cache",
+      0, "-distance-cache"));
+
+    result.addElement(new Option(
+      "\tMemory budget for the distance cache in megabytes.\n"
+        + "\t(default 256)", "distance-cache-size", 1,
+      "-distance-cache-size <MB>"));
+
+    result.addElement(new Option(
+      "\tNearest neighbour search to find the closest medoid with.\n"
+        + "\t(default: weka.core.neighboursearch.KDTree)", "nn-search", 1,
+      "-nn-search <classname and options>"));
+
+    result.addElement(new Option(
+      "\tMinimum number of clusters for which the nearest neighbour\n"
+        + "\tsearch is used instead of scanning all medoids.\n"
+        + "\t(default 256)", "nn-search-min-clusters", 1,
+      "-nn-search-min-clusters <num>"));
+
+    result.addElement(new Option(
+      "\tSize of the samples to cluster instead of all instances,\n"
+        + "\t0 to cluster all instances.\n" + "\t(default 0)", "sample-size",
+      1, "-sample-size <num>"));
+
+    result.addElement(new Option("\tNumber of samples to cluster when "
+      + "sampling.\n" + "\t(default 5)", "num-samples", 1,
+      "-num-samples <num>"));
+
+    result.addElement(new Option(
+      "\tTime limit for the search in seconds, 0 for none.\n"
+        + "\t(default 0)", "time-limit", 1, "-time-limit <seconds>"));
+
+    result.addElement(new Option(
+      "\tMaximum number of neighbors evaluated over all\n"
+        + "\tlocal searches, 0 for no limit.\n" + "\t(default 0)",
+      "max-evaluations", 1, "-max-evaluations <num>"));
+
+    result.addElement(new Option(
+      "\tNumber of instances retained to refine the medoids\n"
+        + "\twith after updates, 0 to retain none.\n" + "\t(default 2000)",
+      "update-window", 1, "-update-window <num>"));
+
+    result.addAll(Collections.list(super.listOptions()));
+
+    return result.elements();
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String numClustersTipText() {
+    return "set number of clusters (the smallest number of clusters to try "
+      + "if maxNumClusters is larger)";
+  }
+
+  /**
+   * set the number of clusters to generate
+   *
+   * @param n the number of clusters to generate
+   * @throws Exception if number of clusters is not positive
+   */
+  public void setNumClusters(int n) throws Exception {
+    if (n <= 0) {
+      throw new Exception("Number of clusters must be > 0");
+    }
+    m_NumClusters = n;
+  }
+
+  /**
+   * gets the number of clusters to generate
+   *
+   * @return the number of clusters to generate
+   */
+  public int getNumClusters() {
+    return m_NumClusters;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String maxNumClustersTipText() {
+    return "The largest number of clusters to try. If larger than "
+      + "numClusters, every number of clusters from numClusters to this one "
+      + "is tried and one is selected with the numClustersSelection criterion.";
+  }
+
+  /**
+   * Sets the largest number of clusters to try.
+   *
+   * @param n the largest number of clusters, not larger than numClusters to
+   *          use numClusters as is
+   */
+  public void setMaxNumClusters(int n) {
+    m_MaxNumClusters = n;
+  }
+
+  /**
+   * Gets the largest number of clusters to try.
+   *
+   * @return the largest number of clusters
+   */
+  public int getMaxNumClusters() {
+    return m_MaxNumClusters;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String numClustersSelectionTipText() {
+    return "The criterion to select the number of clusters with, if a range "
+      + "is given: the largest medoid silhouette (the mean of 1 - d1/d2 over "
+      + "all instances, d1 and d2 being the distances to the nearest and "
+      + "second-nearest medoid), or the elbow of the cost curve.";
+  }
+
+  /**
+   * Set the criterion to select the number of clusters with
+   *
+   * @param selection the criterion to use
+   */
+  public void setNumClustersSelection(SelectedTag selection) {
+    if (selection.getTags() == TAGS_SELECT_K) {
+      m_NumClustersSelection = selection.getSelectedTag().getID();
+    }
+  }
+
+  /**
+   * Get the criterion to select the number of clusters with
+   *
+   * @return the criterion to use
+   */
+  public SelectedTag getNumClustersSelection() {
+    return new SelectedTag(m_NumClustersSelection, TAGS_SELECT_K);
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String numLocalTipText() {
+    return "The number of local minima obtained, i.e. the number of "
+      + "local searches started from a random set of medoids.";
+  }
+
+  /**
+   * Set the number of local minima to obtain.
+   *
+   * @param n the number of local searches
+   * @throws Exception if the number is not positive
+   */
+  public void setNumLocal(int n) throws Exception {
+    if (n <= 0) {
+      throw new Exception("Number of local searches must be > 0");
+    }
+    m_NumLocal = n;
+  }
+
+  /**
+   * Get the number of local minima to obtain.
+   *
+   * @return the number of local searches
+   */
+  public int getNumLocal() {
+    return m_NumLocal;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String maximumNeighborTipText() {
+    return "The maximum number of neighbors examined in a row before a node "
+      + "is taken as a local minimum. The higher the value, the closer is "
+      + "CLARANS to PAM and the longer is each local search, but the quality "
+      + "of the local minima is higher and fewer of them need to be obtained. "
+      + "At least min(" + MIN_MAX_NEIGHBOR + ", k*(n-k)) neighbors are "
+      + "examined.";
+  }
+
+  /**
+   * Set the maximum number of neighbours examined in a row.
+   *
+   * @param n the maximum number of neighbours
+   * @throws Exception if the number is not positive
+   */
+  public void setMaximumNeighbor(int n) throws Exception {
+    if (n <= 0) {
+      throw new Exception("Maximum number of neighbors must be > 0");
+    }
+    m_MaxNeighbor = n;
+  }
+
+  /**
+   * Get the maximum number of neighbours examined in a row.
+   *
+   * @return the maximum number of neighbours
+   */
+  public int getMaximumNeighbor() {
+    return m_MaxNeighbor;
+  }
+
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String initializationMethodTipText() {
+    return "The initialization method to use. Random, or k-medoids++, which "
+      + "chooses medoids with probability proportional to the squared "
+      + "distance to the nearest medoid chosen so far";
+  }
+
+  /**
+   * Set the initialization method to use
+   *
+   * @param method the initialization method to use
+   */
+  public void setInitializationMethod(SelectedTag method) {
+    if (method.getTags() == TAGS_SELECTION) {
+      m_initializationMethod = method.getSelectedTag().getID();
+    }
+  }
+
+  /**
+   * Get the initialization method to use
+   *
+   * @return method the initialization method to use
+   */
+  public SelectedTag getInitializationMethod() {
+    return new SelectedTag(m_initializationMethod, TAGS_SELECTION);
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String searchStrategyTipText() {
+    return "The search strategy to use. CLARANS examines random (medoid, "
+      + "non-medoid) swaps; FastCLARANS examines random non-medoids, "
+      + "evaluates their swaps with all medoids in one pass and applies the "
+      + "best one, needing about k times fewer distance computations for the "
+      + "same number of neighbors examined.";
+  }
+
+  /**
+   * Set the search strategy to use
+   *
+   * @param strategy the search strategy to use
+   */
+  public void setSearchStrategy(SelectedTag strategy) {
+    if (strategy.getTags() == TAGS_SEARCH) {
+      m_SearchStrategy = strategy.getSelectedTag().getID();
+    }
+  }
+
+  /**
+   * Get the search strategy to use
+   *
+   * @return the search strategy to use
+   */
+  public SelectedTag getSearchStrategy() {
+    return new SelectedTag(m_SearchStrategy, TAGS_SEARCH);
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String focusTipText() {
+    return "Evaluate a swap only on the instances whose nearest medoid can "
+      + "change, skipping clusters whose medoid is far from the candidate "
+      + "by the triangle inequality. Gives the same result with far fewer "
+      + "distance computations on low-dimensional data. Requires the "
+      + "distance function to be a metric, so only used with Euclidean, "
+      + "Manhattan or Chebyshev distance. Only applies to the CLARANS "
+      + "search strategy.";
+  }
+
+  /**
+   * Set whether to focus swap evaluation on the instances that may be
+   * affected.
+   *
+   * @param focus true to focus swap evaluation
+   */
+  public void setFocus(boolean focus) {
+    m_Focus = focus;
+  }
+
+  /**
+   * Get whether to focus swap evaluation on the instances that may be
+   * affected.
+   *
+   * @return true if swap evaluation is focused
+   */
+  public boolean getFocus() {
+    return m_Focus;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String reduceNumberOfDistanceCalcsViaCanopiesTipText() {
+    return "Use canopy clustering to reduce the number of distance calculations "
+      + "when evaluating swaps: only the instances that share a canopy with "
+      + "the candidate medoid are looked at. Faster on clustered data, but "
+      + "swaps that only pay off through instances outside the candidate's "
+      + "canopies are missed. Pays off when T2 is about the size of a "
+      + "cluster, so that each instance falls into few canopies. Only "
+      + "applies to the CLARANS search strategy, and takes precedence over "
+      + "focus.";
+  }
+
+  /**
+   * Set whether to use canopies to reduce the number of distance computations
+   * required
+   *
+   * @param c true if canopies are to be used to reduce the number of distance
+   *          computations
+   */
+  public void setReduceNumberOfDistanceCalcsViaCanopies(boolean c) {
+    m_speedUpDistanceCompWithCanopies = c;
+  }
+
+  /**
+   * Get whether to use canopies to reduce the number of distance computations
+   * required
+   *
+   * @return true if canopies are to be used to reduce the number of distance
+   *         computations
+   */
+  public boolean getReduceNumberOfDistanceCalcsViaCanopies() {
+    return m_speedUpDistanceCompWithCanopies;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String canopyPeriodicPruningRateTipText() {
+    return "If using canopy clustering for speedup "
+      + "this is how often to prune low density canopies during training";
+  }
+
+  /**
+   * Set the how often to prune low density canopies during training (if using
+   * canopy clustering)
+   *
+   * @param p how often (every p instances) to prune low density canopies
+   */
+  public void setCanopyPeriodicPruningRate(int p) {
+    m_periodicPruningRate = p;
+  }
+
+  /**
+   * Get the how often to prune low density canopies during training (if using
+   * canopy clustering)
+   *
+   * @return how often (every p instances) to prune low density canopies
+   */
+  public int getCanopyPeriodicPruningRate() {
+    return m_periodicPruningRate;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String canopyMinimumCanopyDensityTipText() {
+    return "If using canopy clustering for speedup "
+      + "this is the minimum T2-based density "
+      + "below which a canopy will be pruned during periodic pruning";
+  }
+
+  /**
+   * Set the minimum T2-based density below which a canopy will be pruned during
+   * periodic pruning.
+   *
+   * @param dens the minimum canopy density
+   */
+  public void setCanopyMinimumCanopyDensity(double dens) {
+    m_minClusterDensity = dens;
+  }
+
+  /**
+   * Get the minimum T2-based density below which a canopy will be pruned during
+   * periodic pruning.
+   *
+   * @return the minimum canopy density
+   */
+  public double getCanopyMinimumCanopyDensity() {
+    return m_minClusterDensity;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String canopyMaxNumCanopiesToHoldInMemoryTipText() {
+    return "If using canopy clustering for speedup "
+      + "this is the maximum number of candidate canopies to "
+      + "retain in main memory during training of the canopy clusterer. "
+      + "T2 distance and data characteristics determine how many candidate "
+      + "canopies are formed before periodic and final pruning are performed. There "
+      + "may not be enough memory available if T2 is set too low.";
+  }
+
+  /**
+   * Set the maximum number of candidate canopies to retain in memory during
+   * training of the canopy clusterer
+   *
+   * @param max the maximum number of candidate canopies to retain in memory
+   *          during training
+   */
+  public void setCanopyMaxNumCanopiesToHoldInMemory(int max) {
+    m_maxCanopyCandidates = max;
+  }
+
+  /**
+   * Get the maximum number of candidate canopies to retain in memory during
+   * training of the canopy clusterer
+   *
+   * @return the maximum number of candidate canopies to retain in memory
+   *         during training
+   */
+  public int getCanopyMaxNumCanopiesToHoldInMemory() {
+    return m_maxCanopyCandidates;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String canopyT2TipText() {
+    return "The T2 distance to use when using canopy clustering. Values < 0 indicate that this should be set using "
+      + "a heuristic based on attribute standard deviation";
+  }
+
+  /**
+   * Set the t2 radius to use when canopy clustering is being used for speedup
+   *
+   * @param t2 the t2 radius to use
+   */
+  public void setCanopyT2(double t2) {
+    m_t2 = t2;
+  }
+
+  /**
+   * Get the t2 radius to use when canopy clustering is being used for speedup
+   *
+   * @return the t2 radius to use
+   */
+  public double getCanopyT2() {
+    return m_t2;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String canopyT1TipText() {
+    return "The T1 distance to use when using canopy clustering. Values < 0 are taken as a positive "
+      + "multiplier for the T2 distance";
+  }
+
+  /**
+   * Set the t1 radius to use when canopy clustering is being used for speedup
+   *
+   * @param t1 the t1 radius to use
+   */
+  public void setCanopyT1(double t1) {
+    m_t1 = t1;
+  }
+
+  /**
+   * Get the t1 radius to use when canopy clustering is being used for speedup
+   *
+   * @return the t1 radius to use
+   */
+  public double getCanopyT1() {
+    return m_t1;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String distanceFunctionTipText() {
+    return "The distance function to use for instances comparison "
+      + "(default: weka.core.EuclideanDistance). ";
+  }
+
+  /**
+   * returns the distance function currently in use.
+   *
+   * @return the distance function
+   */
+  public DistanceFunction getDistanceFunction() {
+    return m_DistanceFunction;
+  }
+
+  /**
+   * sets the distance function to use for instance comparison.
+   *
+   * @param df the new distance function to use
+   */
+  public void setDistanceFunction(DistanceFunction df) {
+    m_DistanceFunction = df;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String numExecutionSlotsTipText() {
+    return "The number of execution slots (threads) to use. "
+      + "Set equal to the number of available cpu/cores. "
+      + "The local searches and k-medoids++ seeding are run concurrently; "
+      + "the result does not depend on the number of slots.";
+  }
+
+  /**
+   * Set the degree of parallelism to use.
+   *
+   * @param slots the number of local searches to run in parallel
+   */
+  public void setNumExecutionSlots(int slots) {
+    m_executionSlots = slots;
+  }
+
+  /**
+   * Get the degree of parallelism to use.
+   *
+   * @return the number of local searches to run in parallel
+   */
+  public int getNumExecutionSlots() {
+    return m_executionSlots;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String cacheDistancesTipText() {
+    return "Cache the distances between instances so that they are computed "
+      + "only once across neighbours and local searches. The full distance "
+      + "matrix is stored (as floats) if it fits into the distance cache size, "
+      + "otherwise as many columns of it as fit, least recently used ones "
+      + "being evicted. If not even the medoids' columns fit, distances are "
+      + "computed on the fly.";
+  }
+
+  /**
+   * Set whether to cache distances between instances.
+   *
+   * @param cache true if distances are to be cached
+   */
+  public void setCacheDistances(boolean cache) {
+    m_CacheDistances = cache;
+  }
+
+  /**
+   * Get whether to cache distances between instances.
+   *
+   * @return true if distances are to be cached
+   */
+  public boolean getCacheDistances() {
+    return m_CacheDistances;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String distanceCacheSizeTipText() {
+    return "The memory budget for the distance cache in megabytes.";
+  }
+
+  /**
+   * Set the memory budget for the distance cache.
+   *
+   * @param size the budget in megabytes
+   * @throws Exception if the size is negative
+   */
+  public void setDistanceCacheSize(int size) throws Exception {
+    if (size < 0) {
+      throw new Exception("Distance cache size must be >= 0");
+    }
+    m_DistanceCacheSize = size;
+  }
+
+  /**
+   * Get the memory budget for the distance cache.
+   *
+   * @return the budget in megabytes
+   */
+  public int getDistanceCacheSize() {
+    return m_DistanceCacheSize;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String nearestNeighbourSearchAlgorithmTipText() {
+    return "The nearest neighbour search algorithm used to find the closest "
+      + "medoid when assigning instances, if there are at least "
+      + "minClustersForNNSearch clusters and the distance function is the "
+      + "Euclidean distance (default: weka.core.neighboursearch.KDTree).";
+  }
+
+  /**
+   * Set the nearest neighbour search used to find the closest medoid.
+   *
+   * @param nearestNeighbourSearchAlgorithm the nearest neighbour search
+   */
+  public void setNearestNeighbourSearchAlgorithm(
+    NearestNeighbourSearch nearestNeighbourSearchAlgorithm) {
+    m_NNSearch = nearestNeighbourSearchAlgorithm;
+  }
+
+  /**
+   * Get the nearest neighbour search used to find the closest medoid.
+   *
+   * @return the nearest neighbour search
+   */
+  public NearestNeighbourSearch getNearestNeighbourSearchAlgorithm() {
+    return m_NNSearch;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String minClustersForNNSearchTipText() {
+    return "The minimum number of clusters for which the nearest neighbour "
+      + "search is used. With fewer clusters all medoids are scanned.";
+  }
+
+  /**
+   * Set the minimum number of clusters for which the nearest neighbour search
+   * is used.
+   *
+   * @param minClusters the minimum number of clusters
+   */
+  public void setMinClustersForNNSearch(int minClusters) {
+    m_MinClustersForNNSearch = minClusters;
+  }
+
+  /**
+   * Get the minimum number of clusters for which the nearest neighbour search
+   * is used.
+   *
+   * @return the minimum number of clusters
+   */
+  public int getMinClustersForNNSearch() {
+    return m_MinClustersForNNSearch;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String sampleSizeTipText() {
+    return "If greater than 0 and there are more instances than this, CLARANS "
+      + "is run on numSamples random samples of this size instead of on all "
+      + "instances, and the medoids of the sample that fit all instances best "
+      + "are kept (as in CLARA). Ng and Han suggest 40 + 2k instances per "
+      + "sample. When building from an incremental data source, only the "
+      + "samples are held in memory.";
+  }
+
+  /**
+   * Set the size of the samples to cluster.
+   *
+   * @param size the sample size, 0 to cluster all instances
+   * @throws Exception if the size is negative
+   */
+  public void setSampleSize(int size) throws Exception {
+    if (size < 0) {
+      throw new Exception("Sample size must be >= 0");
+    }
+    m_SampleSize = size;
+  }
+
+  /**
+   * Get the size of the samples to cluster.
+   *
+   * @return the sample size, 0 to cluster all instances
+   */
+  public int getSampleSize() {
+    return m_SampleSize;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String numSamplesTipText() {
+    return "The number of samples to cluster when sampleSize is set.";
+  }
+
+  /**
+   * Set the number of samples to cluster.
+   *
+   * @param numSamples the number of samples
+   * @throws Exception if the number is less than 1
+   */
+  public void setNumSamples(int numSamples) throws Exception {
+    if (numSamples < 1) {
+      throw new Exception("Number of samples must be > 0");
+    }
+    m_NumSamples = numSamples;
+  }
+
+  /**
+   * Get the number of samples to cluster.
+   *
+   * @return the number of samples
+   */
+  public int getNumSamples() {
+    return m_NumSamples;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String timeLimitTipText() {
+    return "The time limit for the search in seconds, 0 for none. When it is "
+      + "reached, the best medoids found so far are returned; the result then "
+      + "depends on the speed of the machine.";
+  }
+
+  /**
+   * Set the time limit for the search.
+   *
+   * @param timeLimit the time limit in seconds, 0 for none
+   * @throws Exception if the time limit is negative
+   */
+  public void setTimeLimit(double timeLimit) throws Exception {
+    if (timeLimit < 0) {
+      throw new Exception("Time limit must be >= 0");
+    }
+    m_TimeLimit = timeLimit;
+  }
+
+  /**
+   * Get the time limit for the search.
+   *
+   * @return the time limit in seconds, 0 for none
+   */
+  public double getTimeLimit() {
+    return m_TimeLimit;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String maxEvaluationsTipText() {
+    return "The maximum number of neighbors evaluated over all local searches "
+      + "(and samples), 0 for no limit. When it is reached, the best medoids "
+      + "found so far are returned.";
+  }
+
+  /**
+   * Set the maximum number of neighbors to evaluate.
+   *
+   * @param maxEvaluations the maximum number, 0 for no limit
+   * @throws Exception if the number is negative
+   */
+  public void setMaxEvaluations(long maxEvaluations) throws Exception {
+    if (maxEvaluations < 0) {
+      throw new Exception("Maximum number of evaluations must be >= 0");
+    }
+    m_MaxEvaluations = maxEvaluations;
+  }
+
+  /**
+   * Get the maximum number of neighbors to evaluate.
+   *
+   * @return the maximum number, 0 for no limit
+   */
+  public long getMaxEvaluations() {
+    return m_MaxEvaluations;
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String updateWindowTipText() {
+    return "The number of instances retained, as a uniform sample of all "
+      + "instances seen, to refine the medoids with when updating the "
+      + "clusterer has finished. 0 retains none, so updates only assign "
+      + "instances to the existing medoids. A clusterer built from the "
+      + "structure of the data only collects the instances it is given until "
+      + "the window is full, is built from them and is then updated as usual; "
+      + "with a window of 0 it collects all instances and is built from them "
+      + "when updating has finished.";
+  }
+
+  /**
+   * Set the number of instances retained for refining after updates.
+   *
+   * @param window the number of instances, 0 for none
+   * @throws Exception if the number is negative
+   */
+  public void setUpdateWindow(int window) throws Exception {
+    if (window < 0) {
+      throw new Exception("Update window must be >= 0");
+    }
+    m_UpdateWindow = window;
+  }
+
+  /**
+   * Get the number of instances retained for refining after updates.
+   *
+   * @return the number of instances, 0 for none
+   */
+  public int getUpdateWindow() {
+    return m_UpdateWindow;
+  }
+
+  /**
+   * Parses a given list of options.
+   * <p/>
+   *
+   <!-- options-start -->
+   * Valid options are: <p/>
+   *
+   * <pre> -clusters &lt;integer or range&gt;
+   *  Number of clusters, or a range of numbers of clusters
+   *  to select from (e.g. 2-30).
+   *  (default 3).</pre>
+   *
+   * <pre> -k-selection &lt;num&gt;
+   *  Criterion to select the number of clusters with.
+   *  0 = medoid silhouette, 1 = elbow.
+   *  (default = 0)</pre>
+   *
+   * <pre> -numlocal &lt;integer&gt;
+   *  The number of local minima obtained (number of local searches).
+   *  (default 6).</pre>
+   *
+   * <pre> -maximumneighbor &lt;integer&gt;
+   *  The maximum number of neighbors examined in a row
+   *  before a node is taken as a local minimum.
+   *  At least min(100, k*(n-k)) neighbors are examined.
+   *  (default 4).</pre>
+   *
+   * <pre> -init
+   *  Initialization method to use.
+   *  0 = random, 1 = k-medoids++.
+   *  (default = 1)</pre>
+   *
+   * <pre> -search &lt;num&gt;
+   *  Search strategy to use.
+   *  0 = CLARANS, 1 = FastCLARANS.
+   *  (default = 0)</pre>
+   *
+   * <pre> -focus
+   *  Evaluate swaps only on the instances whose nearest medoid
+   *  can change. Requires a metric distance function.
+   *  Only applies to the CLARANS search strategy.</pre>
+   *
+   * <pre> -C
+   *  Use canopies to reduce the number of distance calculations
+   *  when evaluating swaps. Only applies to the CLARANS search strategy.</pre>
+   *
+   * <pre> -max-candidates &lt;num&gt;
+   *  Maximum number of candidate canopies to retain in memory
+   *  at any one time when using canopy clustering.
+   *  T2 distance plus, data characteristics,
+   *  will determine how many candidate canopies are formed before
+   *  periodic and final pruning are performed, which might result
+   *  in exceess memory consumption. This setting avoids large numbers
+   *  of candidate canopies consuming memory. (default = 100)</pre>
+   *
+   * <pre> -periodic-pruning &lt;num&gt;
+   *  How often to prune low density canopies when using canopy clustering.
+   *  (default = every 10,000 training instances)</pre>
+   *
+   * <pre> -min-density
+   *  Minimum canopy density, when using canopy clustering, below which
+   *   a canopy will be pruned during periodic pruning. (default = 2 instances)</pre>
+   *
+   * <pre> -t2
+   *  The T2 distance to use when using canopy clustering. Values &lt; 0 indicate that
+   *  a heuristic based on attribute std. deviation should be used to set this.
+   *  (default = -1.0)</pre>
+   *
+   * <pre> -t1
+   *  The T1 distance to use when using canopy clustering. A value &lt; 0 is taken as a
+   *  positive multiplier for T2. (default = -1.25)</pre>
+   *
+   * <pre> -A &lt;classname and options&gt;
+   *  Distance function to use.
+   *  (default: weka.core.EuclideanDistance)</pre>
+   *
+   * <pre> -num-slots &lt;num&gt;
+   *  Number of execution slots.
+   *  (default 1 - i.e. no parallelism)</pre>
+   *
+   * <pre> -distance-cache
+   *  Cache the distances between instances, within the
+   *  memory budget given by -distance-cache-size.</pre>
+   *
+   * <pre> -distance-cache-size &lt;MB&gt;
+   *  Memory budget for the distance cache in megabytes.
+   *  (default 256)</pre>
+   *
+   * <pre> -nn-search &lt;classname and options&gt;
+   *  Nearest neighbour search to find the closest medoid with.
+   *  (default: weka.core.neighboursearch.KDTree)</pre>
+   *
+   * <pre> -nn-search-min-clusters &lt;num&gt;
+   *  Minimum number of clusters for which the nearest neighbour
+   *  search is used instead of scanning all medoids.
+   *  (default 256)</pre>
+   *
+   * <pre> -sample-size &lt;num&gt;
+   *  Size of the samples to cluster instead of all instances,
+   *  0 to cluster all instances.
+   *  (default 0)</pre>
+   *
+   * <pre> -num-samples &lt;num&gt;
+   *  Number of samples to cluster when sampling.
+   *  (default 5)</pre>
+   *
+   * <pre> -time-limit &lt;seconds&gt;
+   *  Time limit for the search in seconds, 0 for none.
+   *  (default 0)</pre>
+   *
+   * <pre> -max-evaluations &lt;num&gt;
+   *  Maximum number of neighbors evaluated over all
+   *  local searches, 0 for no limit.
+   *  (default 0)</pre>
+   *
+   * <pre> -update-window &lt;num&gt;
+   *  Number of instances retained to refine the medoids
+   *  with after updates, 0 to retain none.
+   *  (default 2000)</pre>
+   *
+   * <pre> -S &lt;num&gt;
+   *  Random number seed.
+   *  (default 1)</pre>
+   *
+   * <pre> -output-debug-info
+   *  If set, clusterer is run in debug mode and
+   *  may output additional info to the console</pre>
+   *
+   * <pre> -do-not-check-capabilities
+   *  If set, clusterer capabilities are not checked before clusterer is built
+   *  (use with caution).</pre>
+   *
+   <!-- options-end -->
+   *
+   * @param options the list of options as an array of strings
+   * @throws Exception if an option is not supported
+   */
+  @Override
+  public void setOptions(String[] options) throws Exception {
+
+    String optionString = Utils.getOption("clusters", options);
+    if (optionString.length() != 0) {
+      int dash = optionString.indexOf('-', 1);
+      if (dash > 0) {
+        setNumClusters(Integer.parseInt(optionString.substring(0, dash)));
+        setMaxNumClusters(Integer.parseInt(optionString.substring(dash + 1)));
+      } else {
+        setNumClusters(Integer.parseInt(optionString));
+        setMaxNumClusters(0);
+      }
+    } else {
+      setNumClusters(3);
+      setMaxNumClusters(0);
+    }
+
+    String selectionS = Utils.getOption("k-selection", options);
+    if (selectionS.length() > 0) {
+      setNumClustersSelection(new SelectedTag(Integer.parseInt(selectionS),
+        TAGS_SELECT_K));
+    } else {
+      setNumClustersSelection(new SelectedTag(SELECT_SILHOUETTE, TAGS_SELECT_K));
+    }
+
+    optionString = Utils.getOption("numlocal", options);
+    if (optionString.length() != 0) {
+      setNumLocal(Integer.parseInt(optionString));
+    }
+
+    optionString = Utils.getOption("maximumneighbor", options);
+    if (optionString.length() != 0) {
+      setMaximumNeighbor(Integer.parseInt(optionString));
+    }
+
+    String initM = Utils.getOption("init", options);
+    if (initM.length() > 0) {
+      setInitializationMethod(new SelectedTag(Integer.parseInt(initM),
+        TAGS_SELECTION));
+    } else {
+      setInitializationMethod(new SelectedTag(KMEDOIDS_PLUS_PLUS,
+        TAGS_SELECTION));
+    }
+
+    String searchS = Utils.getOption("search", options);
+    if (searchS.length() > 0) {
+      setSearchStrategy(new SelectedTag(Integer.parseInt(searchS),
+        TAGS_SEARCH));
+    } else {
+      setSearchStrategy(new SelectedTag(SEARCH_CLARANS, TAGS_SEARCH));
+    }
+
+    m_Focus = Utils.getFlag("focus", options);
+
+    m_speedUpDistanceCompWithCanopies = Utils.getFlag('C', options);
+
+    optionString = Utils.getOption("max-candidates", options);
+    if (optionString.length() > 0) {
+      setCanopyMaxNumCanopiesToHoldInMemory(Integer.parseInt(optionString));
+    }
+
+    optionString = Utils.getOption("periodic-pruning", options);
+    if (optionString.length() > 0) {
+      setCanopyPeriodicPruningRate(Integer.parseInt(optionString));
+    }
+
+    optionString = Utils.getOption("min-density", options);
+    if (optionString.length() > 0) {
+      setCanopyMinimumCanopyDensity(Double.parseDouble(optionString));
+    }
+
+    optionString = Utils.getOption("t2", options);
+    if (optionString.length() > 0) {
+      setCanopyT2(Double.parseDouble(optionString));
+    }
+
+    optionString = Utils.getOption("t1", options);
+    if (optionString.length() > 0) {
+      setCanopyT1(Double.parseDouble(optionString));
+    }
+
+    String distFunctionClass = Utils.getOption('A', options);
+    if (distFunctionClass.length() != 0) {
+      String distFunctionClassSpec[] = Utils.splitOptions(distFunctionClass);
+      if (distFunctionClassSpec.length == 0) {
+        throw new Exception("Invalid DistanceFunction specification string.");
+      }
+      String className = distFunctionClassSpec[0];
+      distFunctionClassSpec[0] = "";
+
+      setDistanceFunction((DistanceFunction) Utils.forName(
+        DistanceFunction.class, className, distFunctionClassSpec));
+    } else {
+      setDistanceFunction(new EuclideanDistance());
+    }
+
+    String slotsS = Utils.getOption("num-slots", options);
+    if (slotsS.length() > 0) {
+      setNumExecutionSlots(Integer.parseInt(slotsS));
+    } else {
+      setNumExecutionSlots(1);
+    }
+
+    m_CacheDistances = Utils.getFlag("distance-cache", options);
+
+    optionString = Utils.getOption("distance-cache-size", options);
+    if (optionString.length() != 0) {
+      setDistanceCacheSize(Integer.parseInt(optionString));
+    } else {
+      setDistanceCacheSize(256);
+    }
+
+    String nnSearchClass = Utils.getOption("nn-search", options);
+    if (nnSearchClass.length() != 0) {
+      String nnSearchClassSpec[] = Utils.splitOptions(nnSearchClass);
+      if (nnSearchClassSpec.length == 0) {
+        throw new Exception("Invalid NearestNeighbourSearch algorithm "
+          + "specification string.");
+      }
+      String className = nnSearchClassSpec[0];
+      nnSearchClassSpec[0] = "";
+
+      setNearestNeighbourSearchAlgorithm((NearestNeighbourSearch) Utils
+        .forName(NearestNeighbourSearch.class, className, nnSearchClassSpec));
+    } else {
+      setNearestNeighbourSearchAlgorithm(new KDTree());
+    }
+
+    optionString = Utils.getOption("nn-search-min-clusters", options);
+    if (optionString.length() != 0) {
+      setMinClustersForNNSearch(Integer.parseInt(optionString));
+    } else {
+      setMinClustersForNNSearch(256);
+    }
+
+    optionString = Utils.getOption("sample-size", options);
+    if (optionString.length() != 0) {
+      setSampleSize(Integer.parseInt(optionString));
+    } else {
+      setSampleSize(0);
+    }
+
+    optionString = Utils.getOption("num-samples", options);
+    if (optionString.length() != 0) {
+      setNumSamples(Integer.parseInt(optionString));
+    } else {
+      setNumSamples(5);
+    }
+
+    optionString = Utils.getOption("time-limit", options);
+    if (optionString.length() != 0) {
+      setTimeLimit(Double.parseDouble(optionString));
+    } else {
+      setTimeLimit(0);
+    }
+
+    optionString = Utils.getOption("max-evaluations", options);
+    if (optionString.length() != 0) {
+      setMaxEvaluations(Long.parseLong(optionString));
+    } else {
+      setMaxEvaluations(0);
+    }
+
+    optionString = Utils.getOption("update-window", options);
+    if (optionString.length() != 0) {
+      setUpdateWindow(Integer.parseInt(optionString));
+    } else {
+      setUpdateWindow(2000);
+    }
+
+    super.setOptions(options);
+  }
+
+  /**
+   * Gets the current settings of CLARANS
+   *
+   * @return an array of strings suitable for passing to setOptions()
+   */
+  @Override
+  public String[] getOptions() {
+
+    Vector<String> result = new Vector<String>();
+
+    result.add("-clusters");
+    if (m_MaxNumClusters > m_NumClusters) {
+      result.add(getNumClusters() + "-" + getMaxNumClusters());
+    } else {
+      result.add("" + getNumClusters());
+    }
+
+    result.add("-k-selection");
+    result.add("" + getNumClustersSelection().getSelectedTag().getID());
+
+    result.add("-numlocal");
+    result.add("" + getNumLocal());
+
+    result.add("-maximumneighbor");
+    result.add("" + getMaximumNeighbor());
+
+    result.add("-init");
+    result.add("" + getInitializationMethod().getSelectedTag().getID());
+
+    result.add("-search");
+    result.add("" + getSearchStrategy().getSelectedTag().getID());
+
+    if (m_Focus) {
+      result.add("-focus");
+    }
+
+    if (m_speedUpDistanceCompWithCanopies) {
+      result.add("-C");
+    }
+
+    result.add("-max-candidates");
+    result.add("" + getCanopyMaxNumCanopiesToHoldInMemory());
+    result.add("-periodic-pruning");
+    result.add("" + getCanopyPeriodicPruningRate());
+    result.add("-min-density");
+    result.add("" + getCanopyMinimumCanopyDensity());
+    result.add("-t1");
+    result.add("" + getCanopyT1());
+    result.add("-t2");
+    result.add("" + getCanopyT2());
+
+    result.add("-A");
+    result.add((m_DistanceFunction.getClass().getName() + " " + Utils
+      .joinOptions(m_DistanceFunction.getOptions())).trim());
+
+    result.add("-num-slots");
+    result.add("" + getNumExecutionSlots());
+
+    if (m_CacheDistances) {
+      result.add("-distance-cache");
+    }
+
+    result.add("-distance-cache-size");
+    result.add("" + getDistanceCacheSize());
+
+    result.add("-nn-search");
+    result.add(m_NNSearch.getClass().getName() + " "
+      + Utils.joinOptions(m_NNSearch.getOptions()));
+
+    result.add("-nn-search-min-clusters");
+    result.add("" + getMinClustersForNNSearch());
+
+    result.add("-sample-size");
+    result.add("" + getSampleSize());
+
+    result.add("-num-samples");
+    result.add("" + getNumSamples());
+
+    result.add("-time-limit");
+    result.add("" + getTimeLimit());
+
+    result.add("-max-evaluations");
+    result.add("" + getMaxEvaluations());
+
+    result.add("-update-window");
+    result.add("" + getUpdateWindow());
+
+    Collections.addAll(result, super.getOptions());
+
+    return result.toArray(new String[result.size()]);
+  }
+
+  /**
+   * return a string describing this clusterer
+   *
+   * @return a description of the clusterer as a string
+   */
+  @Override
+  public String toString() {
+    if (m_ClusterMedoids == null) {
+      return "No clusterer built yet!";
+    }
+
+    StringBuffer temp = new StringBuffer();
+
+    temp.append("\nCLARANS\n=======\n");
+    temp.append("\nNumber of local searches: " + m_NumLocal);
+    if (m_SweepNumClusters != null) {
+      temp.append("\nNumber of clusters selected by "
+        + ((m_NumClustersSelection == SELECT_ELBOW) ? "elbow" : "medoid silhouette")
+        + ": " + m_ClusterMedoids.numInstances());
+      temp.append("\n\n   k        cost  silhouette");
+      for (int i = 0; i < m_SweepNumClusters.length; i++) {
+        temp.append("\n" + Utils.padLeft("" + m_SweepNumClusters[i], 4)
+          + Utils.doubleToString(m_SweepCost[i], 12, 4)
+          + Utils.doubleToString(m_SweepSilhouette[i], 12, 4));
+      }
+      temp.append("\n");
+    }
+    if (m_Sampled) {
+      temp.append("\nNumber of samples: " + m_NumSamples + " of size "
+        + m_SampleSize);
+    }
+    if (m_Refined) {
+      temp.append("\nMedoids refined on " + m_Window.numInstances()
+        + " retained of " + m_NumSeen + " instances seen");
+    }
+    if (m_Estimated) {
+      temp.append("\nCluster sizes and sum of distances are estimated from "
+        + "the retained instances");
+    }
+    if (m_NumUpdates > 0) {
+      temp.append("\nInstances added since fitting: " + m_NumUpdates
+        + " (cost drift " + Utils.doubleToString(getCostDrift(), 4) + ")");
+    }
+    if (m_speedUpDistanceCompWithCanopies && m_canopyClusters != null) {
+      temp.append("\nSwaps evaluated on "
+        + m_canopyClusters.getCanopies().numInstances() + " canopies");
+      temp.append("\nCanopy T2 radius: "
+        + String.format("%-10.3f", m_canopyClusters.getActualT2()));
+      temp.append("\nCanopy T1 radius: "
+        + String.format("%-10.3f", m_canopyClusters.getActualT1()));
+    }
+    if ((m_Focus || m_speedUpDistanceCompWithCanopies)
+      && m_SearchStrategy == SEARCH_CLARANS) {
+      temp.append("\nDistance calculations avoided in swap evaluation: "
+        + m_NumDistanceCalcsAvoided);
+    }
+    if (m_BudgetExhausted) {
+      temp.append("\nSearch stopped early (budget exhausted or stopped)");
+    }
+    temp.append("\nSum of distances to medoids: "
+      + Utils.doubleToString(m_Cost, 4));
+
+    temp.append("\n\nCluster medoids:\n");
+    for (int i = 0; i < m_ClusterMedoids.numInstances(); i++) {
+      temp.append("\nCluster " + i + " (");
+      if (m_MedoidIndices != null) {
+        temp.append("instance " + (m_MedoidIndices[i] + 1) + ", ");
+      }
+      temp.append("size " + Utils.doubleToString(m_ClusterSizes[i], 2)
+        + ")\n\t");
+      for (int j = 0; j < m_ClusterMedoids.numAttributes(); j++) {
+        if (m_ClusterMedoids.attribute(j).isNominal()) {
+          temp.append(" "
+            + m_ClusterMedoids.attribute(j).value(
+              (int) m_ClusterMedoids.instance(i).value(j)));
+        } else {
+          temp.append(" " + m_ClusterMedoids.instance(i).value(j));
+        }
+      }
+    }
+    temp.append("\n\n");
+    return temp.toString();
+  }
+
+  /**
+   * Returns the revision string.
+   *
+   * @return the revision
+   */
+  @Override
+  public String getRevision() {
+    return RevisionUtils.extract("$Revision$");
+  }
+
+  /**
+   * Main method for testing this class.
+   *
+   * @param argv should contain the following arguments:
+   *          <p>
+   *          -t training file [-clusters number of clusters]
+   */
+  public static void main(String[] argv) {
+    runClusterer(new CLARANS(), argv);
+  }
 }
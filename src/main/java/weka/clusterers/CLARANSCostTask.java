@@ -0,0 +1,127 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    CLARANSCostTask.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers;
+
+import weka.core.Instances;
+import weka.core.RevisionHandler;
+import weka.core.RevisionUtils;
+import weka.core.SerializedObject;
+import weka.experiment.Task;
+import weka.experiment.TaskStatusInfo;
+
+/**
+ * Evaluates candidate medoid sets on a partition of the instances as a task
+ * that can be executed on a remote host. The result is a double[][] with one
+ * row per candidate set: the cost (sum of the distances to the nearest
+ * medoid) in the first column, followed by the weight of each cluster.
+ *
+ * @version $Revision$
+ * @see RemoteCLARANS
+ */
+public class CLARANSCostTask implements Task, RevisionHandler {
+
+  /** for serialization */
+  private static final long serialVersionUID = -2946186232466733915L;
+
+  /** info on the task */
+  protected TaskStatusInfo m_Result = new TaskStatusInfo();
+
+  /** the configured CLARANS, with an initialized distance function */
+  protected SerializedObject m_Clusterer;
+
+  /** the candidate medoid sets */
+  protected SerializedObject m_Candidates;
+
+  /** the partition to evaluate on, missing values already replaced */
+  protected SerializedObject m_Data;
+
+  /**
+   * Constructor. The serialized objects can be shared between tasks.
+   *
+   * @param clusterer the configured CLARANS (a serialized CLARANS)
+   * @param candidates the candidate medoid sets (a serialized Instances[])
+   * @param data the partition to evaluate on (a serialized Instances)
+   */
+  public CLARANSCostTask(SerializedObject clusterer,
+    SerializedObject candidates, SerializedObject data) {
+    m_Clusterer = clusterer;
+    m_Candidates = candidates;
+    m_Data = data;
+    m_Result.setStatusMessage("Not running.");
+    m_Result.setExecutionStatus(TaskStatusInfo.TO_BE_RUN);
+  }
+
+  /**
+   * Evaluates the candidates.
+   */
+  @Override
+  public void execute() {
+    m_Result = new TaskStatusInfo();
+    m_Result.setStatusMessage("Running...");
+    try {
+      CLARANS clarans = (CLARANS) m_Clusterer.getObject();
+      Instances[] candidates = (Instances[]) m_Candidates.getObject();
+      Instances data = (Instances) m_Data.getObject();
+
+      double[] costs = new double[candidates.length];
+      double[][] sizes = new double[candidates.length][];
+      for (int j = 0; j < candidates.length; j++) {
+        sizes[j] = new double[candidates[j].numInstances()];
+      }
+      for (int i = 0; i < data.numInstances(); i++) {
+        clarans.evaluateCandidates(data.instance(i), candidates, costs, sizes);
+      }
+
+      double[][] result = new double[candidates.length][];
+      for (int j = 0; j < candidates.length; j++) {
+        result[j] = new double[sizes[j].length + 1];
+        result[j][0] = costs[j];
+        System.arraycopy(sizes[j], 0, result[j], 1, sizes[j].length);
+      }
+
+      m_Result.setTaskResult(result);
+      m_Result.setExecutionStatus(TaskStatusInfo.FINISHED);
+      m_Result.setStatusMessage("CLARANS cost evaluation on "
+        + data.numInstances() + " instances completed successfully.");
+    } catch (Exception ex) {
+      ex.printStackTrace();
+      m_Result.setExecutionStatus(TaskStatusInfo.FAILED);
+      m_Result.setStatusMessage("CLARANS cost evaluation failed : "
+        + ex.toString());
+    }
+  }
+
+  @Override
+  public TaskStatusInfo getTaskStatus() {
+    return m_Result;
+  }
+
+  /**
+   * Returns the revision string.
+   *
+   * @return the revision
+   */
+  @Override
+  public String getRevision() {
+    return RevisionUtils.extract("$Revision$");
+  }
+}
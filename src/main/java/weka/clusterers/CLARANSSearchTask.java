@@ -0,0 +1,118 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    CLARANSSearchTask.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers;
+
+import weka.clusterers.medoids.MedoidSolution;
+import weka.core.Instances;
+import weka.core.RevisionHandler;
+import weka.core.RevisionUtils;
+import weka.core.SerializedObject;
+import weka.experiment.Task;
+import weka.experiment.TaskStatusInfo;
+
+/**
+ * Runs CLARANS local searches on a set of instances as a task that can be
+ * executed on a remote host. The result is a MedoidSolution holding the
+ * indices of the medoids in the instances and their cost (but no
+ * assignments).
+ *
+ * @version $Revision$
+ * @see RemoteCLARANS
+ */
+public class CLARANSSearchTask implements Task, RevisionHandler {
+
+  /** for serialization */
+  private static final long serialVersionUID = 5021418713564069212L;
+
+  /** info on the task */
+  protected TaskStatusInfo m_Result = new TaskStatusInfo();
+
+  /**
+   * the configured CLARANS, with a distance function initialized for the
+   * instances
+   */
+  protected SerializedObject m_Clusterer;
+
+  /** the instances to cluster, missing values already replaced */
+  protected SerializedObject m_Data;
+
+  /** the seed for the local searches */
+  protected long m_Seed;
+
+  /**
+   * Constructor. The serialized objects can be shared between tasks.
+   *
+   * @param clusterer the configured CLARANS (a serialized CLARANS)
+   * @param data the instances to cluster (a serialized Instances)
+   * @param seed the seed for the local searches
+   */
+  public CLARANSSearchTask(SerializedObject clusterer, SerializedObject data,
+    long seed) {
+    m_Clusterer = clusterer;
+    m_Data = data;
+    m_Seed = seed;
+    m_Result.setStatusMessage("Not running.");
+    m_Result.setExecutionStatus(TaskStatusInfo.TO_BE_RUN);
+  }
+
+  /**
+   * Runs the local searches.
+   */
+  @Override
+  public void execute() {
+    m_Result = new TaskStatusInfo();
+    m_Result.setStatusMessage("Running...");
+    try {
+      CLARANS clarans = (CLARANS) m_Clusterer.getObject();
+      Instances data = (Instances) m_Data.getObject();
+
+      clarans.m_Budget = clarans.createBudget();
+      int numInstances = data.numInstances();
+      clarans.buildMedoids(data, m_Seed);
+
+      m_Result.setTaskResult(new MedoidSolution(clarans.m_MedoidIndices, null,
+        clarans.m_Cost));
+      m_Result.setExecutionStatus(TaskStatusInfo.FINISHED);
+      m_Result.setStatusMessage("CLARANS search on " + numInstances
+        + " instances completed successfully.");
+    } catch (Exception ex) {
+      ex.printStackTrace();
+      m_Result.setExecutionStatus(TaskStatusInfo.FAILED);
+      m_Result.setStatusMessage("CLARANS search failed : " + ex.toString());
+    }
+  }
+
+  @Override
+  public TaskStatusInfo getTaskStatus() {
+    return m_Result;
+  }
+
+  /**
+   * Returns the revision string.
+   *
+   * @return the revision
+   */
+  @Override
+  public String getRevision() {
+    return RevisionUtils.extract("$Revision$");
+  }
+}
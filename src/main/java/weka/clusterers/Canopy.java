@@ -22,12 +22,17 @@
 package weka.clusterers;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Random;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import weka.classifiers.rules.DecisionTableHashKey;
 import weka.core.AttributeStats;
@@ -108,6 +113,10 @@ import weka.filters.unsupervised.attribute.ReplaceMissingValues;
  *  Don't replace missing values with mean/mode when running in batch mode.
  * </pre>
  * 
+ * <pre> -num-slots &lt;num&gt;
+ *  Number of execution slots.
+ *  (default 1 - i.e. no parallelism)</pre>
+ * 
  * <pre> -S &lt;num&gt;
  *  Random number seed.
  *  (default 1)</pre>
@@ -215,6 +224,15 @@ public class Canopy extends RandomizableClusterer implements
    */
   protected Instances m_trainingData;
 
+  /**
+   * Number of threads to use for forming the canopies in batch mode and for
+   * batch canopy assignment
+   */
+  protected int m_executionSlots = 1;
+
+  /** For parallel execution mode */
+  protected transient ExecutorService m_executorPool;
+
   /**
    * Returns a string describing this clusterer.
    * 
@@ -324,6 +342,10 @@ public class Canopy extends RandomizableClusterer implements
       "\tDon't replace missing values with mean/mode when "
         + "running in batch mode.\n", "M", 0, "-M"));
 
+    result.addElement(new Option("\tNumber of execution slots.\n"
+      + "\t(default 1 - i.e. no parallelism)", "num-slots", 1,
+      "-num-slots <num>"));
+
     result.addAll(Collections.list(super.listOptions()));
 
     return result.elements();
@@ -370,6 +392,10 @@ public class Canopy extends RandomizableClusterer implements
    *  Don't replace missing values with mean/mode when running in batch mode.
    * </pre>
    * 
+   * <pre> -num-slots &lt;num&gt;
+   *  Number of execution slots.
+   *  (default 1 - i.e. no parallelism)</pre>
+   * 
    * <pre> -S &lt;num&gt;
    *  Random number seed.
    *  (default 1)</pre>
@@ -422,6 +448,11 @@ public class Canopy extends RandomizableClusterer implements
 
     setDontReplaceMissingValues(Utils.getFlag('M', options));
 
+    temp = Utils.getOption("num-slots", options);
+    if (temp.length() > 0) {
+      setNumExecutionSlots(Integer.parseInt(temp));
+    }
+
     super.setOptions(options);
   }
 
@@ -452,6 +483,9 @@ public class Canopy extends RandomizableClusterer implements
       result.add("-M");
     }
 
+    result.add("-num-slots");
+    result.add("" + getNumExecutionSlots());
+
     Collections.addAll(result, super.getOptions());
 
     return result.toArray(new String[result.size()]);
@@ -511,6 +545,75 @@ public class Canopy extends RandomizableClusterer implements
       inst = m_missingValuesReplacer.output();
     }
 
+    return computeCanopyAssignment(inst);
+  }
+
+  /**
+   * Uses T1 distance to assign canopies to each of the supplied instances. The
+   * distance computations are split among the execution slots.
+   * 
+   * @param insts the instances to find covering canopies for
+   * @return a list holding the set of canopies that contain each instance
+   *         according to T1 distance, in the order of the instances
+   * @throws Exception if a problem occurs
+   */
+  public List<long[]> assignCanopies(Instances insts) throws Exception {
+    final Instance[] toAssign = new Instance[insts.numInstances()];
+    for (int i = 0; i < insts.numInstances(); i++) {
+      Instance inst = insts.instance(i);
+      // the filter is not thread-safe, so missing values are replaced up front
+      if (m_missingValuesReplacer != null) {
+        m_missingValuesReplacer.input(inst);
+        inst = m_missingValuesReplacer.output();
+      }
+      toAssign[i] = inst;
+    }
+
+    final long[][] assigned = new long[toAssign.length][];
+    if (m_executionSlots <= 1 || toAssign.length < 2 * m_executionSlots) {
+      for (int i = 0; i < toAssign.length; i++) {
+        assigned[i] = computeCanopyAssignment(toAssign[i]);
+      }
+      return new ArrayList<long[]>(Arrays.asList(assigned));
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(m_executionSlots);
+    try {
+      int numPerTask = toAssign.length / m_executionSlots;
+      List<Future<Void>> results = new ArrayList<Future<Void>>();
+      for (int i = 0; i < m_executionSlots; i++) {
+        final int start = i * numPerTask;
+        final int end = (i == m_executionSlots - 1) ? toAssign.length : start
+          + numPerTask;
+        results.add(pool.submit(new Callable<Void>() {
+          @Override
+          public Void call() {
+            for (int j = start; j < end; j++) {
+              assigned[j] = computeCanopyAssignment(toAssign[j]);
+            }
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> f : results) {
+        f.get();
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    return new ArrayList<long[]>(Arrays.asList(assigned));
+  }
+
+  /**
+   * Assigns canopies to an instance whose missing values have already been
+   * replaced (if necessary)
+   * 
+   * @param inst the instance to find covering canopies for
+   * @return a set of canopies that contain this instance according to T1
+   *         distance
+   */
+  protected long[] computeCanopyAssignment(Instance inst) {
     int numLongs = m_canopies.size() / 64 + 1;
     long[] assigned = new long[numLongs];
 
@@ -940,16 +1043,130 @@ public class Canopy extends RandomizableClusterer implements
       m_trainingData = new Instances(data);
     }
 
-    for (int i = 0; i < data.numInstances(); i++) {
-      if (getDebug() && i % m_periodicPruningRate == 0) {
-        System.err.println("Processed: " + i);
+    if (m_executionSlots > 1 && data.numInstances() >= 2 * m_executionSlots) {
+      formCanopiesInParallel(data);
+    } else {
+      for (int i = 0; i < data.numInstances(); i++) {
+        if (getDebug() && i % m_periodicPruningRate == 0) {
+          System.err.println("Processed: " + i);
+        }
+        updateClusterer(data.instance(i));
       }
-      updateClusterer(data.instance(i));
     }
 
     updateFinished();
   }
 
+  /**
+   * Forms candidate canopies independently on one partition of the training
+   * data per execution slot and then merges them. Candidates are merged in
+   * order of decreasing T2 density: a candidate within T2 distance of an
+   * already merged canopy is absorbed into it (summing the centers, densities
+   * and missing counts), otherwise it becomes a new canopy as long as the
+   * maximum number of candidates has not been reached.
+   * 
+   * @param data the (randomized) training data
+   * @throws Exception if a problem occurs
+   */
+  protected void formCanopiesInParallel(final Instances data) throws Exception {
+    // make sure that the distance function is initialized before it is
+    // shared. Its ranges already cover the training data, so updating them
+    // during training does not change them
+    m_distanceFunction.distance(data.instance(0), data.instance(0));
+
+    final int numPerTask = data.numInstances() / m_executionSlots;
+    List<Future<Canopy>> results = new ArrayList<Future<Canopy>>();
+    m_executorPool = Executors.newFixedThreadPool(m_executionSlots);
+    try {
+      for (int i = 0; i < m_executionSlots; i++) {
+        final int start = i * numPerTask;
+        final int end = (i == m_executionSlots - 1) ? data.numInstances()
+          : start + numPerTask;
+        results.add(m_executorPool.submit(new Callable<Canopy>() {
+          @Override
+          public Canopy call() throws Exception {
+            Canopy partition = new Canopy();
+            partition.m_t1 = m_t1;
+            partition.m_t2 = m_t2;
+            partition.m_periodicPruningRate = m_periodicPruningRate;
+            partition.m_minClusterDensity = m_minClusterDensity;
+            partition.m_maxCanopyCandidates = m_maxCanopyCandidates;
+            partition.m_distanceFunction = m_distanceFunction;
+            partition.m_canopies = new Instances(data, 0);
+            partition.m_canopyT2Density = new ArrayList<double[]>();
+            partition.m_canopyCenters = new ArrayList<double[][]>();
+            partition.m_canopyNumMissingForNumerics = new ArrayList<double[]>();
+            for (int j = start; j < end; j++) {
+              partition.updateClusterer(data.instance(j));
+            }
+            if (getDebug()) {
+              System.err.println("Processed partition " + start + " - "
+                + (end - 1) + ": " + partition.m_canopies.numInstances()
+                + " candidate canopies");
+            }
+            return partition;
+          }
+        }));
+      }
+
+      List<Instance> candidates = new ArrayList<Instance>();
+      List<double[]> candidateDensities = new ArrayList<double[]>();
+      List<double[][]> candidateCenters = new ArrayList<double[][]>();
+      List<double[]> candidateMissings = new ArrayList<double[]>();
+      for (Future<Canopy> f : results) {
+        Canopy partition = f.get();
+        for (int i = 0; i < partition.m_canopies.numInstances(); i++) {
+          candidates.add(partition.m_canopies.instance(i));
+          candidateDensities.add(partition.m_canopyT2Density.get(i));
+          candidateCenters.add(partition.m_canopyCenters.get(i));
+          candidateMissings.add(partition.m_canopyNumMissingForNumerics.get(i));
+        }
+      }
+
+      double[] densities = new double[candidates.size()];
+      for (int i = 0; i < densities.length; i++) {
+        densities[i] = candidateDensities.get(i)[0];
+      }
+      int[] sortedIndexes = Utils.stableSort(densities);
+      for (int i = sortedIndexes.length - 1; i >= 0; i--) {
+        int c = sortedIndexes[i];
+        Instance candidate = candidates.get(c);
+        double[][] candidateCenter = candidateCenters.get(c);
+        double[] candidateMissing = candidateMissings.get(c);
+        boolean addPoint = true;
+
+        for (int j = 0; j < m_canopies.numInstances(); j++) {
+          if (m_distanceFunction.distance(candidate, m_canopies.instance(j)) < m_t2) {
+            addPoint = false;
+
+            double[][] center = m_canopyCenters.get(j);
+            double[] missing = m_canopyNumMissingForNumerics.get(j);
+            m_canopyT2Density.get(j)[0] += candidateDensities.get(c)[0];
+            for (int k = 0; k < center.length; k++) {
+              missing[k] += candidateMissing[k];
+              for (int l = 0; l < center[k].length; l++) {
+                center[k][l] += candidateCenter[k][l];
+              }
+            }
+
+            break;
+          }
+        }
+
+        if (addPoint && m_canopies.numInstances() < m_maxCanopyCandidates) {
+          m_canopies.add(candidate);
+          m_canopyT2Density.add(candidateDensities.get(c));
+          m_canopyCenters.add(candidateCenter);
+          m_canopyNumMissingForNumerics.add(candidateMissing);
+        }
+      }
+      m_instanceCount = data.numInstances();
+    } finally {
+      m_executorPool.shutdown();
+      m_executorPool = null;
+    }
+  }
+
   @Override
   public int numberOfClusters() throws Exception {
     return m_canopies.numInstances();
@@ -1233,6 +1450,41 @@ public class Canopy extends RandomizableClusterer implements
     return m_dontReplaceMissing;
   }
 
+  /**
+   * Returns the tip text for this property
+   * 
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String numExecutionSlotsTipText() {
+    return "The number of execution slots (threads) to use for forming the "
+      + "canopies in batch mode and for assigning canopies to a batch of "
+      + "instances. With more than one slot, candidate canopies are formed on "
+      + "a partition of the data per slot and then merged, so the canopies "
+      + "can differ from those formed sequentially. Set equal to the number "
+      + "of available cpu/cores";
+  }
+
+  /**
+   * Set the degree of parallelism to use.
+   * 
+   * @param slots the number of tasks to run in parallel when forming the
+   *          canopies and assigning canopies to instances
+   */
+  public void setNumExecutionSlots(int slots) {
+    m_executionSlots = slots;
+  }
+
+  /**
+   * Get the degree of parallelism to use.
+   * 
+   * @return the number of tasks to run in parallel when forming the canopies
+   *         and assigning canopies to instances
+   */
+  public int getNumExecutionSlots() {
+    return m_executionSlots;
+  }
+
   public static String printSingleAssignment(long[] assignments) {
     StringBuilder temp = new StringBuilder();
 
@@ -28,12 +28,23 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Random;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import weka.core.BatchPredictor;
+import weka.core.DistanceFunction;
 import weka.core.Drawable;
+import weka.core.EuclideanDistance;
 import weka.core.Instance;
 import weka.core.Instances;
 import weka.core.Option;
@@ -87,6 +98,11 @@ import weka.filters.unsupervised.attribute.Remove;
  * if the test file is missing.
  * <p/>
  * 
+ * -x-slots num <br/>
+ * The number of threads to run the folds of the cross validation with
+ * (default: 1).
+ * <p/>
+ * 
  * -s num <br/>
  * Sets the seed for randomizing the data for cross-validation.
  * <p/>
@@ -101,6 +117,25 @@ import weka.filters.unsupervised.attribute.Remove;
  * clusterer that implemented the <code>weka.core.Drawable</code> interface.
  * <p/>
  * 
+ * -quality-metrics <br/>
+ * Output the silhouette coefficient, total deviation and Davies-Bouldin index
+ * of the clusterings.
+ * <p/>
+ * 
+ * -quality-distance distance function specification <br/>
+ * The distance function to compute the quality metrics with (default:
+ * weka.core.EuclideanDistance).
+ * <p/>
+ * 
+ * -quality-sample num <br/>
+ * Estimate the silhouette from a sample of the given size (default: 0, i.e.
+ * all instances).
+ * <p/>
+ * 
+ * -quality-slots num <br/>
+ * The number of threads to compute the quality metrics with (default: 1).
+ * <p/>
+ * 
  * @author Mark Hall (mhall@cs.waikato.ac.nz)
  * @version $Revision$
  * @see weka.core.Drawable
@@ -136,6 +171,39 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
    */
   private int[] m_classToCluster = null;
 
+  /** whether to compute the silhouette, total deviation and Davies-Bouldin */
+  private boolean m_qualityMetrics = false;
+
+  /** the distance function to compute the quality metrics with */
+  private DistanceFunction m_distanceFunction = new EuclideanDistance();
+
+  /** the number of threads to compute the quality metrics with */
+  private int m_numExecutionSlots = 1;
+
+  /**
+   * the number of instances to estimate the silhouette from, 0 to use all
+   * instances
+   */
+  private int m_silhouetteSampleSize = 0;
+
+  /** the seed for drawing the silhouette sample */
+  private long m_seed = 1;
+
+  /** the (estimated) silhouette coefficient of the most recent evaluation */
+  private double m_silhouette = Double.NaN;
+
+  /** the number of instances the silhouette was computed from */
+  private int m_silhouetteInstances;
+
+  /** the number of instances that were clustered */
+  private int m_clusteredInstances;
+
+  /** the total deviation of the most recent evaluation */
+  private double m_totalDeviation = Double.NaN;
+
+  /** the Davies-Bouldin index of the most recent evaluation */
+  private double m_daviesBouldin = Double.NaN;
+
   /**
    * set the clusterer
    * 
@@ -194,6 +262,134 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
     return m_logL;
   }
 
+  /**
+   * Sets whether the silhouette coefficient, total deviation and
+   * Davies-Bouldin index are computed by evaluateClusterer. This takes a pass
+   * over all pairs of instances, unless the silhouette is estimated from a
+   * sample.
+   *
+   * @param compute true if the metrics are to be computed
+   */
+  public void setQualityMetrics(boolean compute) {
+    m_qualityMetrics = compute;
+  }
+
+  /**
+   * Gets whether the quality metrics are computed by evaluateClusterer.
+   *
+   * @return true if the metrics are computed
+   */
+  public boolean getQualityMetrics() {
+    return m_qualityMetrics;
+  }
+
+  /**
+   * Sets the distance function to compute the quality metrics with.
+   *
+   * @param df the distance function
+   */
+  public void setDistanceFunction(DistanceFunction df) {
+    m_distanceFunction = df;
+  }
+
+  /**
+   * Gets the distance function to compute the quality metrics with.
+   *
+   * @return the distance function
+   */
+  public DistanceFunction getDistanceFunction() {
+    return m_distanceFunction;
+  }
+
+  /**
+   * Sets the number of threads to compute the quality metrics with.
+   *
+   * @param slots the number of threads
+   */
+  public void setNumExecutionSlots(int slots) {
+    m_numExecutionSlots = slots;
+  }
+
+  /**
+   * Gets the number of threads to compute the quality metrics with.
+   *
+   * @return the number of threads
+   */
+  public int getNumExecutionSlots() {
+    return m_numExecutionSlots;
+  }
+
+  /**
+   * Sets the number of instances to estimate the silhouette from. Each of
+   * them is compared to all instances, so the cost is linear in the number
+   * of instances. The medoids for the total deviation and the Davies-Bouldin
+   * index are chosen from the sample too.
+   *
+   * @param size the sample size, 0 to use all instances
+   */
+  public void setSilhouetteSampleSize(int size) {
+    m_silhouetteSampleSize = size;
+  }
+
+  /**
+   * Gets the number of instances to estimate the silhouette from.
+   *
+   * @return the sample size, 0 if all instances are used
+   */
+  public int getSilhouetteSampleSize() {
+    return m_silhouetteSampleSize;
+  }
+
+  /**
+   * Sets the seed for drawing the silhouette sample.
+   *
+   * @param seed the seed
+   */
+  public void setSeed(long seed) {
+    m_seed = seed;
+  }
+
+  /**
+   * Gets the seed for drawing the silhouette sample.
+   *
+   * @return the seed
+   */
+  public long getSeed() {
+    return m_seed;
+  }
+
+  /**
+   * Return the mean silhouette coefficient of the clustered instances of the
+   * most recent evaluation, estimated from a sample if a sample size is set.
+   *
+   * @return the silhouette, NaN if not computed or fewer than two clusters
+   *         are used
+   */
+  public double getSilhouette() {
+    return m_silhouette;
+  }
+
+  /**
+   * Return the total deviation of the most recent evaluation: the sum of the
+   * distances of the clustered instances to the medoid of their cluster.
+   *
+   * @return the total deviation, NaN if not computed
+   */
+  public double getTotalDeviation() {
+    return m_totalDeviation;
+  }
+
+  /**
+   * Return the Davies-Bouldin index of the most recent evaluation, computed
+   * with the cluster medoids in place of the centroids, so that any distance
+   * function can be used. Lower is better.
+   *
+   * @return the index, NaN if not computed or fewer than two clusters are used
+   */
+  public double getDaviesBouldin() {
+    return m_daviesBouldin;
+  }
+
   /**
    * Constructor. Sets defaults for each member variable. Default Clusterer is
    * EM.
@@ -288,6 +484,8 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
     Instances forBatchPredictors =
       filter != null ? new Instances(filter.getOutputFormat(), 0)
         : new Instances(source.getStructure(), 0);
+    Instances forQualityMetrics =
+      m_qualityMetrics ? new Instances(forBatchPredictors, 0) : null;
     i = 0;
     while (source.hasMoreElements(testRaw)) {
       // next instance
@@ -297,6 +495,9 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
         filter.batchFinished();
         inst = filter.output();
       }
+      if (forQualityMetrics != null) {
+        forQualityMetrics.add(inst);
+      }
 
       if (m_Clusterer instanceof BatchPredictor
         && ((BatchPredictor) m_Clusterer)
@@ -373,11 +574,295 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
         + Utils.doubleToString(loglk, 1, 5) + "\n");
     }
 
+    if (m_qualityMetrics) {
+      computeQualityMetrics(forQualityMetrics, m_clusterAssignments);
+      m_clusteringResults.append(qualityMetricsToString());
+    }
+
     if (hasClass) {
       evaluateClustersWithRespectToClass(test, testFileName);
     }
   }
 
+  /**
+   * Computes the silhouette coefficient, the total deviation and the
+   * Davies-Bouldin index of a clustering. Instances that were not clustered
+   * (assignment -1) are left out. The distances from each instance of the
+   * silhouette sample (all instances if no sample size is set) to all
+   * instances are computed in parallel over blocks of the sample, and give
+   * the silhouettes as well as the medoid of each cluster (the member of the
+   * sample with the smallest sum of distances to its cluster). The total
+   * deviation and the Davies-Bouldin index are then computed with these
+   * medoids in a further pass over all instances.
+   *
+   * @param data the instances, without the class attribute
+   * @param assignments the cluster of each instance, -1 if none
+   * @throws Exception if the metrics cannot be computed
+   */
+  public void computeQualityMetrics(Instances data, double[] assignments)
+    throws Exception {
+
+    m_silhouette = Double.NaN;
+    m_totalDeviation = Double.NaN;
+    m_daviesBouldin = Double.NaN;
+
+    // the clustered instances
+    int numClusters = 0;
+    int[] rows = new int[data.numInstances()];
+    int n = 0;
+    for (int i = 0; i < data.numInstances(); i++) {
+      if (assignments[i] >= 0) {
+        rows[n++] = i;
+        numClusters = Math.max(numClusters, (int) assignments[i] + 1);
+      }
+    }
+    m_clusteredInstances = n;
+    m_silhouetteInstances = 0;
+    if (n == 0) {
+      return;
+    }
+    final Instance[] points = new Instance[n];
+    final int[] clusters = new int[n];
+    final int[] clusterSizes = new int[numClusters];
+    for (int i = 0; i < n; i++) {
+      points[i] = data.instance(rows[i]);
+      clusters[i] = (int) assignments[rows[i]];
+      clusterSizes[clusters[i]]++;
+    }
+    int usedClusters = 0;
+    for (int size : clusterSizes) {
+      if (size > 0) {
+        usedClusters++;
+      }
+    }
+
+    final DistanceFunction df = m_distanceFunction;
+    df.setInstances(data);
+    // compute the attribute ranges before distances are computed concurrently
+    df.distance(points[0], points[0]);
+
+    // the instances to compute the silhouette from
+    int[] sample;
+    if (m_silhouetteSampleSize > 0 && m_silhouetteSampleSize < n) {
+      int[] order = new int[n];
+      for (int i = 0; i < n; i++) {
+        order[i] = i;
+      }
+      Random random = new Random(m_seed);
+      for (int i = 0; i < m_silhouetteSampleSize; i++) {
+        int j = i + random.nextInt(n - i);
+        int temp = order[i];
+        order[i] = order[j];
+        order[j] = temp;
+      }
+      sample = Arrays.copyOf(order, m_silhouetteSampleSize);
+      Arrays.sort(sample);
+    } else {
+      sample = new int[n];
+      for (int i = 0; i < n; i++) {
+        sample[i] = i;
+      }
+    }
+    final int[] fSample = sample;
+    final int nc = numClusters;
+
+    // first pass: silhouettes and medoids, per block of the sample; each
+    // block returns the sum of its silhouettes, then per cluster the smallest
+    // sum of distances to the cluster and the instance with it
+    List<Callable<double[]>> blocks = new ArrayList<Callable<double[]>>();
+    int numBlocks = Math.min(sample.length, m_numExecutionSlots * 4);
+    for (int b = 0; b < numBlocks; b++) {
+      final int from = (int) ((long) sample.length * b / numBlocks);
+      final int to = (int) ((long) sample.length * (b + 1) / numBlocks);
+      blocks.add(new Callable<double[]>() {
+        @Override
+        public double[] call() {
+          double[] result = new double[1 + 2 * nc];
+          for (int c = 0; c < nc; c++) {
+            result[1 + 2 * c] = Double.POSITIVE_INFINITY;
+            result[2 + 2 * c] = -1;
+          }
+          double[] sums = new double[nc];
+          for (int s = from; s < to; s++) {
+            int i = fSample[s];
+            Arrays.fill(sums, 0);
+            for (int j = 0; j < points.length; j++) {
+              if (j != i) {
+                sums[clusters[j]] += df.distance(points[i], points[j]);
+              }
+            }
+
+            int own = clusters[i];
+            if (sums[own] < result[1 + 2 * own]) {
+              result[1 + 2 * own] = sums[own];
+              result[2 + 2 * own] = i;
+            }
+            if (clusterSizes[own] > 1) {
+              double a = sums[own] / (clusterSizes[own] - 1);
+              double b = Double.POSITIVE_INFINITY;
+              for (int c = 0; c < nc; c++) {
+                if (c != own && clusterSizes[c] > 0) {
+                  b = Math.min(b, sums[c] / clusterSizes[c]);
+                }
+              }
+              double max = Math.max(a, b);
+              if (max > 0 && !Double.isInfinite(b)) {
+                result[0] += (b - a) / max;
+              }
+            }
+          }
+          return result;
+        }
+      });
+    }
+    double[][] partials = runBlocks(blocks);
+
+    double silhouette = 0;
+    double[] bestSum = new double[nc];
+    int[] medoids = new int[nc];
+    Arrays.fill(bestSum, Double.POSITIVE_INFINITY);
+    Arrays.fill(medoids, -1);
+    for (double[] partial : partials) {
+      silhouette += partial[0];
+      for (int c = 0; c < nc; c++) {
+        // ties go to the earlier block, i.e. the earlier instance
+        if (partial[1 + 2 * c] < bestSum[c]) {
+          bestSum[c] = partial[1 + 2 * c];
+          medoids[c] = (int) partial[2 + 2 * c];
+        }
+      }
+    }
+    m_silhouetteInstances = sample.length;
+    if (usedClusters > 1) {
+      m_silhouette = silhouette / sample.length;
+    }
+
+    // clusters without a member in the sample fall back on their first member
+    for (int i = 0; i < n; i++) {
+      if (medoids[clusters[i]] < 0) {
+        medoids[clusters[i]] = i;
+      }
+    }
+    final int[] fMedoids = medoids;
+
+    // second pass: the distance of each instance to its medoid, summed per
+    // cluster
+    blocks.clear();
+    numBlocks = Math.min(n, m_numExecutionSlots * 4);
+    for (int b = 0; b < numBlocks; b++) {
+      final int from = (int) ((long) n * b / numBlocks);
+      final int to = (int) ((long) n * (b + 1) / numBlocks);
+      blocks.add(new Callable<double[]>() {
+        @Override
+        public double[] call() {
+          double[] result = new double[nc];
+          for (int i = from; i < to; i++) {
+            result[clusters[i]] +=
+              df.distance(points[i], points[fMedoids[clusters[i]]]);
+          }
+          return result;
+        }
+      });
+    }
+    partials = runBlocks(blocks);
+
+    double[] deviation = new double[nc];
+    for (double[] partial : partials) {
+      for (int c = 0; c < nc; c++) {
+        deviation[c] += partial[c];
+      }
+    }
+    m_totalDeviation = Utils.sum(deviation);
+
+    if (usedClusters > 1) {
+      double db = 0;
+      for (int c = 0; c < nc; c++) {
+        if (clusterSizes[c] == 0) {
+          continue;
+        }
+        double worst = 0;
+        for (int d = 0; d < nc; d++) {
+          if (d == c || clusterSizes[d] == 0) {
+            continue;
+          }
+          double separation =
+            df.distance(points[fMedoids[c]], points[fMedoids[d]]);
+          double scatter =
+            deviation[c] / clusterSizes[c] + deviation[d] / clusterSizes[d];
+          worst =
+            Math.max(worst, (separation > 0) ? scatter / separation
+              : Double.POSITIVE_INFINITY);
+        }
+        db += worst;
+      }
+      m_daviesBouldin = db / usedClusters;
+    }
+
+    // save memory!
+    df.clean();
+  }
+
+  /**
+   * Runs blocks of a computation, in parallel if more than one execution slot
+   * is set.
+   *
+   * @param blocks the blocks to run
+   * @return the results of the blocks, in the same order
+   * @throws Exception if a block fails
+   */
+  private double[][] runBlocks(List<Callable<double[]>> blocks)
+    throws Exception {
+    double[][] result = new double[blocks.size()][];
+    if (m_numExecutionSlots <= 1 || blocks.size() <= 1) {
+      for (int b = 0; b < blocks.size(); b++) {
+        result[b] = blocks.get(b).call();
+      }
+      return result;
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(m_numExecutionSlots);
+    try {
+      List<Future<double[]>> futures = pool.invokeAll(blocks);
+      for (int b = 0; b < futures.size(); b++) {
+        try {
+          result[b] = futures.get(b).get();
+        } catch (ExecutionException e) {
+          Throwable cause = e.getCause();
+          throw (cause instanceof Exception) ? (Exception) cause
+            : new Exception(cause);
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the quality metrics of the most recent evaluation as a string.
+   *
+   * @return the quality metrics
+   */
+  public String qualityMetricsToString() {
+    StringBuffer text = new StringBuffer();
+
+    text.append("\nCluster quality ("
+      + m_distanceFunction.getClass().getSimpleName() + ")\n\n");
+    text.append("Silhouette coefficient: "
+      + Utils.doubleToString(m_silhouette, 1, 5));
+    if (m_silhouetteInstances < m_clusteredInstances) {
+      text.append(" (estimated from " + m_silhouetteInstances + " of "
+        + m_clusteredInstances + " instances)");
+    }
+    text.append("\nTotal deviation:        "
+      + Utils.doubleToString(m_totalDeviation, 1, 5));
+    text.append("\nDavies-Bouldin index:   "
+      + Utils.doubleToString(m_daviesBouldin, 1, 5) + "\n");
+
+    return text.toString();
+  }
+
   /**
    * Evaluates cluster assignments with respect to actual class labels. Assumes
    * that m_Clusterer has been trained and tested on inst (minus the class).
@@ -588,7 +1073,7 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
   public static String evaluateClusterer(Clusterer clusterer, String[] options)
     throws Exception {
 
-    int seed = 1, folds = 10;
+    int seed = 1, folds = 10, xvalSlots = 1;
     boolean doXval = false;
     Instances train = null;
     Random random;
@@ -601,6 +1086,7 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
     StringBuffer text = new StringBuffer();
     int theClass = -1; // class based evaluation of clustering
     boolean forceBatch = Utils.getFlag("force-batch-training", options);
+    ClusterEvaluation metrics = null;
     boolean updateable =
       (clusterer instanceof UpdateableClusterer) && !forceBatch;
     DataSource source = null;
@@ -670,6 +1156,33 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
         folds = Integer.parseInt(foldsString);
         doXval = true;
       }
+
+      String xvalSlotsString = Utils.getOption("x-slots", options);
+      if (xvalSlotsString.length() != 0) {
+        xvalSlots = Integer.parseInt(xvalSlotsString);
+      }
+
+      if (Utils.getFlag("quality-metrics", options)) {
+        metrics = new ClusterEvaluation();
+        metrics.setQualityMetrics(true);
+        metrics.setSeed(seed);
+        String distanceString = Utils.getOption("quality-distance", options);
+        if (distanceString.length() != 0) {
+          String[] distanceSpec = Utils.splitOptions(distanceString);
+          String className = distanceSpec[0];
+          distanceSpec[0] = "";
+          metrics.setDistanceFunction((DistanceFunction) Utils.forName(
+            DistanceFunction.class, className, distanceSpec));
+        }
+        String sampleString = Utils.getOption("quality-sample", options);
+        if (sampleString.length() != 0) {
+          metrics.setSilhouetteSampleSize(Integer.parseInt(sampleString));
+        }
+        String slotsString = Utils.getOption("quality-slots", options);
+        if (slotsString.length() != 0) {
+          metrics.setNumExecutionSlots(Integer.parseInt(slotsString));
+        }
+      }
     } catch (Exception e) {
       throw new Exception('\n' + e.getMessage()
         + makeOptionString(clusterer, false));
@@ -803,7 +1316,8 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
           clusterer.buildClusterer(clusterTrain);
           trainHeader = clusterTrain;
         }
-        ClusterEvaluation ce = new ClusterEvaluation();
+        ClusterEvaluation ce =
+          (metrics != null) ? metrics : new ClusterEvaluation();
         ce.setClusterer(clusterer);
         ce.evaluateClusterer(train, trainFileName);
 
@@ -832,7 +1346,8 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
 
     text.append(clusterer.toString());
     text.append("\n\n=== Clustering stats for training data ===\n\n"
-      + printClusterStats(clusterer, trainFileName, ignoredAttributes));
+      + printClusterStats(clusterer, trainFileName, ignoredAttributes,
+        metrics));
 
     if (testFileName.length() != 0) {
       // check header compatibility
@@ -844,7 +1359,8 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
       }
 
       text.append("\n\n=== Clustering stats for testing data ===\n\n"
-        + printClusterStats(clusterer, testFileName, ignoredAttributes));
+        + printClusterStats(clusterer, testFileName, ignoredAttributes,
+          metrics));
     }
 
     if ((clusterer instanceof DensityBasedClusterer) && (doXval == true)
@@ -855,7 +1371,7 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
       train = source.getDataSet();
       train.randomize(random);
       text.append(crossValidateModel(clusterer.getClass().getName(), train,
-        folds, savedOptions, random));
+        folds, savedOptions, random, xvalSlots));
     }
 
     // Save the clusterer if an object output file is provided
@@ -902,11 +1418,66 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
    */
   public static double crossValidateModel(DensityBasedClusterer clusterer,
     Instances data, int numFolds, Random random) throws Exception {
+    return crossValidateModel(clusterer, data, numFolds, random, 1);
+  }
+
+  /**
+   * Perform a cross-validation for DensityBasedClusterer on a set of
+   * instances, running the folds concurrently if more than one execution slot
+   * is given. Each fold is then trained on its own copy of the clusterer, and
+   * the given clusterer is left untrained. At most numSlots folds, with their
+   * copies of the clusterer and the training data, are held at a time. The
+   * folds are the same and the log-likelihood is summed in the same order as
+   * when they are run one after the other, so the result does not depend on
+   * the number of slots.
+   * 
+   * @param clusterer the clusterer to use
+   * @param data the training data
+   * @param numFolds number of folds of cross validation to perform
+   * @param random random number seed for cross-validation
+   * @param numSlots the number of threads to run the folds with
+   * @return the cross-validated log-likelihood
+   * @throws Exception if an error occurs
+   */
+  public static double crossValidateModel(DensityBasedClusterer clusterer,
+    Instances data, int numFolds, Random random, int numSlots)
+    throws Exception {
     Instances train, test;
     double foldAv = 0;
     ;
     data = new Instances(data);
     data.randomize(random);
+
+    if (numSlots > 1 && numFolds > 1) {
+      // the folds have to be drawn in order, as drawing them uses random,
+      // and at most numSlots of them are held in memory at once: the oldest
+      // fold is collected before the next one is drawn
+      LinkedList<Future<double[]>> running =
+        new LinkedList<Future<double[]>>();
+      ExecutorService pool =
+        Executors.newFixedThreadPool(Math.min(numSlots, numFolds));
+      try {
+        for (int i = 0; i < numFolds; i++) {
+          if (running.size() == numSlots) {
+            foldAv = addFoldLogDensities(foldAv, running.removeFirst());
+          }
+          running.add(pool.submit(new CVFoldTask(
+            (DensityBasedClusterer) AbstractClusterer.makeCopy(clusterer),
+            data.trainCV(numFolds, i, random), data.testCV(numFolds, i))));
+        }
+        while (!running.isEmpty()) {
+          foldAv = addFoldLogDensities(foldAv, running.removeFirst());
+        }
+      } finally {
+        for (Future<double[]> f : running) {
+          f.cancel(true);
+        }
+        pool.shutdown();
+      }
+
+      return foldAv / data.numInstances();
+    }
+
     // double sumOW = 0;
     for (int i = 0; i < numFolds; i++) {
       // Build and test clusterer
@@ -931,6 +1502,78 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
     return foldAv / data.numInstances();
   }
 
+  /**
+   * Waits for a fold of the cross-validation and adds the log-densities of
+   * its test instances to the given sum, in order.
+   * 
+   * @param sum the sum of the log-densities so far
+   * @param fold the fold to wait for
+   * @return the new sum
+   * @throws Exception if the fold failed
+   */
+  private static double addFoldLogDensities(double sum, Future<double[]> fold)
+    throws Exception {
+    double[] logDensities;
+    try {
+      logDensities = fold.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      throw (cause instanceof Exception) ? (Exception) cause
+        : new Exception(cause);
+    }
+    for (double logDensity : logDensities) {
+      sum += logDensity;
+    }
+
+    return sum;
+  }
+
+  /**
+   * Trains a clusterer on the training data of a fold and computes the
+   * log-density of each test instance, 0 for instances it cannot cluster.
+   */
+  private static class CVFoldTask implements Callable<double[]> {
+
+    /** the clusterer to train, a copy used by this fold only */
+    protected DensityBasedClusterer m_clusterer;
+
+    /** the training data of the fold */
+    protected Instances m_train;
+
+    /** the test data of the fold */
+    protected Instances m_test;
+
+    /**
+     * Constructor.
+     * 
+     * @param clusterer the clusterer to train
+     * @param train the training data of the fold
+     * @param test the test data of the fold
+     */
+    public CVFoldTask(DensityBasedClusterer clusterer, Instances train,
+      Instances test) {
+      m_clusterer = clusterer;
+      m_train = train;
+      m_test = test;
+    }
+
+    @Override
+    public double[] call() throws Exception {
+      m_clusterer.buildClusterer(m_train);
+
+      double[] result = new double[m_test.numInstances()];
+      for (int j = 0; j < m_test.numInstances(); j++) {
+        try {
+          result[j] = m_clusterer.logDensityForInstance(m_test.instance(j));
+        } catch (Exception ex) {
+          // unclustered instances
+        }
+      }
+
+      return result;
+    }
+  }
+
   /**
    * Performs a cross-validation for a DensityBasedClusterer clusterer on a set
    * of instances.
@@ -946,6 +1589,27 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
   public static String crossValidateModel(String clustererString,
     Instances data, int numFolds, String[] options, Random random)
     throws Exception {
+    return crossValidateModel(clustererString, data, numFolds, options,
+      random, 1);
+  }
+
+  /**
+   * Performs a cross-validation for a DensityBasedClusterer clusterer on a set
+   * of instances, running the folds concurrently if more than one execution
+   * slot is given.
+   * 
+   * @param clustererString a string naming the class of the clusterer
+   * @param data the data on which the cross-validation is to be performed
+   * @param numFolds the number of folds for the cross-validation
+   * @param options the options to the clusterer
+   * @param random a random number generator
+   * @param numSlots the number of threads to run the folds with
+   * @return a string containing the cross validated log likelihood
+   * @throws Exception if a clusterer could not be generated
+   */
+  public static String crossValidateModel(String clustererString,
+    Instances data, int numFolds, String[] options, Random random,
+    int numSlots) throws Exception {
     Clusterer clusterer = null;
     String[] savedOptions = null;
     double CvAv = 0.0;
@@ -986,7 +1650,7 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
     }
     CvAv =
       crossValidateModel((DensityBasedClusterer) clusterer, data, numFolds,
-        random);
+        random, numSlots);
 
     CvString.append("\n" + numFolds + " fold CV Log Likelihood: "
       + Utils.doubleToString(CvAv, 6, 4) + "\n");
@@ -1002,11 +1666,13 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
    * @param clusterer the clusterer to use for generating statistics.
    * @param fileName the file to load
    * @param ignoredAtts if non null, then these attributes are to be ignored/removed
+   * @param metrics if non null, the evaluation to compute the quality metrics
+   *          with
    * @return a string containing cluster statistics.
    * @throws Exception if statistics can't be generated.
    */
-  private static String printClusterStats(Clusterer clusterer, String fileName, int[] ignoredAtts)
-    throws Exception {
+  private static String printClusterStats(Clusterer clusterer, String fileName, int[] ignoredAtts,
+    ClusterEvaluation metrics) throws Exception {
     StringBuffer text = new StringBuffer();
     int i = 0;
     int cnum;
@@ -1032,6 +1698,10 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
         (clusterer instanceof BatchPredictor && ((BatchPredictor) clusterer)
           .implementsMoreEfficientBatchPrediction()) ? new Instances(
           remove != null ? remove.getOutputFormat() : source.getStructure(), 0) : null;
+      Instances forQualityMetrics =
+        (metrics != null) ? new Instances(
+          remove != null ? remove.getOutputFormat() : source.getStructure(), 0) : null;
+      Vector<Double> clusterAssignments = new Vector<Double>();
 
       Instance inst;
       while (source.hasMoreElements(structure)) {
@@ -1040,6 +1710,9 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
           remove.input(inst);
           inst = remove.output();
         }
+        if (forQualityMetrics != null) {
+          forQualityMetrics.add(inst);
+        }
         if (forBatchPredictors != null) {
           forBatchPredictors.add(inst);
         } else {
@@ -1052,8 +1725,10 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
               // temp = Utils.sum(dist);
             }
             instanceStats[cnum]++;
+            clusterAssignments.add((double) cnum);
           } catch (Exception e) {
             unclusteredInstances++;
+            clusterAssignments.add(-1.0);
           }
           i++;
         }
@@ -1066,6 +1741,7 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
         for (double[] d : dists) {
           cnum = Utils.maxIndex(d);
           instanceStats[cnum]++;
+          clusterAssignments.add((double) cnum);
         }
       }
 
@@ -1100,6 +1776,15 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
         text.append("\n\nLog likelihood: " + Utils.doubleToString(loglk, 1, 5)
           + "\n");
       }
+
+      if (metrics != null) {
+        double[] assignments = new double[clusterAssignments.size()];
+        for (i = 0; i < assignments.length; i++) {
+          assignments[i] = clusterAssignments.get(i);
+        }
+        metrics.computeQualityMetrics(forQualityMetrics, assignments);
+        text.append(metrics.qualityMetricsToString());
+      }
     }
 
     return text.toString();
@@ -1246,6 +1931,9 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
     optionsText.append("-x <number of folds>\n");
     optionsText
       .append("\tOnly Distribution Clusterers can be cross validated.\n");
+    optionsText.append("-x-slots <number of threads>\n");
+    optionsText.append("\tThe number of threads to run the folds of the");
+    optionsText.append("\n\tcross validation with.\n\t(default: 1)\n");
     optionsText.append("-s <random number seed>\n");
     optionsText
       .append("\tSets the seed for randomizing the data in cross-validation\n");
@@ -1253,6 +1941,19 @@ public class ClusterEvaluation implements Serializable, RevisionHandler {
     optionsText.append("\tSet class attribute. If supplied, class is ignored");
     optionsText.append("\n\tduring clustering but is used in a classes to");
     optionsText.append("\n\tclusters evaluation.\n");
+    optionsText.append("-quality-metrics\n");
+    optionsText.append("\tOutput the silhouette coefficient, total deviation");
+    optionsText.append("\n\tand Davies-Bouldin index of the clusterings.\n");
+    optionsText.append("-quality-distance <distance function specification>\n");
+    optionsText.append("\tThe distance function to compute the quality");
+    optionsText.append("\n\tmetrics with.");
+    optionsText.append("\n\t(default: weka.core.EuclideanDistance)\n");
+    optionsText.append("-quality-sample <sample size>\n");
+    optionsText.append("\tEstimate the silhouette from a sample of the given");
+    optionsText.append("\n\tsize, 0 for all instances.\n\t(default: 0)\n");
+    optionsText.append("-quality-slots <number of threads>\n");
+    optionsText.append("\tThe number of threads to compute the quality");
+    optionsText.append("\n\tmetrics with.\n\t(default: 1)\n");
     if (clusterer instanceof Drawable) {
       optionsText.append("-g <name of graph file>\n");
       optionsText
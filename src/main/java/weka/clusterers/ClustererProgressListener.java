@@ -0,0 +1,39 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    ClustererProgressListener.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers;
+
+/**
+ * Interface to something that follows the progress of a
+ * ProgressReportingClusterer.
+ *
+ * @version $Revision$
+ */
+public interface ClustererProgressListener {
+
+  /**
+   * Called when building the clusterer has progressed.
+   *
+   * @param clusterer the clusterer being built
+   * @param status a short description of the progress, e.g. the current cost
+   */
+  void progress(ProgressReportingClusterer clusterer, String status);
+}
@@ -24,10 +24,12 @@ package weka.clusterers;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
 import java.util.Vector;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -566,7 +568,9 @@ NumberOfClustersRequestable, WeightedInstancesHandler {
    */
   public String numExecutionSlotsTipText() {
     return "The number of execution slots (threads) to use. "
-      + "Set equal to the number of available cpu/cores";
+      + "Set equal to the number of available cpu/cores. When the number of "
+      + "clusters is selected by cross-validation, the folds are run "
+      + "concurrently";
   }
 
   /**
@@ -1537,54 +1541,114 @@ NumberOfClustersRequestable, WeightedInstancesHandler {
         trainCopy = new Instances(m_theInstances);
         trainCopy.randomize(cvr);
         templl = 0.0;
-        for (i = 0; i < numFolds; i++) {
-          Instances cvTrain = trainCopy.trainCV(numFolds, i, cvr);
-          if (num_clusters > cvTrain.numInstances()) {
-            break CLUSTER_SEARCH;
-          }
-          Instances cvTest = trainCopy.testCV(numFolds, i);
-          m_rr = new Random(seed);
-          for (int z = 0; z < 10; z++) {
-            m_rr.nextDouble();
-          }
-          m_num_clusters = num_clusters;
-          EM_Init(cvTrain);
-          try {
-            iterate(cvTrain, false);
-          } catch (Exception ex) {
-            // catch any problems - i.e. empty clusters occurring
-            ex.printStackTrace();
-            // System.err.println("Restarting after CV training failure ("+num_clusters+" clusters");
-            seed++;
-            restartCount++;
-            ok = false;
-            if (restartCount > 5) {
-              break CLUSTER_SEARCH;
+        if (m_executionSlots > 1 && numFolds > 1) {
+          // the folds have to be drawn in order, as drawing them uses cvr,
+          // and at most m_executionSlots of them are held in memory at once:
+          // the oldest fold is collected before the next one is drawn
+          LinkedList<CVFoldTask> tasks = new LinkedList<CVFoldTask>();
+          LinkedList<Future<Double>> results =
+            new LinkedList<Future<Double>>();
+          int drawn = 0;
+          i = 0;
+          while (i < numFolds) {
+            if (drawn < numFolds && results.size() < m_executionSlots) {
+              Instances cvTrain = trainCopy.trainCV(numFolds, drawn, cvr);
+              if (num_clusters > cvTrain.numInstances()) {
+                for (Future<Double> f : results) {
+                  f.cancel(true);
+                }
+                break CLUSTER_SEARCH;
+              }
+              CVFoldTask task =
+                new CVFoldTask(cvTrain, trainCopy.testCV(numFolds, drawn),
+                  num_clusters, seed);
+              tasks.add(task);
+              results.add(m_executorPool.submit(task));
+              drawn++;
+              continue;
             }
-            break;
+
+            CVFoldTask task = tasks.removeFirst();
+            try {
+              tll = results.removeFirst().get();
+              if (task.m_initFailure != null) {
+                for (Future<Double> f : results) {
+                  f.cancel(true);
+                }
+                throw task.m_initFailure;
+              }
+            } catch (ExecutionException ex) {
+              // catch any problems - i.e. empty clusters occurring
+              ex.getCause().printStackTrace();
+              for (Future<Double> f : results) {
+                f.cancel(true);
+              }
+              seed++;
+              restartCount++;
+              ok = false;
+              if (restartCount > 5) {
+                break CLUSTER_SEARCH;
+              }
+              break;
+            }
+
+            if (m_verbose) {
+              System.out.println("# clust: " + num_clusters + " Fold: " + i
+                + " Loglikely: " + tll);
+            }
+            templl += tll;
+            i++;
           }
-          try {
-            tll = E(cvTest, false);
-          } catch (Exception ex) {
-            // catch any problems - i.e. empty clusters occurring
-            // ex.printStackTrace();
-            ex.printStackTrace();
-            // System.err.println("Restarting after CV testing failure ("+num_clusters+" clusters");
-            // throw new Exception(ex);
-            seed++;
-            restartCount++;
-            ok = false;
-            if (restartCount > 5) {
+        } else {
+          for (i = 0; i < numFolds; i++) {
+            Instances cvTrain = trainCopy.trainCV(numFolds, i, cvr);
+            if (num_clusters > cvTrain.numInstances()) {
               break CLUSTER_SEARCH;
             }
-            break;
-          }
+            Instances cvTest = trainCopy.testCV(numFolds, i);
+            m_rr = new Random(seed);
+            for (int z = 0; z < 10; z++) {
+              m_rr.nextDouble();
+            }
+            m_num_clusters = num_clusters;
+            EM_Init(cvTrain);
+            try {
+              iterate(cvTrain, false);
+            } catch (Exception ex) {
+              // catch any problems - i.e. empty clusters occurring
+              ex.printStackTrace();
+              // System.err.println("Restarting after CV training failure ("+num_clusters+" clusters");
+              seed++;
+              restartCount++;
+              ok = false;
+              if (restartCount > 5) {
+                break CLUSTER_SEARCH;
+              }
+              break;
+            }
+            try {
+              tll = E(cvTest, false);
+            } catch (Exception ex) {
+              // catch any problems - i.e. empty clusters occurring
+              // ex.printStackTrace();
+              ex.printStackTrace();
+              // System.err.println("Restarting after CV testing failure ("+num_clusters+" clusters");
+              // throw new Exception(ex);
+              seed++;
+              restartCount++;
+              ok = false;
+              if (restartCount > 5) {
+                break CLUSTER_SEARCH;
+              }
+              break;
+            }
 
-          if (m_verbose) {
-            System.out.println("# clust: " + num_clusters + " Fold: " + i
-              + " Loglikely: " + tll);
+            if (m_verbose) {
+              System.out.println("# clust: " + num_clusters + " Fold: " + i
+                + " Loglikely: " + tll);
+            }
+            templl += tll;
           }
-          templl += tll;
         }
 
         if (ok) {
@@ -1615,6 +1679,81 @@ NumberOfClustersRequestable, WeightedInstancesHandler {
       m_num_clusters = num_clusters - 1;
   }
 
+  /**
+   * Runs one fold of the cross-validation that selects the number of
+   * clusters: fits a model with the given number of clusters to the training
+   * data of the fold, the same way CVClusters does, and returns the
+   * log-likelihood of the test data. Failures of the initialization are
+   * recorded rather than thrown, as CVClusters treats them differently. The
+   * model is fitted on a fresh EM that shares the settings and the training
+   * data of this one but runs in a single thread, so that several folds can
+   * run concurrently.
+   */
+  private class CVFoldTask implements Callable<Double> {
+
+    /** the training data of the fold */
+    protected Instances m_cvTrain;
+
+    /** the test data of the fold */
+    protected Instances m_cvTest;
+
+    /** the number of clusters to fit */
+    protected int m_numClusters;
+
+    /** the seed of the random number generator of the fold's model */
+    protected int m_foldSeed;
+
+    /** the exception initializing the model failed with, if any */
+    protected Exception m_initFailure;
+
+    public CVFoldTask(Instances cvTrain, Instances cvTest, int numClusters,
+      int seed) {
+      m_cvTrain = cvTrain;
+      m_cvTest = cvTest;
+      m_numClusters = numClusters;
+      m_foldSeed = seed;
+    }
+
+    @Override
+    public Double call() throws Exception {
+      EM fold = new EM();
+      fold.m_Seed = m_Seed;
+      fold.m_Debug = m_Debug;
+      fold.m_minStdDev = m_minStdDev;
+      fold.m_minStdDevPerAtt = m_minStdDevPerAtt;
+      fold.m_max_iterations = m_max_iterations;
+      fold.m_minLogLikelihoodImprovementIterating =
+        m_minLogLikelihoodImprovementIterating;
+      fold.m_NumKMeansRuns = m_NumKMeansRuns;
+      fold.m_theInstances = m_theInstances;
+      fold.m_num_instances = m_num_instances;
+      fold.m_num_attribs = m_num_attribs;
+      fold.m_training = true;
+      fold.m_executionSlots = 1;
+
+      fold.m_rr = new Random(m_foldSeed);
+      for (int z = 0; z < 10; z++) {
+        fold.m_rr.nextDouble();
+      }
+      fold.m_num_clusters = m_numClusters;
+      try {
+        try {
+          fold.EM_Init(m_cvTrain);
+        } catch (Exception ex) {
+          // not a failure of the fold, but of the cross-validation
+          m_initFailure = ex;
+          return Double.NaN;
+        }
+        fold.iterate(m_cvTrain, false);
+        return fold.E(m_cvTest, false);
+      } finally {
+        if (fold.m_executorPool != null) {
+          fold.m_executorPool.shutdown();
+        }
+      }
+    }
+  }
+
   /**
    * Returns the number of clusters.
    * 
@@ -23,12 +23,17 @@ package weka.clusterers;
 import java.io.Serializable;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.util.Arrays;
 import java.util.Locale;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.PriorityQueue;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import weka.core.Capabilities;
 import weka.core.Capabilities.Capability;
@@ -83,6 +88,20 @@ import weka.core.Utils;
  * \If set, distance is interpreted as branch length, otherwise it is node height.
  * </pre>
  * 
+ * <pre>
+ * -memory-efficient
+ * Use the nearest-neighbour chain algorithm for COMPLETE, AVERAGE and WARD
+ * and SLINK for SINGLE, which need far less memory on large datasets.
+ * WARD merge heights then change to the square root of twice the increase
+ * in the error sum of squares (Lance-Williams).
+ * </pre>
+ * 
+ * <pre>
+ * -num-slots &lt;num&gt;
+ * Number of execution slots for computing the distances with -memory-efficient.
+ * (default 1 - i.e. no parallelism)
+ * </pre>
+ * 
  * <!-- options-end -->
  * 
  * 
@@ -198,6 +217,38 @@ public class HierarchicalClusterer extends AbstractClusterer implements
     return new SelectedTag(m_nLinkType, TAGS_LINK_TYPE);
   }
 
+  /**
+   * Whether to use the nearest-neighbour chain and SLINK algorithms, which
+   * keep at most a triangular matrix of distances, where the link type
+   * allows it
+   */
+  boolean m_bMemoryEfficient = false;
+
+  public boolean getMemoryEfficient() {
+    return m_bMemoryEfficient;
+  }
+
+  public void setMemoryEfficient(boolean bMemoryEfficient) {
+    m_bMemoryEfficient = bMemoryEfficient;
+  }
+
+  /** number of threads computing the distances for the memory-efficient engine */
+  int m_nExecutionSlots = 1;
+
+  public int getNumExecutionSlots() {
+    return m_nExecutionSlots;
+  }
+
+  public void setNumExecutionSlots(int nSlots) {
+    m_nExecutionSlots = Math.max(1, nSlots);
+  }
+
+  /** rows shorter than this are not split among the execution slots in SLINK */
+  final static int MIN_PARALLEL_ROW = 4096;
+
+  /** thread pool for the memory-efficient engine **/
+  transient ExecutorService m_executorPool;
+
   /** class representing node in cluster hierarchy **/
   class Node implements Serializable {
 
@@ -330,6 +381,28 @@ public class HierarchicalClusterer extends AbstractClusterer implements
     Node[] clusterNodes = new Node[nInstances];
     if (m_nLinkType == NEIGHBOR_JOINING) {
       neighborJoining(nClusters, nClusterID, clusterNodes);
+    } else if (m_bMemoryEfficient
+      && (m_nLinkType == SINGLE || m_nLinkType == COMPLETE
+        || m_nLinkType == AVERAGE || m_nLinkType == WARD)) {
+      if (m_nExecutionSlots > 1) {
+        m_executorPool = Executors.newFixedThreadPool(m_nExecutionSlots);
+      }
+      try {
+        // first distance computation initializes the distance function, so
+        // that the threads only read it afterwards
+        m_DistanceFunction.distance(m_instances.instance(0),
+          m_instances.instance(0));
+        if (m_nLinkType == SINGLE) {
+          doSLINKClustering(nClusterID, clusterNodes);
+        } else {
+          doNNChainClustering(nClusterID, clusterNodes);
+        }
+      } finally {
+        if (m_executorPool != null) {
+          m_executorPool.shutdown();
+          m_executorPool = null;
+        }
+      }
     } else {
       doLinkClustering(nClusters, nClusterID, clusterNodes);
     }
@@ -584,6 +657,311 @@ public class HierarchicalClusterer extends AbstractClusterer implements
     }
   } // doLinkClustering
 
+  /**
+   * Single link clustering with the SLINK algorithm (Sibson 1973), which runs
+   * in O(n^2) time and O(n) memory. The distances from each instance to the
+   * ones before it are computed when the instance is added to the pointer
+   * representation, split among the execution slots for long rows.
+   * 
+   * @param nClusterID
+   * @param clusterNodes
+   * @throws Exception if computing the distances fails
+   */
+  void doSLINKClustering(Vector<Integer>[] nClusterID, Node[] clusterNodes)
+    throws Exception {
+    int nInstances = m_instances.numInstances();
+    // pointer representation: instance i joins the cluster of instance
+    // nPointer[i] > i at height fLambda[i]
+    int[] nPointer = new int[nInstances];
+    double[] fLambda = new double[nInstances];
+    double[] fRow = new double[nInstances];
+    for (int i = 0; i < nInstances; i++) {
+      nPointer[i] = i;
+      fLambda[i] = Double.POSITIVE_INFINITY;
+      computeDistances(i, fRow);
+      for (int j = 0; j < i; j++) {
+        int k = nPointer[j];
+        if (fLambda[j] >= fRow[j]) {
+          fRow[k] = Math.min(fRow[k], fLambda[j]);
+          fLambda[j] = fRow[j];
+          nPointer[j] = i;
+        } else {
+          fRow[k] = Math.min(fRow[k], fRow[j]);
+        }
+      }
+      for (int j = 0; j < i; j++) {
+        if (fLambda[j] >= fLambda[nPointer[j]]) {
+          nPointer[j] = i;
+        }
+      }
+    }
+
+    // every instance but the last one is merged with its pointer
+    int[] nMerge1 = new int[nInstances - 1];
+    int[] nMerge2 = new int[nInstances - 1];
+    double[] fHeight = new double[nInstances - 1];
+    for (int i = 0; i < nInstances - 1; i++) {
+      nMerge1[i] = i;
+      nMerge2[i] = nPointer[i];
+      fHeight[i] = fLambda[i];
+    }
+    replayMerges(nMerge1, nMerge2, fHeight, nClusterID, clusterNodes);
+  } // doSLINKClustering
+
+  /**
+   * computes the distances from instance i to the instances before it
+   * 
+   * @param i the index of the instance
+   * @param fRow receives the distances in its first i elements
+   * @throws Exception if computing the distances fails
+   */
+  void computeDistances(final int i, final double[] fRow) throws Exception {
+    final Instance instance = m_instances.instance(i);
+    if (m_executorPool == null || i < MIN_PARALLEL_ROW) {
+      for (int j = 0; j < i; j++) {
+        fRow[j] = m_DistanceFunction.distance(instance,
+          m_instances.instance(j));
+      }
+      return;
+    }
+    Vector<Future<Object>> results = new Vector<Future<Object>>();
+    for (int t = 0; t < m_nExecutionSlots; t++) {
+      final int start = (int) ((long) i * t / m_nExecutionSlots);
+      final int end = (int) ((long) i * (t + 1) / m_nExecutionSlots);
+      results.add(m_executorPool.submit(new Callable<Object>() {
+        @Override
+        public Object call() {
+          for (int j = start; j < end; j++) {
+            fRow[j] = m_DistanceFunction.distance(instance,
+              m_instances.instance(j));
+          }
+          return null;
+        }
+      }));
+    }
+    for (Future<Object> result : results) {
+      result.get();
+    }
+  } // computeDistances
+
+  /**
+   * Complete, average and Ward link clustering with the nearest-neighbour
+   * chain algorithm, which runs in O(n^2) time and keeps the cluster
+   * distances in a triangular matrix of doubles, updated with the
+   * Lance-Williams formulas. For WARD the distance between clusters is the
+   * square root of twice the increase in the error sum of squares (squared
+   * distances) caused by merging them, which equals the distance between
+   * instances for singletons. Because the chain merges clusters out of order,
+   * the merges are sorted by height and replayed afterwards.
+   * 
+   * @param nClusterID
+   * @param clusterNodes
+   * @throws Exception if computing the distances fails
+   */
+  void doNNChainClustering(Vector<Integer>[] nClusterID, Node[] clusterNodes)
+    throws Exception {
+    final int nInstances = m_instances.numInstances();
+    // fDist[i][j] for j < i, squared for WARD
+    final double[][] fDist = new double[nInstances][];
+    for (int i = 0; i < nInstances; i++) {
+      fDist[i] = new double[i];
+    }
+    int nThreads = (m_executorPool == null) ? 1 : m_nExecutionSlots;
+    Vector<Future<Object>> results = new Vector<Future<Object>>();
+    for (int t = 0; t < nThreads; t++) {
+      final int first = t;
+      final int step = nThreads;
+      Callable<Object> task = new Callable<Object>() {
+        @Override
+        public Object call() {
+          // interleaved rows keep the threads' shares of the triangle even
+          for (int i = first; i < nInstances; i += step) {
+            Instance instance = m_instances.instance(i);
+            double[] fRow = fDist[i];
+            for (int j = 0; j < i; j++) {
+              double fDistance = m_DistanceFunction.distance(instance,
+                m_instances.instance(j));
+              if (m_nLinkType == WARD) {
+                fDistance *= fDistance;
+              }
+              fRow[j] = fDistance;
+            }
+          }
+          return null;
+        }
+      };
+      if (m_executorPool == null) {
+        task.call();
+      } else {
+        results.add(m_executorPool.submit(task));
+      }
+    }
+    for (Future<Object> result : results) {
+      result.get();
+    }
+
+    // active clusters as a doubly linked list, each cluster kept in the slot
+    // of its smallest instance index
+    int[] nNext = new int[nInstances];
+    int[] nPrev = new int[nInstances];
+    int[] nSize = new int[nInstances];
+    for (int i = 0; i < nInstances; i++) {
+      nNext[i] = i + 1;
+      nPrev[i] = i - 1;
+      nSize[i] = 1;
+    }
+    int iFirst = 0;
+
+    int[] nChain = new int[nInstances];
+    int nChainLength = 0;
+    int[] nMerge1 = new int[nInstances - 1];
+    int[] nMerge2 = new int[nInstances - 1];
+    double[] fHeight = new double[nInstances - 1];
+    for (int m = 0; m < nInstances - 1; m++) {
+      if (nChainLength == 0) {
+        nChain[nChainLength++] = iFirst;
+      }
+      while (true) {
+        int a = nChain[nChainLength - 1];
+        int b = (nChainLength > 1) ? nChain[nChainLength - 2] : -1;
+        // nearest neighbour of a, preferring the previous chain element on
+        // ties so that the chain ends in a pair of reciprocal neighbours
+        int c = b;
+        double fMin = (b < 0) ? Double.POSITIVE_INFINITY : getDist(fDist, a, b);
+        for (int i = iFirst; i < nInstances; i = nNext[i]) {
+          if (i != a) {
+            double f = getDist(fDist, a, i);
+            if (f < fMin || c < 0) {
+              fMin = f;
+              c = i;
+            }
+          }
+        }
+        if (c == b) {
+          nChainLength -= 2;
+          break;
+        }
+        nChain[nChainLength++] = c;
+      }
+      int a = nChain[nChainLength];
+      int b = nChain[nChainLength + 1];
+      int iKeep = Math.min(a, b);
+      int iDrop = Math.max(a, b);
+      double fMerge = getDist(fDist, a, b);
+      nMerge1[m] = iKeep;
+      nMerge2[m] = iDrop;
+      fHeight[m] = (m_nLinkType == WARD) ? Math.sqrt(fMerge) : fMerge;
+
+      // Lance-Williams update of the distances to the merged cluster
+      int nKeep = nSize[iKeep];
+      int nDrop = nSize[iDrop];
+      for (int i = iFirst; i < nInstances; i = nNext[i]) {
+        if (i == iKeep || i == iDrop) {
+          continue;
+        }
+        double fKeep = getDist(fDist, iKeep, i);
+        double fDrop = getDist(fDist, iDrop, i);
+        double fNew;
+        switch (m_nLinkType) {
+        case COMPLETE:
+          fNew = Math.max(fKeep, fDrop);
+          break;
+        case AVERAGE:
+          fNew = (nKeep * fKeep + nDrop * fDrop) / (nKeep + nDrop);
+          break;
+        default: // WARD
+          int nOther = nSize[i];
+          fNew = ((nKeep + nOther) * fKeep + (nDrop + nOther) * fDrop - nOther
+            * fMerge)
+            / (nKeep + nDrop + nOther);
+        }
+        setDist(fDist, iKeep, i, fNew);
+      }
+      nSize[iKeep] = nKeep + nDrop;
+
+      // remove the dropped cluster and release its row
+      if (nPrev[iDrop] >= 0) {
+        nNext[nPrev[iDrop]] = nNext[iDrop];
+      }
+      if (nNext[iDrop] < nInstances) {
+        nPrev[nNext[iDrop]] = nPrev[iDrop];
+      }
+      fDist[iDrop] = null;
+    }
+
+    replayMerges(nMerge1, nMerge2, fHeight, nClusterID, clusterNodes);
+  } // doNNChainClustering
+
+  /** distance between active clusters i and j in the triangular matrix **/
+  static double getDist(double[][] fDist, int i, int j) {
+    return (i > j) ? fDist[i][j] : fDist[j][i];
+  }
+
+  /** sets the distance between active clusters i and j **/
+  static void setDist(double[][] fDist, int i, int j, double f) {
+    if (i > j) {
+      fDist[i][j] = f;
+    } else {
+      fDist[j][i] = f;
+    }
+  }
+
+  /**
+   * Performs the first nInstances - m_nNumClusters of the given merges in
+   * order of height. The merges are given by an instance of each cluster, and
+   * are turned into merges of the clusters' slots.
+   * 
+   * @param nMerge1 an instance of the first cluster of each merge
+   * @param nMerge2 an instance of the second cluster of each merge
+   * @param fHeight the height of each merge
+   * @param nClusterID
+   * @param clusterNodes
+   */
+  void replayMerges(int[] nMerge1, int[] nMerge2, final double[] fHeight,
+    Vector<Integer>[] nClusterID, Node[] clusterNodes) {
+    int nInstances = m_instances.numInstances();
+    Integer[] order = new Integer[fHeight.length];
+    for (int m = 0; m < order.length; m++) {
+      order[m] = m;
+    }
+    Arrays.sort(order, new Comparator<Integer>() {
+      @Override
+      public int compare(Integer o1, Integer o2) {
+        return Double.compare(fHeight[o1], fHeight[o2]);
+      }
+    });
+
+    // union-find whose roots are the clusters' smallest instance indices,
+    // which are the slots merge() keeps the clusters in
+    int[] nParent = new int[nInstances];
+    for (int i = 0; i < nInstances; i++) {
+      nParent[i] = i;
+    }
+    int nMerges = Math.max(0, nInstances - m_nNumClusters);
+    for (int m = 0; m < nMerges; m++) {
+      int iMerge = order[m];
+      int i1 = findSlot(nParent, nMerge1[iMerge]);
+      int i2 = findSlot(nParent, nMerge2[iMerge]);
+      merge(i1, i2, fHeight[iMerge], fHeight[iMerge], nClusterID,
+        clusterNodes);
+      nParent[Math.max(i1, i2)] = Math.min(i1, i2);
+    }
+  } // replayMerges
+
+  /** finds the slot of the cluster containing instance i **/
+  static int findSlot(int[] nParent, int i) {
+    int iRoot = i;
+    while (nParent[iRoot] != iRoot) {
+      iRoot = nParent[iRoot];
+    }
+    while (nParent[i] != iRoot) {
+      int iNext = nParent[i];
+      nParent[i] = iRoot;
+      i = iNext;
+    }
+    return iRoot;
+  } // findSlot
+
   void merge(int iMin1, int iMin2, double fDist1, double fDist2,
     Vector<Integer>[] nClusterID, Node[] clusterNodes) {
     if (m_Debug) {
@@ -892,7 +1270,7 @@ public class HierarchicalClusterer extends AbstractClusterer implements
   @Override
   public Enumeration<Option> listOptions() {
 
-    Vector<Option> newVector = new Vector<Option>(5);
+    Vector<Option> newVector = new Vector<Option>(7);
 
     newVector.addElement(new Option(
       "\tIf set, distance is interpreted as branch length\n"
@@ -911,6 +1289,17 @@ public class HierarchicalClusterer extends AbstractClusterer implements
     newVector.add(new Option("\tDistance function to use.\n"
       + "\t(default: weka.core.EuclideanDistance)", "A", 1,
       "-A <classname and options>"));
+    newVector.add(new Option(
+      "\tUse the nearest-neighbour chain algorithm for COMPLETE, AVERAGE\n"
+        + "\tand WARD and SLINK for SINGLE, which need far less memory\n"
+        + "\ton large datasets. WARD merge heights then change to the\n"
+        + "\tsquare root of twice the increase in the error sum of\n"
+        + "\tsquares (Lance-Williams).", "memory-efficient", 0,
+      "-memory-efficient"));
+    newVector.add(new Option("\tNumber of execution slots for computing the\n"
+      + "\tdistances with -memory-efficient.\n"
+      + "\t(default 1 - i.e. no parallelism)", "num-slots", 1,
+      "-num-slots <num>"));
 
     newVector.addAll(Collections.list(super.listOptions()));
 
@@ -985,6 +1374,15 @@ public class HierarchicalClusterer extends AbstractClusterer implements
       setDistanceFunction(new EuclideanDistance());
     }
 
+    setMemoryEfficient(Utils.getFlag("memory-efficient", options));
+
+    String slotsS = Utils.getOption("num-slots", options);
+    if (slotsS.length() > 0) {
+      setNumExecutionSlots(Integer.parseInt(slotsS));
+    } else {
+      setNumExecutionSlots(1);
+    }
+
     super.setOptions(options);
   }
 
@@ -1039,6 +1437,12 @@ public class HierarchicalClusterer extends AbstractClusterer implements
     options.add((m_DistanceFunction.getClass().getName() + " " + Utils
       .joinOptions(m_DistanceFunction.getOptions())).trim());
 
+    if (getMemoryEfficient()) {
+      options.add("-memory-efficient");
+    }
+    options.add("-num-slots");
+    options.add("" + getNumExecutionSlots());
+
     Collections.addAll(options, super.getOptions());
 
     return options.toArray(new String[0]);
@@ -1121,6 +1525,28 @@ public class HierarchicalClusterer extends AbstractClusterer implements
       + "depending on the Link type).";
   }
 
+  /**
+   * @return a string to describe the memory efficient flag
+   */
+  public String memoryEfficientTipText() {
+    return "If set, SINGLE link clustering uses the SLINK algorithm and "
+      + "COMPLETE, AVERAGE and WARD use the nearest-neighbour chain algorithm, "
+      + "which keep at most a triangle of distances instead of the full "
+      + "distance matrix and a queue of all pairs. For WARD, the distance "
+      + "between clusters is then based on the squared distances between "
+      + "instances (the Lance-Williams formula) rather than on the distances "
+      + "to the centroids. The other link types are not affected.";
+  }
+
+  /**
+   * @return a string to describe the number of execution slots
+   */
+  public String numExecutionSlotsTipText() {
+    return "The number of execution slots (threads) to compute the distances "
+      + "between instances with when memoryEfficient is set. "
+      + "Set equal to the number of available cpu/cores";
+  }
+
   /**
    * @return a string to describe the Link type
    */
@@ -0,0 +1,52 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    ProgressReportingClusterer.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers;
+
+/**
+ * Interface to a clusterer that reports the progress of buildClusterer and
+ * can be asked to stop building early, keeping the best model found so far.
+ *
+ * @version $Revision$
+ */
+public interface ProgressReportingClusterer {
+
+  /**
+   * Adds a listener that is notified as building progresses. Listeners may
+   * be called from the threads building the model, one at a time.
+   *
+   * @param listener the listener to add
+   */
+  void addProgressListener(ClustererProgressListener listener);
+
+  /**
+   * Removes a listener.
+   *
+   * @param listener the listener to remove
+   */
+  void removeProgressListener(ClustererProgressListener listener);
+
+  /**
+   * Stops the current build as soon as possible. Can be called from another
+   * thread or from a progress listener.
+   */
+  void stop();
+}
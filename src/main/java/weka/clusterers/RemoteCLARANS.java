@@ -0,0 +1,897 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    RemoteCLARANS.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers;
+
+import java.rmi.Naming;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Vector;
+
+import weka.clusterers.medoids.MedoidSolution;
+import weka.core.Instances;
+import weka.core.Option;
+import weka.core.RevisionUtils;
+import weka.core.SerializedObject;
+import weka.core.Utils;
+import weka.core.converters.ConverterUtils.DataSource;
+import weka.experiment.Compute;
+import weka.experiment.Task;
+import weka.experiment.TaskStatusInfo;
+import weka.filters.Filter;
+import weka.filters.unsupervised.attribute.ReplaceMissingValues;
+
+/**
+ <!-- globalinfo-start -->
+ * Runs the CLARANS local searches on remote hosts, using the RemoteEngine of
+ * the Experimenter (weka.experiment.RemoteEngine) on each host. Every local
+ * search, or every sample if a sample size is set, is sent to a host as a
+ * separate task, and the cost of the resulting medoid sets on all instances
+ * is computed by splitting the instances among the hosts. The medoids with
+ * the lowest cost are kept. Without hosts the tasks are run one after the
+ * other in this JVM, with the same results.<br/>
+ * <br/>
+ * Missing values are replaced and distances normalized with all instances
+ * before the tasks are sent, also when sampling. The time limit and the
+ * maximum number of evaluations apply to each task separately; stop() and
+ * search listeners are not supported. A range of numbers of clusters is
+ * settled first by a single task, on the first sample when sampling.
+ * <p/>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * Valid options are: <p/>
+ *
+ * <pre> -hosts &lt;host[:port],...&gt;
+ *  Comma-separated list of hosts running a RemoteEngine,
+ *  empty to run the tasks locally.
+ *  (default: none)</pre>
+ *
+ * <pre> -clusters &lt;integer or range&gt;
+ *  Number of clusters, or a range of numbers of clusters
+ *  to select from (e.g. 2-30).
+ *  (default 3).</pre>
+ *
+ * <pre> -k-selection &lt;num&gt;
+ *  Criterion to select the number of clusters with.
+ *  0 = medoid silhouette, 1 = elbow.
+ *  (default = 0)</pre>
+ *
+ * <pre> -numlocal &lt;integer&gt;
+ *  The number of local minima obtained (number of local searches).
+ *  (default 6).</pre>
+ *
+ * <pre> -maximumneighbor &lt;integer&gt;
+ *  The maximum number of neighbors examined in a row
+ *  before a node is taken as a local minimum.
+ *  At least min(100, k*(n-k)) neighbors are examined.
+ *  (default 4).</pre>
+ *
+ * <pre> -init
+ *  Initialization method to use.
+ *  0 = random, 1 = k-medoids++.
+ *  (default = 1)</pre>
+ *
+ * <pre> -search &lt;num&gt;
+ *  Search strategy to use.
+ *  0 = CLARANS, 1 = FastCLARANS.
+ *  (default = 0)</pre>
+ *
+ * <pre> -focus
+ *  Evaluate swaps only on the instances whose nearest medoid
+ *  can change. Requires a metric distance function.
+ *  Only applies to the CLARANS search strategy.</pre>
+ *
+ * <pre> -C
+ *  Use canopies to reduce the number of distance calculations
+ *  when evaluating swaps. Only applies to the CLARANS search strategy.</pre>
+ *
+ * <pre> -max-candidates &lt;num&gt;
+ *  Maximum number of candidate canopies to retain in memory
+ *  at any one time when using canopy clustering.
+ *  T2 distance plus, data characteristics,
+ *  will determine how many candidate canopies are formed before
+ *  periodic and final pruning are performed, which might result
+ *  in exceess memory consumption. This setting avoids large numbers
+ *  of candidate canopies consuming memory. (default = 100)</pre>
+ *
+ * <pre> -periodic-pruning &lt;num&gt;
+ *  How often to prune low density canopies when using canopy clustering.
+ *  (default = every 10,000 training instances)</pre>
+ *
+ * <pre> -min-density
+ *  Minimum canopy density, when using canopy clustering, below which
+ *   a canopy will be pruned during periodic pruning. (default = 2 instances)</pre>
+ *
+ * <pre> -t2
+ *  The T2 distance to use when using canopy clustering. Values &lt; 0 indicate that
+ *  a heuristic based on attribute std. deviation should be used to set this.
+ *  (default = -1.0)</pre>
+ *
+ * <pre> -t1
+ *  The T1 distance to use when using canopy clustering. A value &lt; 0 is taken as a
+ *  positive multiplier for T2. (default = -1.25)</pre>
+ *
+ * <pre> -A &lt;classname and options&gt;
+ *  Distance function to use.
+ *  (default: weka.core.EuclideanDistance)</pre>
+ *
+ * <pre> -num-slots &lt;num&gt;
+ *  Number of execution slots.
+ *  (default 1 - i.e. no parallelism)</pre>
+ *
+ * <pre> -distance-cache
+ *  Cache the distances between instances, within the
+ *  memory budget given by -distance-cache-size.</pre>
+ *
+ * <pre> -distance-cache-size &lt;MB&gt;
+ *  Memory budget for the distance cache in megabytes.
+ *  (default 256)</pre>
+ *
+ * <pre> -nn-search &lt;classname and options&gt;
+ *  Nearest neighbour search to find the closest medoid with.
+ *  (default: weka.core.neighboursearch.KDTree)</pre>
+ *
+ * <pre> -nn-search-min-clusters &lt;num&gt;
+ *  Minimum number of clusters for which the nearest neighbour
+ *  search is used instead of scanning all medoids.
+ *  (default 256)</pre>
+ *
+ * <pre> -sample-size &lt;num&gt;
+ *  Size of the samples to cluster instead of all instances,
+ *  0 to cluster all instances.
+ *  (default 0)</pre>
+ *
+ * <pre> -num-samples &lt;num&gt;
+ *  Number of samples to cluster when sampling.
+ *  (default 5)</pre>
+ *
+ * <pre> -time-limit &lt;seconds&gt;
+ *  Time limit for the search in seconds, 0 for none.
+ *  (default 0)</pre>
+ *
+ * <pre> -max-evaluations &lt;num&gt;
+ *  Maximum number of neighbors evaluated over all
+ *  local searches, 0 for no limit.
+ *  (default 0)</pre>
+ *
+ * <pre> -update-window &lt;num&gt;
+ *  Number of instances retained to refine the medoids
+ *  with after updates, 0 to retain none.
+ *  (default 2000)</pre>
+ *
+ * <pre> -S &lt;num&gt;
+ *  Random number seed.
+ *  (default 1)</pre>
+ *
+ * <pre> -output-debug-info
+ *  If set, clusterer is run in debug mode and
+ *  may output additional info to the console</pre>
+ *
+ * <pre> -do-not-check-capabilities
+ *  If set, clusterer capabilities are not checked before clusterer is built
+ *  (use with caution).</pre>
+ *
+ <!-- options-end -->
+ *
+ * @version $Revision$
+ * @see CLARANS
+ * @see weka.experiment.RemoteEngine
+ */
+public class RemoteCLARANS extends CLARANS {
+
+  /** for serialization */
+  private static final long serialVersionUID = 3306911834150785722L;
+
+  /** the interval (in ms) at which the hosts are asked for a task's status */
+  protected static long POLL_INTERVAL = 500;
+
+  /** the number of times a task may fail before the build is given up */
+  protected static int MAX_FAILURES = 3;
+
+  /** the comma-separated hosts running a RemoteEngine */
+  protected String m_Hosts = "";
+
+  /**
+   * Returns a string describing this clusterer
+   *
+   * @return a description of the clusterer suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  @Override
+  public String globalInfo() {
+    return "Runs the CLARANS local searches on remote hosts, using the "
+      + "RemoteEngine of the Experimenter (weka.experiment.RemoteEngine) on "
+      + "each host. Every local search, or every sample if a sample size is "
+      + "set, is sent to a host as a separate task, and the cost of the "
+      + "resulting medoid sets on all instances is computed by splitting the "
+      + "instances among the hosts. The medoids with the lowest cost are "
+      + "kept. Without hosts the tasks are run one after the other in this "
+      + "JVM, with the same results.\n\n"
+      + "Missing values are replaced and distances normalized with all "
+      + "instances before the tasks are sent, also when sampling. The time "
+      + "limit and the maximum number of evaluations apply to each task "
+      + "separately; stop() and search listeners are not supported. A range "
+      + "of numbers of clusters is settled first by a single task, on the "
+      + "first sample when sampling.";
+  }
+
+  /**
+   * Keeps track of the tasks still to run for the threads that send them to
+   * the hosts.
+   */
+  protected static class TaskQueue {
+
+    /** the tasks */
+    protected List<Task> m_Tasks;
+
+    /** the indices of the tasks waiting to be sent */
+    protected LinkedList<Integer> m_Waiting = new LinkedList<Integer>();
+
+    /** the results of the tasks */
+    protected Object[] m_Results;
+
+    /** the number of times each task failed */
+    protected int[] m_Failures;
+
+    /** the number of tasks not finished yet */
+    protected int m_Remaining;
+
+    /** the number of hosts that can still be reached */
+    protected int m_NumHosts;
+
+    /** the reason for giving up, null if all is well */
+    protected String m_Error;
+
+    /**
+     * Constructor.
+     *
+     * @param tasks the tasks to run
+     * @param numHosts the number of hosts to run them on
+     */
+    public TaskQueue(List<Task> tasks, int numHosts) {
+      m_Tasks = tasks;
+      m_Results = new Object[tasks.size()];
+      m_Failures = new int[tasks.size()];
+      m_Remaining = tasks.size();
+      m_NumHosts = numHosts;
+      for (int i = 0; i < tasks.size(); i++) {
+        m_Waiting.add(i);
+      }
+    }
+
+    /**
+     * Returns the next task to send, waiting for failed tasks to be handed
+     * back while others are still running.
+     *
+     * @return the index of the task, -1 if there is nothing left to do
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized int next() throws InterruptedException {
+      while (m_Waiting.isEmpty() && m_Remaining > 0 && m_Error == null) {
+        wait();
+      }
+      if (m_Waiting.isEmpty() || m_Error != null) {
+        return -1;
+      }
+
+      return m_Waiting.removeFirst();
+    }
+
+    /**
+     * Records the result of a finished task.
+     *
+     * @param index the index of the task
+     * @param result the result
+     */
+    public synchronized void finished(int index, Object result) {
+      m_Results[index] = result;
+      m_Remaining--;
+      notifyAll();
+    }
+
+    /**
+     * Hands a failed task back, unless it failed too often already.
+     *
+     * @param index the index of the task
+     * @param message the reason for the failure
+     */
+    public synchronized void failed(int index, String message) {
+      m_Failures[index]++;
+      if (m_Failures[index] >= MAX_FAILURES) {
+        m_Error = "Task " + (index + 1) + " failed " + m_Failures[index]
+          + " times: " + message;
+      } else {
+        m_Waiting.add(index);
+      }
+      notifyAll();
+    }
+
+    /**
+     * Hands the task of a host that cannot be reached anymore back.
+     *
+     * @param index the index of the task, -1 if none
+     * @param message the reason for the failure
+     */
+    public synchronized void hostFailed(int index, String message) {
+      if (index >= 0) {
+        m_Waiting.add(index);
+      }
+      m_NumHosts--;
+      if (m_NumHosts == 0) {
+        m_Error = "All hosts failed, last: " + message;
+      }
+      notifyAll();
+    }
+
+    /**
+     * Waits for all tasks to finish.
+     *
+     * @return the results of the tasks
+     * @throws Exception if a task failed too often or all hosts failed
+     */
+    public synchronized Object[] waitForResults() throws Exception {
+      while (m_Remaining > 0 && m_Error == null) {
+        wait();
+      }
+      if (m_Error != null) {
+        throw new Exception(m_Error);
+      }
+
+      return m_Results;
+    }
+  }
+
+  /**
+   * Returns the hosts to send tasks to.
+   *
+   * @return the hosts, empty if the tasks are run locally
+   */
+  protected List<String> hostList() {
+    List<String> result = new ArrayList<String>();
+    for (String host : m_Hosts.split(",")) {
+      if (host.trim().length() > 0) {
+        result.add(host.trim());
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Runs tasks on the hosts, or in this JVM if there are none. Each host
+   * runs one task at a time; failed tasks are sent again, to another host
+   * if possible, and hosts that cannot be reached are dropped.
+   *
+   * @param tasks the tasks to run
+   * @return the results of the tasks, in the same order
+   * @throws Exception if a task failed too often or all hosts failed
+   */
+  protected Object[] runTasks(List<Task> tasks) throws Exception {
+    List<String> hosts = hostList();
+    if (hosts.isEmpty()) {
+      Object[] result = new Object[tasks.size()];
+      for (int i = 0; i < tasks.size(); i++) {
+        Task task = tasks.get(i);
+        task.execute();
+        TaskStatusInfo status = task.getTaskStatus();
+        if (status.getExecutionStatus() != TaskStatusInfo.FINISHED) {
+          throw new Exception(status.getStatusMessage());
+        }
+        result[i] = status.getTaskResult();
+      }
+      return result;
+    }
+
+    final List<Task> allTasks = tasks;
+    final TaskQueue queue = new TaskQueue(tasks, hosts.size());
+    for (final String host : hosts) {
+      Thread hostThread = new Thread() {
+        @Override
+        public void run() {
+          int index = -1;
+          try {
+            Compute comp =
+              (Compute) Naming.lookup("//" + host + "/RemoteEngine");
+            while ((index = queue.next()) >= 0) {
+              Object taskId = comp.executeTask(allTasks.get(index));
+              TaskStatusInfo status;
+              do {
+                Thread.sleep(POLL_INTERVAL);
+                status = (TaskStatusInfo) comp.checkStatus(taskId);
+              } while (status.getExecutionStatus() != TaskStatusInfo.FINISHED
+                && status.getExecutionStatus() != TaskStatusInfo.FAILED);
+
+              if (status.getExecutionStatus() == TaskStatusInfo.FINISHED) {
+                queue.finished(index, status.getTaskResult());
+              } else {
+                if (m_Debug) {
+                  System.err.println(host + ": " + status.getStatusMessage());
+                }
+                queue.failed(index, status.getStatusMessage());
+              }
+              index = -1;
+            }
+          } catch (Exception ex) {
+            if (m_Debug) {
+              System.err.println("Connection to " + host + " failed: " + ex);
+            }
+            queue.hostFailed(index, host + ": " + ex.getMessage());
+          }
+        }
+      };
+      hostThread.setDaemon(true);
+      hostThread.start();
+    }
+
+    return queue.waitForResults();
+  }
+
+  /**
+   * Draws a sample without replacement with reservoir sampling.
+   *
+   * @param n the number of instances to draw from
+   * @param sampleSize the size of the sample
+   * @param random the random number generator to use
+   * @return the indices of the instances in the sample
+   */
+  protected static int[] drawSample(int n, int sampleSize, Random random) {
+    int[] result = new int[sampleSize];
+    for (int i = 0; i < n; i++) {
+      int pos = i;
+      if (i >= sampleSize) {
+        pos = (int) (random.nextDouble() * (i + 1.0));
+      }
+      if (pos < sampleSize) {
+        result[pos] = i;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Generates a clusterer. The local searches, or the samples, are run as
+   * tasks on the hosts, followed by the cost of the medoids they found on
+   * all instances.
+   *
+   * @param data set of instances serving as training data
+   * @throws Exception if the clusterer has not been generated successfully
+   */
+  @Override
+  public void buildClusterer(Instances data) throws Exception {
+
+    // can clusterer handle the data?
+    getCapabilities().testWithFail(data);
+
+    // built from the structure only, the instances are clustered once they
+    // have been collected with updateClusterer
+    if (data.numInstances() == 0) {
+      buildEmpty(data);
+      return;
+    }
+
+    m_ReplaceMissingFilter = new ReplaceMissingValues();
+    Instances instances = new Instances(data);
+    instances.setClassIndex(-1);
+    m_ReplaceMissingFilter.setInputFormat(instances);
+    instances = Filter.useFilter(instances, m_ReplaceMissingFilter);
+
+    int n = instances.numInstances();
+    if (n == 0) {
+      throw new Exception("No training instances!");
+    }
+
+    // the ranges of all instances travel with the distance function
+    m_DistanceFunction.setInstances(instances);
+    m_DistanceFunction.distance(instances.instance(0), instances.instance(0));
+    m_DistanceFunction.clean();
+
+    boolean sampled = m_SampleSize > 0 && n > m_SampleSize;
+    CLARANS worker = new CLARANS();
+    worker.setOptions(super.getOptions());
+    worker.setSampleSize(0);
+    worker.m_DistanceFunction = m_DistanceFunction;
+
+    // the data and seeds of the searches, one per sample or one per local
+    // search
+    Random random = new Random(getSeed());
+    int numJobs = sampled ? m_NumSamples : m_NumLocal;
+    int[][] rows = new int[numJobs][];
+    SerializedObject[] jobData = new SerializedObject[numJobs];
+    long[] jobSeeds = new long[numJobs];
+    SerializedObject dataSO = sampled ? null : new SerializedObject(instances);
+    for (int j = 0; j < numJobs; j++) {
+      if (sampled) {
+        Random sampleRandom = new Random(random.nextLong());
+        jobSeeds[j] = random.nextLong();
+        rows[j] = drawSample(n, m_SampleSize, sampleRandom);
+        Instances sample = new Instances(instances, m_SampleSize);
+        for (int row : rows[j]) {
+          sample.add(instances.instance(row));
+        }
+        jobData[j] = new SerializedObject(sample);
+      } else {
+        jobData[j] = dataSO;
+        jobSeeds[j] = random.nextLong();
+      }
+    }
+    dataSO = null;
+
+    // a range of numbers of clusters is settled by a single task on the data
+    // of the first search, the searches then use the selected number
+    m_SweepNumClusters = null;
+    m_SweepCost = null;
+    m_SweepSilhouette = null;
+    if (m_MaxNumClusters > m_NumClusters) {
+      List<Task> selection = new ArrayList<Task>();
+      selection.add(new CLARANSSearchTask(new SerializedObject(worker),
+        jobData[0], jobSeeds[0]));
+      int k = ((MedoidSolution) runTasks(selection)[0]).getMedoids().length;
+      if (m_Debug) {
+        System.err.println("Number of clusters selected: " + k);
+      }
+      worker.setNumClusters(k);
+      worker.setMaxNumClusters(0);
+    }
+    if (!sampled) {
+      worker.setNumLocal(1);
+    }
+    SerializedObject workerSO = new SerializedObject(worker);
+
+    List<Task> searches = new ArrayList<Task>();
+    for (int j = 0; j < numJobs; j++) {
+      searches.add(new CLARANSSearchTask(workerSO, jobData[j], jobSeeds[j]));
+    }
+    jobData = null;
+    Object[] solutions = runTasks(searches);
+    searches = null;
+
+    Instances[] candidates = new Instances[numJobs];
+    int[][] candidateRows = new int[numJobs][];
+    for (int j = 0; j < numJobs; j++) {
+      int[] medoids = ((MedoidSolution) solutions[j]).getMedoids();
+      candidates[j] = new Instances(instances, medoids.length);
+      candidateRows[j] = new int[medoids.length];
+      for (int c = 0; c < medoids.length; c++) {
+        candidateRows[j][c] = sampled ? rows[j][medoids[c]] : medoids[c];
+        candidates[j].add(instances.instance(candidateRows[j][c]));
+      }
+      if (m_Debug) {
+        System.err.println((sampled ? "Sample " : "Local search ") + (j + 1)
+          + ": cost " + Utils.doubleToString(
+            ((MedoidSolution) solutions[j]).getCost(), 4));
+      }
+    }
+
+    // the cost of each candidate on all instances, split among the hosts
+    int numPartitions = Math.min(n, Math.max(1, hostList().size()));
+    SerializedObject candidatesSO = new SerializedObject(candidates);
+    List<Task> evaluations = new ArrayList<Task>();
+    for (int p = 0; p < numPartitions; p++) {
+      int from = (int) ((long) n * p / numPartitions);
+      int to = (int) ((long) n * (p + 1) / numPartitions);
+      evaluations.add(new CLARANSCostTask(workerSO, candidatesSO,
+        new SerializedObject(new Instances(instances, from, to - from))));
+    }
+    Object[] partials = runTasks(evaluations);
+    evaluations = null;
+
+    double[][] totals = new double[numJobs][];
+    for (int j = 0; j < numJobs; j++) {
+      totals[j] = new double[candidates[j].numInstances() + 1];
+      for (Object partial : partials) {
+        double[] values = ((double[][]) partial)[j];
+        for (int c = 0; c < values.length; c++) {
+          totals[j][c] += values[c];
+        }
+      }
+    }
+
+    int best = 0;
+    for (int j = 1; j < numJobs; j++) {
+      if (totals[j][0] < totals[best][0]) {
+        best = j;
+      }
+    }
+    if (m_Debug) {
+      System.err.println("Best " + (sampled ? "sample" : "local search")
+        + ": " + (best + 1));
+    }
+
+    m_ClusterMedoids = candidates[best];
+    m_MedoidIndices = candidateRows[best];
+    m_ClusterSizes = new double[candidates[best].numInstances()];
+    System.arraycopy(totals[best], 1, m_ClusterSizes, 0,
+      m_ClusterSizes.length);
+    m_Cost = totals[best][0];
+    m_Assignments = null;
+    m_Sampled = sampled;
+    m_BudgetExhausted = false;
+
+    m_WindowRandom = new Random(getSeed());
+    m_Window = sampleWindow(instances);
+    m_NumSeen = n;
+    m_NumUpdates = 0;
+    m_UpdateCost = 0;
+    m_Refined = false;
+
+    buildMedoidNNSearch();
+
+    // save memory!
+    m_DistanceFunction.clean();
+  }
+
+  /**
+   * Generates a clusterer from a data source. The data is loaded as a whole,
+   * as the tasks need it in memory.
+   *
+   * @param source the source of the training data
+   * @throws Exception if the clusterer has not been generated successfully
+   */
+  @Override
+  public void buildClusterer(DataSource source) throws Exception {
+    buildClusterer(source.getDataSet());
+  }
+
+  /**
+   * Returns an enumeration describing the available options.
+   *
+   * @return an enumeration of all the available options.
+   */
+  @Override
+  public Enumeration<Option> listOptions() {
+    Vector<Option> result = new Vector<Option>();
+
+    result.addElement(new Option(
+      "\tComma-separated list of hosts running a RemoteEngine,\n"
+        + "\tempty to run the tasks locally.\n" + "\t(default: none)",
+      "hosts", 1, "-hosts <host[:port],...>"));
+
+    result.addAll(Collections.list(super.listOptions()));
+
+    return result.elements();
+  }
+
+  /**
+   * Returns the tip text for this property
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String hostsTipText() {
+    return "Comma-separated list of hosts (host[:port]) running a "
+      + "RemoteEngine; if empty, the tasks are run locally.";
+  }
+
+  /**
+   * Sets the hosts to send the tasks to.
+   *
+   * @param hosts the comma-separated hosts, empty to run the tasks locally
+   */
+  public void setHosts(String hosts) {
+    m_Hosts = (hosts == null) ? "" : hosts;
+  }
+
+  /**
+   * Gets the hosts to send the tasks to.
+   *
+   * @return the comma-separated hosts
+   */
+  public String getHosts() {
+    return m_Hosts;
+  }
+
+  /**
+   * Parses a given list of options.
+   * <p/>
+   *
+   <!-- options-start -->
+   * Valid options are: <p/>
+   *
+   * <pre> -hosts &lt;host[:port],...&gt;
+   *  Comma-separated list of hosts running a RemoteEngine,
+   *  empty to run the tasks locally.
+   *  (default: none)</pre>
+   *
+   * <pre> -clusters &lt;integer or range&gt;
+   *  Number of clusters, or a range of numbers of clusters
+   *  to select from (e.g. 2-30).
+   *  (default 3).</pre>
+   *
+   * <pre> -k-selection &lt;num&gt;
+   *  Criterion to select the number of clusters with.
+   *  0 = medoid silhouette, 1 = elbow.
+   *  (default = 0)</pre>
+   *
+   * <pre> -numlocal &lt;integer&gt;
+   *  The number of local minima obtained (number of local searches).
+   *  (default 6).</pre>
+   *
+   * <pre> -maximumneighbor &lt;integer&gt;
+   *  The maximum number of neighbors examined in a row
+   *  before a node is taken as a local minimum.
+   *  At least min(100, k*(n-k)) neighbors are examined.
+   *  (default 4).</pre>
+   *
+   * <pre> -init
+   *  Initialization method to use.
+   *  0 = random, 1 = k-medoids++.
+   *  (default = 1)</pre>
+   *
+   * <pre> -search &lt;num&gt;
+   *  Search strategy to use.
+   *  0 = CLARANS, 1 = FastCLARANS.
+   *  (default = 0)</pre>
+   *
+   * <pre> -focus
+   *  Evaluate swaps only on the instances whose nearest medoid
+   *  can change. Requires a metric distance function.
+   *  Only applies to the CLARANS search strategy.</pre>
+   *
+   * <pre> -C
+   *  Use canopies to reduce the number of distance calculations
+   *  when evaluating swaps. Only applies to the CLARANS search strategy.</pre>
+   *
+   * <pre> -max-candidates &lt;num&gt;
+   *  Maximum number of candidate canopies to retain in memory
+   *  at any one time when using canopy clustering.
+   *  T2 distance plus, data characteristics,
+   *  will determine how many candidate canopies are formed before
+   *  periodic and final pruning are performed, which might result
+   *  in exceess memory consumption. This setting avoids large numbers
+   *  of candidate canopies consuming memory. (default = 100)</pre>
+   *
+   * <pre> -periodic-pruning &lt;num&gt;
+   *  How often to prune low density canopies when using canopy clustering.
+   *  (default = every 10,000 training instances)</pre>
+   *
+   * <pre> -min-density
+   *  Minimum canopy density, when using canopy clustering, below which
+   *   a canopy will be pruned during periodic pruning. (default = 2 instances)</pre>
+   *
+   * <pre> -t2
+   *  The T2 distance to use when using canopy clustering. Values &lt; 0 indicate that
+   *  a heuristic based on attribute std. deviation should be used to set this.
+   *  (default = -1.0)</pre>
+   *
+   * <pre> -t1
+   *  The T1 distance to use when using canopy clustering. A value &lt; 0 is taken as a
+   *  positive multiplier for T2. (default = -1.25)</pre>
+   *
+   * <pre> -A &lt;classname and options&gt;
+   *  Distance function to use.
+   *  (default: weka.core.EuclideanDistance)</pre>
+   *
+   * <pre> -num-slots &lt;num&gt;
+   *  Number of execution slots.
+   *  (default 1 - i.e. no parallelism)</pre>
+   *
+   * <pre> -distance-cache
+   *  Cache the distances between instances, within the
+   *  memory budget given by -distance-cache-size.</pre>
+   *
+   * <pre> -distance-cache-size &lt;MB&gt;
+   *  Memory budget for the distance cache in megabytes.
+   *  (default 256)</pre>
+   *
+   * <pre> -nn-search &lt;classname and options&gt;
+   *  Nearest neighbour search to find the closest medoid with.
+   *  (default: weka.core.neighboursearch.KDTree)</pre>
+   *
+   * <pre> -nn-search-min-clusters &lt;num&gt;
+   *  Minimum number of clusters for which the nearest neighbour
+   *  search is used instead of scanning all medoids.
+   *  (default 256)</pre>
+   *
+   * <pre> -sample-size &lt;num&gt;
+   *  Size of the samples to cluster instead of all instances,
+   *  0 to cluster all instances.
+   *  (default 0)</pre>
+   *
+   * <pre> -num-samples &lt;num&gt;
+   *  Number of samples to cluster when sampling.
+   *  (default 5)</pre>
+   *
+   * <pre> -time-limit &lt;seconds&gt;
+   *  Time limit for the search in seconds, 0 for none.
+   *  (default 0)</pre>
+   *
+   * <pre> -max-evaluations &lt;num&gt;
+   *  Maximum number of neighbors evaluated over all
+   *  local searches, 0 for no limit.
+   *  (default 0)</pre>
+   *
+   * <pre> -update-window &lt;num&gt;
+   *  Number of instances retained to refine the medoids
+   *  with after updates, 0 to retain none.
+   *  (default 2000)</pre>
+   *
+   * <pre> -S &lt;num&gt;
+   *  Random number seed.
+   *  (default 1)</pre>
+   *
+   * <pre> -output-debug-info
+   *  If set, clusterer is run in debug mode and
+   *  may output additional info to the console</pre>
+   *
+   * <pre> -do-not-check-capabilities
+   *  If set, clusterer capabilities are not checked before clusterer is built
+   *  (use with caution).</pre>
+   *
+   <!-- options-end -->
+   *
+   * @param options the list of options as an array of strings
+   * @throws Exception if an option is not supported
+   */
+  @Override
+  public void setOptions(String[] options) throws Exception {
+
+    setHosts(Utils.getOption("hosts", options));
+
+    super.setOptions(options);
+  }
+
+  /**
+   * Gets the current settings of RemoteCLARANS
+   *
+   * @return an array of strings suitable for passing to setOptions()
+   */
+  @Override
+  public String[] getOptions() {
+
+    Vector<String> result = new Vector<String>();
+
+    if (m_Hosts.length() > 0) {
+      result.add("-hosts");
+      result.add(m_Hosts);
+    }
+
+    Collections.addAll(result, super.getOptions());
+
+    return result.toArray(new String[result.size()]);
+  }
+
+  /**
+   * Returns the revision string.
+   *
+   * @return the revision
+   */
+  @Override
+  public String getRevision() {
+    return RevisionUtils.extract("$Revision$");
+  }
+
+  /**
+   * Main method for testing this class.
+   *
+   * @param argv should contain the following arguments:
+   *          <p>
+   *          -t training file [-hosts hosts] [-clusters number of clusters]
+   */
+  public static void main(String[] argv) {
+    runClusterer(new RemoteCLARANS(), argv);
+  }
+}
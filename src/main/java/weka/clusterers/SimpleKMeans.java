@@ -171,6 +171,11 @@ import weka.filters.unsupervised.attribute.ReplaceMissingValues;
  * </pre>
  * 
  * <pre>
+ * -triangle-inequality
+ *  Use triangle inequality bounds to skip distance calculations.
+ * </pre>
+ * 
+ * <pre>
  * -num-slots &lt;num&gt;
  *  Number of execution slots.
  *  (default 1 - i.e. no parallelism)
@@ -298,6 +303,18 @@ public class SimpleKMeans extends RandomizableClusterer implements
   /** whether to use fast calculation of distances (using a cut-off). */
   protected boolean m_FastDistanceCalc = false;
 
+  /**
+   * Whether to use triangle inequality bounds to skip distance calculations
+   * when assigning instances to clusters
+   */
+  protected boolean m_UseTriangleInequality = false;
+
+  /** The bounds used while building (if being used) */
+  protected transient TriangleInequalityBounds m_Bounds;
+
+  /** The number of distance calculations the bounds avoided during building */
+  protected long m_NumDistanceCalcsAvoided;
+
   public static final int RANDOM = 0;
   public static final int KMEANS_PLUS_PLUS = 1;
   public static final int CANOPY = 2;
@@ -493,6 +510,11 @@ public class SimpleKMeans extends RandomizableClusterer implements
 
     @Override
     public Boolean call() {
+      if (m_Bounds != null) {
+        return m_Bounds.assign(m_inst, m_start, m_end, m_ClusterCentroids,
+          m_clusterAssignments);
+      }
+
       boolean converged = true;
       for (int i = m_start; i < m_end; i++) {
         Instance toCluster = m_inst.instance(i);
@@ -706,11 +728,12 @@ public class SimpleKMeans extends RandomizableClusterer implements
     }
 
     if (m_speedUpDistanceCompWithCanopies) {
-      // assign canopies to training data
-      for (int i = 0; i < instances.numInstances(); i++) {
-        m_dataPointCanopyAssignments.add(m_canopyClusters
-          .assignCanopies(instances.instance(i)));
-      }
+      // the canopies are formed sequentially, so that they do not depend on
+      // the number of slots; assigning them to the training data is split
+      // among the slots
+      m_canopyClusters.setNumExecutionSlots(m_executionSlots);
+      m_dataPointCanopyAssignments.addAll(m_canopyClusters
+        .assignCanopies(instances));
     }
 
     m_NumClusters = m_ClusterCentroids.numInstances();
@@ -727,6 +750,16 @@ public class SimpleKMeans extends RandomizableClusterer implements
     m_ClusterMissingCounts = new double[m_NumClusters][instances.numAttributes()];
     startExecutorPool();
 
+    m_Bounds = null;
+    m_NumDistanceCalcsAvoided = 0;
+    if (m_UseTriangleInequality && !m_speedUpDistanceCompWithCanopies
+      && !m_dontReplaceMissing
+      && TriangleInequalityBounds.isMetric(m_DistanceFunction)) {
+      m_Bounds =
+        new TriangleInequalityBounds(m_DistanceFunction,
+          instances.numInstances());
+    }
+
     while (!converged) {
       if (m_speedUpDistanceCompWithCanopies) {
         // re-assign canopies to the current cluster centers
@@ -743,24 +776,35 @@ public class SimpleKMeans extends RandomizableClusterer implements
 
       if (m_executionSlots <= 1
         || instances.numInstances() < 2 * m_executionSlots) {
-        for (i = 0; i < instances.numInstances(); i++) {
-          Instance toCluster = instances.instance(i);
-          int newC =
-            clusterProcessedInstance(
-              toCluster,
-              false,
-              true,
-              m_speedUpDistanceCompWithCanopies ? m_dataPointCanopyAssignments
-                .get(i) : null);
-          if (newC != clusterAssignments[i]) {
-            converged = false;
+        if (m_Bounds != null) {
+          converged =
+            m_Bounds.assign(instances, 0, instances.numInstances(),
+              m_ClusterCentroids, clusterAssignments);
+        } else {
+          for (i = 0; i < instances.numInstances(); i++) {
+            Instance toCluster = instances.instance(i);
+            int newC =
+              clusterProcessedInstance(
+                toCluster,
+                false,
+                true,
+                m_speedUpDistanceCompWithCanopies ? m_dataPointCanopyAssignments
+                  .get(i) : null);
+            if (newC != clusterAssignments[i]) {
+              converged = false;
+            }
+            clusterAssignments[i] = newC;
           }
-          clusterAssignments[i] = newC;
         }
       } else {
         converged = launchAssignToClusters(instances, clusterAssignments);
       }
 
+      Instances previousCentroids = m_ClusterCentroids;
+      if (m_Bounds != null) {
+        m_Bounds.validate(previousCentroids);
+      }
+
       // update centroids
       m_ClusterCentroids = new Instances(instances, m_NumClusters);
       for (i = 0; i < m_NumClusters; i++) {
@@ -787,6 +831,16 @@ public class SimpleKMeans extends RandomizableClusterer implements
         converged = true;
       }
 
+      if (m_Bounds != null) {
+        if (emptyClusterCount > 0) {
+          // cluster indices shift, so start over with fresh bounds
+          m_Bounds.reset();
+        } else if (!converged) {
+          m_Bounds.centersMoved(previousCentroids, m_ClusterCentroids,
+            clusterAssignments);
+        }
+      }
+
       if (emptyClusterCount > 0) {
         m_NumClusters -= emptyClusterCount;
         if (converged) {
@@ -813,6 +867,11 @@ public class SimpleKMeans extends RandomizableClusterer implements
       }
     }
 
+    if (m_Bounds != null) {
+      m_NumDistanceCalcsAvoided = m_Bounds.getNumDistancesAvoided();
+      m_Bounds = null;
+    }
+
     // calculate errors
     if (!m_FastDistanceCalc) {
       for (i = 0; i < instances.numInstances(); i++) {
@@ -1247,6 +1306,10 @@ public class SimpleKMeans extends RandomizableClusterer implements
         + "\tDisables the calculation/output of squared errors/distances.\n",
       "fast", 0, "-fast"));
 
+    result.addElement(new Option(
+      "\tUse triangle inequality bounds to skip distance calculations.",
+      "triangle-inequality", 0, "-triangle-inequality"));
+
     result.addElement(new Option("\tNumber of execution slots.\n"
       + "\t(default 1 - i.e. no parallelism)", "num-slots", 1,
       "-num-slots <num>"));
@@ -1700,6 +1763,49 @@ public class SimpleKMeans extends RandomizableClusterer implements
     return m_FastDistanceCalc;
   }
 
+  /**
+   * Returns the tip text for this property.
+   * 
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String useTriangleInequalityTipText() {
+    return "Keep triangle inequality bounds on the distances between instances "
+      + "and cluster centroids, to skip the distance calculations that cannot "
+      + "change an instance's cluster. Gives the same clusters. Only used when "
+      + "missing values are replaced and canopies are not used.";
+  }
+
+  /**
+   * Sets whether to use triangle inequality bounds to skip distance
+   * calculations.
+   * 
+   * @param value true if the bounds are to be used
+   */
+  public void setUseTriangleInequality(boolean value) {
+    m_UseTriangleInequality = value;
+  }
+
+  /**
+   * Gets whether to use triangle inequality bounds to skip distance
+   * calculations.
+   * 
+   * @return true if the bounds are used
+   */
+  public boolean getUseTriangleInequality() {
+    return m_UseTriangleInequality;
+  }
+
+  /**
+   * Returns the number of distance calculations that the triangle inequality
+   * bounds avoided while building the clusterer, or 0 if they were not used.
+   * 
+   * @return the number of distance calculations avoided
+   */
+  public long getNumDistanceCalcsAvoided() {
+    return m_NumDistanceCalcsAvoided;
+  }
+
   /**
    * Returns the tip text for this property
    * 
@@ -1827,6 +1933,11 @@ public class SimpleKMeans extends RandomizableClusterer implements
    * </pre>
    * 
    * <pre>
+   * -triangle-inequality
+   *  Use triangle inequality bounds to skip distance calculations.
+   * </pre>
+   * 
+   * <pre>
    * -num-slots &lt;num&gt;
    *  Number of execution slots.
    *  (default 1 - i.e. no parallelism)
@@ -1924,6 +2035,8 @@ public class SimpleKMeans extends RandomizableClusterer implements
 
     m_FastDistanceCalc = Utils.getFlag("fast", options);
 
+    m_UseTriangleInequality = Utils.getFlag("triangle-inequality", options);
+
     String slotsS = Utils.getOption("num-slots", options);
     if (slotsS.length() > 0) {
       setNumExecutionSlots(Integer.parseInt(slotsS));
@@ -1986,6 +2099,10 @@ public class SimpleKMeans extends RandomizableClusterer implements
       result.add("-fast");
     }
 
+    if (m_UseTriangleInequality) {
+      result.add("-triangle-inequality");
+    }
+
     result.add("-num-slots");
     result.add("" + getNumExecutionSlots());
 
@@ -2150,6 +2267,11 @@ public class SimpleKMeans extends RandomizableClusterer implements
       }
     }
 
+    if (m_UseTriangleInequality) {
+      temp.append("\nDistance calculations avoided by triangle inequality bounds: "
+        + m_NumDistanceCalcsAvoided + "\n");
+    }
+
     if (!m_dontReplaceMissing) {
       temp.append("\nMissing values globally replaced with mean/mode");
     }
@@ -0,0 +1,281 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    TriangleInequalityBounds.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import weka.core.ChebyshevDistance;
+import weka.core.DistanceFunction;
+import weka.core.EuclideanDistance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.ManhattanDistance;
+import weka.core.RevisionHandler;
+import weka.core.RevisionUtils;
+
+/**
+ * Bounds that let the assignment of points to their nearest center skip most
+ * distance computations when the distance is a metric (Hamerly, 2010). Each
+ * point keeps an upper bound on the distance to its center and a lower bound
+ * on the distance to every other center. When the centers move, the bounds
+ * are loosened by the distances moved. A point whose upper bound is below
+ * both its lower bound and half the distance from its center to the nearest
+ * other center cannot change its center, and needs no distance computations.
+ * The assignments are the same as when all distances are computed.
+ * <p/>
+ *
+ * Points in disjoint ranges can be assigned concurrently.
+ *
+ * @version $Revision$
+ */
+public class TriangleInequalityBounds implements RevisionHandler {
+
+  /** the distance function, must be a metric */
+  protected DistanceFunction m_Distance;
+
+  /** upper bound on the distance of each point to its center */
+  protected double[] m_Upper;
+
+  /** lower bound on the distance of each point to any other center */
+  protected double[] m_Lower;
+
+  /** half the distance from each center to the nearest other center */
+  protected double[] m_HalfSeparation;
+
+  /** whether the bounds hold for the current centers */
+  protected boolean m_Valid;
+
+  /** the number of distances all assignments would have computed */
+  protected AtomicLong m_NumRequired = new AtomicLong();
+
+  /** the number of distances actually computed */
+  protected AtomicLong m_NumComputed = new AtomicLong();
+
+  /**
+   * Returns whether the bounds can be used with a distance function, i.e.
+   * whether it is a metric: the Euclidean, Manhattan and Chebyshev distances
+   * are.
+   *
+   * @param distance the distance function
+   * @return true if the distance function satisfies the triangle inequality
+   */
+  public static boolean isMetric(DistanceFunction distance) {
+    return distance instanceof EuclideanDistance
+      || distance instanceof ManhattanDistance
+      || distance instanceof ChebyshevDistance;
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param distance the distance function, must be a metric
+   * @param numPoints the number of points to assign
+   * @throws IllegalArgumentException if the distance function is not known
+   *           to be a metric
+   */
+  public TriangleInequalityBounds(DistanceFunction distance, int numPoints) {
+    if (!isMetric(distance)) {
+      throw new IllegalArgumentException(distance.getClass().getName()
+        + " is not known to satisfy the triangle inequality");
+    }
+    m_Distance = distance;
+    m_Upper = new double[numPoints];
+    m_Lower = new double[numPoints];
+  }
+
+  /**
+   * Forgets the bounds, so that the next assignment computes all distances.
+   */
+  public void reset() {
+    m_Valid = false;
+  }
+
+  /**
+   * Loosens the bounds after the centers have moved. If the number of centers
+   * changed, the bounds are reset instead.
+   *
+   * @param oldCenters the centers the points were assigned to
+   * @param newCenters the centers to assign the points to next, in the same
+   *          order
+   * @param assignments the center of each point
+   */
+  public void centersMoved(Instances oldCenters, Instances newCenters,
+    int[] assignments) {
+    if (!m_Valid || oldCenters.numInstances() != newCenters.numInstances()) {
+      m_Valid = false;
+      return;
+    }
+
+    int k = newCenters.numInstances();
+    double[] moved = new double[k];
+    int furthest = -1;
+    double maxMoved = 0;
+    double secondMoved = 0;
+    for (int j = 0; j < k; j++) {
+      moved[j] =
+        m_Distance.distance(oldCenters.instance(j), newCenters.instance(j));
+      if (moved[j] > maxMoved) {
+        secondMoved = maxMoved;
+        maxMoved = moved[j];
+        furthest = j;
+      } else if (moved[j] > secondMoved) {
+        secondMoved = moved[j];
+      }
+    }
+    m_NumComputed.addAndGet(k);
+
+    for (int i = 0; i < m_Upper.length; i++) {
+      int a = assignments[i];
+      m_Upper[i] += moved[a];
+      m_Lower[i] -= (a == furthest) ? secondMoved : maxMoved;
+    }
+
+    computeSeparation(newCenters);
+  }
+
+  /**
+   * Computes half the distance from each center to the nearest other one.
+   *
+   * @param centers the centers
+   */
+  protected void computeSeparation(Instances centers) {
+    int k = centers.numInstances();
+    m_HalfSeparation = new double[k];
+    Arrays.fill(m_HalfSeparation, Double.POSITIVE_INFINITY);
+    for (int j = 0; j < k; j++) {
+      for (int l = j + 1; l < k; l++) {
+        double half =
+          m_Distance.distance(centers.instance(j), centers.instance(l)) / 2;
+        m_HalfSeparation[j] = Math.min(m_HalfSeparation[j], half);
+        m_HalfSeparation[l] = Math.min(m_HalfSeparation[l], half);
+      }
+    }
+    m_NumComputed.addAndGet((long) k * (k - 1) / 2);
+  }
+
+  /**
+   * Assigns the points in a range to their nearest center. Ties go to the
+   * center with the lowest index. All distances are computed if the bounds
+   * are not valid, i.e. on the first assignment and after a reset; call
+   * {@link #validate(Instances)} once all ranges have been assigned.
+   *
+   * @param points the points
+   * @param start the first point of the range
+   * @param end the end of the range (exclusive)
+   * @param centers the centers
+   * @param assignments the center of each point, updated
+   * @return true if no assignment in the range changed
+   */
+  public boolean assign(Instances points, int start, int end,
+    Instances centers, int[] assignments) {
+    int k = centers.numInstances();
+    boolean unchanged = true;
+    long computed = 0;
+
+    for (int i = start; i < end; i++) {
+      Instance point = points.instance(i);
+      int a = assignments[i];
+      double known = Double.NaN;
+
+      if (m_Valid) {
+        double bound = Math.max(m_HalfSeparation[a], m_Lower[i]);
+        if (m_Upper[i] < bound) {
+          continue;
+        }
+        m_Upper[i] = m_Distance.distance(point, centers.instance(a));
+        computed++;
+        if (m_Upper[i] < bound) {
+          continue;
+        }
+        known = m_Upper[i];
+      }
+
+      int best = -1;
+      double bestDist = Double.POSITIVE_INFINITY;
+      double secondDist = Double.POSITIVE_INFINITY;
+      for (int j = 0; j < k; j++) {
+        double dist;
+        if (j == a && !Double.isNaN(known)) {
+          dist = known;
+        } else {
+          dist = m_Distance.distance(point, centers.instance(j));
+          computed++;
+        }
+        if (dist < bestDist) {
+          secondDist = bestDist;
+          bestDist = dist;
+          best = j;
+        } else if (dist < secondDist) {
+          secondDist = dist;
+        }
+      }
+
+      if (best != a) {
+        unchanged = false;
+      }
+      assignments[i] = best;
+      m_Upper[i] = bestDist;
+      m_Lower[i] = secondDist;
+    }
+
+    m_NumRequired.addAndGet((long) (end - start) * k);
+    m_NumComputed.addAndGet(computed);
+
+    return unchanged;
+  }
+
+  /**
+   * Marks the bounds as valid after all points have been assigned with
+   * {@link #assign(Instances, int, int, Instances, int[])}, so that the next
+   * assignment can use them.
+   *
+   * @param centers the centers the points have been assigned to
+   */
+  public void validate(Instances centers) {
+    if (!m_Valid) {
+      computeSeparation(centers);
+      m_Valid = true;
+    }
+  }
+
+  /**
+   * Returns the number of distance computations that the bounds saved
+   * compared to computing the distance from every point to every center,
+   * including the distances computed to maintain the bounds.
+   *
+   * @return the number of distance computations avoided
+   */
+  public long getNumDistancesAvoided() {
+    return m_NumRequired.get() - m_NumComputed.get();
+  }
+
+  /**
+   * Returns the revision string.
+   *
+   * @return the revision
+   */
+  @Override
+  public String getRevision() {
+    return RevisionUtils.extract("$Revision$");
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    CanopyIndex.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers.medoids;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * The canopies that each point falls into, and the points that fall into each
+ * canopy, as computed by {@link weka.clusterers.Canopy}. Read-only once
+ * created, so it can be shared by concurrent searches.
+ *
+ * @version $Revision$
+ */
+public class CanopyIndex implements Serializable {
+
+  /** for serialization */
+  private static final long serialVersionUID = 5512960481937712384L;
+
+  /** the canopies of each point */
+  protected int[][] m_PointCanopies;
+
+  /** the points of each canopy */
+  protected int[][] m_Members;
+
+  /**
+   * Constructor.
+   *
+   * @param assignments the canopies of each point, as bit sets with one bit
+   *          per canopy
+   */
+  public CanopyIndex(List<long[]> assignments) {
+    int numPoints = assignments.size();
+    m_PointCanopies = new int[numPoints][];
+
+    int numCanopies = 0;
+    for (int i = 0; i < numPoints; i++) {
+      long[] bits = assignments.get(i);
+      int count = 0;
+      for (long block : bits) {
+        count += Long.bitCount(block);
+      }
+      int[] canopies = new int[count];
+      count = 0;
+      for (int b = 0; b < bits.length; b++) {
+        long block = bits[b];
+        while (block != 0L) {
+          canopies[count++] = b * 64 + Long.numberOfTrailingZeros(block);
+          block &= block - 1;
+        }
+      }
+      m_PointCanopies[i] = canopies;
+      if (count > 0) {
+        numCanopies = Math.max(numCanopies, canopies[count - 1] + 1);
+      }
+    }
+
+    int[] sizes = new int[numCanopies];
+    for (int[] canopies : m_PointCanopies) {
+      for (int c : canopies) {
+        sizes[c]++;
+      }
+    }
+    m_Members = new int[numCanopies][];
+    for (int c = 0; c < numCanopies; c++) {
+      m_Members[c] = new int[sizes[c]];
+      sizes[c] = 0;
+    }
+    for (int i = 0; i < numPoints; i++) {
+      for (int c : m_PointCanopies[i]) {
+        m_Members[c][sizes[c]++] = i;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of points.
+   *
+   * @return the number of points
+   */
+  public int numPoints() {
+    return m_PointCanopies.length;
+  }
+
+  /**
+   * Returns the number of canopies.
+   *
+   * @return the number of canopies
+   */
+  public int numCanopies() {
+    return m_Members.length;
+  }
+
+  /**
+   * Returns the canopies a point falls into. The array must not be modified.
+   *
+   * @param point the point
+   * @return the indices of the canopies
+   */
+  public int[] canopies(int point) {
+    return m_PointCanopies[point];
+  }
+
+  /**
+   * Returns the points that fall into a canopy. The array must not be
+   * modified.
+   *
+   * @param canopy the canopy
+   * @return the indices of the points
+   */
+  public int[] members(int canopy) {
+    return m_Members[canopy];
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    CanopyMedoidSearch.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers.medoids;
+
+import java.util.Arrays;
+
+/**
+ * Medoid search that uses canopies to skip distance computations when
+ * evaluating a swap, in the same way as SimpleKMeans skips centroids that
+ * share no canopy with an instance. A point that shares no canopy with the
+ * candidate h is taken to be too far from h to move to it: if its medoid is
+ * being replaced it moves to its second-nearest medoid, otherwise it stays.
+ * So only the points in the canopies of h are looked at, and the loss from
+ * the points of the replaced medoid moving to their second-nearest medoid is
+ * kept per medoid. The change in cost computed this way is never lower than
+ * the true change, so every swap accepted still lowers the cost. Swaps
+ * themselves are performed with all distances, keeping the
+ * nearest/second-nearest cache exact.
+ *
+ * @version $Revision$
+ */
+public class CanopyMedoidSearch extends MedoidSearch {
+
+  /** for serialization */
+  private static final long serialVersionUID = 2786164104533281727L;
+
+  /** the canopies of the points */
+  protected CanopyIndex m_Canopies;
+
+  /**
+   * for each medoid, the increase in cost if all its points moved to their
+   * second-nearest medoid
+   */
+  protected double[] m_Loss;
+
+  /** the evaluation in which each point was last looked at */
+  protected int[] m_Visited;
+
+  /** the number of the current evaluation */
+  protected int m_Stamp;
+
+  /** the number of distances computed to evaluate swaps */
+  protected long m_NumDistances;
+
+  /**
+   * Constructor.
+   *
+   * @param distance the distances between the points to cluster
+   * @param numMedoids the number of medoids to search for
+   * @param canopies the canopies of the points
+   * @throws IllegalArgumentException if the number of medoids is not between
+   *           1 and the number of points, or the canopies are not for the
+   *           same points
+   */
+  public CanopyMedoidSearch(PointDistance distance, int numMedoids,
+    CanopyIndex canopies) {
+    super(distance, numMedoids);
+
+    if (canopies.numPoints() != m_NumPoints) {
+      throw new IllegalArgumentException("Canopies are for "
+        + canopies.numPoints() + " points, expected " + m_NumPoints);
+    }
+    m_Canopies = canopies;
+    m_Loss = new double[m_NumMedoids];
+    m_Visited = new int[m_NumPoints];
+  }
+
+  @Override
+  public void setMedoids(int[] medoids) {
+    super.setMedoids(medoids);
+    computeLoss();
+  }
+
+  @Override
+  public void swap(int slot, int candidate) {
+    super.swap(slot, candidate);
+    computeLoss();
+  }
+
+  /**
+   * Sums the distance to the second-nearest minus the distance to the
+   * nearest medoid over the points of each medoid.
+   */
+  protected void computeLoss() {
+    Arrays.fill(m_Loss, 0);
+    if (m_NumMedoids < 2) {
+      return;
+    }
+    for (int i = 0; i < m_NumPoints; i++) {
+      m_Loss[m_Nearest[i]] += m_SecondNearestDist[i] - m_NearestDist[i];
+    }
+  }
+
+  /**
+   * Computes the change in cost that replacing a medoid by a non-medoid would
+   * cause, looking only at the points that share a canopy with the candidate.
+   * With a single medoid all points are looked at.
+   *
+   * @param slot the medoid to replace (index into the medoids)
+   * @param candidate the point to become a medoid
+   * @return the change in cost, negative if the swap is an improvement
+   */
+  @Override
+  public double swapDelta(int slot, int candidate) {
+    if (m_NumMedoids < 2) {
+      return super.swapDelta(slot, candidate);
+    }
+    m_NumEvaluations++;
+
+    if (++m_Stamp == Integer.MAX_VALUE) {
+      Arrays.fill(m_Visited, 0);
+      m_Stamp = 1;
+    }
+
+    long computed = 0;
+    double delta = m_Loss[slot];
+    for (int c : m_Canopies.canopies(candidate)) {
+      for (int i : m_Canopies.members(c)) {
+        if (m_Visited[i] == m_Stamp) {
+          continue;
+        }
+        m_Visited[i] = m_Stamp;
+
+        double dist = m_Distance.distance(i, candidate);
+        computed++;
+        if (m_Nearest[i] == slot) {
+          // the loss assumed the point moves to its second-nearest medoid
+          if (dist < m_SecondNearestDist[i]) {
+            delta += dist - m_SecondNearestDist[i];
+          }
+        } else if (dist < m_NearestDist[i]) {
+          delta += dist - m_NearestDist[i];
+        }
+      }
+    }
+    m_NumDistances += computed;
+    m_NumDistancesAvoided += m_NumPoints - computed;
+
+    return delta;
+  }
+
+  /**
+   * Returns the number of distances computed to evaluate swaps so far.
+   *
+   * @return the number of distance computations
+   */
+  public long getNumDistances() {
+    return m_NumDistances;
+  }
+}
@@ -0,0 +1,179 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    DistanceColumnCache.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers.medoids;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Caches a bounded number of distance columns (the distances of all points to
+ * one point) as floats. A column is added whenever all distances to a point
+ * are requested, which is what the searches do for candidate medoids, and
+ * the columns of the current medoids then serve the reassignment of points
+ * after a swap. When the cache is full a column is evicted with the CLOCK
+ * approximation of least-recently-used. The cache can be shared by concurrent
+ * searches: columns are published fully computed and never modified, so a
+ * reader holding an evicted column still sees valid distances. All distances
+ * are returned with float precision, whether they were cached or not.
+ *
+ * @version $Revision$
+ */
+public class DistanceColumnCache implements PointDistance {
+
+  /** for serialization */
+  private static final long serialVersionUID = -1770246153528409861L;
+
+  /** the distances being cached */
+  protected PointDistance m_Distance;
+
+  /** the number of points */
+  protected int m_NumPoints;
+
+  /** the maximum number of columns to hold */
+  protected int m_MaxColumns;
+
+  /** the cached column of each point, null if not cached */
+  protected AtomicReferenceArray<float[]> m_Columns;
+
+  /** whether a cached column has been used since the clock hand last passed */
+  protected boolean[] m_Referenced;
+
+  /** the points whose columns are cached, in clock order */
+  protected int[] m_Clock;
+
+  /** the number of cached columns */
+  protected int m_NumColumns;
+
+  /** the position of the clock hand */
+  protected int m_ClockHand;
+
+  /**
+   * Constructor.
+   *
+   * @param distance the distances to cache
+   * @param maxColumns the maximum number of columns to hold
+   */
+  public DistanceColumnCache(PointDistance distance, int maxColumns) {
+    if (maxColumns < 1) {
+      throw new IllegalArgumentException(
+        "Maximum number of columns must be > 0: " + maxColumns);
+    }
+    m_Distance = distance;
+    m_NumPoints = distance.numPoints();
+    m_MaxColumns = Math.min(maxColumns, m_NumPoints);
+    m_Columns = new AtomicReferenceArray<float[]>(m_NumPoints);
+    m_Referenced = new boolean[m_NumPoints];
+    m_Clock = new int[m_MaxColumns];
+  }
+
+  /**
+   * Returns the number of columns that can be held for the given number of
+   * points within the given number of bytes.
+   *
+   * @param numPoints the number of points
+   * @param maxBytes the memory budget in bytes
+   * @return the number of columns
+   */
+  public static int maxColumns(int numPoints, long maxBytes) {
+    // per point: a reference to its column, the referenced flag and a clock
+    // slot; per column: the floats plus the array header
+    long available = maxBytes - 13L * numPoints;
+    long columns = available / (4L * numPoints + 16);
+
+    return (int) Math.max(0, Math.min(columns, numPoints));
+  }
+
+  @Override
+  public int numPoints() {
+    return m_NumPoints;
+  }
+
+  @Override
+  public double distance(int i, int j) {
+    float[] column = m_Columns.get(j);
+    if (column != null) {
+      m_Referenced[j] = true;
+      return column[i];
+    }
+    column = m_Columns.get(i);
+    if (column != null) {
+      m_Referenced[i] = true;
+      return column[j];
+    }
+
+    return (float) m_Distance.distance(i, j);
+  }
+
+  @Override
+  public void distances(int j, double[] result) {
+    float[] column = m_Columns.get(j);
+    if (column != null) {
+      m_Referenced[j] = true;
+    } else {
+      column = new float[m_NumPoints];
+      for (int i = 0; i < m_NumPoints; i++) {
+        float[] other = m_Columns.get(i);
+        column[i] =
+          (other != null) ? other[j] : (float) m_Distance.distance(i, j);
+      }
+      add(j, column);
+    }
+
+    for (int i = 0; i < m_NumPoints; i++) {
+      result[i] = column[i];
+    }
+  }
+
+  /**
+   * Adds a column, evicting another one if the cache is full.
+   *
+   * @param j the point the column belongs to
+   * @param column the distances of all points to point j
+   */
+  protected synchronized void add(int j, float[] column) {
+    if (m_Columns.get(j) != null) {
+      // another search got there first
+      return;
+    }
+
+    if (m_NumColumns < m_MaxColumns) {
+      m_Clock[m_NumColumns++] = j;
+    } else {
+      while (m_Referenced[m_Clock[m_ClockHand]]) {
+        m_Referenced[m_Clock[m_ClockHand]] = false;
+        m_ClockHand = (m_ClockHand + 1) % m_MaxColumns;
+      }
+      m_Columns.set(m_Clock[m_ClockHand], null);
+      m_Clock[m_ClockHand] = j;
+      m_ClockHand = (m_ClockHand + 1) % m_MaxColumns;
+    }
+    m_Columns.set(j, column);
+  }
+
+  /**
+   * Returns the number of columns currently cached.
+   *
+   * @return the number of columns
+   */
+  public synchronized int numColumns() {
+    return m_NumColumns;
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    DistanceMatrixCache.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers.medoids;
+
+import java.util.Arrays;
+
+/**
+ * Caches all pairwise distances in a packed upper-triangular matrix of
+ * floats, n*(n-1)/2 entries for n points. Entries are filled in on first use,
+ * so the cache can be shared by concurrent searches: a float is written
+ * atomically, and a thread that does not yet see another thread's entry
+ * simply computes the same value again. The distance of a point to itself is
+ * taken to be 0. All distances are returned with float precision, whether
+ * they were cached already or not.
+ *
+ * @version $Revision$
+ */
+public class DistanceMatrixCache implements PointDistance {
+
+  /** for serialization */
+  private static final long serialVersionUID = 5516942078102573347L;
+
+  /** the largest number of entries a Java array can hold */
+  protected static final long MAX_ENTRIES = Integer.MAX_VALUE - 8;
+
+  /** the distances being cached */
+  protected PointDistance m_Distance;
+
+  /** the number of points */
+  protected int m_NumPoints;
+
+  /** the cached distances, NaN where not computed yet */
+  protected float[] m_Distances;
+
+  /**
+   * Constructor.
+   *
+   * @param distance the distances to cache
+   * @throws IllegalArgumentException if there are too many points
+   */
+  public DistanceMatrixCache(PointDistance distance) {
+    m_Distance = distance;
+    m_NumPoints = distance.numPoints();
+
+    long entries = numEntries(m_NumPoints);
+    if (entries > MAX_ENTRIES) {
+      throw new IllegalArgumentException("Too many points for a distance "
+        + "matrix: " + m_NumPoints);
+    }
+    m_Distances = new float[(int) entries];
+    Arrays.fill(m_Distances, Float.NaN);
+  }
+
+  /**
+   * Returns the number of entries of the matrix for the given number of
+   * points.
+   *
+   * @param numPoints the number of points
+   * @return the number of entries
+   */
+  public static long numEntries(int numPoints) {
+    return (long) numPoints * (numPoints - 1) / 2;
+  }
+
+  /**
+   * Returns the number of bytes the matrix takes up for the given number of
+   * points.
+   *
+   * @param numPoints the number of points
+   * @return the size in bytes
+   */
+  public static long bytesRequired(int numPoints) {
+    return 4 * numEntries(numPoints);
+  }
+
+  /**
+   * Returns whether a matrix can be built for the given number of points
+   * within the given number of bytes.
+   *
+   * @param numPoints the number of points
+   * @param maxBytes the memory budget in bytes
+   * @return true if the matrix fits
+   */
+  public static boolean fits(int numPoints, long maxBytes) {
+    return numEntries(numPoints) <= MAX_ENTRIES
+      && bytesRequired(numPoints) <= maxBytes;
+  }
+
+  @Override
+  public int numPoints() {
+    return m_NumPoints;
+  }
+
+  @Override
+  public double distance(int i, int j) {
+    if (i == j) {
+      return 0;
+    }
+    if (i > j) {
+      int swap = i;
+      i = j;
+      j = swap;
+    }
+
+    int index = (int) ((long) i * (2L * m_NumPoints - i - 1) / 2 + (j - i - 1));
+    float result = m_Distances[index];
+    if (Float.isNaN(result)) {
+      result = (float) m_Distance.distance(i, j);
+      m_Distances[index] = result;
+    }
+
+    return result;
+  }
+}
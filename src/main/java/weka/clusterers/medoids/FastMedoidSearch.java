@@ -0,0 +1,192 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    FastMedoidSearch.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers.medoids;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import weka.core.Utils;
+
+/**
+ * Medoid search as performed by FastCLARANS (Schubert and Rousseeuw, "Fast
+ * and eager k-medoids clustering", 2021). Instead of a random (medoid,
+ * non-medoid) pair, a random non-medoid is drawn and its swaps with all k
+ * medoids are evaluated in a single pass over the points, using the
+ * nearest/second-nearest cache and the loss of removing each medoid. The best
+ * of these swaps is applied right away if it lowers the cost. A candidate thus
+ * costs one distance per point, like a single pair does in CLARANS, but
+ * covers k neighbours.<br/>
+ * <br/>
+ * The maximum number of neighbours examined in a row is still given in
+ * (medoid, non-medoid) pairs, so a search gives up after maxNeighbor / k
+ * candidates in a row have failed to improve the cost.
+ *
+ * @version $Revision$
+ */
+public class FastMedoidSearch extends MedoidSearch {
+
+  /** for serialization */
+  private static final long serialVersionUID = 2931057582049376414L;
+
+  /**
+   * the increase in cost if each medoid were removed, i.e. its points moved
+   * to their second-nearest medoid
+   */
+  protected double[] m_RemovalLoss;
+
+  /** the changes in cost of swapping the last candidate with each medoid */
+  protected double[] m_Deltas;
+
+  /**
+   * Constructor.
+   *
+   * @param distance the distances between the points to cluster
+   * @param numMedoids the number of medoids to search for
+   * @throws IllegalArgumentException if the number of medoids is not between
+   *           1 and the number of points
+   */
+  public FastMedoidSearch(PointDistance distance, int numMedoids) {
+    super(distance, numMedoids);
+
+    m_RemovalLoss = new double[m_NumMedoids];
+    m_Deltas = new double[m_NumMedoids];
+  }
+
+  @Override
+  public void setMedoids(int[] medoids) {
+    super.setMedoids(medoids);
+    computeRemovalLoss();
+  }
+
+  @Override
+  public void swap(int slot, int candidate) {
+    super.swap(slot, candidate);
+    computeRemovalLoss();
+  }
+
+  /**
+   * Computes the increase in cost that removing each medoid would cause.
+   */
+  protected void computeRemovalLoss() {
+    Arrays.fill(m_RemovalLoss, 0);
+    for (int i = 0; i < m_NumPoints; i++) {
+      m_RemovalLoss[m_Nearest[i]] += m_SecondNearestDist[i] - m_NearestDist[i];
+    }
+  }
+
+  /**
+   * Computes the change in cost of swapping a non-medoid with each of the
+   * medoids, with one distance computation per point. The distances to the
+   * candidate are retained for a subsequent {@link #swap(int, int)}.
+   *
+   * @param candidate the point to become a medoid
+   * @return the changes in cost, indexed by medoid; the array is reused by
+   *         the next call
+   */
+  public double[] swapDeltas(int candidate) {
+    if (m_NumMedoids == 1) {
+      // there is no second-nearest medoid to fall back on
+      m_Deltas[0] = super.swapDelta(0, candidate);
+      return m_Deltas;
+    }
+
+    m_NumEvaluations += m_NumMedoids;
+    computeCandidateDistances(candidate);
+
+    // points that move to the candidate gain the same whichever medoid goes
+    double shared = 0;
+    System.arraycopy(m_RemovalLoss, 0, m_Deltas, 0, m_NumMedoids);
+    for (int i = 0; i < m_NumPoints; i++) {
+      double dist = m_CandidateDist[i];
+      if (dist < m_NearestDist[i]) {
+        shared += dist - m_NearestDist[i];
+        // the point no longer needs its second-nearest medoid if its nearest
+        // one is removed
+        m_Deltas[m_Nearest[i]] +=
+          m_NearestDist[i] - m_SecondNearestDist[i];
+      } else if (dist < m_SecondNearestDist[i]) {
+        m_Deltas[m_Nearest[i]] += dist - m_SecondNearestDist[i];
+      }
+    }
+    for (int j = 0; j < m_NumMedoids; j++) {
+      m_Deltas[j] += shared;
+    }
+
+    return m_Deltas;
+  }
+
+  /**
+   * Computes the change in cost that replacing a medoid by a non-medoid would
+   * cause.
+   *
+   * @param slot the medoid to replace (index into the medoids)
+   * @param candidate the point to become a medoid
+   * @return the change in cost, negative if the swap is an improvement
+   */
+  @Override
+  public double swapDelta(int slot, int candidate) {
+    return swapDeltas(candidate)[slot];
+  }
+
+  /**
+   * Performs one FastCLARANS local search starting from the current medoids:
+   * random non-medoids are examined and swapped with the medoid that lowers
+   * the cost most, until maxNeighbor / k candidates in a row fail to improve
+   * the cost, or the budget is exhausted.
+   *
+   * @param random the random number generator to use
+   * @param maxNeighbor the maximum number of (medoid, non-medoid) pairs
+   *          examined in a row
+   * @return the cost of the local minimum found
+   */
+  @Override
+  public double localSearch(Random random, int maxNeighbor) {
+    if (m_NumMedoids == m_NumPoints) {
+      return m_Cost;
+    }
+
+    int maxCandidates =
+      (int) (((long) maxNeighbor + m_NumMedoids - 1) / m_NumMedoids);
+    int failures = 0;
+    while (failures < maxCandidates) {
+      if (m_Budget != null && !m_Budget.tryEvaluate(m_NumMedoids)) {
+        break;
+      }
+      int candidate = randomNonMedoid(random);
+      double[] deltas = swapDeltas(candidate);
+      int slot = Utils.minIndex(deltas);
+      if (Utils.sm(deltas[slot], 0)) {
+        swap(slot, candidate);
+        failures = 0;
+        m_NumSwaps++;
+        if (m_Listener != null) {
+          m_Listener.swapAccepted(new MedoidSearchEvent(this, m_SearchNumber,
+            m_NumSwaps, m_NumEvaluations, m_Cost));
+        }
+      } else {
+        failures++;
+      }
+    }
+
+    return m_Cost;
+  }
+}
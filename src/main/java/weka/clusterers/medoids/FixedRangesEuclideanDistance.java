@@ -0,0 +1,78 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    FixedRangesEuclideanDistance.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers.medoids;
+
+import weka.core.EuclideanDistance;
+
+/**
+ * Euclidean distance that keeps normalizing with the attribute ranges of
+ * another distance function, whatever instances it is given. A nearest
+ * neighbour search built over the medoids would otherwise normalize with the
+ * ranges of the medoids rather than those of the training data, and find
+ * different nearest medoids than the distance function used for clustering.
+ *
+ * @version $Revision$
+ */
+public class FixedRangesEuclideanDistance extends EuclideanDistance {
+
+  /** for serialization */
+  private static final long serialVersionUID = 4193006742817739645L;
+
+  /** the ranges to normalize with */
+  protected double[][] m_FixedRanges;
+
+  /**
+   * Constructor.
+   *
+   * @param distance the distance function to take the settings and ranges
+   *          from, already initialized with the training data
+   * @throws Exception if the ranges cannot be obtained
+   */
+  public FixedRangesEuclideanDistance(EuclideanDistance distance)
+    throws Exception {
+    setAttributeIndices(distance.getAttributeIndices());
+    setInvertSelection(distance.getInvertSelection());
+    setDontNormalize(distance.getDontNormalize());
+
+    double[][] ranges = distance.getRanges();
+    m_FixedRanges = new double[ranges.length][];
+    for (int i = 0; i < ranges.length; i++) {
+      m_FixedRanges[i] = ranges[i].clone();
+    }
+  }
+
+  /**
+   * Sets the ranges to the fixed ones instead of computing them from the
+   * instances.
+   *
+   * @return the ranges
+   */
+  @Override
+  public double[][] initializeRanges() {
+    m_Ranges = new double[m_FixedRanges.length][];
+    for (int i = 0; i < m_FixedRanges.length; i++) {
+      m_Ranges[i] = m_FixedRanges[i].clone();
+    }
+
+    return m_Ranges;
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    FocusedMedoidSearch.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers.medoids;
+
+import java.util.Arrays;
+
+import weka.core.Utils;
+
+/**
+ * Medoid search that focuses the evaluation of a swap on the points whose
+ * nearest medoid can actually change, in the spirit of the focusing
+ * techniques of Ester, Kriegel and Xu for CLARANS. All points of the medoid
+ * being replaced are looked at, but a point of another cluster c can only
+ * move to the candidate h if d(h, m_c) &lt; 2 d(p, m_c), by the triangle
+ * inequality. The points of each cluster are kept ordered by decreasing
+ * distance to their medoid, so the scan of a cluster stops at the first point
+ * that is closer than d(h, m_c) / 2. On spatial data most clusters are far
+ * from the candidate and contribute only the distance between the two
+ * medoids. The points of the medoid being replaced need not be looked at
+ * either if d(h, m) - d(p, m) is at least the distance of p to its
+ * second-nearest medoid, as p then moves there. The change in cost is the
+ * same as computed by the plain search, provided the distance is a metric.
+ *
+ * @version $Revision$
+ */
+public class FocusedMedoidSearch extends MedoidSearch {
+
+  /** for serialization */
+  private static final long serialVersionUID = -6409581272473917165L;
+
+  /**
+   * the points grouped by nearest medoid, each group ordered by decreasing
+   * distance to the medoid
+   */
+  protected int[] m_Members;
+
+  /** where the group of each medoid starts in m_Members, plus the end */
+  protected int[] m_MembersStart;
+
+  /** the number of distances computed to evaluate swaps */
+  protected long m_NumDistances;
+
+  /**
+   * Constructor.
+   *
+   * @param distance the distances between the points to cluster, must
+   *          satisfy the triangle inequality
+   * @param numMedoids the number of medoids to search for
+   * @throws IllegalArgumentException if the number of medoids is not between
+   *           1 and the number of points
+   */
+  public FocusedMedoidSearch(PointDistance distance, int numMedoids) {
+    super(distance, numMedoids);
+
+    m_Members = new int[m_NumPoints];
+    m_MembersStart = new int[m_NumMedoids + 1];
+  }
+
+  @Override
+  public void setMedoids(int[] medoids) {
+    super.setMedoids(medoids);
+    groupMembers();
+  }
+
+  @Override
+  public void swap(int slot, int candidate) {
+    super.swap(slot, candidate);
+    groupMembers();
+  }
+
+  /**
+   * Groups the points by nearest medoid, ordered by decreasing distance.
+   */
+  protected void groupMembers() {
+    int[] order = Utils.sort(m_NearestDist);
+
+    Arrays.fill(m_MembersStart, 0);
+    for (int i = 0; i < m_NumPoints; i++) {
+      m_MembersStart[m_Nearest[i] + 1]++;
+    }
+    for (int j = 0; j < m_NumMedoids; j++) {
+      m_MembersStart[j + 1] += m_MembersStart[j];
+    }
+
+    int[] next = m_MembersStart.clone();
+    for (int o = m_NumPoints - 1; o >= 0; o--) {
+      int i = order[o];
+      m_Members[next[m_Nearest[i]]++] = i;
+    }
+  }
+
+  /**
+   * Computes the change in cost that replacing a medoid by a non-medoid would
+   * cause, looking only at the points that may be affected.
+   *
+   * @param slot the medoid to replace (index into the medoids)
+   * @param candidate the point to become a medoid
+   * @return the change in cost, negative if the swap is an improvement
+   */
+  @Override
+  public double swapDelta(int slot, int candidate) {
+    m_NumEvaluations++;
+
+    long computed = 0;
+    double delta = 0;
+    for (int j = 0; j < m_NumMedoids; j++) {
+      int start = m_MembersStart[j];
+      int end = m_MembersStart[j + 1];
+
+      double medoidDist = m_Distance.distance(m_Medoids[j], candidate);
+      computed++;
+
+      if (j == slot) {
+        // the points lose their medoid: they move either to the candidate or
+        // to their second-nearest medoid
+        for (int p = start; p < end; p++) {
+          int i = m_Members[p];
+          if (medoidDist - m_NearestDist[i] >= m_SecondNearestDist[i]) {
+            delta += m_SecondNearestDist[i] - m_NearestDist[i];
+            continue;
+          }
+          double dist = m_Distance.distance(i, candidate);
+          computed++;
+          delta += Math.min(dist, m_SecondNearestDist[i]) - m_NearestDist[i];
+        }
+        continue;
+      }
+
+      double bound = medoidDist / 2;
+      for (int p = start; p < end; p++) {
+        int i = m_Members[p];
+        if (m_NearestDist[i] <= bound) {
+          break;
+        }
+        double dist = m_Distance.distance(i, candidate);
+        computed++;
+        if (dist < m_NearestDist[i]) {
+          delta += dist - m_NearestDist[i];
+        }
+      }
+    }
+    m_NumDistances += computed;
+    m_NumDistancesAvoided += m_NumPoints - computed;
+
+    return delta;
+  }
+
+  /**
+   * Returns the number of distances computed to evaluate swaps so far.
+   *
+   * @return the number of distance computations
+   */
+  public long getNumDistances() {
+    return m_NumDistances;
+  }
+}
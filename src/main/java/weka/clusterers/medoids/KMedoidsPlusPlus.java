@@ -0,0 +1,259 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    KMedoidsPlusPlus.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers.medoids;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * k-medoids++ seeding (D&sup2; sampling, the k-means++ scheme of Arthur and
+ * Vassilvitskii applied to medoids): the first medoid is chosen uniformly at
+ * random, every further one with probability proportional to the squared
+ * distance of a point to its nearest medoid chosen so far.<br/>
+ * <br/>
+ * The points are split into chunks of a fixed size. After a medoid has been
+ * chosen, each chunk updates the nearest distances of its own points and sums
+ * up their squared values; the chunks can be processed concurrently since
+ * they write to disjoint parts of the arrays. The next medoid is then sampled
+ * by first locating the chunk via the partial sums and then the point within
+ * the chunk. As the chunk boundaries and the order of summation do not depend
+ * on the number of threads, the medoids chosen only depend on the random
+ * number generator.
+ *
+ * @version $Revision$
+ */
+public class KMedoidsPlusPlus {
+
+  /** the number of points per chunk */
+  public static final int CHUNK_SIZE = 4096;
+
+  /** the distances between the points */
+  protected PointDistance m_Distance;
+
+  /** the number of points */
+  protected int m_NumPoints;
+
+  /** the distance of each point to its nearest medoid chosen so far */
+  protected double[] m_NearestDist;
+
+  /** the sum of the squared nearest distances of each chunk */
+  protected double[] m_ChunkSums;
+
+  /**
+   * Constructor.
+   *
+   * @param distance the distances between the points
+   */
+  public KMedoidsPlusPlus(PointDistance distance) {
+    m_Distance = distance;
+    m_NumPoints = distance.numPoints();
+    m_NearestDist = new double[m_NumPoints];
+    m_ChunkSums = new double[(m_NumPoints + CHUNK_SIZE - 1) / CHUNK_SIZE];
+  }
+
+  /**
+   * Chooses k medoids, updating the chunks one after the other.
+   *
+   * @param distance the distances between the points
+   * @param k the number of medoids
+   * @param random the random number generator to use
+   * @return the point indices of the medoids
+   */
+  public static int[] select(PointDistance distance, int k, Random random) {
+    try {
+      return select(distance, k, random, null);
+    } catch (Exception e) {
+      // cannot happen without an executor
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Chooses k medoids, updating the chunks concurrently on the given
+   * executor. The medoids are the same as those chosen sequentially with the
+   * same random number generator.
+   *
+   * @param distance the distances between the points; must be safe to use
+   *          from several threads if an executor is given
+   * @param k the number of medoids
+   * @param random the random number generator to use
+   * @param executor the executor to update the chunks on, null to update
+   *          them in the calling thread
+   * @return the point indices of the medoids
+   * @throws Exception if the update of a chunk fails
+   */
+  public static int[] select(PointDistance distance, int k, Random random,
+    ExecutorService executor) throws Exception {
+
+    int n = distance.numPoints();
+    if (k < 1 || k > n) {
+      throw new IllegalArgumentException("Number of medoids must be between 1 "
+        + "and the number of points (" + n + "): " + k);
+    }
+
+    return new KMedoidsPlusPlus(distance).select(k, random, executor);
+  }
+
+  /**
+   * Chooses k medoids.
+   *
+   * @param k the number of medoids
+   * @param random the random number generator to use
+   * @param executor the executor to update the chunks on, may be null
+   * @return the point indices of the medoids
+   * @throws Exception if the update of a chunk fails
+   */
+  protected int[] select(int k, Random random, ExecutorService executor)
+    throws Exception {
+
+    int[] medoids = new int[k];
+    boolean[] isMedoid = new boolean[m_NumPoints];
+    Arrays.fill(m_NearestDist, Double.POSITIVE_INFINITY);
+
+    medoids[0] = random.nextInt(m_NumPoints);
+    isMedoid[medoids[0]] = true;
+    for (int j = 1; j < k; j++) {
+      double total = update(medoids[j - 1], executor);
+
+      int medoid;
+      if (total > 0) {
+        medoid = sample(random.nextDouble() * total);
+      } else {
+        // all points coincide with a medoid, take any other one
+        medoid = -1;
+      }
+      if (medoid < 0 || isMedoid[medoid]) {
+        medoid = random.nextInt(m_NumPoints - j);
+        for (int i = 0; i <= medoid; i++) {
+          if (isMedoid[i]) {
+            medoid++;
+          }
+        }
+      }
+
+      medoids[j] = medoid;
+      isMedoid[medoid] = true;
+    }
+
+    return medoids;
+  }
+
+  /**
+   * Updates the nearest distances with a new medoid and recomputes the chunk
+   * sums.
+   *
+   * @param medoid the point index of the new medoid
+   * @param executor the executor to update the chunks on, may be null
+   * @return the sum of the squared nearest distances over all points
+   * @throws Exception if the update of a chunk fails
+   */
+  protected double update(final int medoid, ExecutorService executor)
+    throws Exception {
+
+    if (executor == null || m_ChunkSums.length == 1) {
+      for (int c = 0; c < m_ChunkSums.length; c++) {
+        updateChunk(c, medoid);
+      }
+    } else {
+      List<Future<Void>> results =
+        new ArrayList<Future<Void>>(m_ChunkSums.length);
+      for (int c = 0; c < m_ChunkSums.length; c++) {
+        final int chunk = c;
+        results.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() {
+            updateChunk(chunk, medoid);
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> f : results) {
+        f.get();
+      }
+    }
+
+    double total = 0;
+    for (double sum : m_ChunkSums) {
+      total += sum;
+    }
+
+    return total;
+  }
+
+  /**
+   * Updates the nearest distances of the points in a chunk with a new medoid
+   * and recomputes the chunk's sum.
+   *
+   * @param chunk the index of the chunk
+   * @param medoid the point index of the new medoid
+   */
+  protected void updateChunk(int chunk, int medoid) {
+    int start = chunk * CHUNK_SIZE;
+    int end = Math.min(start + CHUNK_SIZE, m_NumPoints);
+
+    double sum = 0;
+    for (int i = start; i < end; i++) {
+      double dist = m_Distance.distance(i, medoid);
+      if (dist < m_NearestDist[i]) {
+        m_NearestDist[i] = dist;
+      }
+      sum += m_NearestDist[i] * m_NearestDist[i];
+    }
+    m_ChunkSums[chunk] = sum;
+  }
+
+  /**
+   * Returns the point at which the cumulative sum of the squared nearest
+   * distances exceeds the given value.
+   *
+   * @param cutoff the value, between 0 and the total sum
+   * @return the point index, or -1 if rounding made the cutoff unreachable
+   */
+  protected int sample(double cutoff) {
+    int chunk = 0;
+    while (chunk < m_ChunkSums.length - 1 && cutoff >= m_ChunkSums[chunk]) {
+      cutoff -= m_ChunkSums[chunk];
+      chunk++;
+    }
+
+    int start = chunk * CHUNK_SIZE;
+    int end = Math.min(start + CHUNK_SIZE, m_NumPoints);
+    int last = -1;
+    for (int i = start; i < end; i++) {
+      double weight = m_NearestDist[i] * m_NearestDist[i];
+      if (weight > 0) {
+        if (cutoff < weight) {
+          return i;
+        }
+        cutoff -= weight;
+        last = i;
+      }
+    }
+
+    return last;
+  }
+}
@@ -0,0 +1,444 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    MedoidSearch.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers.medoids;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Random;
+
+import weka.core.Utils;
+
+/**
+ * State of a randomized k-medoids search as performed by CLARANS. For every
+ * point the nearest and second-nearest medoid are cached, so that the change
+ * in cost caused by swapping a medoid with a non-medoid can be computed with
+ * a single pass over the data (one distance computation per point) instead of
+ * reassigning all points to all k medoids.
+ *
+ * @version $Revision$
+ */
+public class MedoidSearch implements Serializable {
+
+  /** for serialization */
+  private static final long serialVersionUID = 3894501720836417291L;
+
+  /** the distances between the points */
+  protected PointDistance m_Distance;
+
+  /** the number of points */
+  protected int m_NumPoints;
+
+  /** the number of medoids */
+  protected int m_NumMedoids;
+
+  /** the point index of each medoid */
+  protected int[] m_Medoids;
+
+  /** whether a point is currently a medoid */
+  protected boolean[] m_IsMedoid;
+
+  /** the nearest medoid (index into m_Medoids) of each point */
+  protected int[] m_Nearest;
+
+  /** the second-nearest medoid (index into m_Medoids) of each point */
+  protected int[] m_SecondNearest;
+
+  /** the distance of each point to its nearest medoid */
+  protected double[] m_NearestDist;
+
+  /** the distance of each point to its second-nearest medoid */
+  protected double[] m_SecondNearestDist;
+
+  /** the sum of the distances of all points to their nearest medoid */
+  protected double m_Cost;
+
+  /** the distances of all points to the last candidate evaluated */
+  protected double[] m_CandidateDist;
+
+  /** the last candidate evaluated, -1 if none */
+  protected int m_Candidate = -1;
+
+  /** the number of neighbours (swaps) evaluated so far */
+  protected long m_NumEvaluations;
+
+  /** the number of swaps accepted so far */
+  protected long m_NumSwaps;
+
+  /**
+   * the number of distances that evaluating the swaps so far did not need to
+   * compute, compared to one per point and swap
+   */
+  protected long m_NumDistancesAvoided;
+
+  /** the budget limiting the search, null for none */
+  protected transient SearchBudget m_Budget;
+
+  /** the listener notified of accepted swaps, null for none */
+  protected transient MedoidSearchListener m_Listener;
+
+  /** the number of this search reported to the listener */
+  protected int m_SearchNumber;
+
+  /**
+   * Constructor.
+   *
+   * @param distance the distances between the points to cluster
+   * @param numMedoids the number of medoids to search for
+   * @throws IllegalArgumentException if the number of medoids is not between
+   *           1 and the number of points
+   */
+  public MedoidSearch(PointDistance distance, int numMedoids) {
+    m_Distance = distance;
+    m_NumPoints = distance.numPoints();
+    m_NumMedoids = numMedoids;
+
+    if (numMedoids < 1 || numMedoids > m_NumPoints) {
+      throw new IllegalArgumentException("Number of medoids must be between 1 "
+        + "and the number of points (" + m_NumPoints + "): " + numMedoids);
+    }
+
+    m_Medoids = new int[m_NumMedoids];
+    m_IsMedoid = new boolean[m_NumPoints];
+    m_Nearest = new int[m_NumPoints];
+    m_SecondNearest = new int[m_NumPoints];
+    m_NearestDist = new double[m_NumPoints];
+    m_SecondNearestDist = new double[m_NumPoints];
+    m_CandidateDist = new double[m_NumPoints];
+  }
+
+  /**
+   * Chooses k distinct points uniformly at random as the medoids.
+   *
+   * @param random the random number generator to use
+   */
+  public void randomMedoids(Random random) {
+    int[] indices = new int[m_NumPoints];
+    for (int i = 0; i < m_NumPoints; i++) {
+      indices[i] = i;
+    }
+
+    int[] medoids = new int[m_NumMedoids];
+    for (int j = 0; j < m_NumMedoids; j++) {
+      int swap = j + random.nextInt(m_NumPoints - j);
+      medoids[j] = indices[swap];
+      indices[swap] = indices[j];
+    }
+
+    setMedoids(medoids);
+  }
+
+  /**
+   * Sets the medoids and assigns every point to its nearest and
+   * second-nearest medoid.
+   *
+   * @param medoids the point indices of the medoids
+   */
+  public void setMedoids(int[] medoids) {
+    if (medoids.length != m_NumMedoids) {
+      throw new IllegalArgumentException("Expected " + m_NumMedoids
+        + " medoids, got " + medoids.length);
+    }
+
+    Arrays.fill(m_IsMedoid, false);
+    for (int j = 0; j < m_NumMedoids; j++) {
+      m_Medoids[j] = medoids[j];
+      m_IsMedoid[medoids[j]] = true;
+    }
+    m_Candidate = -1;
+
+    m_Cost = 0;
+    for (int i = 0; i < m_NumPoints; i++) {
+      assignPoint(i, -1, 0);
+      m_Cost += m_NearestDist[i];
+    }
+  }
+
+  /**
+   * Finds the nearest and second-nearest medoid of a point by looking at all
+   * medoids.
+   *
+   * @param i the point
+   * @param knownSlot a medoid whose distance to the point is already known,
+   *          -1 if none
+   * @param knownDist the distance to that medoid
+   */
+  protected void assignPoint(int i, int knownSlot, double knownDist) {
+    int nearest = -1;
+    int second = -1;
+    double nearestDist = Double.POSITIVE_INFINITY;
+    double secondDist = Double.POSITIVE_INFINITY;
+
+    for (int j = 0; j < m_NumMedoids; j++) {
+      double dist =
+        (j == knownSlot) ? knownDist : m_Distance.distance(i, m_Medoids[j]);
+      if (dist < nearestDist) {
+        second = nearest;
+        secondDist = nearestDist;
+        nearest = j;
+        nearestDist = dist;
+      } else if (dist < secondDist) {
+        second = j;
+        secondDist = dist;
+      }
+    }
+
+    m_Nearest[i] = nearest;
+    m_NearestDist[i] = nearestDist;
+    m_SecondNearest[i] = second;
+    m_SecondNearestDist[i] = secondDist;
+  }
+
+  /**
+   * Computes the change in cost that replacing a medoid by a non-medoid would
+   * cause. Only the distance of each point to the candidate is computed, all
+   * other distances come from the nearest/second-nearest cache. The distances
+   * to the candidate are retained, so that a subsequent {@link #swap(int, int)}
+   * with the same candidate needs no further distance computations.
+   *
+   * @param slot the medoid to replace (index into the medoids)
+   * @param candidate the point to become a medoid
+   * @return the change in cost, negative if the swap is an improvement
+   */
+  public double swapDelta(int slot, int candidate) {
+    m_NumEvaluations++;
+    computeCandidateDistances(candidate);
+
+    double delta = 0;
+    for (int i = 0; i < m_NumPoints; i++) {
+      double dist = m_CandidateDist[i];
+      if (m_Nearest[i] == slot) {
+        // the point loses its medoid: it moves either to the candidate or to
+        // its second-nearest medoid
+        delta += Math.min(dist, m_SecondNearestDist[i]) - m_NearestDist[i];
+      } else if (dist < m_NearestDist[i]) {
+        delta += dist - m_NearestDist[i];
+      }
+    }
+
+    return delta;
+  }
+
+  /**
+   * Fills the cache of distances from every point to the given candidate.
+   *
+   * @param candidate the candidate medoid
+   */
+  protected void computeCandidateDistances(int candidate) {
+    if (m_Candidate == candidate) {
+      return;
+    }
+    m_Distance.distances(candidate, m_CandidateDist);
+    m_Candidate = candidate;
+  }
+
+  /**
+   * Replaces a medoid by a non-medoid and updates the nearest/second-nearest
+   * cache. Only points that had the replaced medoid as nearest or
+   * second-nearest medoid need to look at all medoids again.
+   *
+   * @param slot the medoid to replace (index into the medoids)
+   * @param candidate the point to become a medoid
+   */
+  public void swap(int slot, int candidate) {
+    computeCandidateDistances(candidate);
+
+    m_IsMedoid[m_Medoids[slot]] = false;
+    m_Medoids[slot] = candidate;
+    m_IsMedoid[candidate] = true;
+
+    m_Cost = 0;
+    for (int i = 0; i < m_NumPoints; i++) {
+      double dist = m_CandidateDist[i];
+      if (m_Nearest[i] == slot) {
+        if (dist <= m_SecondNearestDist[i]) {
+          m_NearestDist[i] = dist;
+        } else {
+          assignPoint(i, slot, dist);
+        }
+      } else if (m_SecondNearest[i] == slot) {
+        assignPoint(i, slot, dist);
+      } else if (dist < m_NearestDist[i]) {
+        m_SecondNearest[i] = m_Nearest[i];
+        m_SecondNearestDist[i] = m_NearestDist[i];
+        m_Nearest[i] = slot;
+        m_NearestDist[i] = dist;
+      } else if (dist < m_SecondNearestDist[i]) {
+        m_SecondNearest[i] = slot;
+        m_SecondNearestDist[i] = dist;
+      }
+      m_Cost += m_NearestDist[i];
+    }
+  }
+
+  /**
+   * Picks a point that is currently not a medoid uniformly at random.
+   *
+   * @param random the random number generator to use
+   * @return the index of the point
+   */
+  protected int randomNonMedoid(Random random) {
+    int candidate;
+    do {
+      candidate = random.nextInt(m_NumPoints);
+    } while (m_IsMedoid[candidate]);
+
+    return candidate;
+  }
+
+  /**
+   * Sets the budget limiting the search.
+   *
+   * @param budget the budget, null for none
+   */
+  public void setBudget(SearchBudget budget) {
+    m_Budget = budget;
+  }
+
+  /**
+   * Sets the listener to notify whenever a swap is accepted.
+   *
+   * @param listener the listener, null for none
+   * @param searchNumber the number of this search reported to the listener
+   */
+  public void setListener(MedoidSearchListener listener, int searchNumber) {
+    m_Listener = listener;
+    m_SearchNumber = searchNumber;
+  }
+
+  /**
+   * Performs one CLARANS local search starting from the current medoids: random
+   * neighbours (a medoid swapped with a non-medoid) are examined and the first
+   * one that lowers the cost is moved to, until maxNeighbor neighbours in a
+   * row fail to improve the cost, or the budget is exhausted. As only better
+   * neighbours are moved to, the current medoids are always the best found.
+   *
+   * @param random the random number generator to use
+   * @param maxNeighbor the maximum number of neighbours examined in a row
+   * @return the cost of the local minimum found
+   */
+  public double localSearch(Random random, int maxNeighbor) {
+    if (m_NumMedoids == m_NumPoints) {
+      return m_Cost;
+    }
+
+    int failures = 0;
+    while (failures < maxNeighbor) {
+      if (m_Budget != null && !m_Budget.tryEvaluate()) {
+        break;
+      }
+      int slot = random.nextInt(m_NumMedoids);
+      int candidate = randomNonMedoid(random);
+      double delta = swapDelta(slot, candidate);
+      if (Utils.sm(delta, 0)) {
+        swap(slot, candidate);
+        failures = 0;
+        m_NumSwaps++;
+        if (m_Listener != null) {
+          m_Listener.swapAccepted(new MedoidSearchEvent(this, m_SearchNumber,
+            m_NumSwaps, m_NumEvaluations, m_Cost));
+        }
+      } else {
+        failures++;
+      }
+    }
+
+    return m_Cost;
+  }
+
+  /**
+   * Returns the sum of the distances of all points to their nearest medoid.
+   *
+   * @return the current cost
+   */
+  public double getCost() {
+    return m_Cost;
+  }
+
+  /**
+   * Returns the number of neighbours evaluated so far.
+   *
+   * @return the number of swap evaluations
+   */
+  public long getNumEvaluations() {
+    return m_NumEvaluations;
+  }
+
+  /**
+   * Returns the number of swaps accepted so far.
+   *
+   * @return the number of swaps
+   */
+  public long getNumSwaps() {
+    return m_NumSwaps;
+  }
+
+  /**
+   * Returns the number of distance computations that evaluating the swaps so
+   * far avoided, compared to computing the distance of every point to the
+   * candidate. Always 0 for this search, which computes them all; can be
+   * negative for searches whose bounds cost more distances than they save.
+   *
+   * @return the number of distance computations avoided
+   */
+  public long getNumDistancesAvoided() {
+    return m_NumDistancesAvoided;
+  }
+
+  /**
+   * Returns the mean medoid silhouette of the points (Van der Laan et al.,
+   * 2003): the silhouette with the distances to the nearest and
+   * second-nearest medoid in place of the average distances to the points of
+   * the clusters, i.e. 1 - d1/d2 for each point (0 if both are 0). It comes
+   * from the nearest/second-nearest cache without further distance
+   * computations.
+   *
+   * @return the silhouette, NaN if there is only one medoid
+   */
+  public double getMedoidSilhouette() {
+    if (m_NumMedoids < 2) {
+      return Double.NaN;
+    }
+
+    double sum = 0;
+    for (int i = 0; i < m_NumPoints; i++) {
+      if (m_SecondNearestDist[i] > 0) {
+        sum += 1 - m_NearestDist[i] / m_SecondNearestDist[i];
+      }
+    }
+
+    return sum / m_NumPoints;
+  }
+
+  /**
+   * Returns a copy of the current medoids, assignments and cost, along with
+   * the medoid silhouette.
+   *
+   * @return the current solution
+   */
+  public MedoidSolution getSolution() {
+    MedoidSolution result =
+      new MedoidSolution(m_Medoids.clone(), m_Nearest.clone(), m_Cost);
+    result.setSilhouette(getMedoidSilhouette());
+
+    return result;
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    MedoidSearchEvent.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers.medoids;
+
+import java.util.EventObject;
+
+/**
+ * Reports the state of a medoid search after a swap has been accepted.
+ *
+ * @version $Revision$
+ */
+public class MedoidSearchEvent extends EventObject {
+
+  /** for serialization */
+  private static final long serialVersionUID = 2874937511702458107L;
+
+  /** the number of the search among those run together */
+  protected int m_SearchNumber;
+
+  /** the number of swaps accepted so far */
+  protected long m_NumSwaps;
+
+  /** the number of swaps evaluated so far */
+  protected long m_NumEvaluations;
+
+  /** the cost (sum of distances to the nearest medoid) after the swap */
+  protected double m_Cost;
+
+  /**
+   * Constructor.
+   *
+   * @param source the search
+   * @param searchNumber the number of the search among those run together
+   * @param numSwaps the number of swaps accepted so far
+   * @param numEvaluations the number of swaps evaluated so far
+   * @param cost the cost after the swap
+   */
+  public MedoidSearchEvent(MedoidSearch source, int searchNumber,
+    long numSwaps, long numEvaluations, double cost) {
+    super(source);
+
+    m_SearchNumber = searchNumber;
+    m_NumSwaps = numSwaps;
+    m_NumEvaluations = numEvaluations;
+    m_Cost = cost;
+  }
+
+  /**
+   * Returns the number of the search among those run together.
+   *
+   * @return the search number, starting at 0
+   */
+  public int getSearchNumber() {
+    return m_SearchNumber;
+  }
+
+  /**
+   * Returns the number of swaps the search has accepted so far.
+   *
+   * @return the number of swaps
+   */
+  public long getNumSwaps() {
+    return m_NumSwaps;
+  }
+
+  /**
+   * Returns the number of swaps the search has evaluated so far.
+   *
+   * @return the number of evaluations
+   */
+  public long getNumEvaluations() {
+    return m_NumEvaluations;
+  }
+
+  /**
+   * Returns the cost (distortion) after the swap: the sum of the distances of
+   * all points to their nearest medoid.
+   *
+   * @return the cost
+   */
+  public double getCost() {
+    return m_Cost;
+  }
+}
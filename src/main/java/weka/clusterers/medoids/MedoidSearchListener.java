@@ -0,0 +1,41 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    MedoidSearchListener.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers.medoids;
+
+import java.util.EventListener;
+
+/**
+ * Interface for classes that want to follow the progress of medoid searches,
+ * e.g. to display convergence.
+ *
+ * @version $Revision$
+ */
+public interface MedoidSearchListener extends EventListener {
+
+  /**
+   * Called whenever a search has moved to a better set of medoids. Searches
+   * that run concurrently may call this from several threads.
+   *
+   * @param e the event describing the search's new state
+   */
+  void swapAccepted(MedoidSearchEvent e);
+}
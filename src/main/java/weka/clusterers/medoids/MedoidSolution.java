@@ -0,0 +1,109 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    MedoidSolution.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers.medoids;
+
+import java.io.Serializable;
+
+/**
+ * A set of medoids together with the assignment of every point to its
+ * nearest medoid and the resulting total cost (the sum of the distances of
+ * all points to their medoid).
+ *
+ * @version $Revision$
+ */
+public class MedoidSolution implements Serializable {
+
+  /** for serialization */
+  private static final long serialVersionUID = -6178470412937152530L;
+
+  /** the point indices of the medoids */
+  protected int[] m_Medoids;
+
+  /** the medoid (index into m_Medoids) each point is assigned to */
+  protected int[] m_Assignments;
+
+  /** the sum of the distances of all points to their medoid */
+  protected double m_Cost;
+
+  /** the mean medoid silhouette of the points, NaN if not known */
+  protected double m_Silhouette = Double.NaN;
+
+  /**
+   * Constructor.
+   *
+   * @param medoids the point indices of the medoids
+   * @param assignments the medoid each point is assigned to
+   * @param cost the total cost of the solution
+   */
+  public MedoidSolution(int[] medoids, int[] assignments, double cost) {
+    m_Medoids = medoids;
+    m_Assignments = assignments;
+    m_Cost = cost;
+  }
+
+  /**
+   * Returns the point indices of the medoids.
+   *
+   * @return the medoids
+   */
+  public int[] getMedoids() {
+    return m_Medoids;
+  }
+
+  /**
+   * Returns the medoid (as an index into the array returned by
+   * {@link #getMedoids()}) that each point is assigned to.
+   *
+   * @return the assignments
+   */
+  public int[] getAssignments() {
+    return m_Assignments;
+  }
+
+  /**
+   * Returns the sum of the distances of all points to their medoid.
+   *
+   * @return the total cost
+   */
+  public double getCost() {
+    return m_Cost;
+  }
+
+  /**
+   * Sets the mean medoid silhouette of the points.
+   *
+   * @param silhouette the silhouette
+   * @see MedoidSearch#getMedoidSilhouette()
+   */
+  public void setSilhouette(double silhouette) {
+    m_Silhouette = silhouette;
+  }
+
+  /**
+   * Returns the mean medoid silhouette of the points.
+   *
+   * @return the silhouette, NaN if not known
+   */
+  public double getSilhouette() {
+    return m_Silhouette;
+  }
+}
@@ -0,0 +1,353 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    NumericPointDistance.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers.medoids;
+
+import java.util.Arrays;
+
+import weka.core.DistanceFunction;
+import weka.core.EuclideanDistance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.ManhattanDistance;
+import weka.core.NormalizableDistance;
+
+/**
+ * Euclidean or Manhattan distances between purely numeric points that are
+ * stored in a single flat array, one row after the other. Compared to going
+ * through Instance objects and a DistanceFunction this avoids a virtual call
+ * per attribute and keeps the data in one contiguous block, so the distance
+ * loops are simple enough for the JIT to unroll and vectorize. Each attribute
+ * can be given a scale factor, which is how the normalization of Weka's
+ * distance functions is reproduced without altering the stored values.
+ *
+ * @version $Revision$
+ */
+public class NumericPointDistance implements PointDistance {
+
+  /** for serialization */
+  private static final long serialVersionUID = -2704361253947189160L;
+
+  /** the Euclidean distance */
+  public static final int EUCLIDEAN = 0;
+
+  /** the Manhattan distance */
+  public static final int MANHATTAN = 1;
+
+  /** the attribute values, row-major */
+  protected double[] m_Values;
+
+  /** the number of attributes per point */
+  protected int m_NumAttributes;
+
+  /** the number of points */
+  protected int m_NumPoints;
+
+  /** the metric, EUCLIDEAN or MANHATTAN */
+  protected int m_Metric;
+
+  /** the factor each attribute difference is multiplied with */
+  protected double[] m_Scale;
+
+  /**
+   * Constructor for unscaled attributes.
+   *
+   * @param values the attribute values of all points, row-major
+   * @param numAttributes the number of attributes per point
+   * @param metric EUCLIDEAN or MANHATTAN
+   */
+  public NumericPointDistance(double[] values, int numAttributes, int metric) {
+    this(values, numAttributes, metric, null);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param values the attribute values of all points, row-major
+   * @param numAttributes the number of attributes per point
+   * @param metric EUCLIDEAN or MANHATTAN
+   * @param scale the factor each attribute difference is multiplied with,
+   *          null for no scaling
+   */
+  public NumericPointDistance(double[] values, int numAttributes, int metric,
+    double[] scale) {
+    if (metric != EUCLIDEAN && metric != MANHATTAN) {
+      throw new IllegalArgumentException("Unknown metric: " + metric);
+    }
+    if (numAttributes < 1 || values.length % numAttributes != 0) {
+      throw new IllegalArgumentException("Number of values (" + values.length
+        + ") is not a multiple of the number of attributes (" + numAttributes
+        + ")");
+    }
+    if (scale == null) {
+      scale = new double[numAttributes];
+      Arrays.fill(scale, 1.0);
+    } else if (scale.length != numAttributes) {
+      throw new IllegalArgumentException("Expected " + numAttributes
+        + " scale factors, got " + scale.length);
+    }
+    m_Values = values;
+    m_NumAttributes = numAttributes;
+    m_NumPoints = values.length / numAttributes;
+    m_Metric = metric;
+    m_Scale = scale;
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param data the points, one array of attribute values per point
+   * @param metric EUCLIDEAN or MANHATTAN
+   */
+  public NumericPointDistance(double[][] data, int metric) {
+    this(flatten(data), data.length == 0 ? 1 : data[0].length, metric);
+  }
+
+  /**
+   * Copies points into a single row-major array.
+   *
+   * @param data the points
+   * @return the flattened values
+   */
+  protected static double[] flatten(double[][] data) {
+    if (data.length == 0) {
+      return new double[0];
+    }
+    int numAttributes = data[0].length;
+    double[] result = new double[data.length * numAttributes];
+    for (int i = 0; i < data.length; i++) {
+      if (data[i].length != numAttributes) {
+        throw new IllegalArgumentException("Point " + i + " has "
+          + data[i].length + " values instead of " + numAttributes);
+      }
+      System.arraycopy(data[i], 0, result, i * numAttributes, numAttributes);
+    }
+    return result;
+  }
+
+  /**
+   * Creates the flat representation of a data set if it can be clustered with
+   * this class without changing the distances: all attributes are numeric
+   * without missing values, and the distance function is the plain
+   * EuclideanDistance or ManhattanDistance over all attributes. Attribute
+   * differences are scaled in the same way the distance function would
+   * normalize them, the values themselves are copied unchanged.
+   *
+   * @param data the data, the class index is expected to be unset
+   * @param df the distance function, already initialized with the data
+   * @return the flat distances, or null if the data or distance function are
+   *         not suitable
+   * @throws Exception if the attribute ranges cannot be obtained
+   */
+  public static NumericPointDistance create(Instances data, DistanceFunction df)
+    throws Exception {
+    return create(data, df, false);
+  }
+
+  /**
+   * Creates the flat representation of a data set like
+   * {@link #create(Instances, DistanceFunction)}. If release is set, each
+   * instance is removed from the data as soon as its values have been copied,
+   * so that the flat array is the only copy of the data once this returns;
+   * the data is left unchanged if null is returned.
+   *
+   * @param data the data, the class index is expected to be unset
+   * @param df the distance function, already initialized with the data
+   * @param release whether to remove the instances from the data
+   * @return the flat distances, or null if the data or distance function are
+   *         not suitable
+   * @throws Exception if the attribute ranges cannot be obtained
+   */
+  public static NumericPointDistance create(Instances data,
+    DistanceFunction df, boolean release) throws Exception {
+
+    int metric;
+    if (df.getClass() == EuclideanDistance.class) {
+      metric = EUCLIDEAN;
+    } else if (df.getClass() == ManhattanDistance.class) {
+      metric = MANHATTAN;
+    } else {
+      return null;
+    }
+    NormalizableDistance nd = (NormalizableDistance) df;
+    if (nd.getInvertSelection()
+      || !nd.getAttributeIndices().equals("first-last")
+      || data.classIndex() >= 0 || data.numAttributes() == 0) {
+      return null;
+    }
+    for (int j = 0; j < data.numAttributes(); j++) {
+      if (!data.attribute(j).isNumeric()) {
+        return null;
+      }
+    }
+
+    int numAttributes = data.numAttributes();
+    int numInstances = data.numInstances();
+    if ((long) numAttributes * numInstances > Integer.MAX_VALUE - 8) {
+      return null;
+    }
+
+    double[] scale = new double[numAttributes];
+    if (nd.getDontNormalize()) {
+      Arrays.fill(scale, 1.0);
+    } else {
+      double[][] ranges = nd.getRanges();
+      for (int j = 0; j < numAttributes; j++) {
+        double width = ranges[j][NormalizableDistance.R_WIDTH];
+        scale[j] = (width == 0.0) ? 0.0 : 1.0 / width;
+      }
+    }
+
+    for (int i = 0; i < numInstances; i++) {
+      if (data.instance(i).hasMissingValue()) {
+        return null;
+      }
+    }
+
+    // copied from the last instance, which can be removed without shifting
+    // the others
+    double[] values = new double[numAttributes * numInstances];
+    for (int i = numInstances - 1; i >= 0; i--) {
+      Instance inst = data.instance(i);
+      int pos = i * numAttributes;
+      for (int j = 0; j < numAttributes; j++) {
+        values[pos + j] = inst.value(j);
+      }
+      if (release) {
+        data.delete(i);
+      }
+    }
+
+    return new NumericPointDistance(values, numAttributes, metric, scale);
+  }
+
+  @Override
+  public int numPoints() {
+    return m_NumPoints;
+  }
+
+  /**
+   * Returns the number of attributes per point.
+   *
+   * @return the number of attributes
+   */
+  public int numAttributes() {
+    return m_NumAttributes;
+  }
+
+  /**
+   * Returns a copy of the attribute values of a point.
+   *
+   * @param i the index of the point
+   * @return the attribute values
+   */
+  public double[] point(int i) {
+    double[] result = new double[m_NumAttributes];
+    System.arraycopy(m_Values, i * m_NumAttributes, result, 0,
+      m_NumAttributes);
+    return result;
+  }
+
+  /**
+   * Returns the stored point nearest to the given attribute values, the
+   * first one in case of ties. Attributes are scaled as for the distances
+   * between stored points, and nothing is allocated.
+   *
+   * @param values the attribute values, one per attribute
+   * @return the index of the nearest point
+   */
+  public int nearest(double[] values) {
+    int best = 0;
+    double bestSum = Double.MAX_VALUE;
+    for (int i = 0; i < m_NumPoints; i++) {
+      int offset = i * m_NumAttributes;
+      double sum = 0;
+      // the squared Euclidean distance orders the points like the distance
+      for (int t = 0; t < m_NumAttributes && sum < bestSum; t++) {
+        double diff = (values[t] - m_Values[offset + t]) * m_Scale[t];
+        sum += (m_Metric == MANHATTAN) ? Math.abs(diff) : diff * diff;
+      }
+      if (sum < bestSum) {
+        bestSum = sum;
+        best = i;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * Returns the metric in use.
+   *
+   * @return EUCLIDEAN or MANHATTAN
+   */
+  public int getMetric() {
+    return m_Metric;
+  }
+
+  @Override
+  public double distance(int i, int j) {
+    if (m_Metric == MANHATTAN) {
+      return manhattan(m_Values, m_Scale, i * m_NumAttributes, j
+        * m_NumAttributes);
+    }
+    return Math.sqrt(squaredEuclidean(m_Values, m_Scale, i * m_NumAttributes,
+      j * m_NumAttributes));
+  }
+
+  /**
+   * Computes the squared Euclidean distance between two rows.
+   *
+   * @param values the values
+   * @param scale the scale factor of each attribute, also gives the number
+   *          of values per row
+   * @param a the offset of the first row
+   * @param b the offset of the second row
+   * @return the squared Euclidean distance
+   */
+  protected static double squaredEuclidean(double[] values, double[] scale,
+    int a, int b) {
+    double sum = 0;
+    for (int t = 0; t < scale.length; t++) {
+      double diff = (values[a + t] - values[b + t]) * scale[t];
+      sum += diff * diff;
+    }
+    return sum;
+  }
+
+  /**
+   * Computes the Manhattan distance between two rows.
+   *
+   * @param values the values
+   * @param scale the scale factor of each attribute, also gives the number
+   *          of values per row
+   * @param a the offset of the first row
+   * @param b the offset of the second row
+   * @return the Manhattan distance
+   */
+  protected static double manhattan(double[] values, double[] scale, int a,
+    int b) {
+    double sum = 0;
+    for (int t = 0; t < scale.length; t++) {
+      sum += Math.abs((values[a + t] - values[b + t]) * scale[t]);
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    PointDistance.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers.medoids;
+
+import java.io.Serializable;
+
+/**
+ * Distances between the points of a fixed data set, addressed by their index.
+ * The k-medoids searches only ever compare points that belong to the data
+ * set, so they work against this interface rather than against the points
+ * themselves.
+ *
+ * @version $Revision$
+ */
+public interface PointDistance extends Serializable {
+
+  /**
+   * Returns the number of points in the data set.
+   *
+   * @return the number of points
+   */
+  int numPoints();
+
+  /**
+   * Returns the distance between two points.
+   *
+   * @param i the index of the first point
+   * @param j the index of the second point
+   * @return the distance between the two points
+   */
+  double distance(int i, int j);
+
+  /**
+   * Computes the distances of all points to one point. Implementations that
+   * cache distances can serve a whole column at once.
+   *
+   * @param j the index of the point
+   * @param result the array to store the distance of each point to point j in
+   */
+  default void distances(int j, double[] result) {
+    for (int i = 0; i < result.length; i++) {
+      result[i] = distance(i, j);
+    }
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    SearchBudget.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.clusterers.medoids;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the work done by one or more medoid searches: a wall-clock deadline,
+ * a total number of swap evaluations, or both. The searches ask for
+ * permission before each evaluation and stop once it is refused, keeping the
+ * best medoids found so far. A budget can also be stopped explicitly, e.g.
+ * from a progress listener. It is safe to share between concurrent searches.
+ *
+ * @version $Revision$
+ */
+public class SearchBudget {
+
+  /** the deadline in terms of System.nanoTime(), or Long.MAX_VALUE */
+  protected long m_Deadline;
+
+  /** whether there is a deadline */
+  protected boolean m_HasDeadline;
+
+  /** whether the number of evaluations is limited */
+  protected boolean m_HasEvaluationLimit;
+
+  /** the evaluations left if they are limited */
+  protected AtomicLong m_EvaluationsLeft;
+
+  /** whether the budget has been exhausted or stopped */
+  protected volatile boolean m_Exhausted;
+
+  /**
+   * Constructor.
+   *
+   * @param timeLimit the time limit in milliseconds, 0 for none
+   * @param maxEvaluations the maximum number of swap evaluations, 0 for no
+   *          limit
+   */
+  public SearchBudget(long timeLimit, long maxEvaluations) {
+    m_HasDeadline = timeLimit > 0;
+    m_Deadline =
+      m_HasDeadline ? System.nanoTime() + timeLimit * 1000000L : Long.MAX_VALUE;
+    m_HasEvaluationLimit = maxEvaluations > 0;
+    m_EvaluationsLeft = new AtomicLong(maxEvaluations);
+  }
+
+  /**
+   * Asks for permission to evaluate one more swap, and uses up one
+   * evaluation if it is given.
+   *
+   * @return true if the evaluation may be done
+   */
+  public boolean tryEvaluate() {
+    return tryEvaluate(1);
+  }
+
+  /**
+   * Asks for permission to evaluate a number of swaps at once, and uses them
+   * up if it is given. Permission is given as long as any evaluations are
+   * left, so the last batch may overrun the limit.
+   *
+   * @param count the number of swaps to evaluate
+   * @return true if the evaluations may be done
+   */
+  public boolean tryEvaluate(long count) {
+    if (m_Exhausted) {
+      return false;
+    }
+    if (m_HasDeadline && System.nanoTime() - m_Deadline >= 0) {
+      m_Exhausted = true;
+      return false;
+    }
+    if (m_HasEvaluationLimit && m_EvaluationsLeft.getAndAdd(-count) <= 0) {
+      m_Exhausted = true;
+      return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Stops all searches using this budget at their next evaluation.
+   */
+  public void stop() {
+    m_Exhausted = true;
+  }
+
+  /**
+   * Returns whether the budget has been exhausted or stopped.
+   *
+   * @return true if no more evaluations will be permitted
+   */
+  public boolean isExhausted() {
+    return m_Exhausted;
+  }
+}
@@ -574,9 +574,20 @@ public abstract class AbstractInstance implements Instance, Serializable,
   @Override
   public final void setWeight(double weight) {
 
+    storeWeight(weight);
     m_Weight = weight;
   }
 
+  /**
+   * Called by setWeight() before the weight changes, so that instances that
+   * are views of a dataset's storage can write the weight back to it (or
+   * refuse the change by throwing an exception). Does nothing by default.
+   * 
+   * @param weight the new weight
+   */
+  void storeWeight(double weight) {
+  }
+
   /**
    * Returns the relational value of a relational attribute.
    * 
@@ -0,0 +1,1213 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    ColumnarInstances.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.core;
+
+import java.io.ObjectStreamException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+
+/**
+ * Set of instances that stores its values column by column, in one array of
+ * doubles per attribute, plus one array for the weights. No Instance object
+ * is kept per row, which roughly halves the memory used by large numeric
+ * datasets, and passes over a single attribute such as attributeStats(),
+ * kthSmallestValue() or variance() scan one array.
+ * <p>
+ *
+ * The rows stay where they are stored; the order of the instances is kept in
+ * a separate array of row numbers, so sort(), randomize(), stratify(),
+ * swap() and deleting only permute that array. The instances returned by
+ * instance(), get(), the iterator and the enumeration are views of a row:
+ * reading a value reads the column, and setting a value changes the dataset.
+ * Like the instances of an Instances object, a view keeps standing for its
+ * row when the set is reordered or instances are added or deleted, and set()
+ * stores the new instance in a new row rather than overwriting the old one.
+ * The weight of a view is read when the view is created; setting it writes
+ * it back to the dataset. Use copy() to detach an instance from the dataset;
+ * copies are DenseInstance objects.
+ * <p>
+ *
+ * The rows of deleted or replaced instances are only released by
+ * compactify() and delete(), which renumber the rows: views obtained before
+ * either must not be used afterwards.
+ * <p>
+ *
+ * Like Instances, string and relational values are stored as indices only.
+ * Sets derived from this one, e.g. with trainCV() or resample(), are plain
+ * Instances.
+ *
+ * @version $Revision$
+ */
+public class ColumnarInstances extends Instances {
+
+  /** for serialization */
+  private static final long serialVersionUID = -2981530125474117393L;
+
+  /** the values, one array per attribute, indexed by row */
+  protected double[][] m_Columns;
+
+  /** the weight of each row */
+  protected double[] m_Weights;
+
+  /** the number of rows stored; the arrays may be longer */
+  protected int m_NumStored;
+
+  /** the row of each instance, in the order of the set */
+  protected int[] m_Order;
+
+  /** the number of instances in the set; m_Order may be longer */
+  protected int m_NumRows;
+
+  /**
+   * Constructor copying all instances and references to the header information
+   * from the given set of instances.
+   *
+   * @param dataset the set to be copied
+   */
+  public ColumnarInstances(Instances dataset) {
+
+    this(dataset, dataset.numInstances());
+
+    if (dataset instanceof ColumnarInstances) {
+      // copy the rows in the order of the set, leaving out released ones
+      ColumnarInstances other = (ColumnarInstances) dataset;
+      int[] order = other.m_Order;
+      int numRows = other.m_NumRows;
+      for (int j = 0; j < m_Columns.length; j++) {
+        double[] column = m_Columns[j];
+        double[] otherColumn = other.m_Columns[j];
+        for (int i = 0; i < numRows; i++) {
+          column[i] = otherColumn[order[i]];
+        }
+      }
+      for (int i = 0; i < numRows; i++) {
+        m_Weights[i] = other.m_Weights[order[i]];
+      }
+      appendStoredRows(numRows);
+    } else {
+      for (Instance inst : dataset) {
+        add(inst);
+      }
+    }
+  }
+
+  /**
+   * Constructor creating an empty set of instances. Copies references to the
+   * header information from the given set of instances. Sets the capacity of
+   * the set of instances to 0 if its negative.
+   *
+   * @param dataset the instances from which the header information is to be
+   *          taken
+   * @param capacity the capacity of the new dataset
+   */
+  public ColumnarInstances(Instances dataset, int capacity) {
+
+    super(dataset, 0);
+
+    allocate(capacity);
+  }
+
+  /**
+   * Creates an empty set of instances. Uses the given attribute information.
+   * Sets the capacity of the set of instances to 0 if its negative. Given
+   * attribute information must not be changed after this constructor has been
+   * used.
+   *
+   * @param name the name of the relation
+   * @param attInfo the attribute information
+   * @param capacity the capacity of the set
+   * @throws IllegalArgumentException if attribute names are not unique
+   */
+  public ColumnarInstances(String name, ArrayList<Attribute> attInfo,
+    int capacity) {
+
+    super(name, attInfo, 0);
+
+    allocate(capacity);
+  }
+
+  /**
+   * Allocates empty columns.
+   *
+   * @param capacity the number of rows to reserve
+   */
+  protected void allocate(int capacity) {
+
+    if (capacity < 0) {
+      capacity = 0;
+    }
+    m_Columns = new double[numAttributes()][capacity];
+    m_Weights = new double[capacity];
+    m_NumStored = 0;
+    m_Order = new int[capacity];
+    m_NumRows = 0;
+  }
+
+  /**
+   * Makes sure that the arrays can hold the given number of rows and
+   * instances, growing them by half if they cannot.
+   *
+   * @param numStored the number of rows needed
+   * @param numRows the number of instances needed
+   */
+  protected void ensureCapacity(int numStored, int numRows) {
+
+    if (numStored > m_Weights.length) {
+      int capacity = Math.max(numStored,
+        m_Weights.length + (m_Weights.length >> 1));
+      for (int j = 0; j < m_Columns.length; j++) {
+        m_Columns[j] = Arrays.copyOf(m_Columns[j], capacity);
+      }
+      m_Weights = Arrays.copyOf(m_Weights, capacity);
+    }
+    if (numRows > m_Order.length) {
+      m_Order = Arrays.copyOf(m_Order,
+        Math.max(numRows, m_Order.length + (m_Order.length >> 1)));
+    }
+  }
+
+  /**
+   * Appends the given number of rows, already written to the arrays after
+   * the rows stored so far, to the end of the set.
+   *
+   * @param count the number of rows
+   */
+  protected void appendStoredRows(int count) {
+
+    ensureCapacity(m_NumStored + count, m_NumRows + count);
+    for (int i = 0; i < count; i++) {
+      m_Order[m_NumRows++] = m_NumStored++;
+    }
+  }
+
+  /**
+   * Stores the values and weight of an instance in a new row.
+   *
+   * @param instance the instance
+   * @return the row
+   */
+  protected int storeRow(Instance instance) {
+
+    // read the values first, the instance may be a view of this set
+    double[] values = instance.toDoubleArray();
+    double weight = instance.weight();
+
+    ensureCapacity(m_NumStored + 1, m_NumRows);
+    for (int j = 0; j < m_Columns.length; j++) {
+      m_Columns[j][m_NumStored] = values[j];
+    }
+    m_Weights[m_NumStored] = weight;
+
+    return m_NumStored++;
+  }
+
+  /**
+   * Adds one instance to the end of the set. Copies the values and weight of
+   * the instance. Increases the size of the dataset if it is not large enough.
+   * Does not check if the instance is compatible with the dataset. Note:
+   * String or relational values are not transferred.
+   *
+   * @param instance the instance to be added
+   */
+  @Override
+  public boolean add(Instance instance) {
+
+    int row = storeRow(instance);
+    ensureCapacity(m_NumStored, m_NumRows + 1);
+    m_Order[m_NumRows++] = row;
+
+    return true;
+  }
+
+  /**
+   * Adds one instance at the given position in the list. Copies the values
+   * and weight of the instance. Increases the size of the dataset if it is
+   * not large enough. Does not check if the instance is compatible with the
+   * dataset. Note: String or relational values are not transferred.
+   *
+   * @param index position where instance is to be inserted
+   * @param instance the instance to be added
+   */
+  @Override
+  public void add(int index, Instance instance) {
+
+    if ((index < 0) || (index > m_NumRows)) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+        + m_NumRows);
+    }
+    int row = storeRow(instance);
+    ensureCapacity(m_NumStored, m_NumRows + 1);
+    System.arraycopy(m_Order, index, m_Order, index + 1, m_NumRows - index);
+    m_Order[index] = row;
+    m_NumRows++;
+  }
+
+  /**
+   * Replaces the instance at the given position. Copies the values and
+   * weight of the instance into a new row, so that views of the old instance
+   * keep their values. Note: String or relational values are not
+   * transferred.
+   *
+   * @param index position where instance is to be inserted
+   * @param instance the instance to be inserted
+   * @return a copy of the instance previously at that position
+   */
+  @Override
+  public Instance set(int index, Instance instance) {
+
+    Instance oldInstance = (Instance) instance(index).copy();
+    m_Order[index] = storeRow(instance);
+
+    return oldInstance;
+  }
+
+  /**
+   * Compactifies the set of instances. Releases the rows of deleted and
+   * replaced instances, stores the rows in the order of the set and
+   * decreases the capacity so that it matches the number of instances. Views
+   * obtained before must not be used afterwards.
+   */
+  @Override
+  public void compactify() {
+
+    boolean inOrder = (m_NumStored == m_NumRows);
+    for (int i = 0; inOrder && (i < m_NumRows); i++) {
+      inOrder = (m_Order[i] == i);
+    }
+    if (inOrder && (m_Weights.length == m_NumRows)
+      && (m_Order.length == m_NumRows)) {
+      return;
+    }
+
+    for (int j = 0; j < m_Columns.length; j++) {
+      double[] column = new double[m_NumRows];
+      double[] old = m_Columns[j];
+      for (int i = 0; i < m_NumRows; i++) {
+        column[i] = old[m_Order[i]];
+      }
+      m_Columns[j] = column;
+    }
+    double[] weights = new double[m_NumRows];
+    for (int i = 0; i < m_NumRows; i++) {
+      weights[i] = m_Weights[m_Order[i]];
+    }
+    m_Weights = weights;
+    m_Order = new int[m_NumRows];
+    for (int i = 0; i < m_NumRows; i++) {
+      m_Order[i] = i;
+    }
+    m_NumStored = m_NumRows;
+  }
+
+  /**
+   * Removes all instances from the set and releases their rows.
+   */
+  @Override
+  public void delete() {
+
+    allocate(0);
+  }
+
+  /**
+   * Removes an instance at the given position from the set.
+   *
+   * @param index the instance's position (index starts with 0)
+   */
+  @Override
+  public void delete(int index) {
+
+    checkIndex(index);
+    System.arraycopy(m_Order, index + 1, m_Order, index, m_NumRows - index
+      - 1);
+    m_NumRows--;
+  }
+
+  /**
+   * Removes the instance at the given position.
+   *
+   * @param index the instance's index (index starts with 0)
+   * @return a copy of the removed instance
+   */
+  @Override
+  public Instance remove(int index) {
+
+    Instance oldInstance = (Instance) instance(index).copy();
+    delete(index);
+
+    return oldInstance;
+  }
+
+  /**
+   * Removes all instances with missing values for a particular attribute from
+   * the dataset.
+   *
+   * @param attIndex the attribute's index (index starts with 0)
+   */
+  @Override
+  public void deleteWithMissing(int attIndex) {
+
+    double[] column = m_Columns[attIndex];
+    int kept = 0;
+    for (int i = 0; i < m_NumRows; i++) {
+      if (!Utils.isMissingValue(column[m_Order[i]])) {
+        m_Order[kept++] = m_Order[i];
+      }
+    }
+    m_NumRows = kept;
+  }
+
+  /**
+   * Deletes an attribute at the given position (0 to numAttributes() - 1).
+   *
+   * @param position the attribute's position (position starts with 0)
+   * @throws IllegalArgumentException if the given index is out of range or the
+   *           class attribute is being deleted
+   */
+  @Override
+  public void deleteAttributeAt(int position) {
+
+    // let the superclass update the header only; the column is dropped here
+    int numRows = m_NumRows;
+    m_NumRows = 0;
+    try {
+      super.deleteAttributeAt(position);
+    } finally {
+      m_NumRows = numRows;
+    }
+
+    double[][] columns = new double[m_Columns.length - 1][];
+    System.arraycopy(m_Columns, 0, columns, 0, position);
+    System.arraycopy(m_Columns, position + 1, columns, position,
+      columns.length - position);
+    m_Columns = columns;
+  }
+
+  /**
+   * Inserts an attribute at the given position (0 to numAttributes()) and
+   * sets all values to be missing.
+   *
+   * @param att the attribute to be inserted
+   * @param position the attribute's position (position starts with 0)
+   * @throws IllegalArgumentException if the given index is out of range
+   */
+  @Override
+  public void insertAttributeAt(Attribute att, int position) {
+
+    // let the superclass update the header only; the column is added here
+    int numRows = m_NumRows;
+    m_NumRows = 0;
+    try {
+      super.insertAttributeAt(att, position);
+    } finally {
+      m_NumRows = numRows;
+    }
+
+    double[] column = new double[m_Weights.length];
+    Arrays.fill(column, Utils.missingValue());
+    double[][] columns = new double[m_Columns.length + 1][];
+    System.arraycopy(m_Columns, 0, columns, 0, position);
+    columns[position] = column;
+    System.arraycopy(m_Columns, position, columns, position + 1,
+      m_Columns.length - position);
+    m_Columns = columns;
+  }
+
+  /**
+   * Returns an enumeration of all instances in the dataset.
+   *
+   * @return enumeration of all instances in the dataset
+   */
+  @Override
+  public Enumeration<Instance> enumerateInstances() {
+
+    return new WekaEnumeration<Instance>(this);
+  }
+
+  /**
+   * Returns a view of the first instance in the set.
+   *
+   * @return the first instance in the set
+   */
+  @Override
+  public Instance firstInstance() {
+
+    return instance(0);
+  }
+
+  /**
+   * Returns a view of the last instance in the set.
+   *
+   * @return the last instance in the set
+   */
+  @Override
+  public Instance lastInstance() {
+
+    return instance(m_NumRows - 1);
+  }
+
+  /**
+   * Returns a view of the instance at the given position.
+   *
+   * @param index the instance's index (index starts with 0)
+   * @return the instance at the given position
+   */
+  @Override
+  public Instance instance(int index) {
+
+    checkIndex(index);
+    return new RowView(this, m_Order[index]);
+  }
+
+  /**
+   * Returns a view of the instance at the given position.
+   *
+   * @param index the instance's index (index starts with 0)
+   * @return the instance at the given position
+   */
+  @Override
+  public Instance get(int index) {
+
+    return instance(index);
+  }
+
+  /**
+   * Checks that a row is in use.
+   *
+   * @param index the row
+   * @throws IndexOutOfBoundsException if it is not
+   */
+  protected void checkIndex(int index) {
+
+    if ((index < 0) || (index >= m_NumRows)) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+        + m_NumRows);
+    }
+  }
+
+  /**
+   * Returns the number of instances in the dataset.
+   *
+   * @return the number of instances in the dataset as an integer
+   */
+  @Override
+  public int numInstances() {
+
+    return m_NumRows;
+  }
+
+  /**
+   * Returns the number of instances in the dataset.
+   *
+   * @return the number of instances in the dataset as an integer
+   */
+  @Override
+  public int size() {
+
+    return m_NumRows;
+  }
+
+  /**
+   * Swaps two instances in the set.
+   *
+   * @param i the first instance's index (index starts with 0)
+   * @param j the second instance's index (index starts with 0)
+   */
+  @Override
+  public void swap(int i, int j) {
+
+    checkIndex(i);
+    checkIndex(j);
+    int row = m_Order[i];
+    m_Order[i] = m_Order[j];
+    m_Order[j] = row;
+  }
+
+  /**
+   * Reorders the instances. The rows stay where they are.
+   *
+   * @param order the old position of the instance to place at each position
+   */
+  protected void reorder(int[] order) {
+
+    int[] rows = new int[m_Order.length];
+    for (int i = 0; i < order.length; i++) {
+      rows[i] = m_Order[order[i]];
+    }
+    m_Order = rows;
+  }
+
+  /**
+   * Sorts a nominal attribute (stable, linear-time sort). Instances are sorted
+   * based on the attribute label ordering specified in the header.
+   *
+   * @param attIndex the attribute's index (index starts with 0)
+   */
+  @Override
+  protected void sortBasedOnNominalAttribute(int attIndex) {
+
+    double[] column = attributeToDoubleArray(attIndex);
+    int[] counts = new int[attribute(attIndex).numValues()];
+    for (int i = 0; i < m_NumRows; i++) {
+      if (!Utils.isMissingValue(column[i])) {
+        counts[(int) column[i]]++;
+      }
+    }
+
+    int[] indices = new int[counts.length];
+    int start = 0;
+    for (int i = 0; i < counts.length; i++) {
+      indices[i] = start;
+      start += counts[i];
+    }
+    int[] order = new int[m_NumRows];
+    for (int i = 0; i < m_NumRows; i++) {
+      if (!Utils.isMissingValue(column[i])) {
+        order[indices[(int) column[i]]++] = i;
+      } else {
+        order[start++] = i;
+      }
+    }
+    reorder(order);
+  }
+
+  /**
+   * Sorts the instances based on an attribute. For numeric attributes,
+   * instances are sorted in ascending order. For nominal attributes, instances
+   * are sorted based on the attribute label ordering specified in the header.
+   * Instances with missing values for the attribute are placed at the end of
+   * the dataset.
+   *
+   * @param attIndex the attribute's index (index starts with 0)
+   */
+  @Override
+  public void sort(int attIndex) {
+
+    if (!attribute(attIndex).isNominal()) {
+      reorder(Utils.sortWithNoMissingValues(valuesMissingLast(attIndex)));
+    } else {
+      sortBasedOnNominalAttribute(attIndex);
+    }
+  }
+
+  /**
+   * Sorts the instances based on an attribute, using a stable sort. For
+   * numeric attributes, instances are sorted in ascending order. For nominal
+   * attributes, instances are sorted based on the attribute label ordering
+   * specified in the header. Instances with missing values for the attribute
+   * are placed at the end of the dataset.
+   *
+   * @param attIndex the attribute's index (index starts with 0)
+   */
+  @Override
+  public void stableSort(int attIndex) {
+
+    if (!attribute(attIndex).isNominal()) {
+      reorder(Utils.stableSort(attributeToDoubleArray(attIndex)));
+    } else {
+      sortBasedOnNominalAttribute(attIndex);
+    }
+  }
+
+  /**
+   * Help function needed for stratification of set.
+   *
+   * @param numFolds the number of folds for the stratification
+   */
+  @Override
+  protected void stratStep(int numFolds) {
+
+    int[] order = new int[m_NumRows];
+    int n = 0;
+    for (int start = 0; n < m_NumRows; start++) {
+      for (int j = start; j < m_NumRows; j += numFolds) {
+        order[n++] = j;
+      }
+    }
+    reorder(order);
+  }
+
+  /**
+   * Returns the values of an attribute, with missing values replaced by
+   * Double.MAX_VALUE.
+   *
+   * @param attIndex the attribute's index
+   * @return the values
+   */
+  protected double[] valuesMissingLast(int attIndex) {
+
+    double[] column = m_Columns[attIndex];
+    double[] vals = new double[m_NumRows];
+    for (int i = 0; i < m_NumRows; i++) {
+      double value = column[m_Order[i]];
+      vals[i] = Utils.isMissingValue(value) ? Double.MAX_VALUE : value;
+    }
+    return vals;
+  }
+
+  /**
+   * Returns the kth-smallest attribute value of a numeric attribute. Missing
+   * values are treated as Double.MAX_VALUE.
+   *
+   * @param attIndex the attribute's index
+   * @param k the value of k
+   * @return the kth-smallest value
+   */
+  @Override
+  public double kthSmallestValue(int attIndex, int k) {
+
+    if (!attribute(attIndex).isNumeric()) {
+      throw new IllegalArgumentException(
+        "Instances: attribute must be numeric to compute kth-smallest value.");
+    }
+
+    if ((k < 1) || (k > m_NumRows)) {
+      throw new IllegalArgumentException(
+        "Instances: value for k for computing kth-smallest value too large.");
+    }
+
+    return Utils.kthSmallestValue(valuesMissingLast(attIndex), k);
+  }
+
+  /**
+   * Returns the mean (mode) for a numeric (nominal) attribute as a
+   * floating-point value. Returns 0 if the attribute is neither nominal nor
+   * numeric. If all values are missing it returns zero.
+   *
+   * @param attIndex the attribute's index (index starts with 0)
+   * @return the mean or the mode
+   */
+  @Override
+  public double meanOrMode(int attIndex) {
+
+    double[] column = m_Columns[attIndex];
+    if (attribute(attIndex).isNumeric()) {
+      double result = 0;
+      double found = 0;
+      for (int i = 0; i < m_NumRows; i++) {
+        int row = m_Order[i];
+        if (!Utils.isMissingValue(column[row])) {
+          found += m_Weights[row];
+          result += m_Weights[row] * column[row];
+        }
+      }
+      if (found <= 0) {
+        return 0;
+      } else {
+        return result / found;
+      }
+    } else if (attribute(attIndex).isNominal()) {
+      int[] counts = new int[attribute(attIndex).numValues()];
+      for (int i = 0; i < m_NumRows; i++) {
+        int row = m_Order[i];
+        if (!Utils.isMissingValue(column[row])) {
+          counts[(int) column[row]] += m_Weights[row];
+        }
+      }
+      return Utils.maxIndex(counts);
+    } else {
+      return 0;
+    }
+  }
+
+  /**
+   * Returns the number of distinct values of a given attribute. The value
+   * 'missing' is not counted.
+   *
+   * @param attIndex the attribute (index starts with 0)
+   * @return the number of distinct values of a given attribute
+   */
+  @Override
+  public int numDistinctValues(int attIndex) {
+
+    return countValues(attIndex).m_NumDistinct;
+  }
+
+  /**
+   * Computes the sum of all the instances' weights.
+   *
+   * @return the sum of all the instances' weights as a double
+   */
+  @Override
+  public double sumOfWeights() {
+
+    double sum = 0;
+    for (int i = 0; i < m_NumRows; i++) {
+      sum += m_Weights[m_Order[i]];
+    }
+    return sum;
+  }
+
+  /**
+   * Computes the variance for all numeric attributes simultaneously. Array
+   * elements corresponding to non-numeric attributes are set to NaN.
+   *
+   * @return the array containing the variance values
+   */
+  @Override
+  public double[] variances() {
+
+    double[] vars = new double[numAttributes()];
+    for (int j = 0; j < vars.length; j++) {
+      vars[j] = attribute(j).isNumeric() ? variance(j) : Double.NaN;
+    }
+    return vars;
+  }
+
+  /**
+   * Computes the variance for a numeric attribute.
+   *
+   * @param attIndex the numeric attribute (index starts with 0)
+   * @return the variance if the attribute is numeric
+   * @throws IllegalArgumentException if the attribute is not numeric
+   */
+  @Override
+  public double variance(int attIndex) {
+
+    if (!attribute(attIndex).isNumeric()) {
+      throw new IllegalArgumentException(
+        "Can't compute variance because attribute is " + "not numeric!");
+    }
+
+    double[] column = m_Columns[attIndex];
+    double mean = 0;
+    double var = Double.NaN;
+    double sumWeights = 0;
+    for (int i = 0; i < m_NumRows; i++) {
+      int row = m_Order[i];
+      double value = column[row];
+      if (Utils.isMissingValue(value)) {
+        continue;
+      }
+      double weight = m_Weights[row];
+
+      if (Double.isNaN(var)) {
+        // the first value is treated separately to keep the mean accurate
+        mean = value;
+        sumWeights = weight;
+        var = 0;
+        continue;
+      }
+
+      double delta = weight * (value - mean);
+      sumWeights += weight;
+      mean += delta / sumWeights;
+      var += delta * (value - mean);
+    }
+
+    if (sumWeights <= 1) {
+      return Double.NaN;
+    }
+
+    var /= sumWeights - 1;
+
+    // We don't like negative variance
+    if (var < 0) {
+      return 0;
+    } else {
+      return var;
+    }
+  }
+
+  /**
+   * Calculates summary statistics on the values that appear in this set of
+   * instances for a specified attribute.
+   *
+   * @param index the index of the attribute to summarize (index starts with 0)
+   * @return an AttributeStats object with it's fields calculated.
+   */
+  @Override
+  public AttributeStats attributeStats(int index) {
+
+    AttributeStats result = new AttributeStats();
+    if (attribute(index).isNominal()) {
+      result.nominalCounts = new int[attribute(index).numValues()];
+      result.nominalWeights = new double[attribute(index).numValues()];
+    }
+    if (attribute(index).isNumeric()) {
+      result.numericStats = new weka.experiment.Stats();
+    }
+    result.totalCount = m_NumRows;
+
+    ValueCounts counts = countValues(index);
+    result.missingCount = counts.m_NumMissing;
+    for (int i = 0; i < counts.m_Keys.length; i++) {
+      if (counts.m_Counts[i] > 0) {
+        result.addDistinct(counts.m_Keys[i], counts.m_Counts[i],
+          counts.m_Weights[i]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Counts the occurrences and weight of each distinct value of an attribute.
+   *
+   * @param attIndex the attribute's index
+   * @return the counts
+   */
+  protected ValueCounts countValues(int attIndex) {
+
+    double[] column = m_Columns[attIndex];
+    ValueCounts counts = new ValueCounts();
+    for (int i = 0; i < m_NumRows; i++) {
+      int row = m_Order[i];
+      if (Utils.isMissingValue(column[row])) {
+        counts.m_NumMissing++;
+      } else {
+        counts.add(column[row], m_Weights[row]);
+      }
+    }
+    return counts;
+  }
+
+  /**
+   * Gets the value of all instances in this dataset for a particular attribute.
+   *
+   * @param index the index of the attribute.
+   * @return an array containing the value of the desired attribute for each
+   *         instance in the dataset.
+   */
+  @Override
+  public double[] attributeToDoubleArray(int index) {
+
+    double[] column = m_Columns[index];
+    double[] result = new double[m_NumRows];
+    for (int i = 0; i < m_NumRows; i++) {
+      result[i] = column[m_Order[i]];
+    }
+    return result;
+  }
+
+  /**
+   * Returns the revision string.
+   *
+   * @return the revision
+   */
+  @Override
+  public String getRevision() {
+    return RevisionUtils.extract("$Revision$");
+  }
+
+  /**
+   * Open-addressing hash table from values to their count and weight, which
+   * avoids boxing every value as HashMap would. Slots with a count of 0 are
+   * free.
+   */
+  protected static class ValueCounts {
+
+    /** the values */
+    protected double[] m_Keys = new double[16];
+
+    /** the number of occurrences of each value */
+    protected int[] m_Counts = new int[16];
+
+    /** the weight of each value */
+    protected double[] m_Weights = new double[16];
+
+    /** the number of distinct values */
+    protected int m_NumDistinct;
+
+    /** the number of missing values */
+    protected int m_NumMissing;
+
+    /**
+     * Counts one more occurrence of a value.
+     *
+     * @param value the value, not missing
+     * @param weight the weight of the occurrence
+     */
+    protected void add(double value, double weight) {
+
+      int slot = slot(value, m_Keys, m_Counts);
+      if (m_Counts[slot] == 0) {
+        if (m_NumDistinct >= m_Keys.length / 2) {
+          grow();
+          slot = slot(value, m_Keys, m_Counts);
+        }
+        m_Keys[slot] = value;
+        m_NumDistinct++;
+      }
+      m_Counts[slot]++;
+      m_Weights[slot] += weight;
+    }
+
+    /**
+     * Returns the slot holding a value, or the free slot it would go into.
+     *
+     * @param value the value
+     * @param keys the values
+     * @param counts the counts, 0 for free slots
+     * @return the slot
+     */
+    protected static int slot(double value, double[] keys, int[] counts) {
+
+      // -0.0 and 0.0 are equal, so they must hash the same
+      long bits = Double.doubleToLongBits(value + 0.0);
+      int hash = (int) (bits ^ (bits >>> 32));
+      hash ^= (hash >>> 16);
+      hash *= 0x85EBCA6B;
+      hash ^= (hash >>> 13);
+      int mask = keys.length - 1;
+      int slot = hash & mask;
+      while ((counts[slot] != 0) && (keys[slot] != value)) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    /**
+     * Doubles the size of the table.
+     */
+    protected void grow() {
+
+      double[] keys = new double[m_Keys.length * 2];
+      int[] counts = new int[keys.length];
+      double[] weights = new double[keys.length];
+      for (int i = 0; i < m_Keys.length; i++) {
+        if (m_Counts[i] != 0) {
+          int slot = slot(m_Keys[i], keys, counts);
+          keys[slot] = m_Keys[i];
+          counts[slot] = m_Counts[i];
+          weights[slot] = m_Weights[i];
+        }
+      }
+      m_Keys = keys;
+      m_Counts = counts;
+      m_Weights = weights;
+    }
+  }
+
+  /**
+   * View of a row of a ColumnarInstances dataset. Reads and writes of values
+   * go to the columns of the dataset; the weight is kept in the view and
+   * written back when it is set. Copies are DenseInstance objects, and so is
+   * what gets serialized.
+   */
+  protected static class RowView extends AbstractInstance {
+
+    /** for serialization */
+    private static final long serialVersionUID = 6371286580129561373L;
+
+    /** the dataset holding the values */
+    protected ColumnarInstances m_Store;
+
+    /** the row */
+    protected int m_Row;
+
+    /**
+     * Constructor.
+     *
+     * @param store the dataset holding the values
+     * @param row the row
+     */
+    protected RowView(ColumnarInstances store, int row) {
+
+      m_Store = store;
+      m_Row = row;
+      m_Dataset = store;
+      m_Weight = store.m_Weights[row];
+    }
+
+    /**
+     * Produces a DenseInstance with the values and weight of the row. The copy
+     * has access to the same dataset.
+     *
+     * @return the copy
+     */
+    @Override
+    public Object copy() {
+
+      return copy(toDoubleArray());
+    }
+
+    /**
+     * Produces a DenseInstance with the weight of the row and the given
+     * values. The copy has access to the same dataset.
+     *
+     * @param values the array with new values
+     * @return the new instance
+     */
+    @Override
+    public Instance copy(double[] values) {
+
+      DenseInstance result = new DenseInstance(weight(), values);
+      result.setDataset(m_Dataset);
+      return result;
+    }
+
+    /**
+     * Replaces the view by a copy when serialized, so that the dataset is not
+     * serialized with it.
+     *
+     * @return the copy
+     * @throws ObjectStreamException never
+     */
+    protected Object writeReplace() throws ObjectStreamException {
+
+      return copy();
+    }
+
+    @Override
+    public int index(int position) {
+
+      return position;
+    }
+
+    @Override
+    public Instance mergeInstance(Instance inst) {
+
+      return new DenseInstance(1.0, toDoubleArray()).mergeInstance(inst);
+    }
+
+    @Override
+    public int numAttributes() {
+
+      return m_Store.m_Columns.length;
+    }
+
+    @Override
+    public int numValues() {
+
+      return m_Store.m_Columns.length;
+    }
+
+    /**
+     * Replaces all missing values of the row with the values contained in the
+     * given array.
+     *
+     * @param array containing the means and modes
+     * @throws IllegalArgumentException if numbers of attributes are unequal
+     */
+    @Override
+    public void replaceMissingValues(double[] array) {
+
+      if ((array == null) || (array.length != numAttributes())) {
+        throw new IllegalArgumentException("Unequal number of attributes!");
+      }
+      for (int j = 0; j < array.length; j++) {
+        if (isMissing(j)) {
+          setValue(j, array[j]);
+        }
+      }
+    }
+
+    @Override
+    public void setValue(int attIndex, double value) {
+
+      m_Store.m_Columns[attIndex][m_Row] = value;
+    }
+
+    @Override
+    public void setValueSparse(int indexOfIndex, double value) {
+
+      setValue(indexOfIndex, value);
+    }
+
+    /**
+     * Writes the weight back to the dataset.
+     *
+     * @param weight the new weight
+     */
+    @Override
+    void storeWeight(double weight) {
+
+      m_Store.m_Weights[m_Row] = weight;
+    }
+
+    @Override
+    public double[] toDoubleArray() {
+
+      double[][] columns = m_Store.m_Columns;
+      double[] values = new double[columns.length];
+      for (int j = 0; j < values.length; j++) {
+        values[j] = columns[j][m_Row];
+      }
+      return values;
+    }
+
+    @Override
+    public String toStringNoWeight() {
+
+      return toStringNoWeight(AbstractInstance.s_numericAfterDecimalPoint);
+    }
+
+    @Override
+    public String toStringNoWeight(int afterDecimalPoint) {
+
+      StringBuffer text = new StringBuffer();
+      for (int j = 0; j < numAttributes(); j++) {
+        if (j > 0) {
+          text.append(",");
+        }
+        text.append(toString(j, afterDecimalPoint));
+      }
+      return text.toString();
+    }
+
+    @Override
+    public double value(int attIndex) {
+
+      return m_Store.m_Columns[attIndex][m_Row];
+    }
+
+    @Override
+    public double valueSparse(int indexOfIndex) {
+
+      return value(indexOfIndex);
+    }
+
+    /**
+     * Not supported: attributes are inserted and deleted through the dataset.
+     *
+     * @param position the attribute's position
+     */
+    @Override
+    protected void forceDeleteAttributeAt(int position) {
+
+      throw new UnsupportedOperationException(
+        "Delete the attribute from the dataset instead");
+    }
+
+    /**
+     * Not supported: attributes are inserted and deleted through the dataset.
+     *
+     * @param position the attribute's position
+     */
+    @Override
+    protected void forceInsertAttributeAt(int position) {
+
+      throw new UnsupportedOperationException(
+        "Insert the attribute into the dataset instead");
+    }
+
+    /**
+     * Returns the revision string.
+     *
+     * @return the revision
+     */
+    @Override
+    public String getRevision() {
+      return RevisionUtils.extract("$Revision$");
+    }
+  }
+}
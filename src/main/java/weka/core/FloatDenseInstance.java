@@ -0,0 +1,421 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    FloatDenseInstance.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.core;
+
+/**
+ * Class for storing an instance with its attribute values held as
+ * single-precision floating-point numbers, which halves the memory needed for
+ * the values compared to a DenseInstance. Values are widened to doubles when
+ * they are read and narrowed to the nearest float when they are set, so
+ * numeric values keep about seven significant digits. Nominal, string and
+ * relational values are indices and are stored exactly as long as they are
+ * below 2^24; dates (milliseconds since the epoch) are not. Missing values
+ * are stored as NaN, as in a DenseInstance.
+ * <p>
+ *
+ * Like a DenseInstance, the vector of attribute values is shared between
+ * copies and cloned before it is changed.
+ *
+ * @version $Revision$
+ * @see weka.filters.unsupervised.instance.SinglePrecision
+ */
+public class FloatDenseInstance extends AbstractInstance {
+
+  /** for serialization */
+  private static final long serialVersionUID = -6320451370957613826L;
+
+  /** The attribute values. */
+  protected float[] m_FloatValues;
+
+  /**
+   * Constructor that copies the attribute values and the weight from the given
+   * instance, narrowing the values to floats. It does NOT perform a deep copy
+   * of the attribute values if the instance provided is also of type
+   * FloatDenseInstance (it simply copies the reference to the array of
+   * values), otherwise it does. Reference to the dataset is set to null. (ie.
+   * the instance doesn't have access to information about the attribute types)
+   *
+   * @param instance the instance from which the attribute values and the weight
+   *          are to be copied
+   */
+  public FloatDenseInstance(Instance instance) {
+
+    if (instance instanceof FloatDenseInstance) {
+      m_FloatValues = ((FloatDenseInstance) instance).m_FloatValues;
+    } else {
+      m_FloatValues = narrow(instance.toDoubleArray());
+    }
+    m_Weight = instance.weight();
+    m_Dataset = null;
+  }
+
+  /**
+   * Constructor that inititalizes instance variable with given values.
+   * Reference to the dataset is set to null. (ie. the instance doesn't have
+   * access to information about the attribute types)
+   *
+   * @param weight the instance's weight
+   * @param attValues a vector of attribute values
+   */
+  public FloatDenseInstance(double weight, float[] attValues) {
+
+    m_FloatValues = attValues;
+    m_Weight = weight;
+    m_Dataset = null;
+  }
+
+  /**
+   * Constructor that inititalizes instance variable with the given values
+   * narrowed to floats. Reference to the dataset is set to null. (ie. the
+   * instance doesn't have access to information about the attribute types)
+   *
+   * @param weight the instance's weight
+   * @param attValues a vector of attribute values
+   */
+  public FloatDenseInstance(double weight, double[] attValues) {
+
+    this(weight, narrow(attValues));
+  }
+
+  /**
+   * Constructor of an instance that sets weight to one, all values to be
+   * missing, and the reference to the dataset to null. (ie. the instance
+   * doesn't have access to information about the attribute types)
+   *
+   * @param numAttributes the size of the instance
+   */
+  public FloatDenseInstance(int numAttributes) {
+
+    m_FloatValues = new float[numAttributes];
+    for (int i = 0; i < m_FloatValues.length; i++) {
+      m_FloatValues[i] = Float.NaN;
+    }
+    m_Weight = 1;
+    m_Dataset = null;
+  }
+
+  /**
+   * Narrows an array of doubles to floats.
+   *
+   * @param values the values
+   * @return a new array with the values rounded to the nearest float
+   */
+  protected static float[] narrow(double[] values) {
+
+    float[] result = new float[values.length];
+    for (int i = 0; i < values.length; i++) {
+      result[i] = (float) values[i];
+    }
+    return result;
+  }
+
+  /**
+   * Produces a shallow copy of this instance. The copy has access to the same
+   * dataset. (if you want to make a copy that doesn't have access to the
+   * dataset, use <code>new FloatDenseInstance(instance)</code>
+   *
+   * @return the shallow copy
+   */
+  @Override
+  public Object copy() {
+
+    FloatDenseInstance result = new FloatDenseInstance(this);
+    result.m_Dataset = m_Dataset;
+    return result;
+  }
+
+  /**
+   * Copies the instance but fills up its values based on the given array
+   * of doubles, narrowed to floats. The copy has access to the same dataset.
+   *
+   * @param values the array with new values
+   * @return the new instance
+   */
+  @Override
+  public Instance copy(double[] values) {
+
+    FloatDenseInstance result = new FloatDenseInstance(this.m_Weight, values);
+    result.m_Dataset = m_Dataset;
+    return result;
+  }
+
+  /**
+   * Returns the index of the attribute stored at the given position. Just
+   * returns the given value.
+   *
+   * @param position the position
+   * @return the index of the attribute stored at the given position
+   */
+  @Override
+  public int index(int position) {
+
+    return position;
+  }
+
+  /**
+   * Merges this instance with the given instance and returns the result.
+   * Dataset is set to null. The returned instance is of the same type as this
+   * instance.
+   *
+   * @param inst the instance to be merged with this one
+   * @return the merged instances
+   */
+  @Override
+  public Instance mergeInstance(Instance inst) {
+
+    float[] newVals = new float[numAttributes() + inst.numAttributes()];
+    System.arraycopy(m_FloatValues, 0, newVals, 0, m_FloatValues.length);
+    for (int j = 0, m = m_FloatValues.length; j < inst.numAttributes(); j++, m++) {
+      newVals[m] = (float) inst.value(j);
+    }
+    return new FloatDenseInstance(1.0, newVals);
+  }
+
+  /**
+   * Returns the number of attributes.
+   *
+   * @return the number of attributes as an integer
+   */
+  @Override
+  public int numAttributes() {
+
+    return m_FloatValues.length;
+  }
+
+  /**
+   * Returns the number of values present. Always the same as numAttributes().
+   *
+   * @return the number of values
+   */
+  @Override
+  public int numValues() {
+
+    return m_FloatValues.length;
+  }
+
+  /**
+   * Replaces all missing values in the instance with the values contained in
+   * the given array, narrowed to floats. A deep copy of the vector of
+   * attribute values is performed before the values are replaced.
+   *
+   * @param array containing the means and modes
+   * @throws IllegalArgumentException if numbers of attributes are unequal
+   */
+  @Override
+  public void replaceMissingValues(double[] array) {
+
+    if ((array == null) || (array.length != m_FloatValues.length)) {
+      throw new IllegalArgumentException("Unequal number of attributes!");
+    }
+    freshAttributeVector();
+    for (int i = 0; i < m_FloatValues.length; i++) {
+      if (Float.isNaN(m_FloatValues[i])) {
+        m_FloatValues[i] = (float) array[i];
+      }
+    }
+  }
+
+  /**
+   * Sets a specific value in the instance to the given value, narrowed to a
+   * float. Performs a deep copy of the vector of attribute values before the
+   * value is set.
+   *
+   * @param attIndex the attribute's index
+   * @param value the new attribute value (If the corresponding attribute is
+   *          nominal (or a string) then this is the new value's index as a
+   *          double).
+   */
+  @Override
+  public void setValue(int attIndex, double value) {
+
+    freshAttributeVector();
+    m_FloatValues[attIndex] = (float) value;
+  }
+
+  /**
+   * Sets a specific value in the instance to the given value, narrowed to a
+   * float. Performs a deep copy of the vector of attribute values before the
+   * value is set. Does exactly the same thing as setValue().
+   *
+   * @param indexOfIndex the index of the attribute's index
+   * @param value the new attribute value (If the corresponding attribute is
+   *          nominal (or a string) then this is the new value's index as a
+   *          double).
+   */
+  @Override
+  public void setValueSparse(int indexOfIndex, double value) {
+
+    freshAttributeVector();
+    m_FloatValues[indexOfIndex] = (float) value;
+  }
+
+  /**
+   * Returns the values of each attribute widened to an array of doubles.
+   * Creates a fresh array object for this.
+   *
+   * @return an array containing all the instance attribute values
+   */
+  @Override
+  public double[] toDoubleArray() {
+
+    double[] newValues = new double[m_FloatValues.length];
+    for (int i = 0; i < m_FloatValues.length; i++) {
+      newValues[i] = m_FloatValues[i];
+    }
+    return newValues;
+  }
+
+  /**
+   * Returns the values of each attribute as an array of floats. Creates a
+   * fresh array object for this.
+   *
+   * @return an array containing all the instance attribute values
+   */
+  public float[] toFloatArray() {
+
+    float[] newValues = new float[m_FloatValues.length];
+    System.arraycopy(m_FloatValues, 0, newValues, 0, m_FloatValues.length);
+    return newValues;
+  }
+
+  /**
+   * Returns the description of one instance (without weight appended). If the
+   * instance doesn't have access to a dataset, it returns the internal
+   * floating-point values. Quotes string values that contain whitespace
+   * characters.
+   *
+   * @return the instance's description as a string
+   */
+  @Override
+  public String toStringNoWeight() {
+    return toStringNoWeight(AbstractInstance.s_numericAfterDecimalPoint);
+  }
+
+  /**
+   * Returns the description of one instance (without weight appended). If the
+   * instance doesn't have access to a dataset, it returns the internal
+   * floating-point values. Quotes string values that contain whitespace
+   * characters.
+   *
+   * @param afterDecimalPoint maximum number of digits after the decimal point
+   *          for numeric values
+   *
+   * @return the instance's description as a string
+   */
+  @Override
+  public String toStringNoWeight(int afterDecimalPoint) {
+    StringBuffer text = new StringBuffer();
+
+    for (int i = 0; i < m_FloatValues.length; i++) {
+      if (i > 0) {
+        text.append(",");
+      }
+      text.append(toString(i, afterDecimalPoint));
+    }
+
+    return text.toString();
+  }
+
+  /**
+   * Returns an instance's attribute value in internal format.
+   *
+   * @param attIndex the attribute's index
+   * @return the specified value widened to a double (If the corresponding
+   *         attribute is nominal (or a string) then it returns the value's
+   *         index as a double).
+   */
+  @Override
+  public double value(int attIndex) {
+
+    return m_FloatValues[attIndex];
+  }
+
+  /**
+   * Returns an instance's attribute value in internal format. Does exactly the
+   * same thing as value().
+   *
+   * @param indexOfIndex the index of the attribute's index
+   * @return the specified value widened to a double (If the corresponding
+   *         attribute is nominal (or a string) then it returns the value's
+   *         index as a double).
+   */
+  @Override
+  public double valueSparse(int indexOfIndex) {
+
+    return m_FloatValues[indexOfIndex];
+  }
+
+  /**
+   * Deletes an attribute at the given position (0 to numAttributes() - 1).
+   *
+   * @param position the attribute's position
+   */
+  @Override
+  protected void forceDeleteAttributeAt(int position) {
+
+    float[] newValues = new float[m_FloatValues.length - 1];
+
+    System.arraycopy(m_FloatValues, 0, newValues, 0, position);
+    if (position < m_FloatValues.length - 1) {
+      System.arraycopy(m_FloatValues, position + 1, newValues, position,
+        m_FloatValues.length - (position + 1));
+    }
+    m_FloatValues = newValues;
+  }
+
+  /**
+   * Inserts an attribute at the given position (0 to numAttributes()) and sets
+   * its value to be missing.
+   *
+   * @param position the attribute's position
+   */
+  @Override
+  protected void forceInsertAttributeAt(int position) {
+
+    float[] newValues = new float[m_FloatValues.length + 1];
+
+    System.arraycopy(m_FloatValues, 0, newValues, 0, position);
+    newValues[position] = Float.NaN;
+    System.arraycopy(m_FloatValues, position, newValues, position + 1,
+      m_FloatValues.length - position);
+    m_FloatValues = newValues;
+  }
+
+  /**
+   * Clones the attribute vector of the instance and overwrites it with the
+   * clone.
+   */
+  private void freshAttributeVector() {
+
+    m_FloatValues = toFloatArray();
+  }
+
+  /**
+   * Returns the revision string.
+   *
+   * @return the revision
+   */
+  @Override
+  public String getRevision() {
+    return RevisionUtils.extract("$Revision$");
+  }
+}
@@ -0,0 +1,354 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    FloatSparseInstance.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.core;
+
+/**
+ * Class for storing an instance as a sparse vector whose non-zero values are
+ * held as single-precision floating-point numbers. Values are widened to
+ * doubles when they are read and narrowed to the nearest float when they are
+ * set; see FloatDenseInstance for what that means for the different
+ * attribute types.
+ * <p>
+ *
+ * Changing a value copies the stored values, as in a SparseInstance. This is
+ * done by widening them, letting SparseInstance make the change and narrowing
+ * the result, which costs no more than the copy that is made anyway.
+ *
+ * @version $Revision$
+ * @see FloatDenseInstance
+ */
+public class FloatSparseInstance extends SparseInstance {
+
+  /** for serialization */
+  private static final long serialVersionUID = 4409342876193418845L;
+
+  /** The stored attribute values. */
+  protected float[] m_FloatValues;
+
+  /**
+   * Constructor that generates a sparse instance from the given instance,
+   * narrowing the values to floats. Reference to the dataset is set to null.
+   * (ie. the instance doesn't have access to information about the attribute
+   * types)
+   *
+   * @param instance the instance from which the attribute values and the weight
+   *          are to be copied
+   */
+  public FloatSparseInstance(Instance instance) {
+
+    m_Weight = instance.weight();
+    m_Dataset = null;
+    m_NumAttributes = instance.numAttributes();
+    if (instance instanceof FloatSparseInstance) {
+      m_FloatValues = ((FloatSparseInstance) instance).m_FloatValues;
+      m_Indices = ((FloatSparseInstance) instance).m_Indices;
+    } else if (instance instanceof SparseInstance) {
+      m_Indices = ((SparseInstance) instance).m_Indices;
+      m_FloatValues = new float[m_Indices.length];
+      for (int i = 0; i < m_FloatValues.length; i++) {
+        m_FloatValues[i] = (float) instance.valueSparse(i);
+      }
+    } else {
+      float[] tempValues = new float[instance.numAttributes()];
+      int[] tempIndices = new int[instance.numAttributes()];
+      int vals = 0;
+      for (int i = 0; i < instance.numAttributes(); i++) {
+        float value = (float) instance.value(i);
+        if (value != 0) {
+          tempValues[vals] = value;
+          tempIndices[vals] = i;
+          vals++;
+        }
+      }
+      m_FloatValues = new float[vals];
+      m_Indices = new int[vals];
+      System.arraycopy(tempValues, 0, m_FloatValues, 0, vals);
+      System.arraycopy(tempIndices, 0, m_Indices, 0, vals);
+    }
+    m_AttValues = null;
+  }
+
+  /**
+   * Constructor that generates a sparse instance from the given values,
+   * narrowed to floats. Reference to the dataset is set to null. (ie. the
+   * instance doesn't have access to information about the attribute types)
+   *
+   * @param weight the instance's weight
+   * @param attValues a vector of attribute values
+   */
+  public FloatSparseInstance(double weight, double[] attValues) {
+
+    this(new DenseInstance(weight, attValues));
+  }
+
+  /**
+   * Constructor that inititalizes instance variable with given values.
+   * Reference to the dataset is set to null. (ie. the instance doesn't have
+   * access to information about the attribute types)
+   *
+   * @param weight the instance's weight
+   * @param attValues the stored values, one for each index
+   * @param indices the indices of the given values in the full vector, in
+   *          ascending order
+   * @param maxNumValues the maximium number of values that can be stored
+   */
+  public FloatSparseInstance(double weight, float[] attValues, int[] indices,
+    int maxNumValues) {
+
+    m_FloatValues = attValues;
+    m_Indices = indices;
+    m_Weight = weight;
+    m_NumAttributes = maxNumValues;
+    m_AttValues = null;
+    m_Dataset = null;
+  }
+
+  /**
+   * Produces a shallow copy of this instance. The copy has access to the same
+   * dataset. (if you want to make a copy that doesn't have access to the
+   * dataset, use <code>new FloatSparseInstance(instance)</code>
+   *
+   * @return the shallow copy
+   */
+  @Override
+  public Object copy() {
+
+    FloatSparseInstance result = new FloatSparseInstance(this);
+    result.m_Dataset = m_Dataset;
+    return result;
+  }
+
+  /**
+   * Copies the instance but fills up its values based on the given array
+   * of doubles, narrowed to floats. The copy has access to the same dataset.
+   *
+   * @param values the array with new values
+   * @return the new instance
+   */
+  @Override
+  public Instance copy(double[] values) {
+
+    FloatSparseInstance result = new FloatSparseInstance(this.m_Weight, values);
+    result.m_Dataset = m_Dataset;
+    return result;
+  }
+
+  /**
+   * Merges this instance with the given instance and returns the result.
+   * Dataset is set to null.
+   *
+   * @param inst the instance to be merged with this one
+   * @return the merged instances
+   */
+  @Override
+  public Instance mergeInstance(Instance inst) {
+
+    float[] values = new float[numValues() + inst.numValues()];
+    int[] indices = new int[numValues() + inst.numValues()];
+
+    int m = 0;
+    for (int j = 0; j < numValues(); j++, m++) {
+      values[m] = m_FloatValues[j];
+      indices[m] = m_Indices[j];
+    }
+    for (int j = 0; j < inst.numValues(); j++) {
+      float value = (float) inst.valueSparse(j);
+      if (value != 0) {
+        values[m] = value;
+        indices[m] = numAttributes() + inst.index(j);
+        m++;
+      }
+    }
+
+    if (m != values.length) {
+      // Need to truncate
+      float[] newVals = new float[m];
+      int[] newInd = new int[m];
+      System.arraycopy(values, 0, newVals, 0, m);
+      System.arraycopy(indices, 0, newInd, 0, m);
+      values = newVals;
+      indices = newInd;
+    }
+    return new FloatSparseInstance(1.0, values, indices, numAttributes()
+      + inst.numAttributes());
+  }
+
+  /**
+   * Replaces all missing values in the instance with the values contained in
+   * the given array, narrowed to floats. A deep copy of the vector of
+   * attribute values is performed before the values are replaced.
+   *
+   * @param array containing the means and modes
+   * @throws IllegalArgumentException if numbers of attributes are unequal
+   */
+  @Override
+  public void replaceMissingValues(double[] array) {
+
+    widen();
+    super.replaceMissingValues(array);
+    narrow();
+  }
+
+  /**
+   * Sets a specific value in the instance to the given value, narrowed to a
+   * float. Performs a deep copy of the vector of attribute values before the
+   * value is set.
+   *
+   * @param attIndex the attribute's index
+   * @param value the new attribute value (If the corresponding attribute is
+   *          nominal (or a string) then this is the new value's index as a
+   *          double).
+   */
+  @Override
+  public void setValue(int attIndex, double value) {
+
+    widen();
+    super.setValue(attIndex, (float) value);
+    narrow();
+  }
+
+  /**
+   * Sets a specific value in the instance to the given value, narrowed to a
+   * float. Performs a deep copy of the vector of attribute values before the
+   * value is set.
+   *
+   * @param indexOfIndex the index of the attribute's index
+   * @param value the new attribute value (If the corresponding attribute is
+   *          nominal (or a string) then this is the new value's index as a
+   *          double).
+   */
+  @Override
+  public void setValueSparse(int indexOfIndex, double value) {
+
+    widen();
+    super.setValueSparse(indexOfIndex, (float) value);
+    narrow();
+  }
+
+  /**
+   * Returns the values of each attribute widened to an array of doubles.
+   *
+   * @return an array containing all the instance attribute values
+   */
+  @Override
+  public double[] toDoubleArray() {
+
+    double[] newValues = new double[m_NumAttributes];
+    for (int i = 0; i < m_FloatValues.length; i++) {
+      newValues[m_Indices[i]] = m_FloatValues[i];
+    }
+    return newValues;
+  }
+
+  /**
+   * Returns an instance's attribute value in internal format.
+   *
+   * @param attIndex the attribute's index
+   * @return the specified value widened to a double (If the corresponding
+   *         attribute is nominal (or a string) then it returns the value's
+   *         index as a double).
+   */
+  @Override
+  public double value(int attIndex) {
+
+    int index = locateIndex(attIndex);
+    if ((index >= 0) && (m_Indices[index] == attIndex)) {
+      return m_FloatValues[index];
+    } else {
+      return 0.0;
+    }
+  }
+
+  /**
+   * Returns an instance's attribute value in internal format, given an index in
+   * the sparse representation.
+   *
+   * @param indexOfIndex the index of the attribute's index
+   * @return the specified value widened to a double (If the corresponding
+   *         attribute is nominal (or a string) then it returns the value's
+   *         index as a double).
+   */
+  @Override
+  public double valueSparse(int indexOfIndex) {
+
+    return m_FloatValues[indexOfIndex];
+  }
+
+  /**
+   * Deletes an attribute at the given position (0 to numAttributes() - 1).
+   *
+   * @param position the attribute's position
+   */
+  @Override
+  protected void forceDeleteAttributeAt(int position) {
+
+    widen();
+    super.forceDeleteAttributeAt(position);
+    narrow();
+  }
+
+  /**
+   * Inserts an attribute at the given position (0 to numAttributes()) and sets
+   * its value to be missing.
+   *
+   * @param position the attribute's position
+   */
+  @Override
+  protected void forceInsertAttributeAt(int position) {
+
+    widen();
+    super.forceInsertAttributeAt(position);
+    narrow();
+  }
+
+  /**
+   * Widens the stored values into the double vector that the methods of
+   * SparseInstance work on.
+   */
+  private void widen() {
+
+    m_AttValues = new double[m_FloatValues.length];
+    for (int i = 0; i < m_FloatValues.length; i++) {
+      m_AttValues[i] = m_FloatValues[i];
+    }
+  }
+
+  /**
+   * Narrows the double vector left by a method of SparseInstance back into the
+   * stored values and drops it.
+   */
+  private void narrow() {
+
+    m_FloatValues = FloatDenseInstance.narrow(m_AttValues);
+    m_AttValues = null;
+  }
+
+  /**
+   * Returns the revision string.
+   *
+   * @return the revision
+   */
+  @Override
+  public String getRevision() {
+    return RevisionUtils.extract("$Revision$");
+  }
+}
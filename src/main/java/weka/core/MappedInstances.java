@@ -0,0 +1,994 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    MappedInstances.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.core;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Enumeration;
+
+import weka.core.converters.ArffLoader.ArffReader;
+
+/**
+ * Read-only set of instances backed by a binary column file that is mapped
+ * into memory rather than read into the heap. Opening a dataset takes
+ * constant time whatever its size, datasets larger than the heap can be
+ * used, and the operating system shares the pages between all JVMs that map
+ * the same file.
+ * <p>
+ *
+ * The file holds the header in ARFF format followed by one fixed-width column
+ * per attribute and a column of weights, all little-endian:
+ *
+ * <pre>
+ * magic "WEKABCOL", int version, int header length, long number of rows
+ * the ARFF header, UTF-8
+ * per attribute: nominal values as ints (-1 for missing), other values as
+ *   doubles (NaN for missing)
+ * the weights as doubles
+ * </pre>
+ *
+ * Each column starts at a multiple of 8 bytes. Only numeric, date and nominal
+ * attributes can be stored.
+ * <p>
+ *
+ * The instances returned by instance(), get(), the iterator and the
+ * enumeration are read-only views of a row; use copy() to get a modifiable
+ * DenseInstance. The methods that would change the instances throw an
+ * UnsupportedOperationException, so copy the dataset with new
+ * Instances(data) or new ColumnarInstances(data) first to modify it.
+ *
+ * @version $Revision$
+ */
+public class MappedInstances extends Instances {
+
+  /** for serialization */
+  private static final long serialVersionUID = 7094458427516393853L;
+
+  /** the file extension of binary column files */
+  public final static String FILE_EXTENSION = ".bcol";
+
+  /** the bytes at the start of every binary column file */
+  protected final static byte[] MAGIC = "WEKABCOL"
+    .getBytes(StandardCharsets.US_ASCII);
+
+  /** the version of the format */
+  protected final static int VERSION = 1;
+
+  /** the size of the fixed part of the file before the ARFF header */
+  protected final static int PREFIX_SIZE = 24;
+
+  /** log2 of the size of the segments the file is mapped in */
+  protected final static int SEGMENT_BITS = 30;
+
+  /** the file */
+  protected File m_File;
+
+  /** the number of rows */
+  protected int m_NumRows;
+
+  /** the position of each attribute's column in the file */
+  protected long[] m_Offsets;
+
+  /** whether each attribute's column holds ints rather than doubles */
+  protected boolean[] m_IntColumn;
+
+  /** the position of the column of weights in the file */
+  protected long m_WeightsOffset;
+
+  /** the mapped file, in segments of 2^SEGMENT_BITS bytes */
+  protected transient ByteBuffer[] m_Segments;
+
+  /**
+   * Maps a binary column file.
+   *
+   * @param file the file
+   * @throws IOException if the file cannot be read or is not a binary column
+   *           file
+   */
+  public MappedInstances(File file) throws IOException {
+
+    this(file, readPrefix(file));
+  }
+
+  /**
+   * Maps a binary column file whose header has been read.
+   *
+   * @param file the file
+   * @param prefix the part of the file before the columns
+   * @throws IOException if the file cannot be mapped
+   */
+  protected MappedInstances(File file, Prefix prefix) throws IOException {
+
+    super(prefix.m_Structure, 0);
+
+    m_File = file;
+    m_NumRows = prefix.m_NumRows;
+    m_IntColumn = intColumns(this);
+    m_Offsets = new long[numAttributes()];
+    long offset = prefix.m_DataStart;
+    for (int j = 0; j < m_Offsets.length; j++) {
+      m_Offsets[j] = offset;
+      offset = align((m_IntColumn[j] ? 4L : 8L) * m_NumRows + offset);
+    }
+    m_WeightsOffset = offset;
+    map(offset + 8L * m_NumRows);
+  }
+
+  /**
+   * The part of a binary column file before the columns.
+   */
+  protected static class Prefix {
+
+    /** the structure of the instances */
+    protected Instances m_Structure;
+
+    /** the number of rows */
+    protected int m_NumRows;
+
+    /** the position of the first column in the file */
+    protected long m_DataStart;
+  }
+
+  /**
+   * Reads the part of a binary column file before the columns.
+   *
+   * @param file the file
+   * @return the part read
+   * @throws IOException if the file cannot be read or is not a binary column
+   *           file
+   */
+  protected static Prefix readPrefix(File file) throws IOException {
+
+    RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      return readPrefix(raf.getChannel());
+    } finally {
+      raf.close();
+    }
+  }
+
+  /**
+   * Reads the part of a binary column file before the columns.
+   *
+   * @param channel the channel to read from, positioned at the start of the
+   *          file; on return it is positioned at the first column
+   * @return the part read
+   * @throws IOException if the data cannot be read or is not a binary column
+   *           file
+   */
+  protected static Prefix readPrefix(ReadableByteChannel channel)
+    throws IOException {
+
+    ByteBuffer prefix = readFully(channel, PREFIX_SIZE);
+    byte[] magic = new byte[MAGIC.length];
+    prefix.get(magic);
+    if (!Arrays.equals(magic, MAGIC)) {
+      throw new IOException("Not a binary column file");
+    }
+    int version = prefix.getInt();
+    if (version != VERSION) {
+      throw new IOException("Unsupported binary column file version "
+        + version);
+    }
+    int headerLength = prefix.getInt();
+    long numRows = prefix.getLong();
+    if ((headerLength < 0) || (numRows < 0) || (numRows > Integer.MAX_VALUE)) {
+      throw new IOException("Corrupt binary column file");
+    }
+
+    ByteBuffer header = readFully(channel, headerLength);
+    String arff = new String(header.array(), StandardCharsets.UTF_8);
+
+    Prefix result = new Prefix();
+    result.m_Structure = new ArffReader(new StringReader(arff), 0)
+      .getStructure();
+    result.m_NumRows = (int) numRows;
+    result.m_DataStart = align(PREFIX_SIZE + headerLength);
+    readFully(channel, (int) (result.m_DataStart - PREFIX_SIZE - headerLength));
+
+    return result;
+  }
+
+  /**
+   * Reads a number of bytes.
+   *
+   * @param channel the channel to read from
+   * @param length the number of bytes
+   * @return the bytes, in a little-endian buffer positioned at the start
+   * @throws IOException if the bytes cannot be read
+   */
+  protected static ByteBuffer readFully(ReadableByteChannel channel,
+    int length) throws IOException {
+
+    ByteBuffer buffer = ByteBuffer.allocate(length).order(
+      ByteOrder.LITTLE_ENDIAN);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        throw new EOFException("Binary column file is truncated");
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * Rounds a position up to a multiple of 8.
+   *
+   * @param position the position
+   * @return the rounded position
+   */
+  protected static long align(long position) {
+
+    return (position + 7) & ~7L;
+  }
+
+  /**
+   * Returns which attributes are stored as ints, i.e. the nominal ones.
+   *
+   * @param structure the structure
+   * @return true for each attribute stored as ints
+   * @throws IOException if an attribute cannot be stored
+   */
+  protected static boolean[] intColumns(Instances structure)
+    throws IOException {
+
+    boolean[] result = new boolean[structure.numAttributes()];
+    for (int j = 0; j < result.length; j++) {
+      Attribute att = structure.attribute(j);
+      if (att.isString() || att.isRelationValued()) {
+        throw new IOException("Attribute '" + att.name()
+          + "' cannot be stored in a binary column file: only numeric,"
+          + " date and nominal attributes are supported");
+      }
+      result[j] = att.isNominal();
+    }
+    return result;
+  }
+
+  /**
+   * Maps the file.
+   *
+   * @param length the length of the data in the file
+   * @throws IOException if the file is too short or cannot be mapped
+   */
+  protected void map(long length) throws IOException {
+
+    RandomAccessFile raf = new RandomAccessFile(m_File, "r");
+    try {
+      FileChannel channel = raf.getChannel();
+      if (channel.size() < length) {
+        throw new EOFException("Binary column file is truncated");
+      }
+      long segmentSize = 1L << SEGMENT_BITS;
+      m_Segments = new ByteBuffer[(int) ((length + segmentSize - 1) >>> SEGMENT_BITS)];
+      for (int s = 0; s < m_Segments.length; s++) {
+        long start = (long) s << SEGMENT_BITS;
+        m_Segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+          Math.min(segmentSize, length - start)).order(ByteOrder.LITTLE_ENDIAN);
+      }
+    } finally {
+      // the mapping stays valid after the file is closed
+      raf.close();
+    }
+  }
+
+  /**
+   * Maps the file again after deserialization.
+   *
+   * @param in the stream to read from
+   * @throws IOException if the file cannot be mapped
+   * @throws ClassNotFoundException if a class cannot be found
+   */
+  private void readObject(ObjectInputStream in) throws IOException,
+    ClassNotFoundException {
+
+    in.defaultReadObject();
+    map(m_WeightsOffset + 8L * m_NumRows);
+  }
+
+  /**
+   * Returns the file the instances are mapped from.
+   *
+   * @return the file
+   */
+  public File getFile() {
+
+    return m_File;
+  }
+
+  /**
+   * Returns a value without creating a view of its row.
+   *
+   * @param row the instance's index (index starts with 0)
+   * @param attIndex the attribute's index (index starts with 0)
+   * @return the value, missing if it is missing
+   */
+  public double value(int row, int attIndex) {
+
+    if (m_IntColumn[attIndex]) {
+      int value = getInt(m_Offsets[attIndex] + 4L * row);
+      return (value < 0) ? Utils.missingValue() : value;
+    } else {
+      return getDouble(m_Offsets[attIndex] + 8L * row);
+    }
+  }
+
+  /**
+   * Returns the weight of an instance without creating a view of its row.
+   *
+   * @param row the instance's index (index starts with 0)
+   * @return the weight
+   */
+  public double weight(int row) {
+
+    return getDouble(m_WeightsOffset + 8L * row);
+  }
+
+  /**
+   * Reads an int. Columns start at multiples of 8 bytes, so no value spans
+   * two segments.
+   *
+   * @param position the position in the file
+   * @return the int
+   */
+  protected int getInt(long position) {
+
+    return m_Segments[(int) (position >>> SEGMENT_BITS)].getInt(
+      (int) (position & ((1L << SEGMENT_BITS) - 1)));
+  }
+
+  /**
+   * Reads a double.
+   *
+   * @param position the position in the file
+   * @return the double
+   */
+  protected double getDouble(long position) {
+
+    return m_Segments[(int) (position >>> SEGMENT_BITS)].getDouble(
+      (int) (position & ((1L << SEGMENT_BITS) - 1)));
+  }
+
+  /**
+   * Writes instances in the binary column format.
+   *
+   * @param data the instances
+   * @param out the stream to write to, not closed
+   * @throws IOException if the instances cannot be written, e.g. because
+   *           they have string or relational attributes
+   */
+  public static void write(Instances data, OutputStream out)
+    throws IOException {
+
+    boolean[] intColumn = intColumns(data);
+    int numRows = data.numInstances();
+    byte[] header = new Instances(data, 0).toString().getBytes(
+      StandardCharsets.UTF_8);
+
+    BlockWriter writer = new BlockWriter(Channels.newChannel(out));
+    writer.put(MAGIC);
+    writer.putInt(VERSION);
+    writer.putInt(header.length);
+    writer.putLong(numRows);
+    writer.put(header);
+    writer.align();
+    for (int j = 0; j < intColumn.length; j++) {
+      if (data instanceof ColumnarInstances && !intColumn[j]) {
+        double[] column = data.attributeToDoubleArray(j);
+        for (int i = 0; i < numRows; i++) {
+          writer.putDouble(column[i]);
+        }
+      } else {
+        for (int i = 0; i < numRows; i++) {
+          double value = data.instance(i).value(j);
+          if (!intColumn[j]) {
+            writer.putDouble(value);
+          } else {
+            writer.putInt(Utils.isMissingValue(value) ? -1 : (int) value);
+          }
+        }
+      }
+      writer.align();
+    }
+    for (int i = 0; i < numRows; i++) {
+      writer.putDouble(data.instance(i).weight());
+    }
+    writer.flush();
+  }
+
+  /**
+   * Reads instances in the binary column format from a stream into the heap,
+   * for sources that cannot be mapped.
+   *
+   * @param in the stream to read from, not closed
+   * @return the instances
+   * @throws IOException if the data cannot be read or is not a binary column
+   *           file
+   */
+  public static ColumnarInstances read(InputStream in) throws IOException {
+
+    ReadableByteChannel channel = Channels.newChannel(in);
+    Prefix prefix = readPrefix(channel);
+    int numRows = prefix.m_NumRows;
+    ColumnarInstances result = new ColumnarInstances(prefix.m_Structure,
+      numRows);
+    boolean[] intColumn = intColumns(result);
+
+    for (int j = 0; j <= intColumn.length; j++) {
+      boolean ints = (j < intColumn.length) && intColumn[j];
+      double[] column = (j < intColumn.length) ? result.m_Columns[j]
+        : result.m_Weights;
+      int width = ints ? 4 : 8;
+      for (int i = 0; i < numRows;) {
+        int chunk = Math.min(numRows - i, 8192);
+        ByteBuffer buffer = readFully(channel, chunk * width);
+        for (int end = i + chunk; i < end; i++) {
+          if (ints) {
+            int value = buffer.getInt();
+            column[i] = (value < 0) ? Utils.missingValue() : value;
+          } else {
+            column[i] = buffer.getDouble();
+          }
+        }
+      }
+      long length = (long) width * numRows;
+      readFully(channel, (int) (align(length) - length));
+    }
+    result.appendStoredRows(numRows);
+
+    return result;
+  }
+
+  /**
+   * Buffers little-endian output to a channel.
+   */
+  protected static class BlockWriter {
+
+    /** the channel to write to */
+    protected WritableByteChannel m_Channel;
+
+    /** the buffer */
+    protected ByteBuffer m_Buffer = ByteBuffer.allocate(1 << 16).order(
+      ByteOrder.LITTLE_ENDIAN);
+
+    /** the number of bytes written so far, including the buffered ones */
+    protected long m_Position;
+
+    /**
+     * Constructor.
+     *
+     * @param channel the channel to write to
+     */
+    protected BlockWriter(WritableByteChannel channel) {
+
+      m_Channel = channel;
+    }
+
+    /**
+     * Makes room in the buffer.
+     *
+     * @param bytes the number of bytes needed
+     * @throws IOException if the buffer cannot be written
+     */
+    protected void ensure(int bytes) throws IOException {
+
+      if (m_Buffer.remaining() < bytes) {
+        flush();
+      }
+    }
+
+    /**
+     * Writes the buffered bytes to the channel.
+     *
+     * @throws IOException if the bytes cannot be written
+     */
+    protected void flush() throws IOException {
+
+      m_Buffer.flip();
+      while (m_Buffer.hasRemaining()) {
+        m_Channel.write(m_Buffer);
+      }
+      m_Buffer.clear();
+    }
+
+    /**
+     * Writes bytes.
+     *
+     * @param bytes the bytes
+     * @throws IOException if the bytes cannot be written
+     */
+    protected void put(byte[] bytes) throws IOException {
+
+      for (int offset = 0; offset < bytes.length;) {
+        ensure(1);
+        int length = Math.min(m_Buffer.remaining(), bytes.length - offset);
+        m_Buffer.put(bytes, offset, length);
+        offset += length;
+      }
+      m_Position += bytes.length;
+    }
+
+    /**
+     * Writes an int.
+     *
+     * @param value the int
+     * @throws IOException if the int cannot be written
+     */
+    protected void putInt(int value) throws IOException {
+
+      ensure(4);
+      m_Buffer.putInt(value);
+      m_Position += 4;
+    }
+
+    /**
+     * Writes a long.
+     *
+     * @param value the long
+     * @throws IOException if the long cannot be written
+     */
+    protected void putLong(long value) throws IOException {
+
+      ensure(8);
+      m_Buffer.putLong(value);
+      m_Position += 8;
+    }
+
+    /**
+     * Writes a double.
+     *
+     * @param value the double
+     * @throws IOException if the double cannot be written
+     */
+    protected void putDouble(double value) throws IOException {
+
+      ensure(8);
+      m_Buffer.putDouble(value);
+      m_Position += 8;
+    }
+
+    /**
+     * Pads the output with zeros up to a multiple of 8 bytes.
+     *
+     * @throws IOException if the padding cannot be written
+     */
+    protected void align() throws IOException {
+
+      put(new byte[(int) (MappedInstances.align(m_Position) - m_Position)]);
+    }
+  }
+
+  /**
+   * Throws the exception for methods that would modify the instances.
+   *
+   * @return never returns
+   */
+  protected UnsupportedOperationException readOnly() {
+
+    return new UnsupportedOperationException(
+      "Mapped instances are read-only, copy them first");
+  }
+
+  @Override
+  public boolean add(Instance instance) {
+    throw readOnly();
+  }
+
+  @Override
+  public void add(int index, Instance instance) {
+    throw readOnly();
+  }
+
+  @Override
+  public Instance set(int index, Instance instance) {
+    throw readOnly();
+  }
+
+  @Override
+  public void compactify() {
+  }
+
+  @Override
+  public void delete() {
+    throw readOnly();
+  }
+
+  @Override
+  public void delete(int index) {
+    throw readOnly();
+  }
+
+  @Override
+  public Instance remove(int index) {
+    throw readOnly();
+  }
+
+  @Override
+  public void deleteWithMissing(int attIndex) {
+    throw readOnly();
+  }
+
+  @Override
+  public void deleteAttributeAt(int position) {
+    throw readOnly();
+  }
+
+  @Override
+  public void insertAttributeAt(Attribute att, int position) {
+    throw readOnly();
+  }
+
+  @Override
+  public void replaceAttributeAt(Attribute att, int position) {
+    throw readOnly();
+  }
+
+  @Override
+  public void swap(int i, int j) {
+    throw readOnly();
+  }
+
+  @Override
+  protected void sortBasedOnNominalAttribute(int attIndex) {
+    throw readOnly();
+  }
+
+  @Override
+  public void sort(int attIndex) {
+    throw readOnly();
+  }
+
+  @Override
+  public void stableSort(int attIndex) {
+    throw readOnly();
+  }
+
+  @Override
+  protected void stratStep(int numFolds) {
+    throw readOnly();
+  }
+
+  /**
+   * Returns an enumeration of all instances in the dataset.
+   *
+   * @return enumeration of all instances in the dataset
+   */
+  @Override
+  public Enumeration<Instance> enumerateInstances() {
+
+    return new WekaEnumeration<Instance>(this);
+  }
+
+  /**
+   * Returns a view of the first instance in the set.
+   *
+   * @return the first instance in the set
+   */
+  @Override
+  public Instance firstInstance() {
+
+    return instance(0);
+  }
+
+  /**
+   * Returns a view of the last instance in the set.
+   *
+   * @return the last instance in the set
+   */
+  @Override
+  public Instance lastInstance() {
+
+    return instance(m_NumRows - 1);
+  }
+
+  /**
+   * Returns a view of the instance at the given position.
+   *
+   * @param index the instance's index (index starts with 0)
+   * @return the instance at the given position
+   */
+  @Override
+  public Instance instance(int index) {
+
+    if ((index < 0) || (index >= m_NumRows)) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: "
+        + m_NumRows);
+    }
+    return new MappedRow(this, index);
+  }
+
+  /**
+   * Returns a view of the instance at the given position.
+   *
+   * @param index the instance's index (index starts with 0)
+   * @return the instance at the given position
+   */
+  @Override
+  public Instance get(int index) {
+
+    return instance(index);
+  }
+
+  /**
+   * Returns the number of instances in the dataset.
+   *
+   * @return the number of instances in the dataset as an integer
+   */
+  @Override
+  public int numInstances() {
+
+    return m_NumRows;
+  }
+
+  /**
+   * Returns the number of instances in the dataset.
+   *
+   * @return the number of instances in the dataset as an integer
+   */
+  @Override
+  public int size() {
+
+    return m_NumRows;
+  }
+
+  /**
+   * Gets the value of all instances in this dataset for a particular attribute.
+   *
+   * @param index the index of the attribute.
+   * @return an array containing the value of the desired attribute for each
+   *         instance in the dataset.
+   */
+  @Override
+  public double[] attributeToDoubleArray(int index) {
+
+    double[] result = new double[m_NumRows];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = value(i, index);
+    }
+    return result;
+  }
+
+  /**
+   * Computes the sum of all the instances' weights.
+   *
+   * @return the sum of all the instances' weights as a double
+   */
+  @Override
+  public double sumOfWeights() {
+
+    double sum = 0;
+    for (int i = 0; i < m_NumRows; i++) {
+      sum += weight(i);
+    }
+    return sum;
+  }
+
+  /**
+   * Returns the revision string.
+   *
+   * @return the revision
+   */
+  @Override
+  public String getRevision() {
+    return RevisionUtils.extract("$Revision$");
+  }
+
+  /**
+   * Read-only view of a row of a MappedInstances dataset. Copies are
+   * DenseInstance objects, and so is what gets serialized.
+   */
+  protected static class MappedRow extends AbstractInstance {
+
+    /** for serialization */
+    private static final long serialVersionUID = -5524300411848155213L;
+
+    /** the dataset holding the values */
+    protected MappedInstances m_Store;
+
+    /** the row */
+    protected int m_Row;
+
+    /**
+     * Constructor.
+     *
+     * @param store the dataset holding the values
+     * @param row the row
+     */
+    protected MappedRow(MappedInstances store, int row) {
+
+      m_Store = store;
+      m_Row = row;
+      m_Dataset = store;
+      m_Weight = store.weight(row);
+    }
+
+    /**
+     * Produces a DenseInstance with the values and weight of the row. The copy
+     * has access to the same dataset.
+     *
+     * @return the copy
+     */
+    @Override
+    public Object copy() {
+
+      return copy(toDoubleArray());
+    }
+
+    /**
+     * Produces a DenseInstance with the weight of the row and the given
+     * values. The copy has access to the same dataset.
+     *
+     * @param values the array with new values
+     * @return the new instance
+     */
+    @Override
+    public Instance copy(double[] values) {
+
+      DenseInstance result = new DenseInstance(weight(), values);
+      result.setDataset(m_Dataset);
+      return result;
+    }
+
+    /**
+     * Replaces the view by a copy when serialized, so that the dataset is not
+     * serialized with it.
+     *
+     * @return the copy
+     * @throws ObjectStreamException never
+     */
+    protected Object writeReplace() throws ObjectStreamException {
+
+      return copy();
+    }
+
+    @Override
+    public int index(int position) {
+
+      return position;
+    }
+
+    @Override
+    public Instance mergeInstance(Instance inst) {
+
+      return new DenseInstance(1.0, toDoubleArray()).mergeInstance(inst);
+    }
+
+    @Override
+    public int numAttributes() {
+
+      return m_Store.m_Offsets.length;
+    }
+
+    @Override
+    public int numValues() {
+
+      return m_Store.m_Offsets.length;
+    }
+
+    @Override
+    public void replaceMissingValues(double[] array) {
+
+      throw m_Store.readOnly();
+    }
+
+    @Override
+    public void setValue(int attIndex, double value) {
+
+      throw m_Store.readOnly();
+    }
+
+    @Override
+    public void setValueSparse(int indexOfIndex, double value) {
+
+      throw m_Store.readOnly();
+    }
+
+    /**
+     * Refuses to change the weight.
+     *
+     * @param weight the new weight
+     */
+    @Override
+    void storeWeight(double weight) {
+
+      throw m_Store.readOnly();
+    }
+
+    @Override
+    public double[] toDoubleArray() {
+
+      double[] values = new double[numAttributes()];
+      for (int j = 0; j < values.length; j++) {
+        values[j] = m_Store.value(m_Row, j);
+      }
+      return values;
+    }
+
+    @Override
+    public String toStringNoWeight() {
+
+      return toStringNoWeight(AbstractInstance.s_numericAfterDecimalPoint);
+    }
+
+    @Override
+    public String toStringNoWeight(int afterDecimalPoint) {
+
+      StringBuffer text = new StringBuffer();
+      for (int j = 0; j < numAttributes(); j++) {
+        if (j > 0) {
+          text.append(",");
+        }
+        text.append(toString(j, afterDecimalPoint));
+      }
+      return text.toString();
+    }
+
+    @Override
+    public double value(int attIndex) {
+
+      return m_Store.value(m_Row, attIndex);
+    }
+
+    @Override
+    public double valueSparse(int indexOfIndex) {
+
+      return value(indexOfIndex);
+    }
+
+    @Override
+    protected void forceDeleteAttributeAt(int position) {
+
+      throw m_Store.readOnly();
+    }
+
+    @Override
+    protected void forceInsertAttributeAt(int position) {
+
+      throw m_Store.readOnly();
+    }
+
+    /**
+     * Returns the revision string.
+     *
+     * @return the revision
+     */
+    @Override
+    public String getRevision() {
+      return RevisionUtils.extract("$Revision$");
+    }
+  }
+}
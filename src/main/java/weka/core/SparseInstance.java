@@ -61,7 +61,7 @@ public class SparseInstance extends AbstractInstance {
     m_Dataset = null;
     m_NumAttributes = instance.numAttributes();
     if (instance instanceof SparseInstance) {
-      m_AttValues = ((SparseInstance) instance).m_AttValues;
+      m_AttValues = ((SparseInstance) instance).sparseValues();
       m_Indices = ((SparseInstance) instance).m_Indices;
     } else {
       double[] tempValues = new double[instance.numAttributes()];
@@ -90,7 +90,7 @@ public class SparseInstance extends AbstractInstance {
    */
   public SparseInstance(SparseInstance instance) {
 
-    m_AttValues = instance.m_AttValues;
+    m_AttValues = instance.sparseValues();
     m_Indices = instance.m_Indices;
     m_Weight = instance.m_Weight;
     m_NumAttributes = instance.m_NumAttributes;
@@ -484,7 +484,7 @@ public class SparseInstance extends AbstractInstance {
 
         // Get the actual attribute value
         if (sparseIndex < m_Indices.length && m_Indices[sparseIndex] == i) {
-          value = m_AttValues[sparseIndex++];
+          value = valueSparse(sparseIndex++);
           if (Utils.isMissingValue(value)) {
             text.append(prefix).append(i).append(" ?");
             continue;
@@ -622,6 +622,24 @@ public class SparseInstance extends AbstractInstance {
     }
   }
 
+  /**
+   * Returns the stored values as doubles. Subclasses that do not keep them in
+   * m_AttValues get a new array filled from valueSparse().
+   * 
+   * @return the stored values, one for each index
+   */
+  protected double[] sparseValues() {
+
+    if (m_AttValues != null) {
+      return m_AttValues;
+    }
+    double[] values = new double[m_Indices.length];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = valueSparse(i);
+    }
+    return values;
+  }
+
   /**
    * Constructor for sub classes.
    */
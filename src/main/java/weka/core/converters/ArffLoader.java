@@ -30,6 +30,8 @@ import java.io.Reader;
 import java.io.StreamTokenizer;
 import java.io.StringReader;
 import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.List;
@@ -79,6 +81,15 @@ public class ArffLoader extends AbstractFileLoader implements BatchConverter,
    */
   protected boolean m_retainStringVals;
 
+  /** Whether to read the data of uncompressed files with a FastArffReader */
+  protected boolean m_useFastParser;
+
+  /** the number of threads used by the fast parser */
+  protected int m_executionSlots = 1;
+
+  /** the uncompressed source file, null if reading from a stream */
+  protected File m_channelFile = null;
+
   /**
    * Reads data from an ARFF file, either in incremental or batch mode.
    * <p/>
@@ -1100,6 +1111,66 @@ public class ArffLoader extends AbstractFileLoader implements BatchConverter,
     return m_retainStringVals;
   }
 
+  /**
+   * Tool tip text for this property
+   * 
+   * @return the tool tip for this property
+   */
+  public String useFastParserTipText() {
+    return "If true then the data of uncompressed files is parsed at the byte "
+      + "level when reading in batch mode, which is considerably faster. "
+      + "Text following an instance on its line is an error in this mode.";
+  }
+
+  /**
+   * Set whether to parse the data of uncompressed files at the byte level when
+   * reading in batch mode.
+   * 
+   * @param useFastParser true if the data is to be read with a FastArffReader
+   */
+  public void setUseFastParser(boolean useFastParser) {
+    m_useFastParser = useFastParser;
+  }
+
+  /**
+   * Get whether to parse the data of uncompressed files at the byte level when
+   * reading in batch mode.
+   * 
+   * @return true if the data is to be read with a FastArffReader
+   */
+  public boolean getUseFastParser() {
+    return m_useFastParser;
+  }
+
+  /**
+   * Tool tip text for this property
+   * 
+   * @return the tool tip for this property
+   */
+  public String numExecutionSlotsTipText() {
+    return "The number of execution slots (threads) the fast parser uses to "
+      + "read chunks of the data in parallel. Data with string or relational "
+      + "attributes is read by a single thread.";
+  }
+
+  /**
+   * Set the degree of parallelism to use.
+   * 
+   * @param slots the number of chunks of the data to read in parallel
+   */
+  public void setNumExecutionSlots(int slots) {
+    m_executionSlots = slots;
+  }
+
+  /**
+   * Get the degree of parallelism to use.
+   * 
+   * @return the number of chunks of the data to read in parallel
+   */
+  public int getNumExecutionSlots() {
+    return m_executionSlots;
+  }
+
   /**
    * Get the file extension used for arff files
    * 
@@ -1189,6 +1260,31 @@ public class ArffLoader extends AbstractFileLoader implements BatchConverter,
     setSource(file);
   }
 
+  /**
+   * Resets the Loader object and sets the source of the data set to be the
+   * supplied File object. Uncompressed files are remembered, so that their
+   * data can be read through a FileChannel.
+   * 
+   * @param file the source file.
+   * @throws IOException if an error occurs
+   */
+  @Override
+  public void setSource(File file) throws IOException {
+
+    super.setSource(file);
+
+    String path = m_sourceFile.getPath();
+    try {
+      path = m_env.substitute(path);
+    } catch (Exception e) {
+      // ignored, as by the superclass
+    }
+    File resolved = new File(path);
+    if (resolved.isFile() && !path.endsWith(FILE_EXTENSION_COMPRESSED)) {
+      m_channelFile = resolved;
+    }
+  }
+
   /**
    * Set the url to load from
    * 
@@ -1222,6 +1318,7 @@ public class ArffLoader extends AbstractFileLoader implements BatchConverter,
   public void setSource(InputStream in) throws IOException {
     m_File = (new File(System.getProperty("user.dir"))).getAbsolutePath();
     m_URL = "http://";
+    m_channelFile = null;
 
     m_sourceReader = new BufferedReader(new InputStreamReader(in));
   }
@@ -1281,10 +1378,27 @@ public class ArffLoader extends AbstractFileLoader implements BatchConverter,
       }
 
       // Read all instances
-      insts = new Instances(m_structure, 0);
-      Instance inst;
-      while ((inst = m_ArffReader.readInstance(m_structure)) != null) {
-        insts.add(inst);
+      if (m_useFastParser && (m_channelFile != null)
+        && FastArffReader.canRead(m_structure)) {
+        m_sourceReader.close();
+        FileChannel channel =
+          FileChannel.open(m_channelFile.toPath(), StandardOpenOption.READ);
+        try {
+          if (m_executionSlots > 1) {
+            insts =
+              FastArffReader.readParallel(channel, m_structure, m_executionSlots);
+          } else {
+            insts = new FastArffReader(channel, m_structure).getData();
+          }
+        } finally {
+          channel.close();
+        }
+      } else {
+        insts = new Instances(m_structure, 0);
+        Instance inst;
+        while ((inst = m_ArffReader.readInstance(m_structure)) != null) {
+          insts.add(inst);
+        }
       }
 
       // Instances readIn = new Instances(m_structure);
@@ -0,0 +1,253 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    BinaryColumnLoader.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.core.converters;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.MappedInstances;
+import weka.core.RevisionUtils;
+
+/**
+ <!-- globalinfo-start -->
+ * Reads a binary column file, as written by the BinaryColumnSaver. Files are mapped into memory rather than read into the heap, so that they open instantly, can be larger than the heap and are shared between JVMs; the instances are read-only. Compressed files and other streams are read into the heap.
+ * <p/>
+ <!-- globalinfo-end -->
+ * 
+ * @version $Revision$
+ * @see Loader
+ * @see MappedInstances
+ */
+public class BinaryColumnLoader 
+  extends AbstractFileLoader 
+  implements BatchConverter, IncrementalConverter {
+
+  /** for serialization */
+  static final long serialVersionUID = -3361203560950766546L;
+  
+  /** the file extension */
+  public static String FILE_EXTENSION = MappedInstances.FILE_EXTENSION;
+  
+  /** the file to map, null if reading from a stream */
+  protected File m_MappedFile = null;
+
+  /** the stream to read from if not mapping a file */
+  protected transient InputStream m_Stream = null;
+
+  /** the data set, once read */
+  protected Instances m_Dataset = null;
+
+  /** The current index position for incremental reading */
+  protected int m_IncrementalIndex = 0;
+  
+  /**
+   * Returns a string describing this object
+   * 
+   * @return a description of the classifier suitable for
+   * displaying in the explorer/experimenter gui
+   */
+  public String globalInfo() {
+    return "Reads a binary column file, as written by the BinaryColumnSaver. "
+      + "Files are mapped into memory rather than read into the heap, so that "
+      + "they open instantly, can be larger than the heap and are shared "
+      + "between JVMs; the instances are read-only. Compressed files and "
+      + "other streams are read into the heap.";
+  }
+
+  /** Resets the Loader ready to read a new data set */
+  public void reset() throws IOException {
+
+    super.reset();
+    m_MappedFile = null;
+    m_Stream = null;
+    m_Dataset = null;
+    m_IncrementalIndex = 0;
+  }
+  
+  /**
+   * Get the file extension used for binary column files
+   *
+   * @return the file extension
+   */
+  public String getFileExtension() {
+    return FILE_EXTENSION;
+  }
+
+  /**
+   * Gets all the file extensions used for this type of file
+   *
+   * @return the file extensions
+   */
+  public String[] getFileExtensions() {
+    return new String[]{getFileExtension()};
+  }
+
+  /**
+   * Returns a description of the file type.
+   *
+   * @return a short file description
+   */
+  public String getFileDescription() {
+    return "Binary column files";
+  }
+
+  /**
+   * Resets the Loader object and sets the source of the data set to be the
+   * supplied File object. Uncompressed files are mapped rather than read.
+   * 
+   * @param file the source file.
+   * @throws IOException if an error occurs
+   */
+  @Override
+  public void setSource(File file) throws IOException {
+
+    super.setSource(file);
+
+    String path = m_sourceFile.getPath();
+    try {
+      path = m_env.substitute(path);
+    } catch (Exception e) {
+      // ignored, as by the superclass
+    }
+    File resolved = new File(path);
+    if (resolved.isFile() && !path.endsWith(FILE_EXTENSION_COMPRESSED)) {
+      if (m_Stream != null) {
+        m_Stream.close();
+        m_Stream = null;
+      }
+      m_MappedFile = resolved;
+    }
+  }
+
+  /**
+   * Resets the Loader object and sets the source of the data set to be 
+   * the supplied InputStream. The data is read into the heap.
+   *
+   * @param in the source InputStream.
+   * @throws IOException if there is a problem with IO
+   */
+  public void setSource(InputStream in) throws IOException {
+
+    m_MappedFile = null;
+    m_Dataset = null;
+    m_IncrementalIndex = 0;
+    m_Stream = in;
+  }
+
+  /**
+   * Maps or reads the data set, if not done yet.
+   *
+   * @throws IOException if there is no source or the data cannot be read
+   */
+  protected void readData() throws IOException {
+
+    if (m_Dataset != null) {
+      return;
+    }
+    if (m_MappedFile != null) {
+      m_Dataset = new MappedInstances(m_MappedFile);
+    } else if (m_Stream != null) {
+      try {
+        m_Dataset = MappedInstances.read(new BufferedInputStream(m_Stream));
+      } finally {
+        m_Stream.close();
+        m_Stream = null;
+      }
+    } else {
+      throw new IOException("No source has been specified");
+    }
+  }
+
+  /**
+   * Determines and returns (if possible) the structure (internally the 
+   * header) of the data set as an empty set of instances.
+   *
+   * @return the structure of the data set as an empty set of Instances
+   * @throws IOException if an error occurs
+   */
+  public Instances getStructure() throws IOException {
+
+    readData();
+
+    return new Instances(m_Dataset, 0);
+  }
+
+  /**
+   * Return the full data set: read-only MappedInstances when reading from a
+   * file, ColumnarInstances otherwise.
+   *
+   * @return the data set
+   * @throws IOException if there is no source or the data cannot be read
+   */
+  public Instances getDataSet() throws IOException {
+
+    readData();
+
+    return m_Dataset;
+  }
+
+  /**
+   * Read the data set incrementally---get the next instance in the data 
+   * set or returns null if there are no
+   * more instances to get.
+   *
+   * @param structure the dataset header information, will get updated in 
+   * case of string or relational attributes
+   * @return a copy of the next instance in the data set or null if there
+   * are no more instances to be read
+   * @throws IOException if there is an error during parsing
+   */
+  public Instance getNextInstance(Instances structure) throws IOException {
+
+    readData();
+
+    if (m_IncrementalIndex == m_Dataset.numInstances()) {
+      return null;
+    }
+
+    Instance result = (Instance) m_Dataset.instance(m_IncrementalIndex++).copy();
+    result.setDataset(structure);
+    return result;
+  }
+  
+  /**
+   * Returns the revision string.
+   * 
+   * @return		the revision
+   */
+  public String getRevision() {
+    return RevisionUtils.extract("$Revision$");
+  }
+
+  /**
+   * Main method.
+   *
+   * @param args should contain the name of an input file.
+   */
+  public static void main(String[] args) {
+    runFileLoader(new BinaryColumnLoader(), args);
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    BinaryColumnSaver.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.core.converters;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import weka.core.Capabilities;
+import weka.core.Capabilities.Capability;
+import weka.core.MappedInstances;
+import weka.core.RevisionUtils;
+import weka.core.WeightedInstancesHandler;
+
+/**
+ <!-- globalinfo-start -->
+ * Writes the instances to a binary column file (extension bcol): the ARFF header followed by one fixed-width column per attribute. Such files can be mapped into memory by the BinaryColumnLoader instead of being read into the heap. Only numeric, date and nominal attributes are supported.
+ * <p/>
+ <!-- globalinfo-end -->
+ *
+ <!-- options-start -->
+ * Valid options are: <p/>
+ * 
+ * <pre> -i &lt;the input file&gt;
+ * The input file</pre>
+ * 
+ * <pre> -o &lt;the output file&gt;
+ * The output file</pre>
+ * 
+ <!-- options-end -->
+ *
+ * @version $Revision$
+ * @see Saver
+ * @see MappedInstances
+ */
+public class BinaryColumnSaver 
+  extends AbstractFileSaver 
+  implements BatchConverter, WeightedInstancesHandler {
+
+  /** for serialization. */
+  static final long serialVersionUID = 4196323451397853411L;
+  
+  /** the output stream. */
+  protected OutputStream m_Output;
+  
+  /** Constructor. */  
+  public BinaryColumnSaver() {
+    resetOptions();
+  }
+    
+  /**
+   * Returns a string describing this Saver.
+   * 
+   * @return a description of the Saver suitable for
+   * displaying in the explorer/experimenter gui
+   */
+  public String globalInfo() {
+    return "Writes the instances to a binary column file (extension bcol): "
+      + "the ARFF header followed by one fixed-width column per attribute. "
+      + "Such files can be mapped into memory by the BinaryColumnLoader "
+      + "instead of being read into the heap. Only numeric, date and nominal "
+      + "attributes are supported.";
+  }
+ 
+  /**
+   * Returns a description of the file type.
+   *
+   * @return a short file description
+   */
+  public String getFileDescription() {
+    return "Binary column files";
+  }
+
+  /**
+   * Resets the Saver.
+   */
+  public void resetOptions() {
+
+    super.resetOptions();
+    setFileExtension(MappedInstances.FILE_EXTENSION);
+  }
+
+  /** 
+   * Returns the Capabilities of this saver.
+   *
+   * @return            the capabilities of this object
+   * @see               Capabilities
+   */
+  public Capabilities getCapabilities() {
+    Capabilities result = super.getCapabilities();
+    
+    // attributes
+    result.enable(Capability.NOMINAL_ATTRIBUTES);
+    result.enable(Capability.NUMERIC_ATTRIBUTES);
+    result.enable(Capability.DATE_ATTRIBUTES);
+    result.enable(Capability.MISSING_VALUES);
+    
+    // class
+    result.enable(Capability.NOMINAL_CLASS);
+    result.enable(Capability.NUMERIC_CLASS);
+    result.enable(Capability.DATE_CLASS);
+    result.enable(Capability.MISSING_CLASS_VALUES);
+    result.enable(Capability.NO_CLASS);
+    
+    return result;
+  }
+  
+  /**
+   * Resets the writer, setting the output stream to null.
+   */  
+  public void resetWriter() {
+    super.resetWriter();
+    
+    m_Output = null;
+  }
+  
+  /**
+   * Sets the destination output stream.
+   * 
+   * @param output the output stream.
+   * @throws IOException throws an IOException if destination cannot be set
+   */
+  public void setDestination(OutputStream output) throws IOException {
+    super.setDestination(output);
+    
+    m_Output = new BufferedOutputStream(output);
+  }
+  
+  /** 
+   * Writes a Batch of instances.
+   * 
+   * @throws IOException throws IOException if saving in batch mode is not possible
+   */
+  public void writeBatch() throws IOException {
+    if (getRetrieval() == INCREMENTAL)
+      throw new IOException("Batch and incremental saving cannot be mixed.");
+    
+    if (getInstances() == null)
+      throw new IOException("No instances to save");
+    
+    setRetrieval(BATCH);
+    
+    if (m_Output == null)
+      throw new IOException("No output for the binary column file.");
+
+    setWriteMode(WRITE);
+    MappedInstances.write(getInstances(), m_Output);
+    m_Output.flush();
+    m_Output.close();
+    setWriteMode(WAIT);
+    resetWriter();
+    setWriteMode(CANCEL);
+  }
+  
+  /**
+   * Returns the revision string.
+   * 
+   * @return		the revision
+   */
+  public String getRevision() {
+    return RevisionUtils.extract("$Revision$");
+  }
+
+  /**
+   * Main method.
+   *
+   * @param args should contain the options of a Saver.
+   */
+  public static void main(String[] args) {
+    runFileSaver(new BinaryColumnSaver(), args);
+  }
+}
@@ -34,6 +34,8 @@ import java.io.Reader;
 import java.io.StreamTokenizer;
 import java.io.StringReader;
 import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -43,6 +45,11 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import weka.core.Attribute;
 import weka.core.DenseInstance;
@@ -56,7 +63,7 @@ import weka.core.converters.ArffLoader.ArffReader;
 
 /**
  <!-- globalinfo-start -->
- * Reads a source that is in comma separated format (the default). One can also change the column separator from comma to tab or another character, specify string enclosures, specify whether aheader row is present or not and specify which attributes are to beforced to be nominal or date. Can operate in batch or incremental mode. In batch mode, a buffer is used to process a fixed number of rows in memory at any one time and the data is dumped to a temporary file. This allows the legal values for nominal attributes to be automatically determined. The final ARFF file is produced in a second pass over the temporary file using the structure determined on the first pass. In incremental mode, the first buffer full of rows is used to determine the structure automatically. Following this all rows are read and output incrementally. An error will occur if a row containing nominal values not seen in the initial buffer is encountered. In this case, the size of the initial buffer can be increased, or the user can explicitly provide the legal values of all nominal attributes using the -L (setNominalLabelSpecs) option.
+ * Reads a source that is in comma separated format (the default). One can also change the column separator from comma to tab or another character, specify string enclosures, specify whether aheader row is present or not and specify which attributes are to beforced to be nominal or date. Can operate in batch or incremental mode. In batch mode, a buffer is used to process a fixed number of rows in memory at any one time and the data is dumped to a temporary file. This allows the legal values for nominal attributes to be automatically determined. The final ARFF file is produced in a second pass over the temporary file using the structure determined on the first pass. In incremental mode, the first buffer full of rows is used to determine the structure automatically. Following this all rows are read and output incrementally. An error will occur if a row containing nominal values not seen in the initial buffer is encountered. In this case, the size of the initial buffer can be increased, or the user can explicitly provide the legal values of all nominal attributes using the -L (setNominalLabelSpecs) option. Uncompressed files can be read in batch mode by several threads, each handling a chunk of the rows (-num-slots).
  * <p/>
  <!-- globalinfo-end -->
  * 
@@ -124,6 +131,11 @@ import weka.core.converters.ArffLoader.ArffReader;
  *  The size of the in memory buffer (in rows).
  *  (default: 100)</pre>
  * 
+ * <pre> -num-slots &lt;num&gt;
+ *  The number of execution slots (threads) to use for
+ *  reading uncompressed files in batch mode.
+ *  (default: 1)</pre>
+ * 
  <!-- options-end -->
  * 
  * @author Mark Hall (mhall{[at]}pentaho{[dot]}com)
@@ -203,6 +215,12 @@ public class CSVLoader extends AbstractFileLoader implements BatchConverter,
   protected TYPE[] m_types;
   private int m_numBufferedRows;
 
+  /** the number of threads to read the chunks of a file with */
+  protected int m_executionSlots = 1;
+
+  /** the uncompressed source file, null if reading from a stream */
+  protected File m_channelFile = null;
+
   /**
    * default constructor.
    */
@@ -243,7 +261,8 @@ public class CSVLoader extends AbstractFileLoader implements BatchConverter,
       + "seen in the initial buffer is encountered. In this case, the size of the "
       + "initial buffer can be increased, or the user can explicitly provide the "
       + "legal values of all nominal attributes using the -L (setNominalLabelSpecs) "
-      + "option.";
+      + "option. Uncompressed files can be read in batch mode by several threads, "
+      + "each handling a chunk of the rows (-num-slots).";
   }
 
   @Override
@@ -560,6 +579,37 @@ public class CSVLoader extends AbstractFileLoader implements BatchConverter,
     return "The number of rows to process in memory at any one time.";
   }
 
+  /**
+   * Returns the tip text for this property.
+   *
+   * @return tip text for this property suitable for displaying in the
+   *         explorer/experimenter gui
+   */
+  public String numExecutionSlotsTipText() {
+    return "The number of execution slots (threads) to use for reading "
+      + "uncompressed files in batch mode. The rows are split into chunks "
+      + "that are read in parallel. Set equal to the number of available "
+      + "cpu/cores";
+  }
+
+  /**
+   * Set the degree of parallelism to use.
+   *
+   * @param slots the number of chunks of the file to read in parallel
+   */
+  public void setNumExecutionSlots(int slots) {
+    m_executionSlots = slots;
+  }
+
+  /**
+   * Get the degree of parallelism to use.
+   *
+   * @return the number of chunks of the file to read in parallel
+   */
+  public int getNumExecutionSlots() {
+    return m_executionSlots;
+  }
+
   /**
    * Get label specifications for nominal attributes.
    *
@@ -666,6 +716,11 @@ public class CSVLoader extends AbstractFileLoader implements BatchConverter,
     result.add(new Option("\tThe size of the in memory buffer (in rows).\n"
       + "\t(default: 100)", "B", 1, "-B <num>"));
 
+    result.add(new Option(
+      "\tThe number of execution slots (threads) to use for\n"
+        + "\treading uncompressed files in batch mode.\n" + "\t(default: 1)",
+      "num-slots", 1, "-num-slots <num>"));
+
     return result.elements();
   }
 
@@ -701,6 +756,9 @@ public class CSVLoader extends AbstractFileLoader implements BatchConverter,
     result.add("-B");
     result.add("" + getBufferSize());
 
+    result.add("-num-slots");
+    result.add("" + getNumExecutionSlots());
+
     result.add("-E");
     result.add(getEnclosureCharacters());
 
@@ -772,6 +830,13 @@ public class CSVLoader extends AbstractFileLoader implements BatchConverter,
       setBufferSize(buff);
     }
 
+    tmpStr = Utils.getOption("num-slots", options);
+    if (tmpStr.length() > 0) {
+      setNumExecutionSlots(Integer.parseInt(tmpStr));
+    } else {
+      setNumExecutionSlots(1);
+    }
+
     tmpStr = Utils.getOption("E", options);
     if (tmpStr.length() > 0) {
       setEnclosureCharacters(tmpStr);
@@ -877,6 +942,11 @@ public class CSVLoader extends AbstractFileLoader implements BatchConverter,
       getStructure();
     }
 
+    if ((m_executionSlots > 1) && (m_channelFile != null)
+      && FastArffReader.canRead(m_structure)) {
+      return readDataParallel();
+    }
+
     while (readData(true)) {
       ;
     }
@@ -939,6 +1009,7 @@ public class CSVLoader extends AbstractFileLoader implements BatchConverter,
     m_structure = null;
     m_sourceFile = null;
     m_File = null;
+    m_channelFile = null;
 
     m_sourceReader = new BufferedReader(new InputStreamReader(input));
   }
@@ -953,6 +1024,17 @@ public class CSVLoader extends AbstractFileLoader implements BatchConverter,
   @Override
   public void setSource(File file) throws IOException {
     super.setSource(file);
+
+    String path = m_sourceFile.getPath();
+    try {
+      path = m_env.substitute(path);
+    } catch (Exception e) {
+      // ignored, as by the superclass
+    }
+    File resolved = new File(path);
+    if (resolved.isFile() && !path.endsWith(FILE_EXTENSION_COMPRESSED)) {
+      m_channelFile = resolved;
+    }
   }
 
   @Override
@@ -1214,6 +1296,208 @@ public class CSVLoader extends AbstractFileLoader implements BatchConverter,
     makeStructure();
   }
 
+  /**
+   * Reads all rows of the source file in chunks, using the given number of
+   * threads. Each chunk is checked and dumped to its own temporary file,
+   * starting from the types determined by the first buffer. The types and
+   * nominal values of the chunks are then merged in order. A chunk is read
+   * again if its types depend on the rows before it, i.e. if it found a
+   * number first in a column that an earlier chunk found to be nominal.
+   * Finally, the temporary files are read in parallel using the merged
+   * structure, and the results are joined in order.
+   *
+   * @return the data set
+   * @throws IOException if a row cannot be read
+   */
+  protected Instances readDataParallel() throws IOException {
+    // the rows are read again from the file, including the first buffer
+    m_dataDumper.close();
+    m_dataDumper = null;
+    m_tempFile.delete();
+    m_sourceReader.close();
+
+    final FileChannel channel =
+      FileChannel.open(m_channelFile.toPath(), StandardOpenOption.READ);
+    ExecutorService pool = Executors.newFixedThreadPool(m_executionSlots);
+    List<CSVLoader> chunks = new ArrayList<CSVLoader>();
+    try {
+      long end = channel.size();
+      long start =
+        m_noHeaderRow ? 0 : FastArffReader.nextLineStart(channel, 0, end);
+      int numChunks =
+        (int) Math.max(1, Math.min(m_executionSlots, (end - start)
+          / FastArffReader.MIN_CHUNK_SIZE));
+      final long[] bounds =
+        FastArffReader.splitLines(channel, start, end, numChunks);
+      final TYPE[] types = m_types.clone();
+
+      List<Future<CSVLoader>> checked = new ArrayList<Future<CSVLoader>>();
+      for (int i = 0; i < numChunks; i++) {
+        final int index = i;
+        checked.add(pool.submit(new Callable<CSVLoader>() {
+          @Override
+          public CSVLoader call() throws IOException {
+            return readChunk(channel, bounds[index], bounds[index + 1],
+              types.clone(), 0);
+          }
+        }));
+      }
+
+      int rows = 1;
+      for (int i = 0; i < numChunks; i++) {
+        CSVLoader chunk = null;
+        try {
+          chunk = checked.get(i).get();
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof IOException) {
+            // read the chunk again, to report the error with its line in the
+            // file rather than in the chunk
+            readChunk(channel, bounds[i], bounds[i + 1], m_types.clone(), rows);
+            throw (IOException) e.getCause();
+          }
+          throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+        if (!mergeTypes(chunk)) {
+          chunk.m_tempFile.delete();
+          chunk = readChunk(channel, bounds[i], bounds[i + 1], m_types.clone(),
+            0);
+          mergeTypes(chunk);
+        }
+        rows += chunk.m_rowCount;
+        chunks.add(chunk);
+      }
+
+      // make final structure
+      makeStructure();
+
+      final Instances structure = m_structure;
+      List<Future<Instances>> parsed = new ArrayList<Future<Instances>>();
+      for (final CSVLoader chunk : chunks) {
+        parsed.add(pool.submit(new Callable<Instances>() {
+          @Override
+          public Instances call() throws IOException {
+            Reader sr = new BufferedReader(new FileReader(chunk.m_tempFile));
+            try {
+              return new ArffReader(sr,
+                FastArffReader.chunkStructure(structure), 0,
+                m_fieldSeparatorAndEnclosures).getData();
+            } finally {
+              sr.close();
+            }
+          }
+        }));
+      }
+
+      List<Instances> data = new ArrayList<Instances>();
+      for (Future<Instances> f : parsed) {
+        try {
+          data.add(f.get());
+        } catch (ExecutionException e) {
+          throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+      }
+
+      return FastArffReader.merge(m_structure, data);
+    } finally {
+      pool.shutdownNow();
+      channel.close();
+      for (CSVLoader chunk : chunks) {
+        chunk.m_tempFile.delete();
+      }
+    }
+  }
+
+  /**
+   * Checks the rows in a part of the source file and dumps them to a
+   * temporary file, determining the types and nominal values of the part.
+   *
+   * @param channel the channel of the source file
+   * @param start the start of the part, the start of a row
+   * @param end the end of the part, the end of a row
+   * @param types the types to start with
+   * @param rows the number of rows before the part
+   * @return a loader holding the types, nominal values and temporary file of
+   *         the part
+   * @throws IOException if a row cannot be read
+   */
+  protected CSVLoader readChunk(FileChannel channel, long start, long end,
+    TYPE[] types, int rows) throws IOException {
+
+    CSVLoader chunk = new CSVLoader();
+    chunk.m_FieldSeparator = m_FieldSeparator;
+    chunk.m_MissingValue = m_MissingValue;
+    chunk.m_Enclosures = m_Enclosures;
+    chunk.m_structure = m_structure;
+    chunk.m_types = types;
+    chunk.m_nominalVals = new HashMap<Integer, LinkedHashSet<String>>();
+    for (int i = 0; i < types.length; i++) {
+      if (types[i] == TYPE.NOMINAL) {
+        chunk.m_nominalVals.put(i, new LinkedHashSet<String>());
+      }
+    }
+    chunk.m_current = new ArrayList<Object>();
+    chunk.m_rowCount = rows;
+    chunk.openTempFiles();
+
+    Reader reader =
+      new BufferedReader(new InputStreamReader(
+        new FastArffReader.RangeInputStream(channel, start, end)));
+    try {
+      StreamTokenizer tokenizer = new StreamTokenizer(reader);
+      chunk.initTokenizer(tokenizer);
+      tokenizer.ordinaryChar(m_FieldSeparator.charAt(0));
+      String row;
+      while ((row = chunk.getInstance(tokenizer)) != null) {
+        chunk.dumpRow(row);
+      }
+    } finally {
+      reader.close();
+      chunk.m_dataDumper.close();
+    }
+
+    return chunk;
+  }
+
+  /**
+   * Merges the types and nominal values of a chunk into the ones determined
+   * so far, as if its rows had been read after the ones before it.
+   *
+   * @param chunk the chunk, read with the types of the first buffer
+   * @return false if the chunk has to be read again with the types
+   *         determined so far, because it found a number first in a column
+   *         that is nominal
+   */
+  protected boolean mergeTypes(CSVLoader chunk) {
+    for (int i = 0; i < m_types.length; i++) {
+      if ((m_types[i] == TYPE.NOMINAL)
+        && ((chunk.m_types[i] == TYPE.NUMERIC) || (chunk.m_types[i] == TYPE.STRING))) {
+        return false;
+      }
+    }
+
+    for (int i = 0; i < m_types.length; i++) {
+      TYPE type = chunk.m_types[i];
+      if (m_types[i] == TYPE.UNDETERMINED) {
+        m_types[i] = type;
+        if (type == TYPE.NOMINAL) {
+          m_nominalVals.put(i,
+            new LinkedHashSet<String>(chunk.m_nominalVals.get(i)));
+        }
+      } else if (m_types[i] == TYPE.NUMERIC) {
+        if ((type == TYPE.NOMINAL) || (type == TYPE.STRING)) {
+          m_types[i] = TYPE.STRING;
+        }
+      } else if ((m_types[i] == TYPE.NOMINAL) && (type == TYPE.NOMINAL)) {
+        m_nominalVals.get(i).addAll(chunk.m_nominalVals.get(i));
+      }
+    }
+    return true;
+  }
+
   protected void openTempFiles() throws IOException {
     String tempPrefix = "" + Math.random() + "arffOut";
     m_tempFile = File.createTempFile(tempPrefix, null);
@@ -0,0 +1,1193 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ *    FastArffReader.java
+ *    Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ *
+ */
+
+package weka.core.converters;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.RevisionHandler;
+import weka.core.RevisionUtils;
+import weka.core.SparseInstance;
+import weka.core.Utils;
+
+/**
+ * Reads the data section of an ARFF file at the byte level, as a faster
+ * alternative to the StreamTokenizer used by ArffLoader.ArffReader. The file
+ * is read through a FileChannel into a large window, tokens are located in
+ * the window without creating strings, numbers are parsed by hand and
+ * nominal labels are looked up in a hash table of their bytes. Each dense
+ * row is parsed straight into the value array of its instance.
+ * <p/>
+ *
+ * The header has to be read by an ArffReader first. The data accepted and
+ * the values produced are the same as for an ArffReader in batch mode, with
+ * one difference: text following the values (and the weight) of an instance
+ * on its line is an error, rather than the start of the next instance. Since
+ * an instance never spans lines, the window always holds whole lines.
+ * <p/>
+ *
+ * Typical code:
+ *
+ * <pre>
+ * FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+ * Instances data = new FastArffReader(channel, structure).getData();
+ * </pre>
+ *
+ * The data can also be read in parallel, by splitting it into chunks of whole
+ * lines that are read by separate readers and merged in order afterwards (see
+ * <code>readParallel()</code>).
+ * <p/>
+ *
+ * @version $Revision$
+ * @see ArffLoader.ArffReader
+ */
+public class FastArffReader implements RevisionHandler {
+
+  /** the initial size of the window, grown for longer lines */
+  public static final int WINDOW_SIZE = 1 << 22;
+
+  /** token type of the end of the line */
+  protected static final int TT_EOL = -1;
+
+  /** token type of an unquoted word */
+  protected static final int TT_WORD = -2;
+
+  /** token type of a quoted string */
+  protected static final int TT_QUOTED = -3;
+
+  /** the smallest amount of data (in bytes) worth a chunk of its own */
+  public static final int MIN_CHUNK_SIZE = 1 << 20;
+
+  /** the largest power of ten that is exactly representable as a double */
+  protected static final int MAX_EXACT_POWER = 22;
+
+  /** the exactly representable powers of ten */
+  protected static final double[] POWERS_OF_TEN = new double[MAX_EXACT_POWER + 1];
+
+  /** which bytes separate tokens (whitespace and commas) */
+  protected static final boolean[] SEPARATOR = new boolean[256];
+
+  /** which bytes can be part of an unquoted word */
+  protected static final boolean[] WORD = new boolean[256];
+
+  static {
+    POWERS_OF_TEN[0] = 1;
+    for (int i = 1; i <= MAX_EXACT_POWER; i++) {
+      POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+    }
+    for (int b = 0; b < 256; b++) {
+      SEPARATOR[b] = (b <= ' ') || (b == ',');
+      WORD[b] = !SEPARATOR[b] && (b != '%') && (b != '\'') && (b != '"')
+        && (b != '{') && (b != '}');
+    }
+  }
+
+  /** the channel to read from */
+  protected FileChannel m_Channel;
+
+  /** the position in the channel to read from next */
+  protected long m_ChannelPos;
+
+  /** the position in the channel to stop reading at */
+  protected long m_End;
+
+  /** the charset of the file */
+  protected Charset m_Charset;
+
+  /** the window onto the file */
+  protected byte[] m_Buffer;
+
+  /** the number of valid bytes in the window */
+  protected int m_Limit;
+
+  /** whether the window holds the end of the data */
+  protected boolean m_EOF;
+
+  /** the start of the unread part of the window */
+  protected int m_Pos;
+
+  /** the position up to which the window has been searched for a line end */
+  protected int m_Scan;
+
+  /** whether a line feed following the last carriage return is to be skipped */
+  protected boolean m_SkipLF;
+
+  /** the start of the current line */
+  protected int m_LineStart;
+
+  /** the end of the current line (exclusive) */
+  protected int m_LineEnd;
+
+  /** the number of the current line */
+  protected int m_Lines;
+
+  /** the position of the next token in the current line */
+  protected int m_Cursor;
+
+  /** the start of the current token */
+  protected int m_TokStart;
+
+  /** the end of the current token (exclusive) */
+  protected int m_TokEnd;
+
+  /** whether the current quoted token contains escapes */
+  protected boolean m_TokEscaped;
+
+  /** the data read so far */
+  protected Instances m_Data;
+
+  /** the type of each attribute */
+  protected int[] m_Types;
+
+  /** the labels of each nominal attribute */
+  protected NominalIndex[] m_Labels;
+
+  /** Buffer of values for sparse instance */
+  protected double[] m_ValueBuffer;
+
+  /** Buffer of indices for sparse instance */
+  protected int[] m_IndicesBuffer;
+
+  /**
+   * Looks up the index of a nominal label from its bytes, by open addressing.
+   */
+  protected static class NominalIndex {
+
+    /** the index of the label in each slot plus one, 0 for an empty slot */
+    protected int[] m_Slots;
+
+    /** the bytes of each label */
+    protected byte[][] m_Keys;
+
+    /** the number of slots minus one */
+    protected int m_Mask;
+
+    /**
+     * Builds the index for an attribute.
+     *
+     * @param att the nominal attribute
+     * @param charset the charset the labels are encoded in
+     */
+    public NominalIndex(Attribute att, Charset charset) {
+      int size = Integer.highestOneBit(Math.max(att.numValues(), 1) * 2) * 2;
+      m_Slots = new int[size];
+      m_Mask = size - 1;
+      m_Keys = new byte[att.numValues()][];
+      for (int i = 0; i < att.numValues(); i++) {
+        m_Keys[i] = att.value(i).getBytes(charset);
+        int slot = hash(m_Keys[i], 0, m_Keys[i].length) & m_Mask;
+        while (m_Slots[slot] != 0) {
+          slot = (slot + 1) & m_Mask;
+        }
+        m_Slots[slot] = i + 1;
+      }
+    }
+
+    /**
+     * Hashes a range of bytes (FNV-1a).
+     *
+     * @param bytes the bytes
+     * @param start the start of the range
+     * @param end the end of the range (exclusive)
+     * @return the hash
+     */
+    protected static int hash(byte[] bytes, int start, int end) {
+      int h = 0x811C9DC5;
+      for (int i = start; i < end; i++) {
+        h = (h ^ bytes[i]) * 0x01000193;
+      }
+      return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the index of the label given by a range of bytes.
+     *
+     * @param bytes the bytes
+     * @param start the start of the range
+     * @param end the end of the range (exclusive)
+     * @return the index of the label, -1 if not a label of the attribute
+     */
+    public int indexOf(byte[] bytes, int start, int end) {
+      int slot = hash(bytes, start, end) & m_Mask;
+      int index;
+      while ((index = m_Slots[slot]) != 0) {
+        byte[] key = m_Keys[index - 1];
+        if (key.length == end - start) {
+          int i = 0;
+          while ((i < key.length) && (key[i] == bytes[start + i])) {
+            i++;
+          }
+          if (i == key.length) {
+            return index - 1;
+          }
+        }
+        slot = (slot + 1) & m_Mask;
+      }
+      return -1;
+    }
+  }
+
+  /**
+   * Reads the data section of an ARFF file, which is found by looking for
+   * the line starting with the @data keyword. The data can be accessed via the
+   * <code>getData()</code> method.
+   *
+   * @param channel the channel of the complete file
+   * @param structure the header, as read by an ArffReader
+   * @throws IOException if the @data keyword cannot be found or reading fails
+   * @see #getData()
+   */
+  public FastArffReader(FileChannel channel, Instances structure)
+    throws IOException {
+    this(channel, structure, 0, channel.size(), 0);
+
+    if (!skipHeader()) {
+      throw new IOException("keyword " + Instances.ARFF_DATA + " expected");
+    }
+  }
+
+  /**
+   * Initializes the reader for a part of the data section, which has to start
+   * at the beginning of a line (or after the @data keyword). The data must be read via the
+   * <code>readInstance()</code> or <code>getData()</code> method.
+   *
+   * @param channel the channel to read from
+   * @param structure the header, as read by an ArffReader
+   * @param start the position of the first line to read
+   * @param end the position to stop reading at, the end of a line
+   * @param lines the number of lines before the first line to read
+   * @throws IOException if the charset is not supported
+   */
+  public FastArffReader(FileChannel channel, Instances structure, long start,
+    long end, int lines) throws IOException {
+
+    if (!canRead(structure)) {
+      throw new IOException("Charset " + Charset.defaultCharset()
+        + " is not supported");
+    }
+    m_Charset = Charset.defaultCharset();
+    m_Channel = channel;
+    m_ChannelPos = start;
+    m_End = end;
+    m_Lines = lines;
+    m_Buffer = new byte[(int) Math.max(Math.min(WINDOW_SIZE, end - start), 1024)];
+
+    m_Data = new Instances(structure, 0);
+    m_Types = new int[m_Data.numAttributes()];
+    m_Labels = new NominalIndex[m_Data.numAttributes()];
+    for (int i = 0; i < m_Types.length; i++) {
+      m_Types[i] = m_Data.attribute(i).type();
+      if (m_Types[i] == Attribute.NOMINAL) {
+        m_Labels[i] = new NominalIndex(m_Data.attribute(i), m_Charset);
+      }
+    }
+    m_ValueBuffer = new double[m_Data.numAttributes()];
+    m_IndicesBuffer = new int[m_Data.numAttributes()];
+  }
+
+  /**
+   * Returns whether data with the given header can be read at the byte level,
+   * i.e. whether the platform charset (which ArffLoader reads with) encodes
+   * all ASCII characters as single bytes that occur nowhere else.
+   *
+   * @param structure the header
+   * @return true if the data can be read
+   */
+  public static boolean canRead(Instances structure) {
+    Charset charset = Charset.defaultCharset();
+    return charset.equals(StandardCharsets.UTF_8)
+      || charset.equals(StandardCharsets.US_ASCII)
+      || charset.equals(StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * Reads a part of a FileChannel as an InputStream, without changing the
+   * position of the channel, so that several parts can be read concurrently.
+   */
+  public static class RangeInputStream extends InputStream {
+
+    /** the channel to read from */
+    protected FileChannel m_Channel;
+
+    /** the position to read from next */
+    protected long m_Position;
+
+    /** the position to stop reading at */
+    protected long m_End;
+
+    /**
+     * Initializes the stream.
+     *
+     * @param channel the channel to read from
+     * @param start the position to start reading at
+     * @param end the position to stop reading at
+     */
+    public RangeInputStream(FileChannel channel, long start, long end) {
+      m_Channel = channel;
+      m_Position = start;
+      m_End = end;
+    }
+
+    /**
+     * Reads the next byte.
+     *
+     * @return the byte, -1 at the end of the range
+     * @throws IOException if reading fails
+     */
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return (read(b, 0, 1) == 1) ? (b[0] & 0xFF) : -1;
+    }
+
+    /**
+     * Reads up to len bytes into the given array.
+     *
+     * @param b the array to read into
+     * @param off the offset in the array
+     * @param len the maximum number of bytes to read
+     * @return the number of bytes read, -1 at the end of the range
+     * @throws IOException if reading fails
+     */
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (m_Position >= m_End) {
+        return -1;
+      }
+      len = (int) Math.min(len, m_End - m_Position);
+      int read = m_Channel.read(ByteBuffer.wrap(b, off, len), m_Position);
+      if (read > 0) {
+        m_Position += read;
+      }
+      return read;
+    }
+  }
+
+  /**
+   * Returns the position in the channel of the first byte after the next line
+   * end at or after the given position. A carriage return followed by a line
+   * feed counts as one line end.
+   *
+   * @param channel the channel to search
+   * @param position the position to start searching at
+   * @param end the position to stop searching at
+   * @return the start of the next line, or end if there is none
+   * @throws IOException if reading fails
+   */
+  public static long nextLineStart(FileChannel channel, long position,
+    long end) throws IOException {
+
+    ByteBuffer buffer = ByteBuffer.allocate(8192);
+    while (position < end) {
+      buffer.clear();
+      buffer.limit((int) Math.min(buffer.capacity(), end - position));
+      int read = channel.read(buffer, position);
+      if (read <= 0) {
+        break;
+      }
+      for (int i = 0; i < read; i++) {
+        byte b = buffer.get(i);
+        if (b == '\n') {
+          return position + i + 1;
+        }
+        if (b == '\r') {
+          long next = position + i + 1;
+          if (i + 1 < read) {
+            return (buffer.get(i + 1) == '\n') ? next + 1 : next;
+          }
+          ByteBuffer lf = ByteBuffer.allocate(1);
+          if ((next < end) && (channel.read(lf, next) == 1)
+            && (lf.get(0) == '\n')) {
+            return next + 1;
+          }
+          return next;
+        }
+      }
+      position += read;
+    }
+    return end;
+  }
+
+  /**
+   * Splits a part of a channel into chunks of whole lines of about the same
+   * size. Chunks can be empty.
+   *
+   * @param channel the channel
+   * @param start the start of the part, the start of a line
+   * @param end the end of the part
+   * @param numChunks the number of chunks
+   * @return the numChunks + 1 boundaries of the chunks
+   * @throws IOException if reading fails
+   */
+  public static long[] splitLines(FileChannel channel, long start, long end,
+    int numChunks) throws IOException {
+
+    long[] bounds = new long[numChunks + 1];
+    bounds[0] = start;
+    for (int i = 1; i < numChunks; i++) {
+      long position = start + (end - start) / numChunks * i;
+      bounds[i] =
+        nextLineStart(channel, Math.max(position, bounds[i - 1]), end);
+    }
+    bounds[numChunks] = end;
+    return bounds;
+  }
+
+  /**
+   * Returns a copy of a header for reading a chunk concurrently with others.
+   * String and relational attributes are replaced by empty copies, and date
+   * attributes by copies with their own date format, as neither is thread
+   * safe.
+   *
+   * @param structure the header
+   * @return the header for the chunk
+   */
+  public static Instances chunkStructure(Instances structure) {
+    Instances result = structure.stringFreeStructure();
+    for (int i = 0; i < structure.numAttributes(); i++) {
+      Attribute att = structure.attribute(i);
+      if (att.isDate()) {
+        result.replaceAttributeAt(
+          new Attribute(att.name(), att.getDateFormat()), i);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Merges chunks read with headers from <code>chunkStructure()</code>, in
+   * order. Values of string and relational attributes are added to the
+   * attributes of the given header and re-indexed. Chunks with string or
+   * relational values must consist of dense instances.
+   *
+   * @param structure the header of the result
+   * @param chunks the chunks
+   * @return the merged data
+   */
+  public static Instances merge(Instances structure, List<Instances> chunks) {
+    int numInstances = 0;
+    for (Instances chunk : chunks) {
+      numInstances += chunk.numInstances();
+    }
+    Instances result = new Instances(structure, numInstances);
+
+    List<Integer> indexed = new ArrayList<Integer>();
+    for (int i = 0; i < structure.numAttributes(); i++) {
+      if (structure.attribute(i).isString()
+        || structure.attribute(i).isRelationValued()) {
+        indexed.add(i);
+      }
+    }
+
+    for (Instances chunk : chunks) {
+      for (int n = 0; n < chunk.numInstances(); n++) {
+        Instance inst = chunk.instance(n);
+        if (indexed.size() > 0) {
+          double[] values = inst.toDoubleArray();
+          for (int i : indexed) {
+            if (Utils.isMissingValue(values[i])) {
+              continue;
+            }
+            Attribute att = structure.attribute(i);
+            if (att.isString()) {
+              values[i] =
+                att.addStringValue(chunk.attribute(i).value((int) values[i]));
+            } else {
+              values[i] =
+                att.addRelation(chunk.attribute(i).relation((int) values[i]));
+            }
+          }
+          inst = new DenseInstance(inst.weight(), values);
+        }
+        result.add(inst);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Reads the data section of an ARFF file in chunks of whole lines, using
+   * the given number of threads, and merges them in order. The data is read
+   * by a single reader if it has string or relational attributes (whose
+   * values can be given in sparse instances, which cannot be re-indexed) or
+   * if it is too small to be worth splitting.
+   *
+   * @param channel the channel of the complete file
+   * @param structure the header, as read by an ArffReader
+   * @param numThreads the number of threads to use
+   * @return the data
+   * @throws IOException if the data is not valid or reading fails
+   */
+  public static Instances readParallel(final FileChannel channel,
+    final Instances structure, int numThreads) throws IOException {
+
+    FastArffReader first = new FastArffReader(channel, structure);
+    long start = first.getPosition();
+    long end = channel.size();
+
+    int numChunks =
+      (int) Math.max(1, Math.min(numThreads, (end - start) / MIN_CHUNK_SIZE));
+    for (int i = 0; i < structure.numAttributes(); i++) {
+      if (structure.attribute(i).isString()
+        || structure.attribute(i).isRelationValued()) {
+        numChunks = 1;
+      }
+    }
+    if (numChunks == 1) {
+      return first.getData();
+    }
+
+    long[] bounds = splitLines(channel, start, end, numChunks);
+    ExecutorService pool = Executors.newFixedThreadPool(numChunks);
+    try {
+      List<Future<FastArffReader>> results =
+        new ArrayList<Future<FastArffReader>>();
+      for (int i = 0; i < numChunks; i++) {
+        final long from = bounds[i];
+        final long to = bounds[i + 1];
+        results.add(pool.submit(new Callable<FastArffReader>() {
+          @Override
+          public FastArffReader call() throws IOException {
+            FastArffReader reader =
+              new FastArffReader(channel, chunkStructure(structure), from, to, 0);
+            reader.getData();
+            return reader;
+          }
+        }));
+      }
+
+      List<Instances> chunks = new ArrayList<Instances>();
+      int lines = first.getLineNo();
+      for (int i = 0; i < numChunks; i++) {
+        FastArffReader reader = null;
+        try {
+          reader = results.get(i).get();
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof IOException) {
+            // read the chunk again, to report the error with its line in the
+            // file rather than in the chunk
+            new FastArffReader(channel, chunkStructure(structure), bounds[i],
+              bounds[i + 1], lines).getData();
+            throw (IOException) e.getCause();
+          }
+          throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+          throw new IOException(e);
+        }
+        lines += reader.getLineNo();
+        chunks.add(reader.m_Data);
+      }
+
+      return merge(structure, chunks);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Returns the position in the channel of the first byte that has not been
+   * read yet.
+   *
+   * @return the position
+   */
+  public long getPosition() {
+    return m_ChannelPos - (m_Limit - m_Pos);
+  }
+
+  /**
+   * Throws error message with line number and current token.
+   *
+   * @param msg the error message to be thrown
+   * @throws IOException containing the error message
+   */
+  protected void errorMessage(String msg) throws IOException {
+    throw new IOException(msg + ", read " + tokenString() + ", line "
+      + getLineNo());
+  }
+
+  /**
+   * returns the current line number
+   *
+   * @return the current line number
+   */
+  public int getLineNo() {
+    return m_Lines;
+  }
+
+  /**
+   * Moves the unread part of the window to its start and reads more of the
+   * channel after it, growing the window if it is full.
+   *
+   * @throws IOException if reading fails
+   */
+  protected void fill() throws IOException {
+    if (m_Pos > 0) {
+      System.arraycopy(m_Buffer, m_Pos, m_Buffer, 0, m_Limit - m_Pos);
+      m_Limit -= m_Pos;
+      m_Scan -= m_Pos;
+      m_Pos = 0;
+    }
+    if (m_Limit == m_Buffer.length) {
+      byte[] buffer = new byte[m_Buffer.length * 2];
+      System.arraycopy(m_Buffer, 0, buffer, 0, m_Limit);
+      m_Buffer = buffer;
+    }
+
+    int length = (int) Math.min(m_Buffer.length - m_Limit, m_End - m_ChannelPos);
+    int read = 0;
+    if (length > 0) {
+      read = m_Channel.read(ByteBuffer.wrap(m_Buffer, m_Limit, length),
+        m_ChannelPos);
+    }
+    if (read <= 0) {
+      m_EOF = true;
+    } else {
+      m_ChannelPos += read;
+      m_Limit += read;
+      m_EOF = (m_ChannelPos >= m_End);
+    }
+  }
+
+  /**
+   * Makes the next line the current one. A line ends with a line feed, a
+   * carriage return or both.
+   *
+   * @return false if there are no more lines
+   * @throws IOException if reading fails
+   */
+  protected boolean nextLine() throws IOException {
+    if (m_SkipLF) {
+      if ((m_Pos == m_Limit) && !m_EOF) {
+        fill();
+      }
+      if ((m_Pos < m_Limit) && (m_Buffer[m_Pos] == '\n')) {
+        m_Pos++;
+      }
+      m_SkipLF = false;
+    }
+    if (m_Scan < m_Pos) {
+      m_Scan = m_Pos;
+    }
+
+    while (true) {
+      byte[] buffer = m_Buffer;
+      for (int i = m_Scan; i < m_Limit; i++) {
+        byte b = buffer[i];
+        if ((b == '\n') || (b == '\r')) {
+          m_LineStart = m_Pos;
+          m_LineEnd = i;
+          m_Pos = i + 1;
+          m_Scan = m_Pos;
+          m_SkipLF = (b == '\r');
+          m_Lines++;
+          return true;
+        }
+      }
+      m_Scan = m_Limit;
+      if (m_EOF) {
+        if (m_Pos < m_Limit) {
+          m_LineStart = m_Pos;
+          m_LineEnd = m_Limit;
+          m_Pos = m_Limit;
+          m_Lines++;
+          return true;
+        }
+        return false;
+      }
+      fill();
+    }
+  }
+
+  /**
+   * Skips the header, up to and including the @data keyword at the start of
+   * a line. Anything following the keyword on its line is read as data.
+   *
+   * @return true if the keyword was found
+   * @throws IOException if reading fails
+   */
+  protected boolean skipHeader() throws IOException {
+    String keyword = Instances.ARFF_DATA;
+
+    while (nextLine()) {
+      int p = m_LineStart;
+      while ((p < m_LineEnd) && SEPARATOR[m_Buffer[p] & 0xFF]) {
+        p++;
+      }
+      int end = p + keyword.length();
+      if ((end > m_LineEnd) || ((end < m_LineEnd) && WORD[m_Buffer[end] & 0xFF])) {
+        continue;
+      }
+      int i = 0;
+      while ((i < keyword.length())
+        && (Character.toLowerCase((char) m_Buffer[p + i]) == keyword.charAt(i))) {
+        i++;
+      }
+      if (i == keyword.length()) {
+        // read the rest of the line again
+        m_Pos = end;
+        m_Scan = end;
+        m_SkipLF = false;
+        m_Lines--;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Locates the next token in the current line.
+   *
+   * @return the type of the token: TT_EOL, TT_WORD, TT_QUOTED, '{' or '}'
+   * @throws IOException if a quoted string is continued on the next line
+   */
+  protected int nextToken() throws IOException {
+    byte[] buffer = m_Buffer;
+    int end = m_LineEnd;
+    int p = m_Cursor;
+
+    while ((p < end) && SEPARATOR[buffer[p] & 0xFF]) {
+      p++;
+    }
+    if ((p == end) || (buffer[p] == '%')) {
+      m_TokStart = m_TokEnd = m_Cursor = end;
+      return TT_EOL;
+    }
+
+    byte b = buffer[p];
+    if ((b == '{') || (b == '}')) {
+      m_TokStart = p;
+      m_TokEnd = m_Cursor = p + 1;
+      return b;
+    }
+
+    if ((b == '\'') || (b == '"')) {
+      int i = p + 1;
+      m_TokEscaped = false;
+      while ((i < end) && (buffer[i] != b)) {
+        if (buffer[i] == '\\') {
+          m_TokEscaped = true;
+          if (i + 1 == end) {
+            m_TokStart = p;
+            m_TokEnd = end;
+            errorMessage("quoted string continued on next line");
+          }
+          i += 2;
+        } else {
+          i++;
+        }
+      }
+      m_TokStart = p + 1;
+      m_TokEnd = Math.min(i, end);
+      m_Cursor = (i < end) ? i + 1 : end;
+      return TT_QUOTED;
+    }
+
+    int i = p + 1;
+    while ((i < end) && WORD[buffer[i] & 0xFF]) {
+      i++;
+    }
+    m_TokStart = p;
+    m_TokEnd = m_Cursor = i;
+    m_TokEscaped = false;
+    return TT_WORD;
+  }
+
+  /**
+   * Returns the current token as a string, with escapes in quoted strings
+   * resolved the way StreamTokenizer does.
+   *
+   * @return the token
+   */
+  protected String tokenString() {
+    String token =
+      new String(m_Buffer, m_TokStart, m_TokEnd - m_TokStart, m_Charset);
+    if (!m_TokEscaped) {
+      return token;
+    }
+
+    StringBuilder result = new StringBuilder(token.length());
+    for (int i = 0; i < token.length(); i++) {
+      char c = token.charAt(i);
+      if ((c != '\\') || (i + 1 == token.length())) {
+        result.append(c);
+        continue;
+      }
+      c = token.charAt(++i);
+      if ((c >= '0') && (c <= '7')) {
+        int first = c;
+        int value = c - '0';
+        if ((i + 1 < token.length()) && (token.charAt(i + 1) >= '0')
+          && (token.charAt(i + 1) <= '7')) {
+          value = (value << 3) + (token.charAt(++i) - '0');
+          if ((first <= '3') && (i + 1 < token.length())
+            && (token.charAt(i + 1) >= '0') && (token.charAt(i + 1) <= '7')) {
+            value = (value << 3) + (token.charAt(++i) - '0');
+          }
+        }
+        result.append((char) value);
+      } else {
+        switch (c) {
+        case 'a':
+          c = 0x7;
+          break;
+        case 'b':
+          c = '\b';
+          break;
+        case 'f':
+          c = 0xC;
+          break;
+        case 'n':
+          c = '\n';
+          break;
+        case 'r':
+          c = '\r';
+          break;
+        case 't':
+          c = '\t';
+          break;
+        case 'v':
+          c = 0xB;
+          break;
+        }
+        result.append(c);
+      }
+    }
+    return result.toString();
+  }
+
+  /**
+   * Parses the current token as a number. Decimal numbers of at most 15
+   * significant digits whose power of ten is exactly representable are
+   * computed directly, which rounds correctly as both operands are exact.
+   * Anything else is left to Double.valueOf().
+   *
+   * @return the number
+   * @throws IOException if the token is not a number
+   */
+  protected double parseNumber() throws IOException {
+    byte[] buffer = m_Buffer;
+    int p = m_TokStart;
+    int end = m_TokEnd;
+
+    if (!m_TokEscaped && (p < end)) {
+      boolean negative = (buffer[p] == '-');
+      if (negative || (buffer[p] == '+')) {
+        p++;
+      }
+      long mantissa = 0;
+      int digits = 0;
+      int scale = 0;
+      boolean any = false;
+      boolean fraction = false;
+      for (; p < end; p++) {
+        int d = buffer[p] - '0';
+        if ((d >= 0) && (d <= 9)) {
+          any = true;
+          if ((mantissa != 0) || (d != 0)) {
+            digits++;
+          }
+          mantissa = mantissa * 10 + d;
+          if (fraction) {
+            scale--;
+          }
+          if (digits > 15) {
+            break;
+          }
+        } else if ((buffer[p] == '.') && !fraction) {
+          fraction = true;
+        } else {
+          break;
+        }
+      }
+      if (any && (digits <= 15) && (p < end)
+        && ((buffer[p] == 'e') || (buffer[p] == 'E'))) {
+        p++;
+        boolean negativeExp = false;
+        if ((p < end) && ((buffer[p] == '-') || (buffer[p] == '+'))) {
+          negativeExp = (buffer[p] == '-');
+          p++;
+        }
+        int exponent = 0;
+        int start = p;
+        while ((p < end) && (p - start < 4) && (buffer[p] >= '0')
+          && (buffer[p] <= '9')) {
+          exponent = exponent * 10 + (buffer[p++] - '0');
+        }
+        if (p == start) {
+          any = false;
+        }
+        scale += negativeExp ? -exponent : exponent;
+      }
+      if (any && (digits <= 15) && (p == end)
+        && (Math.abs(scale) <= MAX_EXACT_POWER)) {
+        double value = mantissa;
+        if (scale > 0) {
+          value *= POWERS_OF_TEN[scale];
+        } else if (scale < 0) {
+          value /= POWERS_OF_TEN[-scale];
+        }
+        return negative ? -value : value;
+      }
+    }
+
+    try {
+      return Double.valueOf(tokenString()).doubleValue();
+    } catch (NumberFormatException e) {
+      errorMessage("number expected");
+      return Double.NaN;
+    }
+  }
+
+  /**
+   * Parses the current token as the value of an attribute.
+   *
+   * @param type the token type
+   * @param index the index of the attribute
+   * @return the value in internal format
+   * @throws IOException if the token is not a valid value
+   */
+  protected double parseValue(int type, int index) throws IOException {
+    if ((type == TT_WORD) && (m_TokEnd - m_TokStart == 1)
+      && (m_Buffer[m_TokStart] == '?')) {
+      return Utils.missingValue();
+    }
+    if ((type != TT_WORD) && (type != TT_QUOTED)) {
+      errorMessage("not a valid value");
+    }
+
+    switch (m_Types[index]) {
+    case Attribute.NUMERIC:
+      return parseNumber();
+    case Attribute.NOMINAL:
+      int valIndex;
+      if (m_TokEscaped) {
+        valIndex = m_Data.attribute(index).indexOfValue(tokenString());
+      } else {
+        valIndex = m_Labels[index].indexOf(m_Buffer, m_TokStart, m_TokEnd);
+      }
+      if (valIndex == -1) {
+        errorMessage("nominal value not declared in header");
+      }
+      return valIndex;
+    case Attribute.STRING:
+      return m_Data.attribute(index).addStringValue(tokenString());
+    case Attribute.DATE:
+      try {
+        return m_Data.attribute(index).parseDate(tokenString());
+      } catch (ParseException e) {
+        errorMessage("unparseable date: " + tokenString());
+      }
+      break;
+    case Attribute.RELATIONAL:
+      try {
+        ArffLoader.ArffReader arff =
+          new ArffLoader.ArffReader(new StringReader(tokenString()), m_Data
+            .attribute(index).relation(), 0);
+        return m_Data.attribute(index).addRelation(arff.getData());
+      } catch (Exception e) {
+        throw new IOException(e.toString() + " of line " + getLineNo());
+      }
+    default:
+      errorMessage("unknown attribute type in column " + index);
+    }
+    return Utils.missingValue();
+  }
+
+  /**
+   * Reads the optional weight at the end of the current line.
+   *
+   * @return the weight, 1 if there is none
+   * @throws IOException if the weight is malformed or the line does not end
+   */
+  protected double readWeight() throws IOException {
+    int type = nextToken();
+    if (type == TT_EOL) {
+      return 1.0;
+    }
+    if (type != '{') {
+      errorMessage("end of line expected");
+    }
+
+    double weight = 1.0;
+    type = nextToken();
+    try {
+      if ((type != TT_WORD) && (type != TT_QUOTED)) {
+        throw new NumberFormatException();
+      }
+      weight = Double.parseDouble(tokenString());
+    } catch (NumberFormatException e) {
+      errorMessage("Problem reading instance weight");
+    }
+    if (nextToken() != '}') {
+      errorMessage("Problem reading instance weight: } expected");
+    }
+    if (nextToken() != TT_EOL) {
+      errorMessage("end of line expected");
+    }
+    return weight;
+  }
+
+  /**
+   * Reads the current line as an instance in dense format.
+   *
+   * @param type the type of the first token
+   * @return the instance
+   * @throws IOException if the line is not a valid instance
+   */
+  protected Instance readInstanceFull(int type) throws IOException {
+    double[] instance = new double[m_Types.length];
+
+    for (int i = 0; i < instance.length; i++) {
+      if (i > 0) {
+        type = nextToken();
+        if (type == TT_EOL) {
+          errorMessage("premature end of line");
+        }
+      }
+      instance[i] = parseValue(type, i);
+    }
+
+    return new DenseInstance(readWeight(), instance);
+  }
+
+  /**
+   * Reads the current line as an instance in sparse format, after the opening
+   * brace.
+   *
+   * @return the instance
+   * @throws IOException if the line is not a valid instance
+   */
+  protected Instance readInstanceSparse() throws IOException {
+    int numValues = 0, maxIndex = -1;
+
+    while (true) {
+      int type = nextToken();
+      if (type == TT_EOL) {
+        errorMessage("premature end of line");
+      }
+      if (type == '}') {
+        break;
+      }
+
+      int index = -1;
+      try {
+        if ((type != TT_WORD) && (type != TT_QUOTED)) {
+          throw new NumberFormatException();
+        }
+        index = Integer.parseInt(tokenString());
+      } catch (NumberFormatException e) {
+        errorMessage("index number expected");
+      }
+      if (index <= maxIndex) {
+        errorMessage("indices have to be ordered");
+      }
+      if (index >= m_Types.length) {
+        errorMessage("index out of bounds");
+      }
+      maxIndex = index;
+      m_IndicesBuffer[numValues] = index;
+
+      type = nextToken();
+      if (type == TT_EOL) {
+        errorMessage("premature end of line");
+      }
+      m_ValueBuffer[numValues] = parseValue(type, index);
+      numValues++;
+    }
+
+    double[] tempValues = new double[numValues];
+    int[] tempIndices = new int[numValues];
+    System.arraycopy(m_ValueBuffer, 0, tempValues, 0, numValues);
+    System.arraycopy(m_IndicesBuffer, 0, tempIndices, 0, numValues);
+    return new SparseInstance(readWeight(), tempValues, tempIndices,
+      m_Types.length);
+  }
+
+  /**
+   * Reads the next instance, skipping empty lines and comments.
+   *
+   * @return the instance, with access to the data read, or null if the end of
+   *         the data has been reached
+   * @throws IOException if the instance is not valid or reading fails
+   */
+  public Instance readInstance() throws IOException {
+    while (nextLine()) {
+      m_Cursor = m_LineStart;
+      int type = nextToken();
+      if (type == TT_EOL) {
+        continue;
+      }
+
+      Instance inst;
+      if (type == '{') {
+        inst = readInstanceSparse();
+      } else {
+        inst = readInstanceFull(type);
+      }
+      inst.setDataset(m_Data);
+      return inst;
+    }
+    return null;
+  }
+
+  /**
+   * Reads all remaining instances and returns the data.
+   *
+   * @return the data
+   * @throws IOException if an instance is not valid or reading fails
+   */
+  public Instances getData() throws IOException {
+    Instance inst;
+    while ((inst = readInstance()) != null) {
+      m_Data.add(inst);
+    }
+    m_Data.compactify();
+    return m_Data;
+  }
+
+  /**
+   * Returns the revision string.
+   *
+   * @return the revision
+   */
+  @Override
+  public String getRevision() {
+    return RevisionUtils.extract("$Revision$");
+  }
+}
@@ -21,6 +21,8 @@
 
 package weka.knowledgeflow.steps;
 
+import weka.clusterers.ClustererProgressListener;
+import weka.clusterers.ProgressReportingClusterer;
 import weka.core.Drawable;
 import weka.core.EnvironmentHandler;
 import weka.core.Instance;
@@ -553,6 +555,11 @@ public class Clusterer extends WekaAlgorithmWrapper implements
           m_trainedClusterer = clusterer;
         }
 
+        if (clusterer instanceof ProgressReportingClusterer) {
+          addProgressListener((ProgressReportingClusterer) clusterer, setNum,
+            maxSetNum);
+        }
+
         clusterer.buildClusterer(trainingData);
 
         getStepManager().logDetailed(
@@ -575,6 +582,29 @@ public class Clusterer extends WekaAlgorithmWrapper implements
     }
   }
 
+  /**
+   * Reports the progress of a clusterer as it is built, and stops building
+   * (keeping the best model found so far) if the flow is stopped.
+   *
+   * @param clusterer the clusterer to follow
+   * @param setNum the number of the split/fold being built on
+   * @param maxSetNum the maximum number of splits/folds in the group
+   */
+  protected void addProgressListener(ProgressReportingClusterer clusterer,
+    final int setNum, final int maxSetNum) {
+    clusterer.addProgressListener(new ClustererProgressListener() {
+      @Override
+      public void progress(ProgressReportingClusterer c, String status) {
+        if (isStopRequested()) {
+          c.stop();
+          return;
+        }
+        getStepManager().statusMessage(
+          "Fold/set " + setNum + " of " + maxSetNum + ": " + status);
+      }
+    });
+  }
+
   /**
    * Process a test split/fold (secondary data handled by PairedDataHelper)
    *
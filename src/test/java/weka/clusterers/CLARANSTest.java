@@ -0,0 +1,498 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package weka.clusterers;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import weka.clusterers.AbstractClustererTest;
+import weka.clusterers.Clusterer;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.DistanceFunction;
+import weka.core.Instances;
+import weka.core.SelectedTag;
+import weka.core.TestInstances;
+import weka.core.Utils;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests CLARANS. Run from the command line with:<p/>
+ * java weka.clusterers.CLARANSTest
+ *
+ * @version $Revision$
+ */
+public class CLARANSTest 
+  extends AbstractClustererTest {
+
+  public CLARANSTest(String name) { 
+    super(name);  
+  }
+
+  /** Creates a default CLARANS */
+  public Clusterer getClusterer() {
+    return new CLARANS();
+  }
+
+  /**
+   * Generates purely numeric data without a class.
+   *
+   * @param numInstances the number of instances
+   * @return the data
+   */
+  protected Instances numericData(int numInstances) throws Exception {
+    TestInstances gen = new TestInstances();
+    gen.setNumInstances(numInstances);
+    gen.setNumNominal(0);
+    gen.setNumNumeric(3);
+    gen.setClassIndex(TestInstances.NO_CLASS);
+    gen.setSeed(42);
+    return gen.generate();
+  }
+
+  /**
+   * Generates four well separated blobs of points in the plane.
+   *
+   * @return the data
+   */
+  protected Instances blobs() {
+    ArrayList<Attribute> atts = new ArrayList<Attribute>();
+    atts.add(new Attribute("x"));
+    atts.add(new Attribute("y"));
+    Instances data = new Instances("blobs", atts, 200);
+    Random random = new Random(1);
+    for (int b = 0; b < 4; b++) {
+      for (int i = 0; i < 50; i++) {
+        data.add(new DenseInstance(1.0, new double[] {
+          (b % 2) * 10 + random.nextGaussian() * 0.5,
+          (b / 2) * 10 + random.nextGaussian() * 0.5 }));
+      }
+    }
+    return data;
+  }
+
+  /**
+   * Tests that the local searches find the same medoids and cost whether
+   * they run in one execution slot or several.
+   */
+  public void testExecutionSlots() throws Exception {
+    Instances data = numericData(300);
+
+    CLARANS sequential = new CLARANS();
+    sequential.setNumClusters(4);
+    sequential.setNumLocal(6);
+    sequential.setNumExecutionSlots(1);
+    sequential.buildClusterer(data);
+
+    CLARANS parallel = new CLARANS();
+    parallel.setOptions(sequential.getOptions());
+    parallel.setNumExecutionSlots(4);
+    parallel.buildClusterer(data);
+
+    assertEquals("medoids", sequential.getClusterMedoids().toString(),
+      parallel.getClusterMedoids().toString());
+    assertEquals("cost", sequential.getCost(), parallel.getCost(), 1e-8);
+  }
+
+  /**
+   * Tests that assigning instances in bulk gives the same clusters as
+   * clusterInstance, for numeric data (assigned against the flat medoids)
+   * and for data with nominal attributes and missing values.
+   */
+  public void testClusterInstances() throws Exception {
+    TestInstances gen = new TestInstances();
+    gen.setNumInstances(200);
+    gen.setNumNominal(2);
+    gen.setNumNumeric(3);
+    gen.setClassIndex(TestInstances.NO_CLASS);
+    gen.setSeed(42);
+    Instances mixed = gen.generate();
+    mixed.instance(3).setMissing(0);
+    mixed.instance(7).setMissing(2);
+
+    for (Instances data : new Instances[] { numericData(200), mixed }) {
+      CLARANS clusterer = new CLARANS();
+      clusterer.setNumClusters(5);
+      clusterer.buildClusterer(data);
+
+      int[] assignments = new int[data.numInstances()];
+      clusterer.clusterInstances(data, assignments);
+      for (int i = 0; i < data.numInstances(); i++) {
+        assertEquals("cluster of instance " + i,
+          clusterer.clusterInstance(data.instance(i)), assignments[i]);
+      }
+    }
+  }
+
+  /**
+   * Tests that focused swap evaluation finds the same medoids and cost as
+   * the plain search, with one and several execution slots.
+   */
+  public void testFocusEqualsPlainSearch() throws Exception {
+    Instances data = numericData(300);
+    for (int slots : new int[] { 1, 4 }) {
+      CLARANS plain = new CLARANS();
+      plain.setNumClusters(4);
+      plain.setNumExecutionSlots(slots);
+      plain.buildClusterer(data);
+
+      CLARANS focused = new CLARANS();
+      focused.setOptions(plain.getOptions());
+      focused.setFocus(true);
+      focused.buildClusterer(data);
+
+      assertEquals("medoids (" + slots + " slots)",
+        plain.getClusterMedoids().toString(),
+        focused.getClusterMedoids().toString());
+      assertEquals("cost (" + slots + " slots)", plain.getCost(),
+        focused.getCost(), 1e-8);
+      assertTrue("distance calculations avoided",
+        focused.getNumDistanceCalcsAvoided() > 0);
+    }
+  }
+
+  /**
+   * Tests that caching the distances, as the full matrix and as a bounded
+   * set of columns, finds the same medoids and cost as computing them on
+   * the fly.
+   */
+  public void testDistanceCacheEqualsPlainSearch() throws Exception {
+    // with 1 MB, the matrix of 300 instances fits, while 1000 instances only
+    // get a column cache
+    for (int numInstances : new int[] { 300, 1000 }) {
+      Instances data = numericData(numInstances);
+      CLARANS plain = new CLARANS();
+      plain.setNumClusters(4);
+      plain.buildClusterer(data);
+
+      CLARANS cached = new CLARANS();
+      cached.setOptions(plain.getOptions());
+      cached.setCacheDistances(true);
+      cached.setDistanceCacheSize(1);
+      cached.buildClusterer(data);
+
+      assertEquals("medoids (" + numInstances + " instances)",
+        plain.getClusterMedoids().toString(),
+        cached.getClusterMedoids().toString());
+      assertEquals("cost (" + numInstances + " instances)", plain.getCost(),
+        cached.getCost(), 1e-8);
+    }
+  }
+
+  /**
+   * Tests that progress listeners are notified and can stop the build, which
+   * then finishes with the best medoids found so far.
+   */
+  public void testProgressListenerStops() throws Exception {
+    Instances data = numericData(300);
+    CLARANS clusterer = new CLARANS();
+    clusterer.setNumClusters(4);
+    final int[] calls = new int[1];
+    clusterer.addProgressListener(new ClustererProgressListener() {
+      @Override
+      public void progress(ProgressReportingClusterer c, String status) {
+        calls[0]++;
+        c.stop();
+      }
+    });
+    clusterer.buildClusterer(data);
+
+    assertTrue("listener called", calls[0] > 0);
+    assertEquals("medoids", 4, clusterer.getClusterMedoids().numInstances());
+    assertTrue("stopped", clusterer.toString().contains("stopped"));
+  }
+
+  /**
+   * Builds the clusterer from the structure only and adds all instances with
+   * updateClusterer, like the command line does by default.
+   *
+   * @param clusterer the clusterer to build
+   * @param data the instances to add
+   */
+  protected void buildIncrementally(CLARANS clusterer, Instances data)
+    throws Exception {
+    clusterer.buildClusterer(new Instances(data, 0));
+    for (int i = 0; i < data.numInstances(); i++) {
+      clusterer.updateClusterer(data.instance(i));
+    }
+    clusterer.updateFinished();
+  }
+
+  /**
+   * Tests that building from the structure only and adding all instances
+   * gives the same clusterer as building from all of them at once when the
+   * update window holds all instances, also when sampling.
+   */
+  public void testIncrementalEqualsBatch() throws Exception {
+    Instances data = numericData(300);
+    for (int window : new int[] { 2000, 300 }) {
+      for (int sampleSize : new int[] { 0, 100 }) {
+        String label = " (window " + window + ", sample size " + sampleSize
+          + ")";
+        CLARANS batch = new CLARANS();
+        batch.setNumClusters(3);
+        batch.setUpdateWindow(window);
+        batch.setSampleSize(sampleSize);
+        batch.buildClusterer(data);
+
+        CLARANS incremental = new CLARANS();
+        incremental.setOptions(batch.getOptions());
+        buildIncrementally(incremental, data);
+
+        assertEquals("medoids" + label, batch.getClusterMedoids().toString(),
+          incremental.getClusterMedoids().toString());
+        assertEquals("cost" + label, batch.getCost(), incremental.getCost(),
+          1e-8);
+        for (int j = 0; j < 3; j++) {
+          assertEquals("size of cluster " + j + label,
+            batch.getClusterSizes()[j], incremental.getClusterSizes()[j],
+            1e-8);
+        }
+        assertFalse("estimated" + label, incremental.isEstimated());
+      }
+    }
+  }
+
+  /**
+   * Tests refining the medoids after updates: with a window holding every
+   * instance, sizes and cost are computed over all instances; with a window
+   * that overflows, they are estimated and toString() says so.
+   */
+  public void testRefineAfterUpdates() throws Exception {
+    Instances data = numericData(300);
+    Instances first = new Instances(data, 0, 150);
+
+    CLARANS exact = new CLARANS();
+    exact.setNumClusters(3);
+    exact.setUpdateWindow(300);
+    exact.buildClusterer(first);
+    for (int i = 150; i < data.numInstances(); i++) {
+      exact.updateClusterer(data.instance(i));
+    }
+    exact.updateFinished();
+
+    assertFalse("estimated", exact.isEstimated());
+    assertFalse("toString", exact.toString().contains("estimated"));
+    DistanceFunction distance = exact.getDistanceFunction();
+    Instances medoids = exact.getClusterMedoids();
+    double[] sizes = new double[3];
+    double cost = 0;
+    for (int i = 0; i < data.numInstances(); i++) {
+      int cluster = exact.clusterInstance(data.instance(i));
+      sizes[cluster] += data.instance(i).weight();
+      cost += distance.distance(data.instance(i), medoids.instance(cluster));
+    }
+    assertEquals("cost", cost, exact.getCost(), 1e-6);
+    for (int j = 0; j < 3; j++) {
+      assertEquals("size of cluster " + j, sizes[j],
+        exact.getClusterSizes()[j], 1e-8);
+    }
+
+    CLARANS estimated = new CLARANS();
+    estimated.setNumClusters(3);
+    estimated.setUpdateWindow(100);
+    estimated.buildClusterer(first);
+    for (int i = 150; i < data.numInstances(); i++) {
+      estimated.updateClusterer(data.instance(i));
+    }
+    estimated.updateFinished();
+
+    assertTrue("estimated", estimated.isEstimated());
+    assertTrue("toString", estimated.toString().contains("estimated"));
+  }
+
+  /**
+   * Tests that a clusterer built from the structure only is built once the
+   * update window is full, can be queried from then on, and only retains as
+   * many instances as the window holds.
+   */
+  public void testQueryableAfterWindowFills() throws Exception {
+    Instances data = numericData(300);
+    CLARANS clusterer = new CLARANS();
+    clusterer.setNumClusters(3);
+    clusterer.setUpdateWindow(50);
+    clusterer.buildClusterer(new Instances(data, 0));
+
+    for (int i = 0; i < 49; i++) {
+      clusterer.updateClusterer(data.instance(i));
+    }
+    try {
+      clusterer.clusterInstance(data.instance(0));
+      fail("Clustered an instance without a model");
+    } catch (Exception e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith("No model built yet"));
+    }
+
+    for (int i = 49; i < data.numInstances(); i++) {
+      clusterer.updateClusterer(data.instance(i));
+      int cluster = clusterer.clusterInstance(data.instance(i));
+      assertTrue("cluster of instance " + i, cluster >= 0 && cluster < 3);
+      assertTrue("retained instances",
+        clusterer.m_Window.numInstances() <= 50);
+    }
+    assertEquals("instances seen", 300, clusterer.m_NumSeen);
+    assertEquals("sum of cluster sizes", 300,
+      Utils.sum(clusterer.getClusterSizes()), 1e-8);
+
+    clusterer.updateFinished();
+    assertTrue("estimated", clusterer.isEstimated());
+    assertEquals("number of medoids", 3,
+      clusterer.getClusterMedoids().numInstances());
+  }
+
+  /**
+   * Tests that setOptions() without options restores the defaults rather
+   * than keeping the previous settings.
+   */
+  public void testSetOptionsResetsDefaults() throws Exception {
+    CLARANS clusterer = new CLARANS();
+    clusterer.setOptions(new String[] { "-clusters", "2-5", "-k-selection",
+      "1", "-init", "0", "-num-slots", "4", "-sample-size", "100",
+      "-num-samples", "3", "-time-limit", "10", "-max-evaluations", "1000",
+      "-update-window", "50", "-distance-cache-size", "16",
+      "-nn-search-min-clusters", "8" });
+    clusterer.setOptions(new String[0]);
+
+    assertEquals(Utils.joinOptions(new CLARANS().getOptions()),
+      Utils.joinOptions(clusterer.getOptions()));
+  }
+
+  /**
+   * Tests that setOptions() parses a range of numbers of clusters and that
+   * getOptions() gives it back.
+   */
+  public void testNumClustersRangeOptions() throws Exception {
+    CLARANS clusterer = new CLARANS();
+    clusterer.setOptions(new String[] { "-clusters", "2-30", "-k-selection",
+      "" + CLARANS.SELECT_ELBOW });
+    assertEquals("minimum", 2, clusterer.getNumClusters());
+    assertEquals("maximum", 30, clusterer.getMaxNumClusters());
+    assertEquals("selection", CLARANS.SELECT_ELBOW, clusterer
+      .getNumClustersSelection().getSelectedTag().getID());
+    String options = Utils.joinOptions(clusterer.getOptions());
+    assertTrue(options, options.contains("-clusters 2-30"));
+
+    clusterer.setOptions(new String[] { "-clusters", "5" });
+    assertEquals("single number", 5, clusterer.getNumClusters());
+    assertEquals("no maximum", 0, clusterer.getMaxNumClusters());
+    assertEquals("default selection", CLARANS.SELECT_SILHOUETTE, clusterer
+      .getNumClustersSelection().getSelectedTag().getID());
+  }
+
+  /**
+   * Tests that the medoid silhouette and the elbow each pick the four blobs
+   * out of a range of numbers of clusters, with one and several execution
+   * slots.
+   */
+  public void testNumClustersSelection() throws Exception {
+    Instances data = blobs();
+    for (int selection : new int[] { CLARANS.SELECT_SILHOUETTE,
+      CLARANS.SELECT_ELBOW }) {
+      for (int slots : new int[] { 1, 4 }) {
+        String label = " (selection " + selection + ", " + slots + " slots)";
+        CLARANS clusterer = new CLARANS();
+        clusterer.setNumClusters(2);
+        clusterer.setMaxNumClusters(8);
+        clusterer.setNumClustersSelection(new SelectedTag(selection,
+          CLARANS.TAGS_SELECT_K));
+        clusterer.setNumExecutionSlots(slots);
+        clusterer.buildClusterer(data);
+        assertEquals("number of clusters" + label, 4,
+          clusterer.numberOfClusters());
+      }
+    }
+  }
+
+  /**
+   * Tests that the number of clusters chosen from a range, and the medoids,
+   * are the same with one and several execution slots on data without an
+   * obvious number of clusters.
+   */
+  public void testNumClustersSelectionSlots() throws Exception {
+    Instances data = numericData(300);
+    CLARANS sequential = new CLARANS();
+    sequential.setNumClusters(2);
+    sequential.setMaxNumClusters(12);
+    sequential.buildClusterer(data);
+
+    CLARANS parallel = new CLARANS();
+    parallel.setOptions(sequential.getOptions());
+    parallel.setNumExecutionSlots(4);
+    parallel.buildClusterer(data);
+
+    assertEquals("number of clusters", sequential.numberOfClusters(),
+      parallel.numberOfClusters());
+    assertEquals("medoids", sequential.getClusterMedoids().toString(),
+      parallel.getClusterMedoids().toString());
+  }
+
+  /**
+   * Tests that the canopy search (-C) returns distinct medoids taken from
+   * the data, with a cost no worse than the plain search, on well separated
+   * blobs with one and several execution slots.
+   */
+  public void testCanopySearch() throws Exception {
+    Instances data = blobs();
+    for (int slots : new int[] { 1, 4 }) {
+      String label = " (" + slots + " slots)";
+      CLARANS plain = new CLARANS();
+      plain.setNumClusters(4);
+      plain.setNumExecutionSlots(slots);
+      plain.buildClusterer(data);
+
+      CLARANS canopies = new CLARANS();
+      canopies.setOptions(plain.getOptions());
+      canopies.setReduceNumberOfDistanceCalcsViaCanopies(true);
+      canopies.buildClusterer(data);
+
+      Instances medoids = canopies.getClusterMedoids();
+      assertEquals("number of medoids" + label, 4, medoids.numInstances());
+      boolean[] used = new boolean[data.numInstances()];
+      for (int m = 0; m < medoids.numInstances(); m++) {
+        int index = -1;
+        for (int i = 0; i < data.numInstances(); i++) {
+          if (!used[i]
+            && data.instance(i).toString()
+              .equals(medoids.instance(m).toString())) {
+            index = i;
+            break;
+          }
+        }
+        assertTrue("medoid " + m + " is a distinct instance" + label,
+          index >= 0);
+        used[index] = true;
+      }
+      assertTrue("cost " + canopies.getCost() + " vs " + plain.getCost()
+        + label, canopies.getCost() <= plain.getCost() + 1e-8);
+      assertTrue("distance calculations avoided" + label,
+        canopies.getNumDistanceCalcsAvoided() > 0);
+    }
+  }
+
+  public static Test suite() {
+    return new TestSuite(CLARANSTest.class);
+  }
+
+  public static void main(String[] args){
+    junit.textui.TestRunner.run(suite());
+  }
+}
@@ -19,8 +19,17 @@
 
 package weka.clusterers;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
 import weka.clusterers.AbstractClustererTest;
 import weka.clusterers.Clusterer;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -44,6 +53,115 @@ public class CanopyTest
     return new SimpleKMeans();
   }
 
+  /**
+   * Generates four well separated blobs of points in the plane.
+   *
+   * @return the data
+   */
+  protected Instances blobs() {
+    ArrayList<Attribute> atts = new ArrayList<Attribute>();
+    atts.add(new Attribute("x"));
+    atts.add(new Attribute("y"));
+    Instances data = new Instances("blobs", atts, 400);
+    Random random = new Random(1);
+    for (int b = 0; b < 4; b++) {
+      for (int i = 0; i < 100; i++) {
+        data.add(new DenseInstance(1.0, new double[] {
+          (b % 2) * 10 + random.nextGaussian() * 0.3,
+          (b / 2) * 10 + random.nextGaussian() * 0.3 }));
+      }
+    }
+    return data;
+  }
+
+  /**
+   * Builds a canopy clusterer for the blobs.
+   *
+   * @param data the blobs
+   * @param slots the number of execution slots
+   * @return the clusterer
+   */
+  protected Canopy buildCanopy(Instances data, int slots) throws Exception {
+    Canopy canopy = new Canopy();
+    canopy.setT2(0.3);
+    canopy.setT1(0.5);
+    canopy.setNumExecutionSlots(slots);
+    canopy.buildClusterer(data);
+    return canopy;
+  }
+
+  /**
+   * Tests that merging the candidate canopies formed on each partition
+   * absorbs the duplicates: the blobs give one canopy each, with the same
+   * centers and densities as when the canopies are formed sequentially.
+   */
+  public void testParallelMerge() throws Exception {
+    Instances data = blobs();
+    Canopy sequential = buildCanopy(data, 1);
+    Canopy parallel = buildCanopy(data, 4);
+
+    assertEquals("canopies (sequential)", 4,
+      sequential.getCanopies().numInstances());
+    assertEquals("canopies (parallel)", 4,
+      parallel.getCanopies().numInstances());
+    double[][] expected = centersAndDensities(sequential);
+    double[][] actual = centersAndDensities(parallel);
+    for (int i = 0; i < expected.length; i++) {
+      for (int j = 0; j < expected[i].length; j++) {
+        assertEquals("canopy " + i + ", value " + j, expected[i][j],
+          actual[i][j], 1e-8);
+      }
+    }
+  }
+
+  /**
+   * Returns the center and T2 density of each canopy, sorted by center.
+   *
+   * @param canopy the clusterer
+   * @return x, y and density of each canopy
+   */
+  protected double[][] centersAndDensities(Canopy canopy) {
+    Instances centers = canopy.getCanopies();
+    double[][] result = new double[centers.numInstances()][];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = new double[] { centers.instance(i).value(0),
+        centers.instance(i).value(1), canopy.m_canopyT2Density.get(i)[0] };
+    }
+    Arrays.sort(result, new Comparator<double[]>() {
+      @Override
+      public int compare(double[] a, double[] b) {
+        return (a[0] + 100 * a[1]) < (b[0] + 100 * b[1]) ? -1 : 1;
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Tests that assigning canopies to a batch of instances, with one or
+   * several execution slots, gives the same bitsets as assigning them one
+   * at a time.
+   */
+  public void testBatchAssignCanopies() throws Exception {
+    Instances data = blobs();
+    data.instance(5).setMissing(0);
+    Canopy canopy = buildCanopy(data, 1);
+
+    List<long[]> single = new ArrayList<long[]>();
+    for (int i = 0; i < data.numInstances(); i++) {
+      single.add(canopy.assignCanopies(data.instance(i)));
+    }
+    for (int slots : new int[] { 1, 4 }) {
+      canopy.setNumExecutionSlots(slots);
+      List<long[]> batch = canopy.assignCanopies(data);
+      assertEquals("number of bitsets (" + slots + " slots)",
+        single.size(), batch.size());
+      for (int i = 0; i < single.size(); i++) {
+        assertTrue("bitset of instance " + i + " (" + slots + " slots)",
+          Arrays.equals(single.get(i), batch.get(i)));
+      }
+    }
+  }
+
   public static Test suite() {
     return new TestSuite(CanopyTest.class);
   }
@@ -0,0 +1,267 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package weka.clusterers;
+
+import java.io.File;
+import java.util.ArrayList;
+
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.EuclideanDistance;
+import weka.core.Instances;
+import weka.core.TestInstances;
+import weka.core.converters.ConverterUtils.DataSink;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the cluster quality metrics of ClusterEvaluation. Run from the
+ * command line with:<p/>
+ * java weka.clusterers.ClusterEvaluationTest
+ *
+ * @version $Revision$
+ */
+public class ClusterEvaluationTest
+  extends TestCase {
+
+  public ClusterEvaluationTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Creates a data set with a single numeric attribute.
+   *
+   * @param values the values of the instances
+   * @return the data
+   */
+  protected Instances oneDimensional(double... values) {
+    ArrayList<Attribute> atts = new ArrayList<Attribute>();
+    atts.add(new Attribute("x"));
+    Instances data = new Instances("oneDimensional", atts, values.length);
+    for (double value : values) {
+      data.add(new DenseInstance(1.0, new double[] { value }));
+    }
+    return data;
+  }
+
+  /**
+   * Creates an evaluation that computes the metrics with unnormalized
+   * Euclidean distances.
+   *
+   * @param slots the number of execution slots
+   * @return the evaluation
+   */
+  protected ClusterEvaluation evaluation(int slots) {
+    EuclideanDistance distance = new EuclideanDistance();
+    distance.setDontNormalize(true);
+    ClusterEvaluation eval = new ClusterEvaluation();
+    eval.setDistanceFunction(distance);
+    eval.setNumExecutionSlots(slots);
+    return eval;
+  }
+
+  /**
+   * Generates purely numeric data without a class and clusters it with
+   * SimpleKMeans.
+   *
+   * @param data the array to return the data in
+   * @return the cluster of each instance
+   */
+  protected double[] clusteredData(Instances[] data) throws Exception {
+    TestInstances gen = new TestInstances();
+    gen.setNumInstances(300);
+    gen.setNumNominal(0);
+    gen.setNumNumeric(3);
+    gen.setClassIndex(TestInstances.NO_CLASS);
+    gen.setSeed(42);
+    data[0] = gen.generate();
+
+    SimpleKMeans kMeans = new SimpleKMeans();
+    kMeans.setNumClusters(4);
+    kMeans.buildClusterer(data[0]);
+    double[] assignments = new double[data[0].numInstances()];
+    for (int i = 0; i < assignments.length; i++) {
+      assignments[i] = kMeans.clusterInstance(data[0].instance(i));
+    }
+    return assignments;
+  }
+
+  /**
+   * Tests the metrics against values computed by hand: clusters {0, 1} and
+   * {10, 12}, with medoids 0 and 10 (ties go to the first instance).
+   */
+  public void testHandComputed() throws Exception {
+    ClusterEvaluation eval = evaluation(1);
+    eval.computeQualityMetrics(oneDimensional(0, 1, 10, 12), new double[] {
+      0, 0, 1, 1 });
+
+    double silhouette =
+      (10.0 / 11 + 9.0 / 10 + 7.5 / 9.5 + 9.5 / 11.5) / 4;
+    assertEquals("silhouette", silhouette, eval.getSilhouette(), 1e-12);
+    assertEquals("total deviation", 3, eval.getTotalDeviation(), 1e-12);
+    // scatters 1/2 and 2/2, medoids 10 apart: (1.5 / 10 + 1.5 / 10) / 2
+    assertEquals("Davies-Bouldin", 0.15, eval.getDaviesBouldin(), 1e-12);
+  }
+
+  /**
+   * Tests that unclustered instances (assignment -1) are left out.
+   */
+  public void testUnclusteredLeftOut() throws Exception {
+    ClusterEvaluation all = evaluation(1);
+    all.computeQualityMetrics(oneDimensional(0, 1, 10, 12), new double[] { 0,
+      0, 1, 1 });
+    ClusterEvaluation some = evaluation(1);
+    some.computeQualityMetrics(oneDimensional(0, 100, 1, 10, -50, 12),
+      new double[] { 0, -1, 0, 1, -1, 1 });
+
+    assertEquals("silhouette", all.getSilhouette(), some.getSilhouette(),
+      1e-12);
+    assertEquals("total deviation", all.getTotalDeviation(),
+      some.getTotalDeviation(), 1e-12);
+    assertEquals("Davies-Bouldin", all.getDaviesBouldin(),
+      some.getDaviesBouldin(), 1e-12);
+  }
+
+  /**
+   * Tests that the silhouette and the Davies-Bouldin index are NaN when only
+   * one cluster is used, while the total deviation is still computed.
+   */
+  public void testSingleCluster() throws Exception {
+    ClusterEvaluation eval = evaluation(1);
+    eval.computeQualityMetrics(oneDimensional(0, 1, 3), new double[] { 2, 2,
+      2 });
+
+    assertTrue("silhouette", Double.isNaN(eval.getSilhouette()));
+    assertTrue("Davies-Bouldin", Double.isNaN(eval.getDaviesBouldin()));
+    // medoid 1: 1 + 0 + 2
+    assertEquals("total deviation", 3, eval.getTotalDeviation(), 1e-12);
+  }
+
+  /**
+   * Tests the silhouette against a brute-force computation, and that one and
+   * several execution slots give the same metrics.
+   */
+  public void testBruteForceAndSlots() throws Exception {
+    Instances[] data = new Instances[1];
+    double[] assignments = clusteredData(data);
+    int n = assignments.length;
+
+    EuclideanDistance distance = new EuclideanDistance(data[0]);
+    int[] sizes = new int[4];
+    for (double a : assignments) {
+      sizes[(int) a]++;
+    }
+    double expected = 0;
+    for (int i = 0; i < n; i++) {
+      double[] sums = new double[4];
+      for (int j = 0; j < n; j++) {
+        if (j != i) {
+          sums[(int) assignments[j]] +=
+            distance.distance(data[0].instance(i), data[0].instance(j));
+        }
+      }
+      int own = (int) assignments[i];
+      double a = sums[own] / (sizes[own] - 1);
+      double b = Double.POSITIVE_INFINITY;
+      for (int c = 0; c < 4; c++) {
+        if (c != own) {
+          b = Math.min(b, sums[c] / sizes[c]);
+        }
+      }
+      expected += (b - a) / Math.max(a, b);
+    }
+    expected /= n;
+
+    ClusterEvaluation sequential = new ClusterEvaluation();
+    sequential.computeQualityMetrics(data[0], assignments);
+    assertEquals("silhouette", expected, sequential.getSilhouette(), 1e-10);
+
+    ClusterEvaluation parallel = new ClusterEvaluation();
+    parallel.setNumExecutionSlots(4);
+    parallel.computeQualityMetrics(data[0], assignments);
+    assertEquals("silhouette (4 slots)", sequential.getSilhouette(),
+      parallel.getSilhouette(), 1e-10);
+    assertEquals("total deviation (4 slots)", sequential.getTotalDeviation(),
+      parallel.getTotalDeviation(), 1e-10);
+    assertEquals("Davies-Bouldin (4 slots)", sequential.getDaviesBouldin(),
+      parallel.getDaviesBouldin(), 1e-10);
+  }
+
+  /**
+   * Tests the silhouette estimated from a sample: it is reported as such, is
+   * the same with one and several execution slots, and is close to the
+   * silhouette of all instances.
+   */
+  public void testSampled() throws Exception {
+    Instances[] data = new Instances[1];
+    double[] assignments = clusteredData(data);
+
+    ClusterEvaluation full = new ClusterEvaluation();
+    full.computeQualityMetrics(data[0], assignments);
+
+    ClusterEvaluation[] sampled = new ClusterEvaluation[2];
+    int[] slots = { 1, 4 };
+    for (int s = 0; s < slots.length; s++) {
+      sampled[s] = new ClusterEvaluation();
+      sampled[s].setSilhouetteSampleSize(100);
+      sampled[s].setNumExecutionSlots(slots[s]);
+      sampled[s].computeQualityMetrics(data[0], assignments);
+      assertTrue("reported as estimated (" + slots[s] + " slots)", sampled[s]
+        .qualityMetricsToString().contains("estimated from 100 of 300"));
+    }
+    assertEquals("silhouette (4 slots)", sampled[0].getSilhouette(),
+      sampled[1].getSilhouette(), 1e-10);
+    assertEquals("total deviation (4 slots)", sampled[0].getTotalDeviation(),
+      sampled[1].getTotalDeviation(), 1e-10);
+    assertEquals("estimated silhouette", full.getSilhouette(),
+      sampled[0].getSilhouette(), 0.1);
+  }
+
+  /**
+   * Tests that the quality metrics are printed when requested on the
+   * command line.
+   */
+  public void testCommandLine() throws Exception {
+    Instances[] data = new Instances[1];
+    clusteredData(data);
+
+    File file = File.createTempFile("ClusterEvaluationTest", ".arff");
+    try {
+      DataSink.write(file.getAbsolutePath(), data[0]);
+      String output = ClusterEvaluation.evaluateClusterer(new SimpleKMeans(),
+        new String[] { "-t", file.getAbsolutePath(), "-quality-metrics",
+          "-quality-sample", "100", "-quality-slots", "2" });
+      assertTrue(output, output.contains("Cluster quality (EuclideanDistance)"));
+      assertTrue(output, output.contains("estimated from 100 of 300"));
+    } finally {
+      file.delete();
+    }
+  }
+
+  public static Test suite() {
+    return new TestSuite(ClusterEvaluationTest.class);
+  }
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(suite());
+  }
+}
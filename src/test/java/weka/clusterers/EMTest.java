@@ -21,6 +21,10 @@ package weka.clusterers;
 
 import weka.clusterers.AbstractClustererTest;
 import weka.clusterers.Clusterer;
+import weka.core.Instances;
+import weka.core.TestInstances;
+
+import java.util.Random;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -44,6 +48,41 @@ public class EMTest
     return new EM();
   }
 
+  /**
+   * Tests that the cross-validations run with several execution slots give
+   * the same result as with one: the log-likelihood computed by
+   * ClusterEvaluation and the number of clusters EM selects.
+   */
+  public void testCrossValidationSlots() throws Exception {
+    TestInstances gen = new TestInstances();
+    gen.setNumInstances(300);
+    gen.setNumNominal(0);
+    gen.setNumNumeric(3);
+    gen.setClassIndex(TestInstances.NO_CLASS);
+    gen.setSeed(42);
+    Instances data = gen.generate();
+
+    EM single = new EM();
+    single.setNumExecutionSlots(1);
+    single.buildClusterer(data);
+    EM fixed = new EM();
+    fixed.setNumClusters(3);
+    double logLikelihood = ClusterEvaluation.crossValidateModel(fixed, data,
+      10, new Random(1), 1);
+
+    for (int slots : new int[] { 2, 4 }) {
+      EM parallel = new EM();
+      parallel.setNumExecutionSlots(slots);
+      parallel.buildClusterer(data);
+      assertEquals("selected number of clusters (" + slots + " slots)",
+        single.numberOfClusters(), parallel.numberOfClusters());
+
+      assertEquals("log-likelihood (" + slots + " slots)", logLikelihood,
+        ClusterEvaluation.crossValidateModel(fixed, data, 10, new Random(1),
+          slots), 0.0);
+    }
+  }
+
   public static Test suite() {
     return new TestSuite(EMTest.class);
   }
@@ -19,8 +19,16 @@
 
 package weka.clusterers;
 
+import java.util.ArrayList;
+
 import weka.clusterers.AbstractClustererTest;
 import weka.clusterers.Clusterer;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.EuclideanDistance;
+import weka.core.Instances;
+import weka.core.SelectedTag;
+import weka.core.TestInstances;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -44,6 +52,77 @@ public class HierarchicalClustererTest
     return new HierarchicalClusterer();
   }
 
+  /**
+   * Tests that the memory efficient engine builds the same hierarchy as the
+   * classic one for the link types it supports, and for MEAN, which falls
+   * back to the classic engine.
+   */
+  public void testMemoryEfficientEqualsClassic() throws Exception {
+    TestInstances gen = new TestInstances();
+    gen.setNumInstances(300);
+    gen.setNumNominal(0);
+    gen.setNumNumeric(3);
+    gen.setClassIndex(TestInstances.NO_CLASS);
+    gen.setSeed(42);
+    Instances data = gen.generate();
+
+    int[] linkTypes =
+      { HierarchicalClusterer.SINGLE, HierarchicalClusterer.COMPLETE,
+        HierarchicalClusterer.AVERAGE, HierarchicalClusterer.MEAN };
+    for (int linkType : linkTypes) {
+      SelectedTag tag =
+        new SelectedTag(linkType, HierarchicalClusterer.TAGS_LINK_TYPE);
+      HierarchicalClusterer classic = new HierarchicalClusterer();
+      classic.setNumClusters(1);
+      classic.setLinkType(tag);
+      classic.buildClusterer(data);
+
+      for (int slots : new int[] { 1, 4 }) {
+        HierarchicalClusterer efficient = new HierarchicalClusterer();
+        efficient.setNumClusters(1);
+        efficient.setLinkType(tag);
+        efficient.setMemoryEfficient(true);
+        efficient.setNumExecutionSlots(slots);
+        efficient.buildClusterer(data);
+
+        assertEquals(tag.getSelectedTag().getReadable() + " (" + slots
+          + " slots)", classic.graph(), efficient.graph());
+      }
+    }
+  }
+
+  /**
+   * Tests WARD with the memory efficient engine against a dendrogram computed
+   * by hand. The merge heights are the square root of twice the increase in
+   * the error sum of squares: {0, 1} at 1, {10, 12} at 2 and the root at
+   * sqrt(2 * 2 * 2 / 4 * 10.5^2) = 14.84924, printed as branch lengths.
+   */
+  public void testWardMemoryEfficient() throws Exception {
+    ArrayList<Attribute> atts = new ArrayList<Attribute>();
+    atts.add(new Attribute("x"));
+    Instances data = new Instances("ward", atts, 4);
+    for (double value : new double[] { 0, 1, 10, 12 }) {
+      data.add(new DenseInstance(1.0, new double[] { value }));
+    }
+
+    for (int slots : new int[] { 1, 4 }) {
+      EuclideanDistance distance = new EuclideanDistance();
+      distance.setDontNormalize(true);
+      HierarchicalClusterer efficient = new HierarchicalClusterer();
+      efficient.setDistanceFunction(distance);
+      efficient.setNumClusters(1);
+      efficient.setLinkType(new SelectedTag(HierarchicalClusterer.WARD,
+        HierarchicalClusterer.TAGS_LINK_TYPE));
+      efficient.setMemoryEfficient(true);
+      efficient.setNumExecutionSlots(slots);
+      efficient.buildClusterer(data);
+
+      assertEquals("WARD (" + slots + " slots)",
+        "Newick:((0.0:1,1.0:1):13.84924,(10.0:2,12.0:2):12.84924)",
+        efficient.graph());
+    }
+  }
+
   public static Test suite() {
     return new TestSuite(HierarchicalClustererTest.class);
   }
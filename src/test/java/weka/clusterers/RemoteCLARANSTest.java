@@ -0,0 +1,151 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package weka.clusterers;
+
+import java.io.File;
+import java.net.ServerSocket;
+import java.rmi.registry.LocateRegistry;
+import java.rmi.registry.Registry;
+import java.rmi.server.UnicastRemoteObject;
+
+import weka.clusterers.AbstractClustererTest;
+import weka.clusterers.Clusterer;
+import weka.core.Instances;
+import weka.core.TestInstances;
+import weka.core.converters.ConverterUtils.DataSink;
+import weka.core.converters.ConverterUtils.DataSource;
+import weka.experiment.RemoteEngine;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests RemoteCLARANS. Run from the command line with:<p/>
+ * java weka.clusterers.RemoteCLARANSTest
+ *
+ * @version $Revision$
+ */
+public class RemoteCLARANSTest
+  extends AbstractClustererTest {
+
+  public RemoteCLARANSTest(String name) {
+    super(name);
+  }
+
+  /** Creates a default RemoteCLARANS, running its tasks locally */
+  public Clusterer getClusterer() {
+    return new RemoteCLARANS();
+  }
+
+  /**
+   * Runs the tasks on two RemoteEngines on localhost, with and without
+   * sampling, and compares the medoids with those found locally.
+   */
+  public void testLocalhostEngines() throws Exception {
+    TestInstances gen = new TestInstances();
+    gen.setNumInstances(300);
+    gen.setNumNominal(0);
+    gen.setNumNumeric(3);
+    gen.setClassIndex(TestInstances.NO_CLASS);
+    gen.setSeed(42);
+    Instances data = gen.generate();
+
+    Registry[] registries = new Registry[2];
+    RemoteEngine[] engines = new RemoteEngine[2];
+    String hosts = "";
+    try {
+      for (int i = 0; i < engines.length; i++) {
+        ServerSocket socket = new ServerSocket(0);
+        int port = socket.getLocalPort();
+        socket.close();
+        String host = "localhost:" + port;
+        registries[i] = LocateRegistry.createRegistry(port);
+        engines[i] = new RemoteEngine("//" + host + "/RemoteEngine");
+        registries[i].rebind("RemoteEngine", engines[i]);
+        hosts += (i > 0 ? "," : "") + host;
+      }
+
+      for (int sampleSize : new int[] { 0, 100 }) {
+        RemoteCLARANS local = new RemoteCLARANS();
+        local.setNumClusters(4);
+        local.setSampleSize(sampleSize);
+        local.buildClusterer(data);
+
+        RemoteCLARANS remote = new RemoteCLARANS();
+        remote.setOptions(local.getOptions());
+        remote.setHosts(hosts);
+        remote.buildClusterer(data);
+
+        assertEquals("medoids (sample size " + sampleSize + ")",
+          local.getClusterMedoids().toString(),
+          remote.getClusterMedoids().toString());
+        assertEquals("cost (sample size " + sampleSize + ")",
+          local.getCost(), remote.getCost(), 1e-8);
+      }
+    } finally {
+      for (int i = 0; i < engines.length; i++) {
+        if (engines[i] != null) {
+          UnicastRemoteObject.unexportObject(engines[i], true);
+        }
+        if (registries[i] != null) {
+          UnicastRemoteObject.unexportObject(registries[i], true);
+        }
+      }
+    }
+  }
+
+  /**
+   * Runs RemoteCLARANS from the command line, which builds it from the
+   * structure of the data and adds the instances with updateClusterer, and
+   * checks that the result is the model built from all instances at once.
+   */
+  public void testCommandLine() throws Exception {
+    TestInstances gen = new TestInstances();
+    gen.setNumInstances(150);
+    gen.setNumNominal(0);
+    gen.setNumNumeric(3);
+    gen.setClassIndex(TestInstances.NO_CLASS);
+    gen.setSeed(42);
+    Instances data = gen.generate();
+
+    File file = File.createTempFile("RemoteCLARANSTest", ".arff");
+    try {
+      DataSink.write(file.getAbsolutePath(), data);
+      String output = ClusterEvaluation.evaluateClusterer(new RemoteCLARANS(),
+        new String[] { "-t", file.getAbsolutePath() });
+
+      // the values as written to the file
+      RemoteCLARANS batch = new RemoteCLARANS();
+      batch.buildClusterer(DataSource.read(file.getAbsolutePath()));
+      assertTrue("model in the output:\n" + output,
+        output.contains(batch.toString()));
+    } finally {
+      file.delete();
+    }
+  }
+
+  public static Test suite() {
+    return new TestSuite(RemoteCLARANSTest.class);
+  }
+
+  public static void main(String[] args){
+    junit.textui.TestRunner.run(suite());
+  }
+}
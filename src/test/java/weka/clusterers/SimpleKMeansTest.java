@@ -21,6 +21,8 @@ package weka.clusterers;
 
 import weka.clusterers.AbstractClustererTest;
 import weka.clusterers.Clusterer;
+import weka.core.Instances;
+import weka.core.TestInstances;
 
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -44,6 +46,46 @@ public class SimpleKMeansTest
     return new SimpleKMeans();
   }
 
+  /**
+   * Tests that the triangle inequality bounds give the same clusters as a
+   * plain run, with one and several execution slots, while avoiding
+   * distance calculations.
+   */
+  public void testTriangleInequalityEqualsPlain() throws Exception {
+    TestInstances gen = new TestInstances();
+    gen.setNumInstances(1000);
+    gen.setNumNominal(0);
+    gen.setNumNumeric(4);
+    gen.setClassIndex(TestInstances.NO_CLASS);
+    gen.setSeed(42);
+    Instances data = gen.generate();
+
+    for (int slots : new int[] { 1, 4 }) {
+      SimpleKMeans plain = new SimpleKMeans();
+      plain.setNumClusters(5);
+      plain.setNumExecutionSlots(slots);
+      plain.buildClusterer(data);
+
+      SimpleKMeans bounded = new SimpleKMeans();
+      bounded.setOptions(plain.getOptions());
+      bounded.setUseTriangleInequality(true);
+      bounded.buildClusterer(data);
+
+      String label = " (" + slots + " slots)";
+      assertEquals("SSE" + label, plain.getSquaredError(),
+        bounded.getSquaredError(), 1e-8);
+      assertEquals("centroids" + label,
+        plain.getClusterCentroids().toString(),
+        bounded.getClusterCentroids().toString());
+      for (int j = 0; j < 5; j++) {
+        assertEquals("size of cluster " + j + label,
+          plain.getClusterSizes()[j], bounded.getClusterSizes()[j], 0);
+      }
+      assertTrue("distance calculations avoided" + label,
+        bounded.getNumDistanceCalcsAvoided() > 0);
+    }
+  }
+
   public static Test suite() {
     return new TestSuite(SimpleKMeansTest.class);
   }
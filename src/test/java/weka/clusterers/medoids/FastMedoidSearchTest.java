@@ -0,0 +1,160 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package weka.clusterers.medoids;
+
+import java.util.Random;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests FastMedoidSearch. Run from the command line with:<p/>
+ * java weka.clusterers.medoids.FastMedoidSearchTest
+ *
+ * @version $Revision$
+ */
+public class FastMedoidSearchTest
+  extends TestCase {
+
+  /**
+   * Constructs the <code>FastMedoidSearchTest</code>.
+   *
+   * @param name the name of the test class
+   */
+  public FastMedoidSearchTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Returns three well separated groups of three points on a line, for
+   * which the middle points are the optimal medoids.
+   *
+   * @return the distances between the points
+   */
+  protected PointDistance threeGroups() {
+    double[][] points = new double[9][];
+    for (int i = 0; i < points.length; i++) {
+      points[i] = new double[] { (i / 3) * 10 + (i % 3) - 1 };
+    }
+    return new NumericPointDistance(points, NumericPointDistance.EUCLIDEAN);
+  }
+
+  /**
+   * Returns random points in the plane.
+   *
+   * @return the distances between the points
+   */
+  protected PointDistance randomPoints() {
+    Random random = new Random(1);
+    double[][] points = new double[60][];
+    for (int i = 0; i < points.length; i++) {
+      points[i] = new double[] { random.nextDouble(), random.nextDouble() };
+    }
+    return new NumericPointDistance(points, NumericPointDistance.EUCLIDEAN);
+  }
+
+  /**
+   * Tests that the swap deltas of a candidate with all medoids are those of
+   * the individual swaps in the plain search.
+   */
+  public void testSwapDeltas() {
+    PointDistance distance = randomPoints();
+    int[] medoids = { 3, 17, 42, 55 };
+    FastMedoidSearch fast = new FastMedoidSearch(distance, medoids.length);
+    fast.setMedoids(medoids);
+    MedoidSearch plain = new MedoidSearch(distance, medoids.length);
+    plain.setMedoids(medoids);
+
+    for (int candidate : new int[] { 0, 8, 30, 59 }) {
+      double[] deltas = fast.swapDeltas(candidate).clone();
+      for (int slot = 0; slot < medoids.length; slot++) {
+        assertEquals("delta of candidate " + candidate + " for medoid "
+          + slot, plain.swapDelta(slot, candidate), deltas[slot], 1e-10);
+      }
+    }
+  }
+
+  /**
+   * Tests that a search at a local minimum gives up after maxNeighbor / k
+   * candidates in a row, rounded up, and that each candidate counts as k
+   * evaluations.
+   */
+  public void testGivesUpAfterMaxNeighborOverK() {
+    int[] medoids = { 1, 4, 7 };
+    for (int maxNeighbor : new int[] { 9, 10, 12 }) {
+      FastMedoidSearch search = new FastMedoidSearch(threeGroups(), 3);
+      search.setMedoids(medoids);
+      double cost = search.getCost();
+      search.localSearch(new Random(1), maxNeighbor);
+
+      int candidates = (maxNeighbor + 2) / 3;
+      assertEquals("evaluations (maxNeighbor " + maxNeighbor + ")",
+        candidates * 3, search.getNumEvaluations());
+      assertEquals("swaps (maxNeighbor " + maxNeighbor + ")", 0,
+        search.getNumSwaps());
+      assertEquals("cost (maxNeighbor " + maxNeighbor + ")", cost,
+        search.getCost(), 0);
+    }
+  }
+
+  /**
+   * Tests that each candidate uses up k evaluations of the budget: a budget
+   * that is a multiple of k allows exactly budget / k candidates, any other
+   * budget lets the last candidate overrun it by less than k.
+   */
+  public void testBudgetCountsKEvaluationsPerCandidate() {
+    int[] medoids = { 1, 4, 7 };
+    long[] budgets = { 6, 7 };
+    long[] expected = { 6, 9 };
+    for (int b = 0; b < budgets.length; b++) {
+      SearchBudget budget = new SearchBudget(0, budgets[b]);
+      FastMedoidSearch search = new FastMedoidSearch(threeGroups(), 3);
+      search.setMedoids(medoids);
+      search.setBudget(budget);
+      search.localSearch(new Random(1), 1000);
+
+      assertEquals("evaluations (budget " + budgets[b] + ")", expected[b],
+        search.getNumEvaluations());
+      assertTrue("exhausted (budget " + budgets[b] + ")",
+        budget.isExhausted());
+    }
+  }
+
+  /**
+   * Tests that a search from poor medoids finds the optimal ones.
+   */
+  public void testFindsOptimum() {
+    FastMedoidSearch search = new FastMedoidSearch(threeGroups(), 3);
+    search.setMedoids(new int[] { 0, 2, 3 });
+    search.localSearch(new Random(1), 1000);
+
+    // each group contributes distance 1 twice
+    assertEquals("cost", 6.0, search.getCost(), 1e-10);
+  }
+
+  public static Test suite() {
+    return new TestSuite(FastMedoidSearchTest.class);
+  }
+
+  public static void main(String[] args) {
+    junit.textui.TestRunner.run(suite());
+  }
+}
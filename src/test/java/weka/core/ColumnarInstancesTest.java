@@ -0,0 +1,283 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Copyright (C) 2026 University of Waikato, Hamilton, NZ
+ */
+
+package weka.core;
+
+import java.util.Random;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import junit.textui.TestRunner;
+
+/**
+ * Tests ColumnarInstances against Instances holding the same data. Run from
+ * the command line with:<p/>
+ * java weka.core.ColumnarInstancesTest
+ *
+ * @version $Revision$
+ */
+public class ColumnarInstancesTest
+  extends TestCase {
+
+  /** the data as plain Instances */
+  protected Instances m_Instances;
+
+  /** the same data as ColumnarInstances */
+  protected ColumnarInstances m_Columnar;
+
+  /**
+   * Constructs the <code>ColumnarInstancesTest</code>.
+   *
+   * @param name 	the name of the test
+   */
+  public ColumnarInstancesTest(String name) {
+    super(name);
+  }
+
+  /**
+   * Called by JUnit before each test method.
+   *
+   * @throws Exception 	if an error occurs
+   */
+  protected void setUp() throws Exception {
+    super.setUp();
+
+    TestInstances gen = new TestInstances();
+    gen.setNumInstances(60);
+    gen.setNumNominal(2);
+    gen.setNumNumeric(3);
+    gen.setClassType(Attribute.NOMINAL);
+    gen.setNumClasses(3);
+    gen.setSeed(42);
+    m_Instances = gen.generate();
+
+    Random random = new Random(1);
+    for (int i = 0; i < m_Instances.numInstances(); i++) {
+      Instance inst = m_Instances.instance(i);
+      inst.setWeight(1 + random.nextInt(3));
+      if (random.nextInt(10) == 0) {
+        inst.setMissing(random.nextInt(m_Instances.numAttributes()));
+      }
+    }
+    m_Columnar = new ColumnarInstances(m_Instances);
+  }
+
+  /**
+   * Called by JUnit after each test method.
+   *
+   * @throws Exception 	if an error occurs
+   */
+  protected void tearDown() throws Exception {
+    m_Instances = null;
+    m_Columnar = null;
+
+    super.tearDown();
+  }
+
+  /**
+   * Returns the test suite.
+   *
+   * @return		the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(ColumnarInstancesTest.class);
+  }
+
+  /**
+   * Checks that two sets hold the same instances, with the same weights, in
+   * the same order.
+   *
+   * @param msg		the message to use
+   * @param expected	the expected set
+   * @param actual	the set to check
+   */
+  protected void assertSameInstances(String msg, Instances expected,
+    Instances actual) {
+
+    assertEquals(msg + ": header", null, expected.equalHeadersMsg(actual));
+    assertEquals(msg + ": number of instances", expected.numInstances(),
+      actual.numInstances());
+    for (int i = 0; i < expected.numInstances(); i++) {
+      assertEquals(msg + ": instance " + i, expected.instance(i).toString(),
+        actual.instance(i).toString());
+    }
+  }
+
+  /**
+   * Tests randomize() and stratify().
+   */
+  public void testRandomizeAndStratify() {
+    m_Instances.randomize(new Random(3));
+    m_Columnar.randomize(new Random(3));
+    assertSameInstances("randomize", m_Instances, m_Columnar);
+
+    m_Instances.stratify(5);
+    m_Columnar.stratify(5);
+    assertSameInstances("stratify", m_Instances, m_Columnar);
+  }
+
+  /**
+   * Tests trainCV() and testCV().
+   */
+  public void testCrossValidationFolds() {
+    for (int fold = 0; fold < 4; fold++) {
+      assertSameInstances("trainCV " + fold,
+        m_Instances.trainCV(4, fold, new Random(fold)),
+        m_Columnar.trainCV(4, fold, new Random(fold)));
+      assertSameInstances("testCV " + fold, m_Instances.testCV(4, fold),
+        m_Columnar.testCV(4, fold));
+    }
+  }
+
+  /**
+   * Tests sort() and stableSort() on nominal and numeric attributes.
+   */
+  public void testSort() {
+    for (int j = 0; j < m_Instances.numAttributes(); j++) {
+      m_Instances.sort(j);
+      m_Columnar.sort(j);
+      assertSameInstances("sort on " + j, m_Instances, m_Columnar);
+
+      m_Instances.stableSort(j);
+      m_Columnar.stableSort(j);
+      assertSameInstances("stable sort on " + j, m_Instances, m_Columnar);
+    }
+  }
+
+  /**
+   * Tests attributeStats(), kthSmallestValue() and the other attribute-wise
+   * statistics, after reordering so that the rows are not stored in order.
+   */
+  public void testAttributeStatistics() {
+    m_Instances.randomize(new Random(5));
+    m_Columnar.randomize(new Random(5));
+
+    for (int j = 0; j < m_Instances.numAttributes(); j++) {
+      assertEquals("attributeStats of " + j,
+        m_Instances.attributeStats(j).toString(),
+        m_Columnar.attributeStats(j).toString());
+      assertEquals("numDistinctValues of " + j,
+        m_Instances.numDistinctValues(j), m_Columnar.numDistinctValues(j));
+      assertEquals("meanOrMode of " + j, m_Instances.meanOrMode(j),
+        m_Columnar.meanOrMode(j), 0.0);
+      if (m_Instances.attribute(j).isNumeric()) {
+        assertEquals("variance of " + j, m_Instances.variance(j),
+          m_Columnar.variance(j), 1e-12);
+        for (int k = 1; k <= m_Instances.numInstances(); k += 7) {
+          assertEquals("kthSmallestValue " + k + " of " + j,
+            m_Instances.kthSmallestValue(j, k),
+            m_Columnar.kthSmallestValue(j, k), 0.0);
+        }
+      }
+    }
+    assertEquals("sumOfWeights", m_Instances.sumOfWeights(),
+      m_Columnar.sumOfWeights(), 0.0);
+  }
+
+  /**
+   * Tests deleting and inserting instances and attributes.
+   */
+  public void testDeleteAndInsert() {
+    for (int i : new int[] { 0, 17, 30, 53 }) {
+      m_Instances.delete(i);
+      m_Columnar.delete(i);
+    }
+    assertSameInstances("delete(int)", m_Instances, m_Columnar);
+
+    m_Instances.add(5, (Instance) m_Instances.instance(20).copy());
+    m_Columnar.add(5, m_Columnar.instance(20));
+    assertSameInstances("add(int, Instance)", m_Instances, m_Columnar);
+
+    m_Instances.deleteWithMissing(1);
+    m_Columnar.deleteWithMissing(1);
+    assertSameInstances("deleteWithMissing", m_Instances, m_Columnar);
+
+    m_Instances.insertAttributeAt(new Attribute("inserted"), 2);
+    m_Columnar.insertAttributeAt(new Attribute("inserted"), 2);
+    assertSameInstances("insertAttributeAt", m_Instances, m_Columnar);
+
+    m_Instances.deleteAttributeAt(0);
+    m_Columnar.deleteAttributeAt(0);
+    assertSameInstances("deleteAttributeAt", m_Instances, m_Columnar);
+
+    m_Instances.delete();
+    m_Columnar.delete();
+    assertSameInstances("delete()", m_Instances, m_Columnar);
+  }
+
+  /**
+   * Tests that a view keeps standing for its row, like an instance of
+   * Instances does, when the set is reordered or changed, and that setting
+   * its weight changes the set.
+   */
+  public void testViewsKeepTheirRow() {
+    Instance plain = m_Instances.instance(10);
+    Instance view = m_Columnar.instance(10);
+    String expected = plain.toString();
+    assertEquals(expected, view.toString());
+
+    m_Columnar.randomize(new Random(7));
+    m_Columnar.sort(3);
+    m_Columnar.delete(0);
+    m_Columnar.add(0, m_Columnar.instance(5));
+    m_Columnar.set(m_Columnar.numInstances() - 1, m_Columnar.instance(0));
+    assertEquals("view after reordering", expected, view.toString());
+
+    Instance other = m_Columnar.instance(2);
+    double sumOfWeights = m_Columnar.sumOfWeights();
+    other.setWeight(other.weight() + 10);
+    other.setValue(3, 0.5);
+    assertEquals("weight set through a view", sumOfWeights + 10,
+      m_Columnar.sumOfWeights(), 1e-12);
+    assertEquals("value set through a view", 0.5,
+      m_Columnar.instance(2).value(3), 0.0);
+  }
+
+  /**
+   * Tests that a serialized set and a serialized view deserialize to the same
+   * data.
+   *
+   * @throws Exception 	if an error occurs
+   */
+  public void testSerialization() throws Exception {
+    m_Columnar.randomize(new Random(9));
+    m_Columnar.delete(3);
+    m_Instances.randomize(new Random(9));
+    m_Instances.delete(3);
+
+    Instances copy = (Instances) new SerializedObject(m_Columnar).getObject();
+    assertTrue("class of copy", copy instanceof ColumnarInstances);
+    assertSameInstances("serialized set", m_Instances, copy);
+
+    Instance inst = (Instance) new SerializedObject(m_Columnar.instance(4))
+      .getObject();
+    assertEquals("serialized view", m_Instances.instance(4).toString(),
+      inst.toString());
+  }
+
+  /**
+   * Runs the test from the command line.
+   *
+   * @param args 	ignored
+   */
+  public static void main(String[] args) {
+    TestRunner.run(suite());
+  }
+}
@@ -19,8 +19,13 @@
 
 package weka.core.converters;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import weka.core.Instances;
 
 /**
  * Tests ArffLoader/ArffSaver. Run from the command line with:<p/>
@@ -59,6 +64,195 @@ public class ArffTest
     return new ArffSaver();
   }
 
+  /**
+   * Loads a file in batch mode.
+   * 
+   * @param filename the file to load
+   * @param fast whether to use the fast parser
+   * @return the data
+   * @throws Exception if loading fails
+   */
+  protected Instances load(String filename, boolean fast) throws Exception {
+    ArffLoader loader = new ArffLoader();
+    loader.setUseFastParser(fast);
+    loader.setFile(new File(filename));
+    return loader.getDataSet();
+  }
+
+  /**
+   * Writes the given text to the export file.
+   * 
+   * @param text the content of the file
+   * @throws Exception if writing fails
+   */
+  protected void writeExportFile(String text) throws Exception {
+    BufferedWriter writer = new BufferedWriter(new FileWriter(m_ExportFilename));
+    writer.write(text);
+    writer.close();
+  }
+
+  /**
+   * tests that the fast parser reads the same data as the tokenizer.
+   */
+  public void testFastParser() {
+    try {
+      Instances data = load(m_SourceFilename, true);
+      if (m_Instances.classIndex() != data.classIndex()) {
+        data.setClassIndex(m_Instances.classIndex());
+      }
+      compareDatasets(m_Instances, data);
+      assertEquals(load(m_SourceFilename, false).toString(), data.toString());
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Fast parser failed: " + e.toString());
+    }
+  }
+
+  /**
+   * tests the fast parser on quoting, escapes, comments, line ends, sparse
+   * instances, weights and numbers that the fast number parsing hands on.
+   */
+  public void testFastParserSyntax() {
+    String text = "% comment\r\n"
+      + "@relation test\r\n"
+      + "@attribute num numeric\r\n"
+      + "@attribute nom {a, 'b c', 'd\\'e', \"?\"}\r\n"
+      + "@attribute str string\r\n"
+      + "@attribute dat date yyyy-MM-dd\r\n"
+      + "@DATA % data follows\r\n"
+      + "1.5,a,x,2001-02-03\r\n"
+      + "\r\n"
+      + "  % a comment line\n"
+      + "-0, 'b c' , 'tab\\there', ?\r"
+      + "1e3,'d\\'e',\"q\\101\\n\",2001-02-03 , {2.5}\n"
+      + ".5,'?',?,?\n"
+      + "12345678901234567890,a,'%',?\n"
+      + "{0 7.25e-3, 2 'y z'} % sparse\n"
+      + "{1 'b c'},{0.5}\n"
+      + "{}\n"
+      + "-1.7976931348623157E308,?,'',2001-02-03";
+    try {
+      writeExportFile(text);
+      Instances fast = load(m_ExportFilename, true);
+      Instances slow = load(m_ExportFilename, false);
+      assertEquals(slow.numInstances(), fast.numInstances());
+      assertEquals(slow.toString(), fast.toString());
+      for (int i = 0; i < slow.numInstances(); i++) {
+        for (int j = 0; j < slow.numAttributes(); j++) {
+          assertEquals(Double.doubleToLongBits(slow.instance(i).value(j)),
+            Double.doubleToLongBits(fast.instance(i).value(j)));
+        }
+        assertEquals(slow.instance(i).weight(), fast.instance(i).weight(), 0);
+      }
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Fast parser failed: " + e.toString());
+    }
+  }
+
+  /**
+   * tests that the fast parser rejects malformed data.
+   */
+  public void testFastParserErrors() {
+    String header = "@relation test\n"
+      + "@attribute num numeric\n"
+      + "@attribute nom {a, b}\n"
+      + "@data\n";
+    String[] data = { "x,a", "1,c", "1", "1,a,2", "{1 a, 0 1}", "{2 a}",
+      "1,a,{x}" };
+    for (String line : data) {
+      try {
+        writeExportFile(header + "1,b\n" + line + "\n");
+        load(m_ExportFilename, true);
+        fail("Malformed data accepted: " + line);
+      } catch (Exception e) {
+        assertTrue(e.getMessage(), e.getMessage().endsWith("line 6"));
+      }
+    }
+  }
+
+  /**
+   * Writes a file large enough to be split into several chunks.
+   * 
+   * @param badLine the line to give an undeclared label, -1 for none
+   * @throws Exception if writing fails
+   */
+  protected void writeLargeFile(int badLine) throws Exception {
+    StringBuilder text = new StringBuilder();
+    text.append("@relation large\n" + "@attribute num numeric\n"
+      + "@attribute nom {red, green, blue}\n"
+      + "@attribute date date yyyy-MM-dd\n" + "@data\n");
+    for (int i = 6; i < 100000; i++) {
+      if (i == badLine) {
+        text.append("1,purple,?\n");
+      } else if (i % 10 == 0) {
+        text.append("{0 " + (i * 0.25) + ", 1 blue}\n");
+      } else {
+        text.append((i * 0.5) + "," + "red,green,blue".split(",")[i % 3]
+          + ",2020-01-" + (10 + i % 19) + ((i % 7 == 0) ? ",{2}" : "")
+          + ((i % 5 == 0) ? "\r\n" : "\n"));
+      }
+    }
+    writeExportFile(text.toString());
+  }
+
+  /**
+   * Loads a file with the fast parser.
+   * 
+   * @param filename the file to load
+   * @param slots the number of execution slots
+   * @return the data
+   * @throws Exception if loading fails
+   */
+  protected Instances load(String filename, int slots) throws Exception {
+    ArffLoader loader = new ArffLoader();
+    loader.setUseFastParser(true);
+    loader.setNumExecutionSlots(slots);
+    loader.setFile(new File(filename));
+    return loader.getDataSet();
+  }
+
+  /**
+   * tests that reading chunks in parallel gives the same data as reading
+   * the file in one go.
+   */
+  public void testParallel() {
+    try {
+      writeLargeFile(-1);
+      assertEquals(load(m_ExportFilename, false).toString(),
+        load(m_ExportFilename, 4).toString());
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Parallel load failed: " + e.toString());
+    }
+  }
+
+  /**
+   * tests that errors are reported with the same line when reading chunks in
+   * parallel.
+   */
+  public void testParallelErrors() {
+    String serial = null;
+    String parallel = null;
+    try {
+      writeLargeFile(90000);
+      try {
+        load(m_ExportFilename, 1);
+      } catch (Exception e) {
+        serial = e.getMessage();
+      }
+      try {
+        load(m_ExportFilename, 4);
+      } catch (Exception e) {
+        parallel = e.getMessage();
+      }
+    } catch (Exception e) {
+      fail("Writing file failed: " + e.toString());
+    }
+    assertTrue(serial, serial.endsWith("line 90000"));
+    assertEquals(serial, parallel);
+  }
+
   /**
    * returns a test suite
    * 
@@ -0,0 +1,95 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package weka.core.converters;
+
+import weka.core.TestInstances;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests BinaryColumnLoader/BinaryColumnSaver. Run from the command line with:<p/>
+ * java weka.core.converters.BinaryColumnTest
+ *
+ * @version $Revision$
+ */
+public class BinaryColumnTest 
+  extends AbstractFileConverterTest {
+
+  /**
+   * Constructs the <code>BinaryColumnTest</code>.
+   *
+   * @param name the name of the test class
+   */
+  public BinaryColumnTest(String name) { 
+    super(name);  
+  }
+
+  /**
+   * returns the loader used in the tests.
+   * 
+   * @return the configured loader
+   */
+  public AbstractLoader getLoader() {
+    return new BinaryColumnLoader();
+  }
+
+  /**
+   * returns the saver used in the tests.
+   * 
+   * @return the configured saver
+   */
+  public AbstractSaver getSaver() {
+    return new BinaryColumnSaver();
+  }
+
+  /**
+   * returns the test data generator, with numeric and date attributes next
+   * to the nominal ones.
+   * 
+   * @return 	the configured test data generator
+   */
+  protected TestInstances getTestInstances() {
+    TestInstances result = TestInstances.forCapabilities(
+      new BinaryColumnSaver().getCapabilities());
+    result.setNumNumeric(2);
+    result.setNumDate(1);
+    result.setNumInstances(37);
+    return result;
+  }
+
+  /**
+   * returns a test suite.
+   * 
+   * @return the test suite
+   */
+  public static Test suite() {
+    return new TestSuite(BinaryColumnTest.class);
+  }
+
+  /**
+   * for running the test from commandline.
+   * 
+   * @param args the commandline arguments - ignored
+   */
+  public static void main(String[] args){
+    junit.textui.TestRunner.run(suite());
+  }
+}
@@ -19,8 +19,13 @@
 
 package weka.core.converters;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+
 import junit.framework.Test;
 import junit.framework.TestSuite;
+import weka.core.Instances;
 
 /**
  * Tests CSVLoader/CSVSaver. Run from the command line with:<p/>
@@ -72,6 +77,100 @@ public class CSVTest
     m_CompareValuesAsString = true;
   }
 
+  /**
+   * Writes a file large enough to be split into several chunks. Its third
+   * column is nominal in the first half and starts with numbers in the second
+   * half, and its fourth column turns from numeric to string near the end.
+   * 
+   * @param badRow the row to give an extra value, -1 for none
+   * @throws Exception if writing fails
+   */
+  protected void writeLargeFile(int badRow) throws Exception {
+    int numRows = 100000;
+    BufferedWriter writer = new BufferedWriter(new FileWriter(m_ExportFilename));
+    writer.write("num,nom,late,mixed,str,date\n");
+    for (int i = 0; i < numRows; i++) {
+      String late;
+      if (i < 200) {
+        late = "?";
+      } else if (i < numRows / 2) {
+        late = (i % 2 == 0) ? "a" : "b";
+      } else {
+        late = (i < numRows / 2 + 1000) ? "" + (i % 7) : "c";
+      }
+      writer.write((i * 0.5) + ","
+        + ((i < numRows - 5) ? "red,green,blue".split(",")[i % 3] : "purple")
+        + "," + late + "," + ((i == numRows - 10) ? "text" : "" + (i % 13))
+        + ",'s " + (i % 1000) + "',2020-01-" + (10 + i % 19)
+        + ((i == badRow) ? ",1" : "") + "\n");
+    }
+    writer.close();
+  }
+
+  /**
+   * Loads the large file in batch mode.
+   * 
+   * @param slots the number of execution slots
+   * @return the data
+   * @throws Exception if loading fails
+   */
+  protected Instances loadLargeFile(int slots) throws Exception {
+    CSVLoader loader = new CSVLoader();
+    loader.setStringAttributes("5");
+    loader.setDateAttributes("last");
+    loader.setDateFormat("yyyy-MM-dd");
+    loader.setNumExecutionSlots(slots);
+    loader.setFile(new File(m_ExportFilename));
+    return loader.getDataSet();
+  }
+
+  /**
+   * tests that reading chunks in parallel gives the same data as reading
+   * the file in one go.
+   */
+  public void testParallel() {
+    try {
+      writeLargeFile(-1);
+      Instances serial = loadLargeFile(1);
+      Instances parallel = loadLargeFile(4);
+      assertTrue(serial.attribute(2).isNominal());
+      assertTrue(serial.attribute(3).isString());
+      assertEquals(serial.toString(), parallel.toString());
+    } catch (Exception e) {
+      e.printStackTrace();
+      fail("Parallel load failed: " + e.toString());
+    }
+  }
+
+  /**
+   * tests that errors are reported with the same line when reading chunks in
+   * parallel.
+   */
+  public void testParallelErrors() {
+    String serial = null;
+    String parallel = null;
+    try {
+      writeLargeFile(90000);
+      try {
+        loadLargeFile(1);
+      } catch (Exception e) {
+        serial = e.getMessage();
+      }
+      try {
+        loadLargeFile(4);
+      } catch (Exception e) {
+        parallel = e.getMessage();
+      }
+    } catch (Exception e) {
+      fail("Writing file failed: " + e.toString());
+    }
+    // the JIT may drop the message of an exception thrown repeatedly
+    assertNotNull(serial);
+    assertNotNull(parallel);
+    assertEquals(serial.substring(serial.indexOf("Problem encountered")),
+      parallel.substring(parallel.indexOf("Problem encountered")));
+  }
+
   /**
    * returns a test suite.
    * 
@@ -0,0 +1,123 @@
+/*
+ *   This program is free software: you can redistribute it and/or modify
+ *   it under the terms of the GNU General Public License as published by
+ *   the Free Software Foundation, either version 3 of the License, or
+ *   (at your option) any later version.
+ *
+ *   This program is distributed in the hope that it will be useful,
+ *   but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *   MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *   GNU General Public License for more details.
+ *
+ *   You should have received a copy of the GNU General Public License
+ *   along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Copyright (C) 2026 University of Waikato, Hamilton, New Zealand
+ */
+
+package weka.filters.unsupervised.instance;
+
+import weka.core.Attribute;
+import weka.core.EuclideanDistance;
+import weka.core.FloatDenseInstance;
+import weka.core.FloatSparseInstance;
+import weka.core.Instances;
+import weka.core.SparseInstance;
+import weka.filters.AbstractFilterTest;
+import weka.filters.Filter;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests SinglePrecision. Run from the command line with:<p>
+ * java weka.filters.unsupervised.instance.SinglePrecisionTest
+ *
+ * @version $Revision$
+ */
+public class SinglePrecisionTest extends AbstractFilterTest {
+  
+  public SinglePrecisionTest(String name) { super(name);  }
+
+  /** Need to remove the date attribute, which is not supported */
+  protected void setUp() throws Exception {
+    super.setUp();
+    m_Instances.deleteAttributeType(Attribute.DATE);
+  }
+
+  /** Removes the date attributes from the FilteredClassifier data */
+  protected Instances getFilteredClassifierData() throws Exception {
+    Instances result = super.getFilteredClassifierData();
+    result.deleteAttributeType(Attribute.DATE);
+    return result;
+  }
+
+  /** Creates an example SinglePrecision */
+  public Filter getFilter() {
+    return new SinglePrecision();
+  }
+
+  public void testTypical() {
+    Instances result = useFilter();
+    // Number of attributes and instances shouldn't change
+    assertEquals(m_Instances.numAttributes(), result.numAttributes());
+    assertEquals(m_Instances.numInstances(),  result.numInstances());
+    // Values should be the originals rounded to floats
+    for (int i = 0; i < result.numInstances(); i++) {
+      if (m_Instances.instance(i) instanceof SparseInstance) {
+        assertTrue("Instance should be an instanceof FloatSparseInstance:" + (i + 1),
+               result.instance(i) instanceof FloatSparseInstance);
+      } else {
+        assertTrue("Instance should be an instanceof FloatDenseInstance:" + (i + 1),
+               result.instance(i) instanceof FloatDenseInstance);
+      }
+      for (int j = 0; j < result.numAttributes(); j++) {
+        if (!result.attribute(j).isString()) {
+          assertEquals((float) m_Instances.instance(i).value(j),
+            result.instance(i).value(j), 0);
+        }
+      }
+    }
+  }
+
+  public void testSparse() {
+    m_Filter = new NonSparseToSparse();
+    Instances sparse = useFilter();
+    m_Filter = getFilter();
+    m_Instances = sparse;
+    Instances result = useFilter();
+    for (int i = 0; i < result.numInstances(); i++) {
+      assertTrue("Instance should be an instanceof FloatSparseInstance:" + (i + 1),
+             result.instance(i) instanceof FloatSparseInstance);
+      assertEquals(sparse.instance(i).numValues(), result.instance(i).numValues());
+      // converting back must keep the values
+      SparseInstance back = new SparseInstance(result.instance(i));
+      back.setDataset(result);
+      assertEquals(result.instance(i).toString(), back.toString());
+    }
+  }
+
+  public void testDistance() {
+    m_Instances.deleteAttributeType(Attribute.STRING);
+    Instances result = useFilter();
+    EuclideanDistance original = new EuclideanDistance(m_Instances);
+    EuclideanDistance single = new EuclideanDistance(result);
+    for (int i = 0; i < result.numInstances(); i++) {
+      for (int j = 0; j < result.numInstances(); j++) {
+        assertEquals(original.distance(m_Instances.instance(i),
+          m_Instances.instance(j)), single.distance(result.instance(i),
+          result.instance(j)), 1e-5);
+      }
+    }
+  }
+
+  public static Test suite() {
+    return new TestSuite(SinglePrecisionTest.class);
+  }
+
+  public static void main(String[] args){
+    junit.textui.TestRunner.run(suite());
+  }
+}